@@ -0,0 +1,76 @@
+package si.fri.prpo.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import si.fri.prpo.bookingservice.dto.BookingResponse;
+import si.fri.prpo.bookingservice.entity.Booking;
+import si.fri.prpo.bookingservice.entity.Booking.BookingStatus;
+import si.fri.prpo.bookingservice.service.BookingRules;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pravila, ki jih izvede vsako ustvarjanje rezervacije (BookingRules): validacija časa, izračun
+ * cene in preslikava entitete v odgovor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingRulesBenchmark {
+
+    private final BookingRules bookingRules = new BookingRules();
+
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private BigDecimal pricePerHour;
+    private Booking booking;
+
+    @Setup
+    public void setUp() {
+        start = LocalDateTime.now().plusDays(7).truncatedTo(ChronoUnit.HOURS);
+        end = start.plusHours(2);
+        pricePerHour = new BigDecimal("22.50");
+        booking = Booking.builder()
+                .id(42L)
+                .userId(7L)
+                .facilityId(3L)
+                .startTime(start)
+                .endTime(end)
+                .status(BookingStatus.CONFIRMED)
+                .totalPrice(new BigDecimal("45.00"))
+                .notes("Tenis, igrišče 3")
+                .createdAt(start.minusDays(7))
+                .updatedAt(start.minusDays(6))
+                .build();
+    }
+
+    @Benchmark
+    public LocalDateTime validateBookingTime() {
+        bookingRules.validateBookingTime(start, end);
+        return start;
+    }
+
+    @Benchmark
+    public BigDecimal calculatePrice() {
+        return bookingRules.calculatePrice(start, end, pricePerHour);
+    }
+
+    @Benchmark
+    public BookingResponse mapToResponse() {
+        return bookingRules.mapToResponse(booking);
+    }
+}
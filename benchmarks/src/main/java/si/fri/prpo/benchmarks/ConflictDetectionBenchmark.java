@@ -0,0 +1,127 @@
+package si.fri.prpo.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import si.fri.prpo.bookingservice.repository.BookingInterval;
+import si.fri.prpo.bookingservice.repository.BookingRepository;
+import si.fri.prpo.bookingservice.service.FacilityIntervalIndex;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Preverjanje prekrivanja z N obstoječimi rezervacijami objekta: FacilityIntervalIndex (binarno
+ * iskanje po posnetku, brez baze) proti linearnemu pregledu vseh intervalov, kar je delo, ki ga
+ * brez indeksa opravi poizvedba existsConflictingBooking.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConflictDetectionBenchmark {
+
+    private static final long FACILITY_ID = 1L;
+    private static final int PROBES = 1024;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int intervals;
+
+    private List<BookingInterval> existing;
+    private FacilityIntervalIndex index;
+    private LocalDateTime[] probeStarts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Enourne rezervacije z enournim presledkom: polovica poskusov zadene zaseden termin
+        LocalDateTime base = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        existing = new ArrayList<>(intervals);
+        for (int i = 0; i < intervals; i++) {
+            LocalDateTime start = base.plusHours(2L * i);
+            existing.add(new Interval((long) i + 1, FACILITY_ID, start, start.plusHours(1)));
+        }
+
+        BookingRepository repository = (BookingRepository) Proxy.newProxyInstance(
+                BookingRepository.class.getClassLoader(),
+                new Class<?>[]{BookingRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findActiveIntervals")) {
+                        return existing;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        index = new FacilityIntervalIndex(repository, new SimpleMeterRegistry(), true, false);
+        index.load();
+
+        Random random = new Random(42);
+        probeStarts = new LocalDateTime[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probeStarts[i] = base.plusHours(random.nextInt(2 * intervals));
+        }
+    }
+
+    @Benchmark
+    public boolean intervalIndex() {
+        LocalDateTime start = nextProbe();
+        return index.hasConflict(FACILITY_ID, start, start.plusHours(1));
+    }
+
+    @Benchmark
+    public boolean linearScan() {
+        LocalDateTime start = nextProbe();
+        LocalDateTime end = start.plusHours(1);
+        for (BookingInterval interval : existing) {
+            if (interval.getStartTime().isBefore(end) && interval.getEndTime().isAfter(start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private LocalDateTime nextProbe() {
+        next = (next + 1) & (PROBES - 1);
+        return probeStarts[next];
+    }
+
+    private record Interval(Long id, Long facilityId, LocalDateTime startTime, LocalDateTime endTime)
+            implements BookingInterval {
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getFacilityId() {
+            return facilityId;
+        }
+
+        @Override
+        public LocalDateTime getStartTime() {
+            return startTime;
+        }
+
+        @Override
+        public LocalDateTime getEndTime() {
+            return endTime;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package si.fri.prpo.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import si.fri.prpo.bookingservice.dto.BookingResponse;
+import si.fri.prpo.bookingservice.entity.Booking.BookingStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializacija seznama rezervacij (odgovor /api/bookings/my*) z ObjectMapperjem, nastavljenim
+ * kot v Spring Boot (JavaTimeModule, datumi kot ISO nizi).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"20", "100", "1000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<BookingResponse> bookings;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        bookings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LocalDateTime start = base.plusHours(i);
+            bookings.add(BookingResponse.builder()
+                    .id((long) i + 1)
+                    .userId(7L)
+                    .facilityId((long) (i % 12) + 1)
+                    .startTime(start)
+                    .endTime(start.plusHours(1))
+                    .status(i % 3 == 0 ? BookingStatus.CONFIRMED : BookingStatus.PENDING)
+                    .totalPrice(new BigDecimal("15.00"))
+                    .notes(i % 4 == 0 ? "Rezervacija za trening" : null)
+                    .createdAt(base.minusDays(3))
+                    .updatedAt(base.minusDays(2))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] writeBookingList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookings);
+    }
+}
@@ -150,18 +150,35 @@ export async function fetchFacilities(): Promise<Facility[]> {
   return (await res.json()) as Facility[];
 }
 
+export type BookingPage = {
+  items: Booking[];
+  nextCursor: string | null;
+};
+
 export async function fetchMyBookings(userId: number): Promise<Booking[]> {
-  const res = await fetch(`${BOOKING_API_BASE}/my`, {
-    headers: {
-      "X-User-Id": String(userId),
-    },
-  });
-  if (!res.ok) {
-    throw new Error(
-      (await res.text()) || `Failed to load bookings (${res.status})`
-    );
-  }
-  return (await res.json()) as Booking[];
+  // Seznam je stranjen (keyset); preberemo vse strani po nextCursor
+  const bookings: Booking[] = [];
+  let cursor: string | null = null;
+  do {
+    const query = new URLSearchParams({ size: "100" });
+    if (cursor) {
+      query.set("cursor", cursor);
+    }
+    const res = await fetch(`${BOOKING_API_BASE}/my?${query}`, {
+      headers: {
+        "X-User-Id": String(userId),
+      },
+    });
+    if (!res.ok) {
+      throw new Error(
+        (await res.text()) || `Failed to load bookings (${res.status})`
+      );
+    }
+    const page = (await res.json()) as BookingPage;
+    bookings.push(...page.items);
+    cursor = page.nextCursor;
+  } while (cursor);
+  return bookings;
 }
 
 export async function createBooking(
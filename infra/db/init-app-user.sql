@@ -5,6 +5,9 @@ BEGIN
     END IF;
 END $$;
 
+-- booking-service exclusion constraint (V3) needs btree_gist; booking_app cannot create extensions
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
 GRANT CONNECT ON DATABASE booking_system TO booking_app;
 GRANT USAGE ON SCHEMA public TO booking_app;
 GRANT CREATE ON SCHEMA public TO booking_app;
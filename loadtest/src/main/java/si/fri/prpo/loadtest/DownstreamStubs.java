@@ -0,0 +1,131 @@
+package si.fri.prpo.loadtest;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import si.fri.prpo.loadtest.LoadTestOptions.StubBehaviour;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Simulirani payment-, calendar-, notification-, facility- in auth-service na enem Reactor Netty
+ * strežniku v istem procesu. Vsaka storitev odgovori z nastavljeno zakasnitvijo in deležem napak
+ * (503), ki ju booking-service vidi kot počasno ali nedosegljivo storitev; zakasnitev ne zasede niti.
+ */
+final class DownstreamStubs implements AutoCloseable {
+
+    private final Map<String, StubBehaviour> behaviours;
+    private final int facilities;
+    private final Map<String, LongAdder> calls = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final DisposableServer server;
+
+    DownstreamStubs(Map<String, StubBehaviour> behaviours, int facilities) {
+        this.behaviours = Map.copyOf(behaviours);
+        this.facilities = facilities;
+        this.server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes
+                        .get("/api/facilities", (request, response) ->
+                                respond("facility", request, response, () -> facilityList(LongStream.rangeClosed(1, facilities))))
+                        .get("/api/facilities/batch", (request, response) ->
+                                respond("facility", request, response, () -> facilityList(ids(request).stream().mapToLong(Long::longValue))))
+                        .get("/api/facilities/{id}", (request, response) ->
+                                respond("facility", request, response, () -> facility(Long.parseLong(request.param("id")))))
+                        .get("/internal/users", (request, response) ->
+                                respond("auth", request, response, () -> ids(request).stream()
+                                        .map(id -> "{\"id\":" + id + ",\"username\":\"user" + id
+                                                + "\",\"email\":\"user" + id + "@loadtest.local\"}")
+                                        .collect(Collectors.joining(",", "[", "]"))))
+                        .post("/api/payments/checkout", (request, response) ->
+                                respond("payment", request, response, () -> {
+                                    long id = ids.incrementAndGet();
+                                    return "{\"id\":" + id + ",\"sessionId\":\"cs_load_" + id + "\",\"status\":\"PENDING\"}";
+                                }))
+                        .post("/api/payments/mock/{sessionId}/complete", (request, response) ->
+                                respond("payment", request, response, () -> null))
+                        .post("/api/calendar/events", (request, response) ->
+                                respond("calendar", request, response, () -> "{\"id\":" + ids.incrementAndGet() + ",\"status\":\"ACTIVE\"}"))
+                        .post("/api/calendar/events/{id}/cancel", (request, response) ->
+                                respond("calendar", request, response, () -> null))
+                        .post("/api/notifications", (request, response) ->
+                                respond("notification", request, response, () -> "{\"id\":" + ids.incrementAndGet() + ",\"status\":\"SENT\"}")))
+                .bindNow();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.port();
+    }
+
+    /** Klici posamezne storitve od zagona (vključno z napakami). */
+    long calls(String service) {
+        return calls.getOrDefault(service, new LongAdder()).sum();
+    }
+
+    long failures(String service) {
+        return failures.getOrDefault(service, new LongAdder()).sum();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private Publisher<Void> respond(String service, HttpServerRequest request, HttpServerResponse response,
+                                    Supplier<String> body) {
+        StubBehaviour behaviour = behaviours.get(service);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double delayMillis = behaviour.latencyMillis() - Math.log(1 - random.nextDouble()) * behaviour.jitterMillis();
+        boolean fail = random.nextDouble() < behaviour.errorRate();
+        calls.computeIfAbsent(service, key -> new LongAdder()).increment();
+
+        return request.receive().then(Mono.delay(Duration.ofNanos((long) (delayMillis * 1_000_000))))
+                .then(Mono.defer(() -> {
+                    if (fail) {
+                        failures.computeIfAbsent(service, key -> new LongAdder()).increment();
+                        return response.status(HttpResponseStatus.SERVICE_UNAVAILABLE).send().then();
+                    }
+                    String json = body.get();
+                    if (json == null) {
+                        return response.status(HttpResponseStatus.OK).send().then();
+                    }
+                    return response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                            .sendString(Mono.just(json)).then();
+                }));
+    }
+
+    private String facilityList(LongStream facilityIds) {
+        return facilityIds.filter(id -> id >= 1 && id <= facilities)
+                .mapToObj(this::facility)
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private String facility(long id) {
+        return "{\"id\":" + id + ",\"name\":\"Igrišče " + id + "\",\"type\":\"TENNIS\",\"address\":\"Večna pot " + id
+                + "\",\"pricePerHour\":" + (10 + (id % 5) * 5) + ",\"available\":true}";
+    }
+
+    private static List<Long> ids(HttpServerRequest request) {
+        return new QueryStringDecoder(request.uri()).parameters().getOrDefault("ids", List.of()).stream()
+                .flatMap(value -> List.of(value.split(",")).stream())
+                .map(Long::parseLong)
+                .toList();
+    }
+}
@@ -0,0 +1,41 @@
+package si.fri.prpo.loadtest;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Zipfova porazdelitev po objektih: objekt z rangom k (1 = najbolj vroče igrišče) je izbran
+ * z verjetnostjo, sorazmerno 1 / k^s. Vzorčenje z binarnim iskanjem po kumulativni porazdelitvi.
+ */
+final class FacilitySkew {
+
+    private final double[] cumulative;
+
+    FacilitySkew(int facilities, double exponent) {
+        if (facilities < 1) {
+            throw new IllegalArgumentException("At least one facility is required");
+        }
+        cumulative = new double[facilities];
+        double sum = 0;
+        for (int rank = 1; rank <= facilities; rank++) {
+            sum += 1.0 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < facilities; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    /** Id objekta (1..facilities); id 1 je najbolj obremenjen. */
+    long next(RandomGenerator random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int facility = index >= 0 ? index : -index - 1;
+        return Math.min(facility, cumulative.length - 1) + 1L;
+    }
+
+    /** Delež zahtevkov, ki pade na objekt z danim id-jem. */
+    double share(long facilityId) {
+        int index = (int) facilityId - 1;
+        return index == 0 ? cumulative[0] : cumulative[index] - cumulative[index - 1];
+    }
+}
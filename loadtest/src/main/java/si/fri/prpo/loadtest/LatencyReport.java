@@ -0,0 +1,123 @@
+package si.fri.prpo.loadtest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Krivulja prepustnost/zakasnitev: vrstica na korak v konzoli in summary.csv, celotna porazdelitev
+ * koraka v step-&lt;rate&gt;.hgrm (HdrHistogram, vrednosti v ms) ter povprečja faz booking.phase
+ * (operation=create) po korakih v phases.csv.
+ */
+final class LatencyReport {
+
+    private static final String HEADER = String.format(Locale.ROOT, "%8s %10s %8s %8s %7s %7s %7s %9s %9s %9s %9s %9s  %s",
+            "rate/s", "achieved/s", "created", "conflict", "busy", "errors", "dropped",
+            "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "SLO");
+
+    private final Path directory;
+    private final double sloP99Millis;
+    private final double maxErrorRate;
+    private final MeterRegistry meterRegistry;
+    private final List<String> summary = new ArrayList<>();
+    private final List<String> phases = new ArrayList<>();
+    private Map<String, double[]> phaseSnapshot;
+
+    LatencyReport(Path directory, double sloP99Millis, double maxErrorRate, MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.sloP99Millis = sloP99Millis;
+        this.maxErrorRate = maxErrorRate;
+        this.meterRegistry = meterRegistry;
+        summary.add("target_rate,achieved_rate,created,conflicts,busy,errors,dropped,confirmed,error_rate,"
+                + "p50_ms,p90_ms,p99_ms,p999_ms,max_ms,within_slo");
+        phases.add("target_rate,phase,count,mean_ms");
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.out.println(HEADER);
+    }
+
+    /** Pred korakom: izhodišče za povprečja faz. */
+    void stepStarting() {
+        phaseSnapshot = phaseTotals();
+    }
+
+    void stepFinished(StepResult step) {
+        boolean withinSlo = step.withinSlo(sloP99Millis, maxErrorRate);
+        System.out.println(String.format(Locale.ROOT, "%8.0f %10.1f %8d %8d %7d %7d %7d %9.1f %9.1f %9.1f %9.1f %9.1f  %s",
+                step.targetRate(), step.throughput(), step.created(), step.conflicts(), step.busy(),
+                step.errors(), step.dropped(), step.percentileMillis(50), step.percentileMillis(90),
+                step.percentileMillis(99), step.percentileMillis(99.9), step.maxMillis(), withinSlo ? "ok" : "BREACH"));
+        summary.add(String.format(Locale.ROOT, "%.0f,%.1f,%d,%d,%d,%d,%d,%d,%.4f,%.2f,%.2f,%.2f,%.2f,%.2f,%s",
+                step.targetRate(), step.throughput(), step.created(), step.conflicts(), step.busy(),
+                step.errors(), step.dropped(), step.confirmed(), step.errorRate(), step.percentileMillis(50),
+                step.percentileMillis(90), step.percentileMillis(99), step.percentileMillis(99.9), step.maxMillis(),
+                withinSlo));
+
+        Map<String, double[]> after = phaseTotals();
+        after.forEach((phase, totals) -> {
+            double[] before = phaseSnapshot.getOrDefault(phase, new double[2]);
+            double count = totals[0] - before[0];
+            if (count > 0) {
+                phases.add(String.format(Locale.ROOT, "%.0f,%s,%.0f,%.3f",
+                        step.targetRate(), phase, count, (totals[1] - before[1]) / count));
+            }
+        });
+
+        try (PrintStream out = new PrintStream(Files.newOutputStream(
+                directory.resolve(String.format(Locale.ROOT, "step-%.0f.hgrm", step.targetRate()))))) {
+            step.latency().outputPercentileDistribution(out, 1000.0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        write("summary.csv", summary);
+        write("phases.csv", phases);
+    }
+
+    void finish(List<StepResult> steps, DownstreamStubs stubs) {
+        double sustained = steps.stream()
+                .filter(step -> step.withinSlo(sloP99Millis, maxErrorRate))
+                .mapToDouble(StepResult::throughput)
+                .max()
+                .orElse(0);
+        System.out.println();
+        System.out.println(String.format(Locale.ROOT, "Sustained: %.1f bookings/s with p99 <= %.0f ms and errors <= %.1f %%",
+                sustained, sloP99Millis, maxErrorRate * 100));
+        for (String service : LoadTestOptions.STUBBED_SERVICES) {
+            System.out.println(String.format(Locale.ROOT, "  %-12s %8d calls %6d failed",
+                    service, stubs.calls(service), stubs.failures(service)));
+        }
+        System.out.println("Results: " + directory.toAbsolutePath());
+    }
+
+    // Kumulativno število in skupni čas (ms) posamezne faze ustvarjanja
+    private Map<String, double[]> phaseTotals() {
+        Map<String, double[]> totals = new LinkedHashMap<>();
+        for (Timer timer : meterRegistry.find("booking.phase").tag("operation", "create").timers()) {
+            totals.put(timer.getId().getTag("phase"),
+                    new double[]{timer.count(), timer.totalTime(TimeUnit.MILLISECONDS)});
+        }
+        return totals;
+    }
+
+    private void write(String file, List<String> lines) {
+        try {
+            Files.write(directory.resolve(file), lines);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
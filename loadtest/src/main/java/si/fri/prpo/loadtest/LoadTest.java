@@ -0,0 +1,83 @@
+package si.fri.prpo.loadtest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import si.fri.prpo.bookingservice.BookingServiceApplication;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Obremenilni test POST /api/bookings na enem booking-service: koliko rezervacij na sekundo zdrži,
+ * preden p99 preseže SLO.
+ *
+ * booking-service teče v istem procesu s profilom loadtest (H2 v načinu PostgreSQL), odvisne
+ * storitve simulira {@link DownstreamStubs}. Po ogrevanju gre test skozi naraščajoče hitrosti
+ * (--rates) in se ustavi po prvem koraku, ki krši SLO.
+ *
+ * Zagon:
+ * mvn -Ploadtest -pl loadtest -am package -DskipTests
+ * java -jar loadtest/target/loadtest.jar --rates=50,100,200,400 --step-seconds=30 --payment.latency-ms=300
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        Path out = options.outputDirectory();
+
+        Map<String, LoadTestOptions.StubBehaviour> behaviours = new LinkedHashMap<>();
+        LoadTestOptions.STUBBED_SERVICES.forEach(service -> behaviours.put(service, options.stub(service)));
+
+        try (DownstreamStubs stubs = new DownstreamStubs(behaviours, options.facilities());
+             ConfigurableApplicationContext bookingService = startBookingService(stubs.baseUrl(), out, options)) {
+            int port = ((WebServerApplicationContext) bookingService).getWebServer().getPort();
+            System.out.println("booking-service on port " + port + ", downstream stubs on " + stubs.baseUrl());
+            behaviours.forEach((service, behaviour) -> System.out.println("  " + service + ": " + behaviour));
+
+            try (OpenLoopDriver driver = new OpenLoopDriver("http://localhost:" + port, options)) {
+                if (!options.warmupDuration().isZero()) {
+                    System.out.println("Warming up at " + options.rates().get(0) + "/s for " + options.warmupDuration());
+                    driver.run(options.rates().get(0), options.warmupDuration());
+                }
+
+                LatencyReport report = new LatencyReport(out, options.sloP99Millis(), options.maxErrorRate(),
+                        bookingService.getBean(MeterRegistry.class));
+                List<StepResult> steps = new ArrayList<>();
+                for (double rate : options.rates()) {
+                    report.stepStarting();
+                    StepResult step = driver.run(rate, options.stepDuration());
+                    steps.add(step);
+                    report.stepFinished(step);
+                    if (!step.withinSlo(options.sloP99Millis(), options.maxErrorRate())) {
+                        break;
+                    }
+                }
+                report.finish(steps, stubs);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startBookingService(String stubsUrl, Path out, LoadTestOptions options) {
+        List<String> args = new ArrayList<>();
+        args.add("--server.port=0");
+        args.add("--services.payment.url=" + stubsUrl + "/api/payments");
+        args.add("--services.calendar.url=" + stubsUrl + "/api/calendar");
+        args.add("--services.notification.url=" + stubsUrl + "/api/notifications");
+        args.add("--services.facility.url=" + stubsUrl + "/api/facilities");
+        args.add("--services.auth.url=" + stubsUrl);
+        args.add("--tracing.export.file=" + out.resolve("traces/booking-service.jsonl"));
+        // Ukazna vrstica ima prednost: --spring.threads.virtual.enabled=true ipd. preglasi zgornje
+        args.addAll(options.bookingArgs());
+        return new SpringApplicationBuilder(BookingServiceApplication.class)
+                .profiles("loadtest")
+                .run(args.toArray(String[]::new));
+    }
+}
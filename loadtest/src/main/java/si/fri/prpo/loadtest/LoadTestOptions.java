@@ -0,0 +1,151 @@
+package si.fri.prpo.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Nastavitve obremenilnega testa iz argumentov --ključ=vrednost. Ključi, ki jih test ne pozna
+ * (npr. --spring.threads.virtual.enabled=true ali --booking.admission.stripes=128), se
+ * posredujejo booking-service.
+ */
+final class LoadTestOptions {
+
+    static final List<String> STUBBED_SERVICES = List.of("payment", "calendar", "notification", "facility", "auth");
+
+    // Privzete zakasnitve storitev (osnova ms, povprečni eksponentni rep ms, delež napak 503)
+    private static final Map<String, StubBehaviour> DEFAULT_STUBS = Map.of(
+            "payment", new StubBehaviour(120, 60, 0.01),
+            "calendar", new StubBehaviour(200, 100, 0.02),
+            "notification", new StubBehaviour(50, 25, 0.01),
+            "facility", new StubBehaviour(5, 2, 0.0),
+            "auth", new StubBehaviour(5, 2, 0.0));
+
+    private final Map<String, String> values = new HashMap<>();
+    private final List<String> bookingArgs = new ArrayList<>();
+
+    private LoadTestOptions() {
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got " + arg);
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            if (options.isLoadTestKey(key)) {
+                options.values.put(key, arg.substring(arg.indexOf('=') + 1));
+            } else {
+                options.bookingArgs.add(arg);
+            }
+        }
+        return options;
+    }
+
+    private boolean isLoadTestKey(String key) {
+        return switch (key) {
+            case "rates", "step-seconds", "warmup-seconds", "facilities", "skew", "horizon-days", "users",
+                 "confirm-ratio", "slo-p99-ms", "max-error-rate", "max-in-flight", "request-timeout-ms",
+                 "out", "seed" -> true;
+            default -> STUBBED_SERVICES.stream().anyMatch(service -> key.startsWith(service + "."));
+        };
+    }
+
+    /** Ciljne hitrosti korakov (zahtevkov/s), naraščajoče. */
+    List<Double> rates() {
+        return Arrays.stream(get("rates", "25,50,100,200,400,800").split(","))
+                .map(String::trim)
+                .map(Double::parseDouble)
+                .toList();
+    }
+
+    Duration stepDuration() {
+        return Duration.ofSeconds(getLong("step-seconds", 30));
+    }
+
+    Duration warmupDuration() {
+        return Duration.ofSeconds(getLong("warmup-seconds", 15));
+    }
+
+    int facilities() {
+        return (int) getLong("facilities", 40);
+    }
+
+    /** Eksponent Zipfove porazdelitve: 0 = enakomerno, večji = bolj vroča igrišča. */
+    double skew() {
+        return getDouble("skew", 1.1);
+    }
+
+    int horizonDays() {
+        return (int) getLong("horizon-days", 60);
+    }
+
+    int users() {
+        return (int) getLong("users", 5000);
+    }
+
+    /** Delež ustvarjenih rezervacij, ki jih test takoj potrdi (outbox proti payment in calendar). */
+    double confirmRatio() {
+        return getDouble("confirm-ratio", 0.2);
+    }
+
+    double sloP99Millis() {
+        return getDouble("slo-p99-ms", 500);
+    }
+
+    double maxErrorRate() {
+        return getDouble("max-error-rate", 0.01);
+    }
+
+    int maxInFlight() {
+        return (int) getLong("max-in-flight", 5000);
+    }
+
+    Duration requestTimeout() {
+        return Duration.ofMillis(getLong("request-timeout-ms", 30000));
+    }
+
+    Path outputDirectory() {
+        return Path.of(get("out", "loadtest/target/loadtest"));
+    }
+
+    long seed() {
+        return getLong("seed", 42);
+    }
+
+    StubBehaviour stub(String service) {
+        StubBehaviour defaults = DEFAULT_STUBS.get(service);
+        return new StubBehaviour(
+                getDouble(service + ".latency-ms", defaults.latencyMillis()),
+                getDouble(service + ".jitter-ms", defaults.jitterMillis()),
+                getDouble(service + ".error-rate", defaults.errorRate()));
+    }
+
+    List<String> bookingArgs() {
+        return List.copyOf(bookingArgs);
+    }
+
+    private String get(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+
+    private long getLong(String key, long defaultValue) {
+        return Long.parseLong(get(key, String.valueOf(defaultValue)));
+    }
+
+    private double getDouble(String key, double defaultValue) {
+        return Double.parseDouble(get(key, String.valueOf(defaultValue)));
+    }
+
+    /**
+     * Odziv simulirane storitve: zakasnitev latencyMillis + eksponentni rep s povprečjem
+     * jitterMillis, z verjetnostjo errorRate odgovor 503.
+     */
+    record StubBehaviour(double latencyMillis, double jitterMillis, double errorRate) {
+    }
+}
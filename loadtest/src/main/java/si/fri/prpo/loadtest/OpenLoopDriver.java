@@ -0,0 +1,198 @@
+package si.fri.prpo.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Odprta zanka: zahtevki POST /api/bookings prihajajo po Poissonovem procesu z dano hitrostjo, ne
+ * glede na to, ali so prejšnji že dobili odgovor. Zakasnitev se meri od predvidenega trenutka
+ * pošiljanja, zato zastoj strežnika (ali odjemalca) ne skrije čakanja (coordinated omission).
+ *
+ * Vsak zahtevek teče na svoji virtualni niti. Nad max-in-flight hkratnimi zahtevki se nov zahtevek
+ * ne pošlje in šteje kot dropped: takrat je nasičen že sam generator.
+ */
+final class OpenLoopDriver implements AutoCloseable {
+
+    private static final Pattern BOOKING_ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(60);
+
+    private final URI bookingsUri;
+    private final LoadTestOptions options;
+    private final FacilitySkew facilitySkew;
+    private final SplittableRandom random;
+    private final HttpClient httpClient;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    OpenLoopDriver(String bookingServiceUrl, LoadTestOptions options) {
+        this.bookingsUri = URI.create(bookingServiceUrl + "/api/bookings");
+        this.options = options;
+        this.facilitySkew = new FacilitySkew(options.facilities(), options.skew());
+        this.random = new SplittableRandom(options.seed());
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * En korak obremenitve: rate zahtevkov/s skozi duration, nato počaka, da se odprti zahtevki
+     * zaključijo. Odgovori po koncu koraka še štejejo v ta korak.
+     */
+    StepResult run(double rate, Duration duration) {
+        Step step = new Step();
+        long meanGapNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long started = System.nanoTime();
+        long end = started + duration.toNanos();
+        long intended = started;
+        while (true) {
+            // Eksponentni razmiki med prihodi (Poissonov proces)
+            intended += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+            if (intended >= end) {
+                break;
+            }
+            parkUntil(intended);
+            if (inFlight.get() >= options.maxInFlight()) {
+                step.dropped.increment();
+                continue;
+            }
+            inFlight.incrementAndGet();
+            String body = nextRequestBody();
+            long userId = 1 + random.nextInt(options.users());
+            long scheduledAt = intended;
+            executor.execute(() -> {
+                try {
+                    send(step, scheduledAt, userId, body);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+        long issueNanos = System.nanoTime() - started;
+        awaitDrain();
+        return step.result(rate, issueNanos);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void send(Step step, long intended, long userId, String body) {
+        HttpRequest request = HttpRequest.newBuilder(bookingsUri)
+                .timeout(options.requestTimeout())
+                .header("Content-Type", "application/json")
+                .header("X-User-Id", String.valueOf(userId))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        int status;
+        String response = null;
+        try {
+            HttpResponse<String> httpResponse = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            status = httpResponse.statusCode();
+            response = httpResponse.body();
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        step.latency.recordValue(Math.max(1, (System.nanoTime() - intended) / 1000));
+
+        switch (status) {
+            case 201 -> {
+                step.created.increment();
+                if (ThreadLocalRandom.current().nextDouble() < options.confirmRatio()) {
+                    confirm(step, userId, response);
+                }
+            }
+            case 409 -> step.conflicts.increment();
+            case 503 -> step.busy.increment();
+            default -> step.errors.increment();
+        }
+    }
+
+    // Potrditev ni del merjene zakasnitve; doda outbox dostave proti payment in calendar
+    private void confirm(Step step, long userId, String createdBooking) {
+        Matcher id = BOOKING_ID.matcher(createdBooking);
+        if (!id.find()) {
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder(bookingsUri.resolve("/api/bookings/" + id.group(1) + "/status"))
+                .timeout(options.requestTimeout())
+                .header("Content-Type", "application/json")
+                .header("X-User-Id", String.valueOf(userId))
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"status\":\"CONFIRMED\"}"))
+                .build();
+        try {
+            if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                step.confirmed.increment();
+            }
+        } catch (IOException e) {
+            // Neuspela potrditev ne vpliva na rezultat koraka
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Termin na celo uro med 7. in 21. uro v naslednjih horizon-days dneh, dolg 1 ali 2 uri
+    private String nextRequestBody() {
+        long facilityId = facilitySkew.next(random);
+        LocalDateTime start = LocalDate.now()
+                .plusDays(1 + random.nextInt(options.horizonDays()))
+                .atTime(7 + random.nextInt(14), 0);
+        LocalDateTime end = start.plusHours(1 + random.nextInt(2));
+        return "{\"facilityId\":" + facilityId + ",\"startTime\":\"" + start + "\",\"endTime\":\"" + end + "\"}";
+    }
+
+    private void awaitDrain() {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    private static void parkUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static final class Step {
+
+        private final Recorder latency = new Recorder(3);
+        private final LongAdder created = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder busy = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder confirmed = new LongAdder();
+
+        private StepResult result(double rate, long issueNanos) {
+            Histogram histogram = latency.getIntervalHistogram();
+            return new StepResult(rate, issueNanos / 1e9, histogram, created.sum(), conflicts.sum(),
+                    busy.sum(), errors.sum(), dropped.sum(), confirmed.sum());
+        }
+    }
+}
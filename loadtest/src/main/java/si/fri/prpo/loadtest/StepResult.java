@@ -0,0 +1,41 @@
+package si.fri.prpo.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Rezultat enega koraka. Histogram hrani zakasnitve vseh odgovorov (tudi 409, 503 in napak) v
+ * mikrosekundah, merjene od predvidenega trenutka pošiljanja. busy šteje 503 zaradi zasedenega pasu
+ * objekta (zavrnitev ob sprejemu) ali zavrnitve klicane storitve.
+ */
+record StepResult(double targetRate, double seconds, Histogram latency, long created, long conflicts,
+                  long busy, long errors, long dropped, long confirmed) {
+
+    long responses() {
+        return created + conflicts + busy + errors;
+    }
+
+    double throughput() {
+        return responses() / seconds;
+    }
+
+    /**
+     * Napake, zavrnitve 503 in izpuščeni zahtevki glede na vse poslane. 409 (termin zaseden) je
+     * pričakovan odgovor; 503 pomeni nasičen sprejem in šteje v SLO.
+     */
+    double errorRate() {
+        long attempted = responses() + dropped;
+        return attempted == 0 ? 0 : (double) (busy + errors + dropped) / attempted;
+    }
+
+    double percentileMillis(double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    double maxMillis() {
+        return latency.getMaxValue() / 1000.0;
+    }
+
+    boolean withinSlo(double sloP99Millis, double maxErrorRate) {
+        return responses() > 0 && percentileMillis(99) <= sloP99Millis && errorRate() <= maxErrorRate;
+    }
+}
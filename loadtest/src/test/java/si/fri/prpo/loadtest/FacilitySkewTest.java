@@ -0,0 +1,38 @@
+package si.fri.prpo.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class FacilitySkewTest {
+
+    @Test
+    void hotCourtsReceiveZipfShareOfRequests() {
+        FacilitySkew skew = new FacilitySkew(40, 1.1);
+        SplittableRandom random = new SplittableRandom(7);
+        long[] hits = new long[41];
+        int samples = 200_000;
+        for (int i = 0; i < samples; i++) {
+            long facility = skew.next(random);
+            assertThat(facility).isBetween(1L, 40L);
+            hits[(int) facility]++;
+        }
+
+        assertThat((double) hits[1] / samples).isCloseTo(skew.share(1), within(0.01));
+        assertThat((double) hits[40] / samples).isCloseTo(skew.share(40), within(0.005));
+        // Prvo igrišče je pri s = 1.1 približno 40-krat bolj obremenjeno od zadnjega
+        assertThat(skew.share(1) / skew.share(40)).isCloseTo(Math.pow(40, 1.1), within(0.001));
+    }
+
+    @Test
+    void zeroExponentIsUniform() {
+        FacilitySkew skew = new FacilitySkew(4, 0);
+
+        for (long facility = 1; facility <= 4; facility++) {
+            assertThat(skew.share(facility)).isCloseTo(0.25, within(1e-9));
+        }
+    }
+}
@@ -29,6 +29,8 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
             .requestMatchers(
                 "/api/auth/**",
+                // service-to-service lookups; InternalApiFilter requires X-Internal-Token before this chain
+                "/internal/**",
                 "/health",
                 "/",
                 "/actuator/**",
@@ -0,0 +1,29 @@
+package si.fri.prpo.authservice.controller;
+
+import si.fri.prpo.authservice.dto.UserContactResponse;
+import si.fri.prpo.authservice.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+// Klici drugih storitev znotraj gruče (booking-service obvestila); zahtevajo X-Internal-Token
+@RestController
+@RequestMapping("/internal/users")
+@RequiredArgsConstructor
+public class InternalUserController {
+
+    private static final int MAX_IDS = 500;
+
+    private final UserService userService;
+
+    // GET /internal/users?ids=1,2,3 - le id in email; neznani id-ji v odgovoru manjkajo
+    @GetMapping
+    public ResponseEntity<List<UserContactResponse>> getUsers(@RequestParam List<Long> ids) {
+        if (ids.size() > MAX_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(userService.getContactsByIds(ids));
+    }
+}
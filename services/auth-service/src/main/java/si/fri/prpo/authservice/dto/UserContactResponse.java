@@ -0,0 +1,14 @@
+package si.fri.prpo.authservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Le podatki, ki jih druge storitve potrebujejo za obvestila
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserContactResponse {
+    private Long id;
+    private String email;
+}
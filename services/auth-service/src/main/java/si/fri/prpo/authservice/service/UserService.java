@@ -3,6 +3,7 @@ package si.fri.prpo.authservice.service;
 import si.fri.prpo.authservice.dto.LoginRequest;
 import si.fri.prpo.authservice.dto.LoginResponse;
 import si.fri.prpo.authservice.dto.RegisterRequest;
+import si.fri.prpo.authservice.dto.UserContactResponse;
 import si.fri.prpo.authservice.dto.UserResponse;
 import si.fri.prpo.authservice.entity.User;
 import si.fri.prpo.authservice.repository.UserRepository;
@@ -12,6 +13,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class UserService {
@@ -67,4 +71,13 @@ public class UserService {
                 user.getEmail(),
                 user.getRole());
     }
+
+    // Več uporabnikov z eno poizvedbo (za obvestila v booking-service); neznani id-ji se izpustijo
+    @Transactional(readOnly = true)
+    public List<UserContactResponse> getContactsByIds(Collection<Long> ids) {
+        return userRepository.findAllById(ids)
+                .stream()
+                .map(user -> new UserContactResponse(user.getId(), user.getEmail()))
+                .toList();
+    }
 }
@@ -0,0 +1,35 @@
+package si.fri.prpo.bookingservice.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import si.fri.prpo.bookingservice.dto.external.UserResponse;
+
+import java.util.Collection;
+
+@Slf4j
+@Component
+public class AuthClient {
+
+    private final WebClient webClient;
+
+    public AuthClient(@Qualifier("authWebClient") WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    // Uporabniki z danimi id-ji v enem klicu; neznanih v odgovoru ni
+    public Flux<UserResponse> getUsersAsync(Collection<Long> userIds) {
+        return Flux.defer(() -> {
+                    log.debug("Fetching {} users", userIds.size());
+                    return webClient.get()
+                            .uri(uriBuilder -> uriBuilder.path("/internal/users")
+                                    .queryParam("ids", userIds.toArray())
+                                    .build())
+                            .retrieve()
+                            .bodyToFlux(UserResponse.class);
+                })
+                .doOnError(e -> log.warn("Error fetching users {}: {}", userIds, e.getMessage()));
+    }
+}
@@ -4,43 +4,49 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import si.fri.prpo.bookingservice.dto.external.CalendarEventRequest;
 import si.fri.prpo.bookingservice.dto.external.CalendarEventResponse;
+import si.fri.prpo.bookingservice.exception.DeadlineExceededException;
+import si.fri.prpo.bookingservice.exception.DownstreamUnavailableException;
 
 @Slf4j
 @Component
 public class CalendarClient {
 
     private final WebClient webClient;
+    private final DownstreamGuards.Guard guard;
 
-    public CalendarClient(@Qualifier("calendarWebClient") WebClient webClient) {
+    public CalendarClient(@Qualifier("calendarWebClient") WebClient webClient, DownstreamGuards guards) {
         this.webClient = webClient;
+        this.guard = guards.forService("calendar");
     }
 
-    public CalendarEventResponse createCalendarEvent(CalendarEventRequest request) {
-        log.info("Creating calendar event for booking {}", request.getBookingId());
-
-        try {
-            return webClient.post()
-                    .uri("/events")
-                    .bodyValue(request)
-                    .retrieve()
-                    .bodyToMono(CalendarEventResponse.class)
-                    .block();
-        } catch (Exception e) {
-            log.error("Error creating calendar event: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to create calendar event", e);
-        }
+    public Mono<CalendarEventResponse> createCalendarEventAsync(CalendarEventRequest request) {
+        return Mono.defer(() -> {
+                    log.info("Creating calendar event for booking {}", request.getBookingId());
+                    return webClient.post()
+                            .uri("/events")
+                            .bodyValue(request)
+                            .retrieve()
+                            .bodyToMono(CalendarEventResponse.class);
+                })
+                .transform(guard::protect)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("Empty calendar event response")))
+                .doOnError(e -> log.error("Error creating calendar event: {}", e.getMessage(), e))
+                // Zavrnitev breakerja/bulkheada in potekel rok ostaneta prepoznavna (ponovi kasneje)
+                .onErrorMap(e -> !(e instanceof DownstreamUnavailableException || e instanceof DeadlineExceededException),
+                        e -> new RuntimeException("Failed to create calendar event", e));
     }
 
     public void cancelCalendarEvent(Long eventId) {
         log.info("Cancelling calendar event {}", eventId);
 
         try {
-            webClient.post()
-                    .uri("/events/{id}/cancel", eventId)
-                    .retrieve()
-                    .bodyToMono(Void.class)
+            guard.protect(webClient.post()
+                            .uri("/events/{id}/cancel", eventId)
+                            .retrieve()
+                            .bodyToMono(Void.class))
                     .block();
         } catch (Exception e) {
             log.error("Error cancelling calendar event: {}", e.getMessage(), e);
@@ -0,0 +1,143 @@
+package si.fri.prpo.bookingservice.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import si.fri.prpo.bookingservice.exception.DeadlineExceededException;
+import si.fri.prpo.bookingservice.exception.DownstreamUnavailableException;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * Circuit breaker in bulkhead za vsako storitev, ki jo kliče booking-service (resilience4j,
+ * nastavitve resilience4j.circuitbreaker.* in resilience4j.bulkhead.*).
+ *
+ * Odprt breaker ali poln bulkhead klic zavrne takoj z {@link DownstreamUnavailableException} (503 z
+ * Retry-After), brez čakanja na povezavo ali časovno omejitev. Po wait-duration-in-open-state
+ * breaker preide v half-open in spusti nekaj poskusnih klicev. Stanje je v /booking/actuator/health
+ * (circuitBreakers) in v metrikah resilience4j.circuitbreaker.* / resilience4j.bulkhead.*.
+ * Vsak neuspel klic šteje booking.downstream.failures po storitvi in razlogu.
+ */
+@Component
+public class DownstreamGuards {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final MeterRegistry meterRegistry;
+
+    public DownstreamGuards(CircuitBreakerRegistry circuitBreakerRegistry,
+                            BulkheadRegistry bulkheadRegistry,
+                            MeterRegistry meterRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Guard forService(String name) {
+        return new Guard(name, circuitBreakerRegistry.circuitBreaker(name), bulkheadRegistry.bulkhead(name), meterRegistry);
+    }
+
+    public static final class Guard {
+
+        private static final Duration BULKHEAD_RETRY_AFTER = Duration.ofSeconds(1);
+
+        private final String service;
+        private final CircuitBreaker circuitBreaker;
+        private final Bulkhead bulkhead;
+        private final MeterRegistry meterRegistry;
+
+        Guard(String service, CircuitBreaker circuitBreaker, Bulkhead bulkhead, MeterRegistry meterRegistry) {
+            this.service = service;
+            this.circuitBreaker = circuitBreaker;
+            this.bulkhead = bulkhead;
+            this.meterRegistry = meterRegistry;
+        }
+
+        /**
+         * Ovije klic: najprej breaker (odprt ne zasede mesta v bulkheadu), nato bulkhead.
+         * Uporabiti pred preslikavo napak, da breaker vidi izvorno napako.
+         */
+        public <T> Mono<T> protect(Mono<T> call) {
+            return call
+                    .transformDeferred(BulkheadOperator.of(bulkhead))
+                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                    .doOnError(this::countFailure)
+                    .onErrorMap(this::rejection);
+        }
+
+        public CircuitBreaker circuitBreaker() {
+            return circuitBreaker;
+        }
+
+        public Bulkhead bulkhead() {
+            return bulkhead;
+        }
+
+        // Zavrnitev brez klica: breaker pove, kdaj preide v half-open; bulkhead se sprosti hitro
+        private Throwable rejection(Throwable error) {
+            if (error instanceof CallNotPermittedException) {
+                long waitMillis = circuitBreaker.getCircuitBreakerConfig().getWaitIntervalFunctionInOpenState().apply(1);
+                return new DownstreamUnavailableException(service, "Service " + service + " is unavailable (circuit open)",
+                        Duration.ofMillis(waitMillis), error);
+            }
+            if (error instanceof BulkheadFullException) {
+                return new DownstreamUnavailableException(service, "Service " + service + " is overloaded (bulkhead full)",
+                        BULKHEAD_RETRY_AFTER, error);
+            }
+            return error;
+        }
+
+        private void countFailure(Throwable error) {
+            Counter.builder("booking.downstream.failures")
+                    .description("Failed calls to other services")
+                    .tag("service", service)
+                    .tag("reason", reason(error))
+                    .register(meterRegistry)
+                    .increment();
+        }
+
+        // Omejen nabor vrednosti, da število serij ostane majhno
+        private static String reason(Throwable error) {
+            if (error instanceof CallNotPermittedException) {
+                return "circuit-open";
+            }
+            if (error instanceof BulkheadFullException) {
+                return "bulkhead-full";
+            }
+            if (error instanceof DeadlineExceededException) {
+                return "deadline";
+            }
+            if (error instanceof WebClientResponseException response) {
+                return response.getStatusCode().is4xxClientError() ? "4xx" : "5xx";
+            }
+            return "io";
+        }
+    }
+
+    /**
+     * Napake, ki štejejo v failure rate: omrežne napake, časovne omejitve in 5xx. Odgovori 4xx so
+     * napake klica (storitev deluje), poln bulkhead pa pomeni preobremenitev pri nas. Potekel rok
+     * zahtevka je stvar klicatelja, ne storitve.
+     */
+    public static class DownstreamFailurePredicate implements Predicate<Throwable> {
+
+        @Override
+        public boolean test(Throwable error) {
+            if (error instanceof BulkheadFullException || error instanceof DeadlineExceededException) {
+                return false;
+            }
+            return !(error instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError());
+        }
+    }
+}
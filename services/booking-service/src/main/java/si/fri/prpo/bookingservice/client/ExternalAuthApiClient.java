@@ -1,6 +1,5 @@
 package si.fri.prpo.bookingservice.client;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,37 +9,51 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
+import si.fri.prpo.bookingservice.exception.DeadlineExceededException;
+import si.fri.prpo.bookingservice.exception.DownstreamUnavailableException;
 
 import java.time.Duration;
 import java.util.Map;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class ExternalAuthApiClient {
 
-    private final @Qualifier("externalAuthWebClient") WebClient externalAuthWebClient;
+    private final WebClient externalAuthWebClient;
+    private final DownstreamGuards.Guard guard;
 
     @Value("${external.api.token:}")
     private String externalApiToken;
 
+    public ExternalAuthApiClient(@Qualifier("externalAuthWebClient") WebClient externalAuthWebClient,
+                                 DownstreamGuards guards) {
+        this.externalAuthWebClient = externalAuthWebClient;
+        this.guard = guards.forService("external-auth");
+    }
+
     public Map<String, Object> getAuthStatus() {
-        try {
-            return externalAuthWebClient
-                    .get()
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + externalApiToken)
-                    .accept(MediaType.APPLICATION_JSON)
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .timeout(Duration.ofSeconds(5))
-                    .onErrorResume(WebClientResponseException.class, ex -> {
-                        log.error("External API error: {}", ex.getMessage());
-                        return Mono.error(ex);
-                    })
-                    .block();
-        } catch (Exception e) {
-            log.error("Failed to call external API", e);
-            throw new IllegalStateException("External API unavailable", e);
-        }
+        return getAuthStatusAsync().block();
+    }
+
+    @SuppressWarnings("unchecked")
+    public Mono<Map<String, Object>> getAuthStatusAsync() {
+        return externalAuthWebClient
+                .get()
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + externalApiToken)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(Map.class)
+                .map(body -> (Map<String, Object>) body)
+                .timeout(Duration.ofSeconds(5))
+                .transform(guard::protect)
+                .onErrorResume(WebClientResponseException.class, ex -> {
+                    log.error("External API error: {}", ex.getMessage());
+                    return Mono.error(ex);
+                })
+                // Zavrnitve breakerja in bulkheada ter potekel rok ostanejo, kot so (503 z Retry-After, 504)
+                .onErrorMap(e -> !(e instanceof DownstreamUnavailableException || e instanceof DeadlineExceededException), e -> {
+                    log.error("Failed to call external API", e);
+                    return new DownstreamUnavailableException("external-auth", "External API unavailable", null, e);
+                });
     }
 }
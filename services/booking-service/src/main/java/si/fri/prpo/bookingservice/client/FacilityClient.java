@@ -0,0 +1,57 @@
+package si.fri.prpo.bookingservice.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import si.fri.prpo.bookingservice.dto.external.FacilityResponse;
+
+import java.util.Collection;
+
+@Slf4j
+@Component
+public class FacilityClient {
+
+    private final WebClient webClient;
+
+    public FacilityClient(@Qualifier("facilityWebClient") WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    public Mono<FacilityResponse> getFacilityAsync(Long facilityId) {
+        return Mono.defer(() -> {
+                    log.debug("Fetching facility {}", facilityId);
+                    return webClient.get()
+                            .uri("/{id}", facilityId)
+                            .retrieve()
+                            .bodyToMono(FacilityResponse.class);
+                })
+                .doOnError(e -> log.warn("Error fetching facility {}: {}", facilityId, e.getMessage()));
+    }
+
+    public Flux<FacilityResponse> getAllFacilitiesAsync() {
+        return Flux.defer(() -> {
+                    log.debug("Fetching all facilities");
+                    return webClient.get()
+                            .retrieve()
+                            .bodyToFlux(FacilityResponse.class);
+                })
+                .doOnError(e -> log.warn("Error fetching facilities: {}", e.getMessage()));
+    }
+
+    // Objekti z danimi id-ji v enem klicu; neznanih v odgovoru ni
+    public Flux<FacilityResponse> getFacilitiesAsync(Collection<Long> facilityIds) {
+        return Flux.defer(() -> {
+                    log.debug("Fetching {} facilities", facilityIds.size());
+                    return webClient.get()
+                            .uri(uriBuilder -> uriBuilder.path("/batch")
+                                    .queryParam("ids", facilityIds.toArray())
+                                    .build())
+                            .retrieve()
+                            .bodyToFlux(FacilityResponse.class);
+                })
+                .doOnError(e -> log.warn("Error fetching facilities {}: {}", facilityIds, e.getMessage()));
+    }
+}
@@ -4,17 +4,23 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import si.fri.prpo.bookingservice.dto.external.NotificationRequest;
 import si.fri.prpo.bookingservice.dto.external.NotificationResponse;
+import si.fri.prpo.bookingservice.exception.DownstreamUnavailableException;
+
+import java.util.List;
 
 @Slf4j
 @Component
 public class NotificationClient {
 
     private final WebClient webClient;
+    private final DownstreamGuards.Guard guard;
 
-    public NotificationClient(@Qualifier("notificationWebClient") WebClient webClient) {
+    public NotificationClient(@Qualifier("notificationWebClient") WebClient webClient, DownstreamGuards guards) {
         this.webClient = webClient;
+        this.guard = guards.forService("notification");
     }
 
     public NotificationResponse sendNotification(NotificationRequest request) {
@@ -22,11 +28,11 @@ public class NotificationClient {
         log.debug("Request details: {}", request);
 
         try {
-            NotificationResponse response = webClient.post()
-                    .uri("") // Empty string - baseUrl already includes /api/notifications
-                    .bodyValue(request)
-                    .retrieve()
-                    .bodyToMono(NotificationResponse.class)
+            NotificationResponse response = guard.protect(webClient.post()
+                            .uri("") // Empty string - baseUrl already includes /api/notifications
+                            .bodyValue(request)
+                            .retrieve()
+                            .bodyToMono(NotificationResponse.class))
                     .doOnError(error -> log.error("WebClient error: {}", error.getMessage(), error))
                     .block();
 
@@ -34,6 +40,10 @@ public class NotificationClient {
                     response != null ? response.getId() : "null",
                     response != null ? response.getStatus() : "null");
             return response;
+        } catch (DownstreamUnavailableException e) {
+            // Zavrnitev breakerja ali bulkheada: klicatelj (outbox) poskusi znova, ne velja za zavrnjeno obvestilo
+            log.warn("Notification service unavailable: {}", e.getMessage());
+            throw e;
         } catch (Exception e) {
             log.error("CRITICAL: Error sending notification", e);
             log.error("Exception type: {}", e.getClass().getName());
@@ -46,7 +56,26 @@ public class NotificationClient {
         }
     }
 
-    public void sendBookingConfirmation(Long userId, Long bookingId, String recipient, String facilityName,
+    /**
+     * Neblokirajoča različica: napake (in prazen odgovor) se propagirajo kot error signal.
+     */
+    public Mono<NotificationResponse> sendNotificationAsync(NotificationRequest request) {
+        return Mono.defer(() -> {
+                    log.info("Sending {} notification to {} via WebClient", request.getType(), request.getRecipient());
+                    return webClient.post()
+                            .uri("") // Empty string - baseUrl already includes /api/notifications
+                            .bodyValue(request)
+                            .retrieve()
+                            .bodyToMono(NotificationResponse.class);
+                })
+                .transform(guard::protect)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("Empty notification response")))
+                .doOnNext(response -> log.info("Notification sent successfully: ID={}, Status={}",
+                        response.getId(), response.getStatus()))
+                .doOnError(error -> log.error("Error sending {} notification: {}", request.getType(), error.getMessage()));
+    }
+
+    public NotificationResponse sendBookingConfirmation(Long userId, Long bookingId, String recipient, String facilityName,
             String startTime) {
         NotificationRequest request = NotificationRequest.builder()
                 .userId(userId)
@@ -62,11 +91,41 @@ public class NotificationClient {
                         facilityName, startTime, bookingId))
                 .build();
 
-        sendNotification(request);
+        return sendNotification(request);
     }
 
-    public void sendPaymentConfirmation(Long userId, Long bookingId, Long paymentId, String recipient, String amount) {
+    public NotificationResponse sendBookingSeriesConfirmation(Long userId, Long bookingId, String recipient,
+            String facilityName, List<String> times) {
         NotificationRequest request = NotificationRequest.builder()
+                .userId(userId)
+                .bookingId(bookingId)
+                .type("BOOKING_CONFIRMATION")
+                .channel("EMAIL")
+                .recipient(recipient)
+                .subject("Potrditev ponavljajoče se rezervacije - " + facilityName)
+                .content(String.format(
+                        "Vaša ponavljajoča se rezervacija za %s je bila uspešno ustvarjena (%d terminov).\n\n" +
+                                "Termini:\n%s\n\n" +
+                                "Booking ID prvega termina: %d",
+                        facilityName, times.size(), String.join("\n", times), bookingId))
+                .build();
+
+        return sendNotification(request);
+    }
+
+    public NotificationResponse sendPaymentConfirmation(Long userId, Long bookingId, Long paymentId, String recipient,
+            String amount) {
+        return sendNotification(paymentConfirmation(userId, bookingId, paymentId, recipient, amount));
+    }
+
+    public Mono<NotificationResponse> sendPaymentConfirmationAsync(Long userId, Long bookingId, Long paymentId,
+            String recipient, String amount) {
+        return sendNotificationAsync(paymentConfirmation(userId, bookingId, paymentId, recipient, amount));
+    }
+
+    private NotificationRequest paymentConfirmation(Long userId, Long bookingId, Long paymentId, String recipient,
+            String amount) {
+        return NotificationRequest.builder()
                 .userId(userId)
                 .bookingId(bookingId)
                 .paymentId(paymentId)
@@ -80,13 +139,21 @@ public class NotificationClient {
                                 "Payment ID: %d",
                         amount, bookingId, paymentId))
                 .build();
+    }
 
-        sendNotification(request);
+    public NotificationResponse sendCalendarEventCreated(Long userId, Long bookingId, Long eventId, String recipient,
+            String facilityName) {
+        return sendNotification(calendarEventCreated(userId, bookingId, eventId, recipient, facilityName));
+    }
+
+    public Mono<NotificationResponse> sendCalendarEventCreatedAsync(Long userId, Long bookingId, Long eventId,
+            String recipient, String facilityName) {
+        return sendNotificationAsync(calendarEventCreated(userId, bookingId, eventId, recipient, facilityName));
     }
 
-    public void sendCalendarEventCreated(Long userId, Long bookingId, Long eventId, String recipient,
+    private NotificationRequest calendarEventCreated(Long userId, Long bookingId, Long eventId, String recipient,
             String facilityName) {
-        NotificationRequest request = NotificationRequest.builder()
+        return NotificationRequest.builder()
                 .userId(userId)
                 .bookingId(bookingId)
                 .eventId(eventId)
@@ -100,11 +167,9 @@ public class NotificationClient {
                                 "Event ID: %d",
                         facilityName, bookingId, eventId))
                 .build();
-
-        sendNotification(request);
     }
 
-    public void sendBookingCancellation(Long userId, Long bookingId, String recipient, String facilityName) {
+    public NotificationResponse sendBookingCancellation(Long userId, Long bookingId, String recipient, String facilityName) {
         NotificationRequest request = NotificationRequest.builder()
                 .userId(userId)
                 .bookingId(bookingId)
@@ -118,6 +183,23 @@ public class NotificationClient {
                         facilityName, bookingId))
                 .build();
 
-        sendNotification(request);
+        return sendNotification(request);
+    }
+
+    public NotificationResponse sendBookingCompleted(Long userId, Long bookingId, String recipient, String facilityName) {
+        NotificationRequest request = NotificationRequest.builder()
+                .userId(userId)
+                .bookingId(bookingId)
+                .type("CUSTOM")
+                .channel("EMAIL")
+                .recipient(recipient)
+                .subject("Rezervacija zaključena - " + facilityName)
+                .content(String.format(
+                        "Vaša rezervacija za %s je zaključena. Hvala za obisk!\n\n" +
+                                "Booking ID: %d",
+                        facilityName, bookingId))
+                .build();
+
+        return sendNotification(request);
     }
 }
@@ -4,43 +4,49 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import si.fri.prpo.bookingservice.dto.external.PaymentCheckoutRequest;
 import si.fri.prpo.bookingservice.dto.external.PaymentCheckoutResponse;
+import si.fri.prpo.bookingservice.exception.DeadlineExceededException;
+import si.fri.prpo.bookingservice.exception.DownstreamUnavailableException;
 
 @Slf4j
 @Component
 public class PaymentClient {
 
     private final WebClient webClient;
+    private final DownstreamGuards.Guard guard;
 
-    public PaymentClient(@Qualifier("paymentWebClient") WebClient webClient) {
+    public PaymentClient(@Qualifier("paymentWebClient") WebClient webClient, DownstreamGuards guards) {
         this.webClient = webClient;
+        this.guard = guards.forService("payment");
     }
 
-    public PaymentCheckoutResponse createCheckoutSession(PaymentCheckoutRequest request) {
-        log.info("Creating payment checkout session for booking {}", request.getBookingId());
-
-        try {
-            return webClient.post()
-                    .uri("/checkout")
-                    .bodyValue(request)
-                    .retrieve()
-                    .bodyToMono(PaymentCheckoutResponse.class)
-                    .block();
-        } catch (Exception e) {
-            log.error("Error creating payment checkout session: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to create payment session", e);
-        }
+    public Mono<PaymentCheckoutResponse> createCheckoutSessionAsync(PaymentCheckoutRequest request) {
+        return Mono.defer(() -> {
+                    log.info("Creating payment checkout session for booking {}", request.getBookingId());
+                    return webClient.post()
+                            .uri("/checkout")
+                            .bodyValue(request)
+                            .retrieve()
+                            .bodyToMono(PaymentCheckoutResponse.class);
+                })
+                .transform(guard::protect)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("Empty payment checkout response")))
+                .doOnError(e -> log.error("Error creating payment checkout session: {}", e.getMessage(), e))
+                // Zavrnitev breakerja/bulkheada in potekel rok ostaneta prepoznavna (ponovi kasneje)
+                .onErrorMap(e -> !(e instanceof DownstreamUnavailableException || e instanceof DeadlineExceededException),
+                        e -> new RuntimeException("Failed to create payment session", e));
     }
 
     public void completePaymentMock(String sessionId) {
         log.info("Completing mock payment for session {}", sessionId);
 
         try {
-            webClient.post()
-                    .uri("/mock/{sessionId}/complete", sessionId)
-                    .retrieve()
-                    .bodyToMono(Void.class)
+            guard.protect(webClient.post()
+                            .uri("/mock/{sessionId}/complete", sessionId)
+                            .retrieve()
+                            .bodyToMono(Void.class))
                     .block();
         } catch (Exception e) {
             log.error("Error completing mock payment: {}", e.getMessage(), e);
@@ -0,0 +1,48 @@
+package si.fri.prpo.bookingservice.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Ob vstopu nastavi rok zahtevka: preostanek iz X-Deadline-Remaining-Ms (npr. od gatewaya),
+ * omejen z booking.deadline.max-ms, sicer booking.deadline.default-ms. Zahtevek s poteklim rokom
+ * zavrne z 504 brez dela.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    @Value("${booking.deadline.default-ms:5000}")
+    private long defaultMillis;
+
+    @Value("${booking.deadline.max-ms:30000}")
+    private long maxMillis;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long budget = RequestDeadline.budgetMillis(request.getHeader(RequestDeadline.HEADER), defaultMillis, maxMillis);
+        if (budget <= 0) {
+            log.warn("Rejecting {} {}: deadline already exceeded", request.getMethod(), request.getRequestURI());
+            response.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT, "Request deadline exceeded");
+            return;
+        }
+
+        RequestDeadline.set(RequestDeadline.deadlineAfter(budget));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package si.fri.prpo.bookingservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+/**
+ * Profil reactive: zahtevki tečejo prek R2DBC, JDBC pa ostane za Flyway, nalaganje indeksa
+ * intervalov in outbox relay. Spring Boot ob prisotnem R2DBC ConnectionFactory ne ustvari
+ * DataSource, JPA pa ne transakcijskega upravitelja, zato ju definiramo sami.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveDataConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    // @Transactional (JPA) ostane privzeti; reaktivne metode uporabljajo TransactionalOperator nad R2DBC
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+}
@@ -0,0 +1,42 @@
+package si.fri.prpo.bookingservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux različica {@link DeadlineFilter}: rok gre v Reactor kontekst zahtevka.
+ */
+@Slf4j
+@Component
+@Profile("reactive")
+public class ReactiveDeadlineFilter implements WebFilter {
+
+    @Value("${booking.deadline.default-ms:5000}")
+    private long defaultMillis;
+
+    @Value("${booking.deadline.max-ms:30000}")
+    private long maxMillis;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long budget = RequestDeadline.budgetMillis(
+                exchange.getRequest().getHeaders().getFirst(RequestDeadline.HEADER), defaultMillis, maxMillis);
+        if (budget <= 0) {
+            log.warn("Rejecting {} {}: deadline already exceeded",
+                    exchange.getRequest().getMethod(), exchange.getRequest().getPath());
+            exchange.getResponse().setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+            return exchange.getResponse().setComplete();
+        }
+
+        long deadline = RequestDeadline.deadlineAfter(budget);
+        return chain.filter(exchange)
+                .contextWrite(context -> RequestDeadline.withDeadline(context, deadline));
+    }
+}
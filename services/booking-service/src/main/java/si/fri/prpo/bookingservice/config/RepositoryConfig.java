@@ -0,0 +1,17 @@
+package si.fri.prpo.bookingservice.config;
+
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+/**
+ * JPA repozitoriji; reaktivne (R2DBC, profil reactive) izključimo, ker jih JPA ne podpira.
+ */
+@Configuration
+@EnableJpaRepositories(
+        basePackages = "si.fri.prpo.bookingservice.repository",
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ReactiveCrudRepository.class))
+public class RepositoryConfig {
+}
@@ -0,0 +1,127 @@
+package si.fri.prpo.bookingservice.config;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+import si.fri.prpo.bookingservice.exception.DeadlineExceededException;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rok zahtevka. booking-service ga nastavi ob vstopu (DeadlineFilter, ReactiveDeadlineFilter) in
+ * outbox relay za vsako dostavo, WebClienti pa ga pošljejo naprej v glavi X-Deadline-Remaining-Ms.
+ * Glava nosi preostanek v milisekundah, ne absolutnega časa, zato razlike med urami strežnikov ne
+ * vplivajo; vsaka storitev ga ob prihodu pretvori v lokalni rok.
+ *
+ * Servletna pot hrani rok v niti, reaktivna v Reactor kontekstu. Blokirajoča koda, ki sestavi več
+ * klicev (flatMap teče na nitih Netty), mora rok prenesti v kontekst s {@link #capture(Context)}.
+ */
+public final class RequestDeadline {
+
+    public static final String HEADER = "X-Deadline-Remaining-Ms";
+
+    private static final String CONTEXT_KEY = RequestDeadline.class.getName();
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * Izvede delo z rokom budgetMillis; že veljaven krajši rok ostane.
+     */
+    public static void runWithin(long budgetMillis, Runnable work) {
+        Long previous = DEADLINE_NANOS.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        DEADLINE_NANOS.set(previous != null ? Math.min(previous, deadline) : deadline);
+        try {
+            work.run();
+        } finally {
+            if (previous != null) {
+                DEADLINE_NANOS.set(previous);
+            } else {
+                DEADLINE_NANOS.remove();
+            }
+        }
+    }
+
+    public static OptionalLong remainingMillis() {
+        Long deadline = DEADLINE_NANOS.get();
+        return deadline != null ? OptionalLong.of(remainingMillis(deadline)) : OptionalLong.empty();
+    }
+
+    /**
+     * Prenese rok trenutne niti v Reactor kontekst (contextWrite(RequestDeadline::capture)).
+     */
+    public static Context capture(Context context) {
+        Long deadline = DEADLINE_NANOS.get();
+        return deadline != null && !context.hasKey(CONTEXT_KEY) ? context.put(CONTEXT_KEY, deadline) : context;
+    }
+
+    /**
+     * Filter za WebClient: doda glavo s preostankom roka in klic prekine ob poteku roka. Klic po
+     * poteku roka se sploh ne začne.
+     */
+    public static ExchangeFilterFunction propagation() {
+        return (request, next) -> Mono.deferContextual(context -> {
+            Long deadline = deadlineNanos(context);
+            if (deadline == null) {
+                return next.exchange(request);
+            }
+            long remaining = remainingMillis(deadline);
+            if (remaining <= 0) {
+                return Mono.error(exceeded(request));
+            }
+            ClientRequest withDeadline = ClientRequest.from(request)
+                    .header(HEADER, String.valueOf(remaining))
+                    .build();
+            return next.exchange(withDeadline)
+                    .timeout(Duration.ofMillis(remaining), Mono.error(() -> exceeded(request)));
+        });
+    }
+
+    /**
+     * Preostanek za dohodni zahtevek: glava klicatelja, omejena z maxMillis, ali privzeti proračun.
+     */
+    static long budgetMillis(String header, long defaultMillis, long maxMillis) {
+        if (header == null) {
+            return defaultMillis;
+        }
+        try {
+            return Math.min(Long.parseLong(header.trim()), maxMillis);
+        } catch (NumberFormatException e) {
+            return defaultMillis;
+        }
+    }
+
+    static long deadlineAfter(long budgetMillis) {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+
+    static void set(long deadlineNanos) {
+        DEADLINE_NANOS.set(deadlineNanos);
+    }
+
+    static void clear() {
+        DEADLINE_NANOS.remove();
+    }
+
+    static Context withDeadline(Context context, long deadlineNanos) {
+        return context.put(CONTEXT_KEY, deadlineNanos);
+    }
+
+    private static Long deadlineNanos(ContextView context) {
+        return context.hasKey(CONTEXT_KEY) ? context.get(CONTEXT_KEY) : DEADLINE_NANOS.get();
+    }
+
+    private static long remainingMillis(long deadlineNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+    }
+
+    private static DeadlineExceededException exceeded(ClientRequest request) {
+        return new DeadlineExceededException("Request deadline exceeded calling " + request.method() + " " + request.url());
+    }
+}
@@ -1,13 +1,46 @@
 package si.fri.prpo.bookingservice.config;
 
+import io.micrometer.observation.ObservationRegistry;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import si.fri.prpo.commons.internal.InternalApiGuard;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * WebClienti za klice drugih storitev. Vsak ima svoj omejen bazen povezav Reactor Netty, da
+ * počasna storitev ne more zasesti povezav (in čakajočih niti) ostalih, ter časovne omejitve za
+ * vzpostavitev povezave, branje in celoten odgovor.
+ *
+ * Nastavitve so skupne (booking.http.*), vsako lahko klient preglasi z
+ * booking.http.&lt;klient&gt;.* (npr. booking.http.calendar.max-connections). Bazeni in odjemalci
+ * objavljajo metrike reactor.netty.connection.provider.* (zasedenost, čakajoči) in
+ * reactor.netty.http.client.* (latenca po remote.address in uri). Rok zahtevka gre naprej v glavi
+ * X-Deadline-Remaining-Ms ({@link RequestDeadline}), sled pa v W3C traceparent (vsak klic je span
+ * http.client.requests).
+ */
 @Configuration
 public class WebClientConfig {
 
+    // Številski segmenti poti (id-ji) v oznaki uri metrik, da število serij ostane omejeno
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    private final Environment environment;
+    private final ObservationRegistry observationRegistry;
+    private final List<ConnectionProvider> connectionProviders = new CopyOnWriteArrayList<>();
+
     @Value("${services.payment.url}")
     private String paymentServiceUrl;
 
@@ -17,31 +50,102 @@ public class WebClientConfig {
     @Value("${services.notification.url}")
     private String notificationServiceUrl;
 
+    @Value("${services.facility.url}")
+    private String facilityServiceUrl;
+
+    @Value("${services.auth.url}")
+    private String authServiceUrl;
+
+    public WebClientConfig(Environment environment, ObservationRegistry observationRegistry) {
+        this.environment = environment;
+        this.observationRegistry = observationRegistry;
+    }
+
     @Bean("paymentWebClient")
     public WebClient paymentWebClient() {
-        return WebClient.builder()
-                .baseUrl(paymentServiceUrl)
-                .build();
+        return downstream("payment", paymentServiceUrl);
     }
 
     @Bean("calendarWebClient")
     public WebClient calendarWebClient() {
-        return WebClient.builder()
-                .baseUrl(calendarServiceUrl)
-                .build();
+        return downstream("calendar", calendarServiceUrl);
     }
 
     @Bean("notificationWebClient")
     public WebClient notificationWebClient() {
-        return WebClient.builder()
-                .baseUrl(notificationServiceUrl)
+        return downstream("notification", notificationServiceUrl);
+    }
+
+    @Bean("facilityWebClient")
+    public WebClient facilityWebClient() {
+        return downstream("facility", facilityServiceUrl);
+    }
+
+    // /internal/users v auth-service zahteva skupni žeton
+    @Bean("authWebClient")
+    public WebClient authWebClient(@Value("${internal.api.token:}") String internalApiToken) {
+        return downstream("auth", authServiceUrl).mutate()
+                .defaultHeader(InternalApiGuard.HEADER, internalApiToken)
                 .build();
     }
 
     @Bean("externalAuthWebClient")
     public WebClient externalAuthWebClient(@Value("${external.api.url}") String externalApiUrl) {
+        return downstream("external-auth", externalApiUrl);
+    }
+
+    WebClient downstream(String client, String baseUrl) {
+        boolean metrics = setting(client, "metrics-enabled", Boolean.class, true);
+        ConnectionProvider provider = ConnectionProvider.builder("booking-" + client)
+                .maxConnections(setting(client, "max-connections", Integer.class, 50))
+                .pendingAcquireMaxCount(setting(client, "pending-acquire-max-count", Integer.class, 100))
+                .pendingAcquireTimeout(millis(client, "pending-acquire-timeout-ms", 500))
+                .maxIdleTime(millis(client, "max-idle-time-ms", 30000))
+                .maxLifeTime(millis(client, "max-life-time-ms", 300000))
+                .evictInBackground(millis(client, "evict-interval-ms", 30000))
+                .metrics(metrics)
+                .build();
+        connectionProviders.add(provider);
+
+        HttpClient httpClient = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, setting(client, "connect-timeout-ms", Integer.class, 1000))
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                // Velja le za posamezen zahtevek; Read/WriteTimeoutHandler na povezavi bi zapiral proste povezave v bazenu
+                .responseTimeout(millis(client, "response-timeout-ms", 3000));
+        if (setting(client, "h2c", Boolean.class, false)) {
+            // HTTP/2 brez TLS; strežnik, ki ga ne podpira, ostane na HTTP/1.1
+            httpClient = httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+        if (metrics) {
+            httpClient = httpClient.metrics(true, WebClientConfig::uriTag);
+        }
+
         return WebClient.builder()
-                .baseUrl(externalApiUrl)
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(RequestDeadline.propagation())
+                .observationRegistry(observationRegistry)
                 .build();
     }
+
+    @PreDestroy
+    public void disposeConnectionProviders() {
+        connectionProviders.forEach(ConnectionProvider::dispose);
+    }
+
+    static String uriTag(String uri) {
+        int query = uri.indexOf('?');
+        String path = query >= 0 ? uri.substring(0, query) : uri;
+        return ID_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+
+    private <T> T setting(String client, String key, Class<T> type, T defaultValue) {
+        T shared = environment.getProperty("booking.http." + key, type, defaultValue);
+        return environment.getProperty("booking.http." + client + "." + key, type, shared);
+    }
+
+    private Duration millis(String client, String key, long defaultValue) {
+        return Duration.ofMillis(setting(client, key, Long.class, defaultValue));
+    }
 }
@@ -3,38 +3,65 @@ package si.fri.prpo.bookingservice.controller;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import reactor.core.publisher.Flux;
 import si.fri.prpo.bookingservice.client.ExternalAuthApiClient;
+import si.fri.prpo.bookingservice.dto.AvailabilityDelta;
+import si.fri.prpo.bookingservice.dto.AvailabilityResponse;
+import si.fri.prpo.bookingservice.dto.BookingPage;
 import si.fri.prpo.bookingservice.dto.BookingRequest;
+import si.fri.prpo.bookingservice.dto.BookingSeriesRequest;
+import si.fri.prpo.bookingservice.dto.BookingSeriesResponse;
+import si.fri.prpo.bookingservice.dto.FacilitySearchRequest;
+import si.fri.prpo.bookingservice.dto.FacilitySearchResponse;
 import si.fri.prpo.bookingservice.dto.BookingResponse;
+import si.fri.prpo.bookingservice.dto.SlotHoldRequest;
+import si.fri.prpo.bookingservice.dto.SlotHoldResponse;
 import si.fri.prpo.bookingservice.dto.UpdateBookingStatusRequest;
+import si.fri.prpo.bookingservice.service.AvailabilityStream;
 import si.fri.prpo.bookingservice.service.BookingService;
+import si.fri.prpo.bookingservice.service.FacilityPricing;
+import si.fri.prpo.bookingservice.service.NotificationEnrichment;
+import si.fri.prpo.bookingservice.service.SlotHoldService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/bookings")
 @RequiredArgsConstructor
 @Slf4j
 public class BookingController {
 
     private final BookingService bookingService;
+    private final SlotHoldService slotHoldService;
+    private final FacilityPricing facilityPricing;
+    private final NotificationEnrichment notificationEnrichment;
     private final ExternalAuthApiClient externalAuthApiClient;
+    private final AvailabilityStream availabilityStream;
 
     /**
      * Ustvari novo rezervacijo
      * POST /api/bookings
+     * Neobvezen Idempotency-Key: ponovni poskus z istim ključem vrne prvotni odgovor
      */
     @PostMapping
     public ResponseEntity<BookingResponse> createBooking(
             @RequestHeader("X-User-Id") Long userId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody BookingRequest request) {
         log.info("Received create booking request from user {}", userId);
         try {
-            BookingResponse response = bookingService.createBooking(userId, request);
+            BookingResponse response = bookingService.createBooking(userId, request, idempotencyKey);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
         } catch (IllegalArgumentException e) {
             log.error("Validation error: {}", e.getMessage());
@@ -45,28 +72,92 @@ public class BookingController {
         }
     }
 
+    /**
+     * Ustvari ponavljajočo se rezervacijo (DAILY/WEEKLY); zasedeni termini so vrnjeni v rejected
+     * POST /api/bookings/series
+     */
+    @PostMapping("/series")
+    public ResponseEntity<BookingSeriesResponse> createSeries(
+            @RequestHeader("X-User-Id") Long userId,
+            @Valid @RequestBody BookingSeriesRequest request) {
+        log.info("Received create booking series request from user {}", userId);
+        BookingSeriesResponse response = bookingService.createSeries(userId, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * Zadrži termin za nekaj minut (med izbiro in potrditvijo)
+     * POST /api/bookings/holds
+     */
+    @PostMapping("/holds")
+    public ResponseEntity<SlotHoldResponse> createHold(
+            @RequestHeader("X-User-Id") Long userId,
+            @Valid @RequestBody SlotHoldRequest request) {
+        log.info("Received hold request from user {}", userId);
+        SlotHoldResponse response = slotHoldService.createHold(userId, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * Potrdi zadržitev v rezervacijo
+     * POST /api/bookings/holds/{id}/confirm
+     */
+    @PostMapping("/holds/{id}/confirm")
+    public ResponseEntity<BookingResponse> confirmHold(
+            @PathVariable Long id,
+            @RequestHeader("X-User-Id") Long userId) {
+        log.info("Confirming hold {} by user {}", id, userId);
+        BookingResponse response = bookingService.confirmHold(id, userId);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * Sprosti zadržitev pred potekom
+     * DELETE /api/bookings/holds/{id}
+     */
+    @DeleteMapping("/holds/{id}")
+    public ResponseEntity<Void> releaseHold(
+            @PathVariable Long id,
+            @RequestHeader("X-User-Id") Long userId) {
+        log.info("Releasing hold {} by user {}", id, userId);
+        slotHoldService.releaseHold(id, userId);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Pridobi vse moje rezervacije
      * GET /api/bookings/my
+     * Seznami so stranjeni (keyset): ?size= (privzeto 20, največ 100) in ?cursor= iz nextCursor prejšnje strani
      */
     @GetMapping("/my")
-    public ResponseEntity<List<BookingResponse>> getMyBookings(
-            @RequestHeader("X-User-Id") Long userId) {
+    public ResponseEntity<BookingPage> getMyBookings(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         log.info("Fetching all bookings for user {}", userId);
-        List<BookingResponse> bookings = bookingService.getMyBookings(userId);
+        BookingPage bookings = bookingService.getMyBookings(userId, cursor, size);
         return ResponseEntity.ok(bookings);
     }
 
     /**
      * Pridobi prihodnje rezervacije
      * GET /api/bookings/my/upcoming
+     *
+     * Odgovor nosi ETag; ob ujemajočem If-None-Match vrne 304 brez branja rezervacij.
      */
     @GetMapping("/my/upcoming")
-    public ResponseEntity<List<BookingResponse>> getUpcomingBookings(
-            @RequestHeader("X-User-Id") Long userId) {
+    public ResponseEntity<BookingPage> getUpcomingBookings(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
+        String eTag = bookingService.getUpcomingBookingsETag(userId);
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
         log.info("Fetching upcoming bookings for user {}", userId);
-        List<BookingResponse> bookings = bookingService.getUpcomingBookings(userId);
-        return ResponseEntity.ok(bookings);
+        BookingPage bookings = bookingService.getUpcomingBookings(userId, cursor, size);
+        return ResponseEntity.ok().eTag(eTag).body(bookings);
     }
 
     /**
@@ -74,24 +165,34 @@ public class BookingController {
      * GET /api/bookings/my/past
      */
     @GetMapping("/my/past")
-    public ResponseEntity<List<BookingResponse>> getPastBookings(
-            @RequestHeader("X-User-Id") Long userId) {
+    public ResponseEntity<BookingPage> getPastBookings(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         log.info("Fetching past bookings for user {}", userId);
-        List<BookingResponse> bookings = bookingService.getPastBookings(userId);
+        BookingPage bookings = bookingService.getPastBookings(userId, cursor, size);
         return ResponseEntity.ok(bookings);
     }
 
     /**
      * Pridobi specifično rezervacijo
      * GET /api/bookings/{id}
+     *
+     * Odgovor nosi ETag; ob ujemajočem If-None-Match vrne 304 brez nalaganja rezervacije.
      */
     @GetMapping("/{id}")
     public ResponseEntity<BookingResponse> getBookingById(
             @PathVariable Long id,
-            @RequestHeader("X-User-Id") Long userId) {
+            @RequestHeader("X-User-Id") Long userId,
+            WebRequest webRequest) {
+        // Brez oznake (ne obstaja ali ni uporabnikova) napako vrne običajno branje
+        String eTag = bookingService.getBookingETag(id, userId).orElse(null);
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
         log.info("Fetching booking {} for user {}", id, userId);
         BookingResponse booking = bookingService.getBookingById(id, userId);
-        return ResponseEntity.ok(booking);
+        return ResponseEntity.ok().eTag(eTag).body(booking);
     }
 
     /**
@@ -99,13 +200,64 @@ public class BookingController {
      * GET /api/bookings/facility/{facilityId}
      */
     @GetMapping("/facility/{facilityId}")
-    public ResponseEntity<List<BookingResponse>> getBookingsByFacility(
-            @PathVariable Long facilityId) {
+    public ResponseEntity<BookingPage> getBookingsByFacility(
+            @PathVariable Long facilityId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         log.info("Fetching bookings for facility {}", facilityId);
-        List<BookingResponse> bookings = bookingService.getBookingsByFacility(facilityId);
+        BookingPage bookings = bookingService.getBookingsByFacility(facilityId, cursor, size);
         return ResponseEntity.ok(bookings);
     }
 
+    /**
+     * Prosti termini objekta (združeni prosti intervali, vsaj 1 ura, poravnani na granularity v minutah)
+     * GET /api/bookings/facility/{facilityId}/availability?from=&to=&granularity=
+     */
+    @GetMapping("/facility/{facilityId}/availability")
+    public ResponseEntity<AvailabilityResponse> getAvailability(
+            @PathVariable Long facilityId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer granularity) {
+        log.info("Fetching availability of facility {} between {} and {}", facilityId, from, to);
+        AvailabilityResponse availability = bookingService.getAvailability(facilityId, from, to, granularity);
+        return ResponseEntity.ok(availability);
+    }
+
+    /**
+     * Tok sprememb razpoložljivosti objekta (SSE): booked/released ob vsaki spremembi rezervacije,
+     * resync, ko mora odjemalec razpoložljivost naložiti znova (ob odprtju in ko zaostane)
+     * GET /api/bookings/facility/{facilityId}/availability/stream
+     */
+    @GetMapping("/facility/{facilityId}/availability/stream")
+    public ResponseEntity<Flux<ServerSentEvent<AvailabilityDelta>>> streamAvailability(@PathVariable Long facilityId) {
+        log.info("Opening availability stream for facility {}", facilityId);
+        return eventStream(availabilityStream.subscribe(List.of(facilityId)));
+    }
+
+    /**
+     * Tok sprememb razpoložljivosti več objektov v eni povezavi
+     * GET /api/bookings/availability/stream?facilityIds=1,2,3
+     */
+    @GetMapping("/availability/stream")
+    public ResponseEntity<Flux<ServerSentEvent<AvailabilityDelta>>> streamAvailability(
+            @RequestParam List<Long> facilityIds) {
+        log.info("Opening availability stream for facilities {}", facilityIds);
+        return eventStream(availabilityStream.subscribe(facilityIds));
+    }
+
+    /**
+     * Kateri od podanih objektov so prosti v celotnem oknu (okno na četrt ure natančno)
+     * POST /api/bookings/availability/search
+     */
+    @PostMapping("/availability/search")
+    public ResponseEntity<FacilitySearchResponse> searchFreeFacilities(
+            @Valid @RequestBody FacilitySearchRequest request) {
+        log.info("Searching free facilities between {} and {}", request.getStartTime(), request.getEndTime());
+        FacilitySearchResponse response = bookingService.searchFreeFacilities(request);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Posodobi status rezervacije
      * PATCH /api/bookings/{id}/status
@@ -133,6 +285,17 @@ public class BookingController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Obvestilo facility-service, da se je objekt spremenil ali bil izbrisan (zavrže ceno in ime iz predpomnilnika)
+     * POST /api/bookings/internal/facilities/{facilityId}/changed (zahteva X-Internal-Token)
+     */
+    @PostMapping("/internal/facilities/{facilityId}/changed")
+    public ResponseEntity<Void> facilityChanged(@PathVariable Long facilityId) {
+        facilityPricing.invalidate(facilityId);
+        notificationEnrichment.invalidateFacility(facilityId);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Demonstrates an authenticated call to an external API (Bearer token)
      * GET /api/bookings/external/auth-check
@@ -142,4 +305,13 @@ public class BookingController {
         Map<String, Object> payload = externalAuthApiClient.getAuthStatus();
         return ResponseEntity.ok(Map.of("status", "ok", "externalResponse", payload));
     }
+
+    // Brez predpomnjenja in brez medpomnjenja v nginx ingressu, da dogodki pridejo takoj
+    private static ResponseEntity<Flux<ServerSentEvent<AvailabilityDelta>>> eventStream(
+            Flux<ServerSentEvent<AvailabilityDelta>> events) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(events);
+    }
 }
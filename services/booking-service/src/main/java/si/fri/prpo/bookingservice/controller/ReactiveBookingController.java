@@ -0,0 +1,271 @@
+package si.fri.prpo.bookingservice.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import si.fri.prpo.bookingservice.client.ExternalAuthApiClient;
+import si.fri.prpo.bookingservice.dto.AvailabilityDelta;
+import si.fri.prpo.bookingservice.dto.AvailabilityResponse;
+import si.fri.prpo.bookingservice.dto.BookingPage;
+import si.fri.prpo.bookingservice.dto.BookingRequest;
+import si.fri.prpo.bookingservice.dto.BookingSeriesRequest;
+import si.fri.prpo.bookingservice.dto.BookingSeriesResponse;
+import si.fri.prpo.bookingservice.dto.FacilitySearchRequest;
+import si.fri.prpo.bookingservice.dto.FacilitySearchResponse;
+import si.fri.prpo.bookingservice.dto.BookingResponse;
+import si.fri.prpo.bookingservice.dto.UpdateBookingStatusRequest;
+import si.fri.prpo.bookingservice.service.AvailabilityStream;
+import si.fri.prpo.bookingservice.service.FacilityPricing;
+import si.fri.prpo.bookingservice.service.NotificationEnrichment;
+import si.fri.prpo.bookingservice.service.ReactiveBookingService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WebFlux različica {@link BookingController} (profil reactive) z enakimi potmi in odgovori.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/bookings")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveBookingController {
+
+    private final ReactiveBookingService bookingService;
+    private final FacilityPricing facilityPricing;
+    private final NotificationEnrichment notificationEnrichment;
+    private final ExternalAuthApiClient externalAuthApiClient;
+    private final AvailabilityStream availabilityStream;
+
+    /**
+     * Ustvari novo rezervacijo
+     * POST /api/bookings
+     */
+    @PostMapping
+    public Mono<ResponseEntity<BookingResponse>> createBooking(
+            @RequestHeader("X-User-Id") Long userId,
+            @Valid @RequestBody BookingRequest request) {
+        log.info("Received create booking request from user {}", userId);
+        return bookingService.createBooking(userId, request)
+                .map(response -> ResponseEntity.status(HttpStatus.CREATED).body(response))
+                .doOnError(IllegalArgumentException.class, e -> log.error("Validation error: {}", e.getMessage()))
+                .doOnError(IllegalStateException.class, e -> log.error("Booking conflict: {}", e.getMessage()));
+    }
+
+    /**
+     * Ustvari ponavljajočo se rezervacijo (DAILY/WEEKLY); zasedeni termini so vrnjeni v rejected
+     * POST /api/bookings/series
+     */
+    @PostMapping("/series")
+    public Mono<ResponseEntity<BookingSeriesResponse>> createSeries(
+            @RequestHeader("X-User-Id") Long userId,
+            @Valid @RequestBody BookingSeriesRequest request) {
+        log.info("Received create booking series request from user {}", userId);
+        return bookingService.createSeries(userId, request)
+                .map(response -> ResponseEntity.status(HttpStatus.CREATED).body(response));
+    }
+
+    /**
+     * Pridobi vse moje rezervacije
+     * GET /api/bookings/my
+     * Seznami so stranjeni (keyset): ?size= (privzeto 20, največ 100) in ?cursor= iz nextCursor prejšnje strani
+     */
+    @GetMapping("/my")
+    public Mono<BookingPage> getMyBookings(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        log.info("Fetching all bookings for user {}", userId);
+        return bookingService.getMyBookings(userId, cursor, size);
+    }
+
+    /**
+     * Pridobi prihodnje rezervacije
+     * GET /api/bookings/my/upcoming
+     *
+     * Odgovor nosi ETag; ob ujemajočem If-None-Match vrne 304 brez branja rezervacij.
+     */
+    @GetMapping("/my/upcoming")
+    public Mono<ResponseEntity<BookingPage>> getUpcomingBookings(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            ServerWebExchange exchange) {
+        return bookingService.getUpcomingBookingsETag(userId)
+                .flatMap(eTag -> {
+                    if (exchange.checkNotModified(eTag)) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<BookingPage>build());
+                    }
+                    log.info("Fetching upcoming bookings for user {}", userId);
+                    return bookingService.getUpcomingBookings(userId, cursor, size)
+                            .map(bookings -> ResponseEntity.ok().eTag(eTag).body(bookings));
+                });
+    }
+
+    /**
+     * Pridobi pretekle rezervacije
+     * GET /api/bookings/my/past
+     */
+    @GetMapping("/my/past")
+    public Mono<BookingPage> getPastBookings(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        log.info("Fetching past bookings for user {}", userId);
+        return bookingService.getPastBookings(userId, cursor, size);
+    }
+
+    /**
+     * Pridobi specifično rezervacijo
+     * GET /api/bookings/{id}
+     *
+     * Odgovor nosi ETag; ob ujemajočem If-None-Match vrne 304 brez nalaganja rezervacije.
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<BookingResponse>> getBookingById(
+            @PathVariable Long id,
+            @RequestHeader("X-User-Id") Long userId,
+            ServerWebExchange exchange) {
+        return bookingService.getBookingETag(id, userId)
+                .flatMap(eTag -> {
+                    if (exchange.checkNotModified(eTag)) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<BookingResponse>build());
+                    }
+                    log.info("Fetching booking {} for user {}", id, userId);
+                    return bookingService.getBookingById(id, userId)
+                            .map(booking -> ResponseEntity.ok().eTag(eTag).body(booking));
+                })
+                // Brez oznake (ne obstaja ali ni uporabnikova) napako vrne običajno branje
+                .switchIfEmpty(Mono.defer(() -> bookingService.getBookingById(id, userId).map(ResponseEntity::ok)));
+    }
+
+    /**
+     * Pridobi vse rezervacije za določen objekt
+     * GET /api/bookings/facility/{facilityId}
+     */
+    @GetMapping("/facility/{facilityId}")
+    public Mono<BookingPage> getBookingsByFacility(
+            @PathVariable Long facilityId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        log.info("Fetching bookings for facility {}", facilityId);
+        return bookingService.getBookingsByFacility(facilityId, cursor, size);
+    }
+
+    /**
+     * Prosti termini objekta (združeni prosti intervali, vsaj 1 ura, poravnani na granularity v minutah)
+     * GET /api/bookings/facility/{facilityId}/availability?from=&to=&granularity=
+     */
+    @GetMapping("/facility/{facilityId}/availability")
+    public Mono<AvailabilityResponse> getAvailability(
+            @PathVariable Long facilityId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer granularity) {
+        log.info("Fetching availability of facility {} between {} and {}", facilityId, from, to);
+        return bookingService.getAvailability(facilityId, from, to, granularity);
+    }
+
+    /**
+     * Tok sprememb razpoložljivosti objekta (SSE): booked/released ob vsaki spremembi rezervacije,
+     * resync, ko mora odjemalec razpoložljivost naložiti znova (ob odprtju in ko zaostane)
+     * GET /api/bookings/facility/{facilityId}/availability/stream
+     */
+    @GetMapping("/facility/{facilityId}/availability/stream")
+    public ResponseEntity<Flux<ServerSentEvent<AvailabilityDelta>>> streamAvailability(@PathVariable Long facilityId) {
+        log.info("Opening availability stream for facility {}", facilityId);
+        return eventStream(availabilityStream.subscribe(List.of(facilityId)));
+    }
+
+    /**
+     * Tok sprememb razpoložljivosti več objektov v eni povezavi
+     * GET /api/bookings/availability/stream?facilityIds=1,2,3
+     */
+    @GetMapping("/availability/stream")
+    public ResponseEntity<Flux<ServerSentEvent<AvailabilityDelta>>> streamAvailability(
+            @RequestParam List<Long> facilityIds) {
+        log.info("Opening availability stream for facilities {}", facilityIds);
+        return eventStream(availabilityStream.subscribe(facilityIds));
+    }
+
+    /**
+     * Kateri od podanih objektov so prosti v celotnem oknu (okno na četrt ure natančno)
+     * POST /api/bookings/availability/search
+     */
+    @PostMapping("/availability/search")
+    public Mono<FacilitySearchResponse> searchFreeFacilities(
+            @Valid @RequestBody FacilitySearchRequest request) {
+        log.info("Searching free facilities between {} and {}", request.getStartTime(), request.getEndTime());
+        return bookingService.searchFreeFacilities(request);
+    }
+
+    /**
+     * Posodobi status rezervacije
+     * PATCH /api/bookings/{id}/status
+     */
+    @PatchMapping("/{id}/status")
+    public Mono<BookingResponse> updateBookingStatus(
+            @PathVariable Long id,
+            @RequestHeader("X-User-Id") Long userId,
+            @Valid @RequestBody UpdateBookingStatusRequest request) {
+        log.info("Updating status of booking {} to {} by user {}", id, request.getStatus(), userId);
+        return bookingService.updateBookingStatus(id, userId, request);
+    }
+
+    /**
+     * Prekliči rezervacijo
+     * DELETE /api/bookings/{id}
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> cancelBooking(
+            @PathVariable Long id,
+            @RequestHeader("X-User-Id") Long userId) {
+        log.info("Cancelling booking {} by user {}", id, userId);
+        return bookingService.cancelBooking(id, userId)
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()));
+    }
+
+    /**
+     * Obvestilo facility-service, da se je objekt spremenil ali bil izbrisan (zavrže ceno in ime iz predpomnilnika)
+     * POST /api/bookings/internal/facilities/{facilityId}/changed (zahteva X-Internal-Token)
+     */
+    @PostMapping("/internal/facilities/{facilityId}/changed")
+    public Mono<ResponseEntity<Void>> facilityChanged(@PathVariable Long facilityId) {
+        return Mono.fromRunnable(() -> {
+                    facilityPricing.invalidate(facilityId);
+                    notificationEnrichment.invalidateFacility(facilityId);
+                })
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()));
+    }
+
+    /**
+     * Demonstrates an authenticated call to an external API (Bearer token)
+     * GET /api/bookings/external/auth-check
+     */
+    @GetMapping("/external/auth-check")
+    public Mono<Map<String, Object>> externalAuthCheck() {
+        return externalAuthApiClient.getAuthStatusAsync()
+                .map(payload -> Map.of("status", "ok", "externalResponse", payload));
+    }
+
+    // Brez predpomnjenja in brez medpomnjenja v nginx ingressu, da dogodki pridejo takoj
+    private static ResponseEntity<Flux<ServerSentEvent<AvailabilityDelta>>> eventStream(
+            Flux<ServerSentEvent<AvailabilityDelta>> events) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(events);
+    }
+}
@@ -0,0 +1,29 @@
+package si.fri.prpo.bookingservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import si.fri.prpo.bookingservice.entity.Booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Podatki dogodka toka razpoložljivosti: pri booked/released spremenjeni termin, pri resync
+ * razlog (subscribed, overflow), po katerem odjemalec ponovno naloži razpoložljivost.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AvailabilityDelta {
+
+    private Long facilityId;
+    private Long bookingId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private BookingStatus status;
+    private String reason;
+}
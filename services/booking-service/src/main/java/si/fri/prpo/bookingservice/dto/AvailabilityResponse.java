@@ -0,0 +1,23 @@
+package si.fri.prpo.bookingservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AvailabilityResponse {
+
+    private Long facilityId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private int granularityMinutes;
+    // Združeni prosti intervali, poravnani na granularity in dolgi vsaj minimalno trajanje rezervacije
+    private List<FreeInterval> freeIntervals;
+}
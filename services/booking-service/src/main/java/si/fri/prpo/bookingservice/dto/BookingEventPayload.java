@@ -0,0 +1,51 @@
+package si.fri.prpo.bookingservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Vsebina outbox zapisa: posnetek rezervacije ob zapisu in napredek že opravljenih korakov,
+ * da ponovni poskus ne ponovi uspelih klicev (npr. plačila).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookingEventPayload {
+
+    private Long bookingId;
+    private Long userId;
+    private Long facilityId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private BigDecimal totalPrice;
+
+    // Napredek pri BOOKING_CONFIRMED
+    private Long paymentId;
+    private String paymentSessionId;
+    private Long calendarEventId;
+    private boolean paymentNotified;
+    private boolean calendarNotified;
+
+    // Id-ji rezervacij pri BOOKINGS_COMPLETED in BOOKINGS_EXPIRED; pri obveščanju se sproti
+    // odstranjujejo, da ponovni poskus ne obvesti istega uporabnika dvakrat
+    private List<Long> bookingIds;
+
+    // Ustvarjeni termini pri BOOKING_SERIES_CREATED (totalPrice je vsota cen)
+    private List<Occurrence> occurrences;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Occurrence {
+        private Long bookingId;
+        private LocalDateTime startTime;
+        private LocalDateTime endTime;
+    }
+}
@@ -0,0 +1,21 @@
+package si.fri.prpo.bookingservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Stran rezervacij; nextCursor je null na zadnji strani, sicer ga odjemalec pošlje kot ?cursor=.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookingPage {
+
+    private List<BookingResponse> items;
+    private String nextCursor;
+}
@@ -0,0 +1,51 @@
+package si.fri.prpo.bookingservice.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ponavljajoča se rezervacija: prvi termin (startTime-endTime) se ponovi vsakih interval dni
+ * oziroma tednov, dokler ni doseženo število ponovitev (count) ali datum until.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookingSeriesRequest {
+
+    @NotNull(message = "Facility ID is required")
+    private Long facilityId;
+
+    @NotNull(message = "Start time is required")
+    @Future(message = "Start time must be in the future")
+    private LocalDateTime startTime;
+
+    @NotNull(message = "End time is required")
+    @Future(message = "End time must be in the future")
+    private LocalDateTime endTime;
+
+    @NotNull(message = "Frequency is required")
+    private Frequency frequency;
+
+    @Min(value = 1, message = "Interval must be at least 1")
+    private Integer interval;
+
+    @Min(value = 1, message = "Count must be at least 1")
+    private Integer count;
+
+    // Zadnji dovoljeni začetek termina (vključno)
+    private LocalDateTime until;
+
+    @Size(max = 500, message = "Notes cannot exceed 500 characters")
+    private String notes;
+
+    public enum Frequency {
+        DAILY,
+        WEEKLY
+    }
+}
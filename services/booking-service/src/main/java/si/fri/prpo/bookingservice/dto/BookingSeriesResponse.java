@@ -0,0 +1,21 @@
+package si.fri.prpo.bookingservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookingSeriesResponse {
+
+    private Long facilityId;
+    // Ustvarjene rezervacije v časovnem zaporedju
+    private List<BookingResponse> created;
+    // Termini, ki so bili zavrnjeni (zasedeni), ostali del serije je vseeno ustvarjen
+    private List<RejectedOccurrence> rejected;
+}
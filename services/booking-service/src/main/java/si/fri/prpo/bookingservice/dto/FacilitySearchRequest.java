@@ -0,0 +1,29 @@
+package si.fri.prpo.bookingservice.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacilitySearchRequest {
+
+    @NotEmpty(message = "At least one facility ID is required")
+    @Size(max = 10000, message = "Cannot search more than 10000 facilities at once")
+    private List<@NotNull Long> facilityIds;
+
+    @NotNull(message = "Start time is required")
+    private LocalDateTime startTime;
+
+    @NotNull(message = "End time is required")
+    private LocalDateTime endTime;
+}
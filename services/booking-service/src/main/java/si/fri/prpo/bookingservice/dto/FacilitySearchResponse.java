@@ -0,0 +1,21 @@
+package si.fri.prpo.bookingservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacilitySearchResponse {
+
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    // Objekti iz zahteve, ki so prosti v celotnem oknu
+    private List<Long> freeFacilityIds;
+}
@@ -0,0 +1,19 @@
+package si.fri.prpo.bookingservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RejectedOccurrence {
+
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private String reason;
+}
@@ -0,0 +1,22 @@
+package si.fri.prpo.bookingservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlotHoldResponse {
+
+    private Long id;
+    private Long facilityId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    // Po tem času je termin spet prost, če zadržitev ni potrjena
+    private LocalDateTime expiresAt;
+}
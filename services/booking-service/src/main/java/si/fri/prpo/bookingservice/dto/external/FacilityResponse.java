@@ -0,0 +1,23 @@
+package si.fri.prpo.bookingservice.dto.external;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacilityResponse {
+    private Long id;
+    private String name;
+    private String type;
+    private String address;
+    private BigDecimal pricePerHour;
+    private Boolean available;
+    private LocalDateTime updatedAt;
+}
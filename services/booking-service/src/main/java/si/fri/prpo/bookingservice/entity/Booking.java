@@ -10,6 +10,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "bookings")
+@org.springframework.data.relational.core.mapping.Table("bookings") // R2DBC (profil reactive)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,6 +18,7 @@ import java.time.LocalDateTime;
 public class Booking {
 
     @Id
+    @org.springframework.data.annotation.Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
@@ -0,0 +1,87 @@
+package si.fri.prpo.bookingservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Zapis v outbox tabeli: stranski učinek rezervacije (plačilo, koledar, obvestila), zapisan v isti
+ * transakciji kot rezervacija in dostavljen asinhrono prek OutboxRelay.
+ */
+@Entity
+@Table(name = "booking_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long bookingId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 40)
+    private EventType eventType;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OutboxStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime processedAt;
+
+    // W3C traceparent zahtevka, ki je zapis ustvaril; OutboxRelay dostavo nadaljuje v isti sledi
+    @Column(length = 55)
+    private String traceParent;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+        if (status == null) {
+            status = OutboxStatus.PENDING;
+        }
+    }
+
+    public enum EventType {
+        BOOKING_CREATED,
+        BOOKING_CONFIRMED,
+        BOOKING_CANCELLED,
+        // bookingId je prva rezervacija serije, payload.occurrences vse ustvarjene
+        BOOKING_SERIES_CREATED,
+        // Množični prehodi iz BookingLifecycleSweeper: bookingId je prvi, payload.bookingIds vsi id-ji kosa
+        BOOKINGS_COMPLETED,
+        BOOKINGS_EXPIRED
+    }
+
+    public enum OutboxStatus {
+        PENDING,
+        PROCESSING,
+        SENT,
+        FAILED
+    }
+}
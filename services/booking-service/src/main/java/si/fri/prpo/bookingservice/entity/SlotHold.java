@@ -0,0 +1,49 @@
+package si.fri.prpo.bookingservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import si.fri.prpo.bookingservice.repository.BookingInterval;
+
+import java.time.LocalDateTime;
+
+/**
+ * Zadržan termin objekta do expiresAt; sodeluje pri preverjanju prekrivanj kot rezervacija.
+ */
+@Entity
+@Table(name = "booking_holds")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlotHold implements BookingInterval {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long facilityId;
+
+    @Column(nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(nullable = false)
+    private LocalDateTime endTime;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
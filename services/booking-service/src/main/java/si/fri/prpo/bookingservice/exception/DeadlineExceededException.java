@@ -0,0 +1,11 @@
+package si.fri.prpo.bookingservice.exception;
+
+/**
+ * Rok zahtevka je potekel, preden se je klic druge storitve začel ali končal; klicatelj dobi 504.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
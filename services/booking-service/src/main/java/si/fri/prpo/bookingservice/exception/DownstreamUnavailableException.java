@@ -0,0 +1,28 @@
+package si.fri.prpo.bookingservice.exception;
+
+import java.time.Duration;
+
+/**
+ * Klicana storitev trenutno ni na voljo: odprt circuit breaker, poln bulkhead ali neuspel klic.
+ * Klicatelj dobi 503, z glavo Retry-After, kadar je znano, kdaj je smiselno poskusiti znova.
+ */
+public class DownstreamUnavailableException extends RuntimeException {
+
+    private final String service;
+    private final Duration retryAfter;
+
+    public DownstreamUnavailableException(String service, String message, Duration retryAfter, Throwable cause) {
+        super(message, cause);
+        this.service = service;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    // null, kadar čas ponovnega poskusa ni znan
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
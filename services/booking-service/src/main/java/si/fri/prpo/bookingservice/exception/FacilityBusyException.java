@@ -0,0 +1,21 @@
+package si.fri.prpo.bookingservice.exception;
+
+import java.time.Duration;
+
+/**
+ * Pas objekta je ostal zaseden dlje od booking.admission.lock-timeout-ms: zahtevek ni bil sprejet,
+ * termin pa ni nujno zaseden. Klicatelj dobi 503 z Retry-After, ne 409.
+ */
+public class FacilityBusyException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public FacilityBusyException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -1,13 +1,20 @@
 package si.fri.prpo.bookingservice.exception;
 
+import io.r2dbc.spi.R2dbcException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -16,6 +23,10 @@ import java.util.Map;
 @Slf4j
 public class GlobalExceptionHandler {
 
+    // Exclusion constraint iz V3__booking_no_overlap.sql
+    public static final String BOOKING_OVERLAP_CONSTRAINT = "bookings_no_overlap";
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
         log.error("Validation error: {}", ex.getMessage());
@@ -40,10 +51,81 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
     }
 
+    // Rok zahtevka je potekel (tu ali pri klicani storitvi)
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<ErrorResponse> handleDeadlineExceeded(DeadlineExceededException ex) {
+        log.warn("Deadline exceeded: {}", ex.getMessage());
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.GATEWAY_TIMEOUT.value())
+                .error("Deadline Exceeded")
+                .message(ex.getMessage())
+                .build();
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(error);
+    }
+
+    // Odprt breaker, poln bulkhead ali nedosegljiva storitev: preobremenitev, ne konflikt
+    @ExceptionHandler(DownstreamUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleDownstreamUnavailable(DownstreamUnavailableException ex) {
+        log.warn("Downstream {} unavailable: {}", ex.getService(), ex.getMessage());
+        return serviceUnavailable(ex.getMessage(), ex.getRetryAfter());
+    }
+
+    // Zaseden pas objekta ob sprejemu: preobremenitev, termin je morda prost
+    @ExceptionHandler(FacilityBusyException.class)
+    public ResponseEntity<ErrorResponse> handleFacilityBusy(FacilityBusyException ex) {
+        log.warn("Admission rejected: {}", ex.getMessage());
+        return serviceUnavailable(ex.getMessage(), ex.getRetryAfter());
+    }
+
+    // Le prekrivanje rezervacij je konflikt; ostale kršitve omejitev so napake strežnika
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        if (!isBookingOverlap(ex)) {
+            return handleGenericException(ex);
+        }
+        log.warn("Booking overlap rejected by {}", BOOKING_OVERLAP_CONSTRAINT);
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.CONFLICT.value())
+                .error("Conflict")
+                .message("Facility is not available at the selected time")
+                .build();
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    /**
+     * Ali je napako sprožil exclusion constraint bookings_no_overlap: SQLState 23P01 (JDBC ali R2DBC)
+     * ali ime omejitve v sporočilu gonilnika.
+     */
+    public static boolean isBookingOverlap(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            String sqlState = cause instanceof SQLException sql ? sql.getSQLState()
+                    : cause instanceof R2dbcException r2dbc ? r2dbc.getSqlState() : null;
+            if (EXCLUSION_VIOLATION.equals(sqlState)) {
+                return true;
+            }
+            if (cause.getMessage() != null && cause.getMessage().contains(BOOKING_OVERLAP_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationExceptions(MethodArgumentNotValidException ex) {
+        return validationFailed(ex.getBindingResult());
+    }
+
+    // WebFlux (profil reactive) javi napake @Valid kot WebExchangeBindException
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorResponse> handleWebExchangeBindException(WebExchangeBindException ex) {
+        return validationFailed(ex.getBindingResult());
+    }
+
+    private ResponseEntity<ErrorResponse> validationFailed(BindingResult bindingResult) {
         Map<String, String> errors = new HashMap<>();
-        ex.getBindingResult().getAllErrors().forEach((error) -> {
+        bindingResult.getAllErrors().forEach((error) -> {
             String fieldName = ((FieldError) error).getField();
             String errorMessage = error.getDefaultMessage();
             errors.put(fieldName, errorMessage);
@@ -60,6 +142,22 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    private static ResponseEntity<ErrorResponse> serviceUnavailable(String message, Duration retryAfter) {
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error("Service Unavailable")
+                .message(message)
+                .build();
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE);
+        if (retryAfter != null) {
+            // Retry-After v celih sekundah, zaokroženo navzgor
+            long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        }
+        return response.body(error);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
         log.error("Unexpected error: {}", ex.getMessage(), ex);
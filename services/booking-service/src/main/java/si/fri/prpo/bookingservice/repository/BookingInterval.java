@@ -0,0 +1,17 @@
+package si.fri.prpo.bookingservice.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lahka projekcija rezervacije (samo časovni interval), ki ne naloži celotne entitete.
+ */
+public interface BookingInterval {
+
+    Long getId();
+
+    Long getFacilityId();
+
+    LocalDateTime getStartTime();
+
+    LocalDateTime getEndTime();
+}
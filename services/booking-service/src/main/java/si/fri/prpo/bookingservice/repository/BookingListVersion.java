@@ -0,0 +1,13 @@
+package si.fri.prpo.bookingservice.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Število vrstic seznama in najnovejši updated_at med njimi (ETag seznama).
+ */
+public interface BookingListVersion {
+
+    long getBookingCount();
+
+    LocalDateTime getLastUpdated();
+}
@@ -1,6 +1,8 @@
 package si.fri.prpo.bookingservice.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -9,6 +11,7 @@ import si.fri.prpo.bookingservice.entity.Booking.BookingStatus;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
@@ -38,6 +41,27 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             @Param("startTime") LocalDateTime startTime,
             @Param("endTime") LocalDateTime endTime);
 
+    // Enako kot findConflictingBookings, vendar brez nalaganja entitet
+    @Query("SELECT COUNT(b) > 0 FROM Booking b WHERE b.facilityId = :facilityId " +
+            "AND b.status IN ('PENDING', 'CONFIRMED') " +
+            "AND b.startTime < :endTime AND b.endTime > :startTime")
+    boolean existsConflictingBooking(
+            @Param("facilityId") Long facilityId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime);
+
+    // Aktivni intervali, ki se še niso končali (za polnjenje indeksa ob zagonu)
+    @Query("SELECT b.id AS id, b.facilityId AS facilityId, b.startTime AS startTime, b.endTime AS endTime " +
+            "FROM Booking b WHERE b.status IN ('PENDING', 'CONFIRMED') AND b.endTime > :now")
+    List<BookingInterval> findActiveIntervals(@Param("now") LocalDateTime now);
+
+    @Query("SELECT b.id AS id, b.facilityId AS facilityId, b.startTime AS startTime, b.endTime AS endTime " +
+            "FROM Booking b WHERE b.facilityId = :facilityId " +
+            "AND b.status IN ('PENDING', 'CONFIRMED') AND b.endTime > :now")
+    List<BookingInterval> findActiveIntervalsByFacilityId(
+            @Param("facilityId") Long facilityId,
+            @Param("now") LocalDateTime now);
+
     // Najdi prihodnje rezervacije uporabnika
     @Query("SELECT b FROM Booking b WHERE b.userId = :userId " +
             "AND b.startTime > :now " +
@@ -54,6 +78,62 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             @Param("userId") Long userId,
             @Param("now") LocalDateTime now);
 
+    // Lastnik in updated_at rezervacije za ETag, brez nalaganja entitete
+    @Query("SELECT b.userId AS userId, b.updatedAt AS updatedAt FROM Booking b WHERE b.id = :id")
+    Optional<BookingVersion> findVersionById(@Param("id") Long id);
+
+    // Keyset paginacija po (start_time, id): ponovljeni pogoj na start_time omogoči range scan po
+    // indeksih iz V5, limit pa je velikost strani + 1 (glej BookingPagination)
+
+    // Vse rezervacije uporabnika, najnovejše najprej
+    @Query("SELECT b FROM Booking b WHERE b.userId = :userId " +
+            "AND b.startTime <= :cursorStart AND (b.startTime < :cursorStart OR b.id < :cursorId) " +
+            "ORDER BY b.startTime DESC, b.id DESC")
+    List<Booking> findPageByUserId(
+            @Param("userId") Long userId,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Limit limit);
+
+    // Prihodnje rezervacije uporabnika
+    @Query("SELECT b FROM Booking b WHERE b.userId = :userId AND b.startTime > :now " +
+            "AND b.startTime >= :cursorStart AND (b.startTime > :cursorStart OR b.id > :cursorId) " +
+            "ORDER BY b.startTime ASC, b.id ASC")
+    List<Booking> findUpcomingPageByUserId(
+            @Param("userId") Long userId,
+            @Param("now") LocalDateTime now,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Limit limit);
+
+    // Različica prihodnjih rezervacij uporabnika za ETag (pokriva jo indeks iz V9)
+    @Query("SELECT COUNT(b) AS bookingCount, MAX(b.updatedAt) AS lastUpdated FROM Booking b " +
+            "WHERE b.userId = :userId AND b.startTime > :now")
+    BookingListVersion findUpcomingVersionByUserId(
+            @Param("userId") Long userId,
+            @Param("now") LocalDateTime now);
+
+    // Pretekle rezervacije uporabnika, najnovejše najprej
+    @Query("SELECT b FROM Booking b WHERE b.userId = :userId AND b.endTime < :now " +
+            "AND b.startTime <= :cursorStart AND (b.startTime < :cursorStart OR b.id < :cursorId) " +
+            "ORDER BY b.startTime DESC, b.id DESC")
+    List<Booking> findPastPageByUserId(
+            @Param("userId") Long userId,
+            @Param("now") LocalDateTime now,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Limit limit);
+
+    // Rezervacije objekta v časovnem zaporedju
+    @Query("SELECT b FROM Booking b WHERE b.facilityId = :facilityId " +
+            "AND b.startTime >= :cursorStart AND (b.startTime > :cursorStart OR b.id > :cursorId) " +
+            "ORDER BY b.startTime ASC, b.id ASC")
+    List<Booking> findPageByFacilityId(
+            @Param("facilityId") Long facilityId,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            Limit limit);
+
     // Najdi rezervacije v določenem časovnem obdobju
     @Query("SELECT b FROM Booking b WHERE b.facilityId = :facilityId " +
             "AND b.startTime >= :startDate " +
@@ -63,4 +143,52 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             @Param("facilityId") Long facilityId,
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate);
+
+    // Aktivni intervali, ki sekajo [from, to) - zasedenost za izračun prostih terminov. Za razliko od
+    // findByFacilityIdAndDateRange zajame tudi rezervacije čez rob obdobja in izpusti preklicane.
+    @Query("SELECT b.id AS id, b.facilityId AS facilityId, b.startTime AS startTime, b.endTime AS endTime " +
+            "FROM Booking b WHERE b.facilityId = :facilityId " +
+            "AND b.status IN ('PENDING', 'CONFIRMED') " +
+            "AND b.startTime < :to AND b.endTime > :from " +
+            "ORDER BY b.startTime ASC")
+    List<BookingInterval> findActiveIntervalsInRange(
+            @Param("facilityId") Long facilityId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    // Sweeper življenjskega cikla: kandidati po kosih kot lahka projekcija (brez nalaganja entitet),
+    // urejeni po stolpcu delnega indeksa iz V8, zato vsak kos prebere le začetek indeksa
+
+    // Potrjene rezervacije, ki so se že končale
+    @Query("SELECT b.id AS id, b.facilityId AS facilityId, b.startTime AS startTime, b.endTime AS endTime " +
+            "FROM Booking b WHERE b.status = 'CONFIRMED' AND b.endTime < :now " +
+            "ORDER BY b.endTime ASC, b.id ASC")
+    List<BookingInterval> findEndedConfirmed(@Param("now") LocalDateTime now, Limit limit);
+
+    // Nepotrjene rezervacije, ki so se že začele
+    @Query("SELECT b.id AS id, b.facilityId AS facilityId, b.startTime AS startTime, b.endTime AS endTime " +
+            "FROM Booking b WHERE b.status = 'PENDING' AND b.startTime < :now " +
+            "ORDER BY b.startTime ASC, b.id ASC")
+    List<BookingInterval> findStartedPending(@Param("now") LocalDateTime now, Limit limit);
+
+    // Nepotrjene rezervacije, ustvarjene pred createdBefore
+    @Query("SELECT b.id AS id, b.facilityId AS facilityId, b.startTime AS startTime, b.endTime AS endTime " +
+            "FROM Booking b WHERE b.status = 'PENDING' AND b.createdAt < :createdBefore " +
+            "ORDER BY b.createdAt ASC, b.id ASC")
+    List<BookingInterval> findStalePending(@Param("createdBefore") LocalDateTime createdBefore, Limit limit);
+
+    // Kandidati kosa, ki so še v statusu, zaklenjeni do konca transakcije: prehod jih spremeni
+    // vse, uporabnik ali druga instanca pa jih vmes ne moreta. Nativno, ker @Lock pri dialektu
+    // PostgreSQL ustvari FOR NO KEY UPDATE, ki ga H2 v testih ne pozna
+    @Query(value = "SELECT id FROM bookings WHERE id IN (:ids) AND status = :status FOR UPDATE", nativeQuery = true)
+    List<Long> lockInStatus(@Param("ids") List<Long> ids, @Param("status") String status);
+
+    // Množični prehod statusa zaklenjenih vrstic; pogoj na status je le še varovalka
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :to, b.updatedAt = :now WHERE b.id IN :ids AND b.status = :from")
+    int transitionStatus(
+            @Param("ids") List<Long> ids,
+            @Param("from") BookingStatus from,
+            @Param("to") BookingStatus to,
+            @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,13 @@
+package si.fri.prpo.bookingservice.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lastnik in čas zadnje spremembe rezervacije (ETag), brez nalaganja celotne entitete.
+ */
+public interface BookingVersion {
+
+    Long getUserId();
+
+    LocalDateTime getUpdatedAt();
+}
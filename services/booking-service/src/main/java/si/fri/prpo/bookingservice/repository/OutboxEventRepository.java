@@ -0,0 +1,34 @@
+package si.fri.prpo.bookingservice.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import si.fri.prpo.bookingservice.entity.OutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Zapisi, ki so na vrsti za dostavo (tudi PROCESSING, katerih zakup je potekel)
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status IN ('PENDING', 'PROCESSING') " +
+            "AND e.nextAttemptAt <= :now " +
+            "ORDER BY e.nextAttemptAt ASC")
+    List<OutboxEvent> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Prevzem zapisa za dostavo; vrne 0, če ga je medtem prevzela druga instanca
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = 'PROCESSING', e.nextAttemptAt = :leaseUntil " +
+            "WHERE e.id = :id AND e.status IN ('PENDING', 'PROCESSING') AND e.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id,
+              @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    long countByStatus(OutboxEvent.OutboxStatus status);
+}
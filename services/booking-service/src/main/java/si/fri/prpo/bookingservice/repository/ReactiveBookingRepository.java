@@ -0,0 +1,102 @@
+package si.fri.prpo.bookingservice.repository;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import si.fri.prpo.bookingservice.entity.Booking;
+
+import java.time.LocalDateTime;
+
+/**
+ * R2DBC različica poizvedb iz {@link BookingRepository} za profil reactive.
+ */
+@Repository
+public interface ReactiveBookingRepository extends R2dbcRepository<Booking, Long> {
+
+    // Preveri prekrivanje časa za določen objekt brez nalaganja vrstic
+    @Query("SELECT EXISTS (SELECT 1 FROM bookings WHERE facility_id = :facilityId " +
+            "AND status IN ('PENDING', 'CONFIRMED') " +
+            "AND start_time < :endTime AND end_time > :startTime)")
+    Mono<Boolean> existsConflictingBooking(
+            @Param("facilityId") Long facilityId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime);
+
+    // Aktivni intervali objekta (osvežitev indeksa, ko baza zavrne prekrivanje)
+    @Query("SELECT id, facility_id, start_time, end_time FROM bookings WHERE facility_id = :facilityId " +
+            "AND status IN ('PENDING', 'CONFIRMED') AND end_time > :now")
+    Flux<BookingInterval> findActiveIntervalsByFacilityId(
+            @Param("facilityId") Long facilityId,
+            @Param("now") LocalDateTime now);
+
+    // Aktivni intervali, ki sekajo [from, to) (prosti termini)
+    @Query("SELECT id, facility_id, start_time, end_time FROM bookings WHERE facility_id = :facilityId " +
+            "AND status IN ('PENDING', 'CONFIRMED') AND start_time < :to AND end_time > :from " +
+            "ORDER BY start_time ASC")
+    Flux<BookingInterval> findActiveIntervalsInRange(
+            @Param("facilityId") Long facilityId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    // Veljavne zadržitve (booking_holds, vseh instanc), enako kot SlotHoldRepository
+
+    @Query("SELECT EXISTS (SELECT 1 FROM booking_holds WHERE facility_id = :facilityId " +
+            "AND expires_at > :now AND start_time < :endTime AND end_time > :startTime)")
+    Mono<Boolean> existsConflictingHold(
+            @Param("facilityId") Long facilityId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            @Param("now") LocalDateTime now);
+
+    @Query("SELECT id, facility_id, start_time, end_time FROM booking_holds WHERE facility_id = :facilityId " +
+            "AND expires_at > :now AND start_time < :to AND end_time > :from " +
+            "ORDER BY start_time ASC")
+    Flux<BookingInterval> findActiveHoldsInRange(
+            @Param("facilityId") Long facilityId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("now") LocalDateTime now);
+
+    // Keyset paginacija, enaka kot v BookingRepository (limit = velikost strani + 1)
+
+    @Query("SELECT * FROM bookings WHERE user_id = :userId " +
+            "AND start_time <= :cursorStart AND (start_time < :cursorStart OR id < :cursorId) " +
+            "ORDER BY start_time DESC, id DESC LIMIT :limit")
+    Flux<Booking> findPageByUserId(
+            @Param("userId") Long userId,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            @Param("limit") int limit);
+
+    @Query("SELECT * FROM bookings WHERE user_id = :userId AND start_time > :now " +
+            "AND start_time >= :cursorStart AND (start_time > :cursorStart OR id > :cursorId) " +
+            "ORDER BY start_time ASC, id ASC LIMIT :limit")
+    Flux<Booking> findUpcomingPageByUserId(
+            @Param("userId") Long userId,
+            @Param("now") LocalDateTime now,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            @Param("limit") int limit);
+
+    @Query("SELECT * FROM bookings WHERE user_id = :userId AND end_time < :now " +
+            "AND start_time <= :cursorStart AND (start_time < :cursorStart OR id < :cursorId) " +
+            "ORDER BY start_time DESC, id DESC LIMIT :limit")
+    Flux<Booking> findPastPageByUserId(
+            @Param("userId") Long userId,
+            @Param("now") LocalDateTime now,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            @Param("limit") int limit);
+
+    @Query("SELECT * FROM bookings WHERE facility_id = :facilityId " +
+            "AND start_time >= :cursorStart AND (start_time > :cursorStart OR id > :cursorId) " +
+            "ORDER BY start_time ASC, id ASC LIMIT :limit")
+    Flux<Booking> findPageByFacilityId(
+            @Param("facilityId") Long facilityId,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") Long cursorId,
+            @Param("limit") int limit);
+}
@@ -0,0 +1,69 @@
+package si.fri.prpo.bookingservice.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import si.fri.prpo.bookingservice.entity.SlotHold;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SlotHoldRepository extends JpaRepository<SlotHold, Long> {
+
+    // Veljavne zadržitve za časovno kolo ob zagonu
+    List<SlotHold> findByExpiresAtAfter(LocalDateTime now);
+
+    long countByExpiresAtAfter(LocalDateTime now);
+
+    Optional<SlotHold> findByIdAndExpiresAtAfter(Long id, LocalDateTime now);
+
+    // Veljavne zadržitve objekta (vseh instanc), ki sekajo [from, to)
+    @Query("SELECT COUNT(h) > 0 FROM SlotHold h WHERE h.facilityId = :facilityId " +
+            "AND h.expiresAt > :now AND h.startTime < :to AND h.endTime > :from")
+    boolean existsActiveOverlapping(
+            @Param("facilityId") Long facilityId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("now") LocalDateTime now);
+
+    @Query("SELECT h FROM SlotHold h WHERE h.facilityId = :facilityId " +
+            "AND h.expiresAt > :now AND h.startTime < :to AND h.endTime > :from " +
+            "ORDER BY h.startTime ASC")
+    List<SlotHold> findActiveOverlapping(
+            @Param("facilityId") Long facilityId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("now") LocalDateTime now);
+
+    // Porabi veljavno zadržitev; 0, če je je medtem potekla ali jo je porabila druga instanca
+    @Modifying
+    @Query("DELETE FROM SlotHold h WHERE h.id = :id AND h.expiresAt > :now")
+    int deleteActive(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Potekle zadržitve, ki bi sicer zadele ob booking_holds_no_overlap pri novi zadržitvi
+    @Modifying
+    @Query("DELETE FROM SlotHold h WHERE h.facilityId = :facilityId " +
+            "AND h.expiresAt <= :now AND h.startTime < :to AND h.endTime > :from")
+    int deleteExpiredOverlapping(
+            @Param("facilityId") Long facilityId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("now") LocalDateTime now);
+
+    // Zadržitve iz tika časovnega kola, ki so res potekle (porabljene so že izbrisane)
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SlotHold h WHERE h.id IN :ids AND h.expiresAt <= :now")
+    int deleteExpiredByIds(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+
+    // Zadržitve, ki so potekle, medtem ko instanca ni tekla
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SlotHold h WHERE h.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
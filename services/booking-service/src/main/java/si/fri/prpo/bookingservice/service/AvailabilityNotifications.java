@@ -0,0 +1,123 @@
+package si.fri.prpo.bookingservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import si.fri.prpo.bookingservice.dto.AvailabilityDelta;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Spremembe razpoložljivosti vseh instanc za AvailabilityStream: sprožilec na bookings (V12) ob
+ * potrditvi pošlje NOTIFY na kanal booking_availability, ta komponenta ga posluša na lastni
+ * povezavi (mimo bazena, ker je zasedena ves čas) in spremembe preda toku. Obvestila, poslana med
+ * prekinitvijo povezave, se izgubijo, zato ob vsaki vzpostavitvi vsi tokovi dobijo resync.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "booking.availability-stream.source", havingValue = "database", matchIfMissing = true)
+public class AvailabilityNotifications implements SmartLifecycle {
+
+    static final String CHANNEL = "booking_availability";
+
+    private final DataSourceProperties dataSourceProperties;
+    private final AvailabilityStream availabilityStream;
+    private final ObjectMapper objectMapper;
+    private final int pollMs;
+    private final long reconnectMs;
+
+    private volatile boolean running;
+    private volatile Thread listener;
+
+    public AvailabilityNotifications(DataSourceProperties dataSourceProperties,
+                                     AvailabilityStream availabilityStream,
+                                     ObjectMapper objectMapper,
+                                     @Value("${booking.availability-stream.listen-poll-ms:10000}") int pollMs,
+                                     @Value("${booking.availability-stream.reconnect-ms:5000}") long reconnectMs) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.availabilityStream = availabilityStream;
+        this.objectMapper = objectMapper;
+        this.pollMs = pollMs;
+        this.reconnectMs = reconnectMs;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listener = Thread.ofPlatform().daemon().name("availability-listener").start(this::listen);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = listener;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Spremembe pred LISTEN (ali med prekinitvijo) niso prišle: naročniki naj naložijo znova
+                availabilityStream.resyncAll("reconnected");
+                log.info("Listening for availability changes on channel {}", CHANNEL);
+                receive(connection);
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Availability listener lost its connection, reconnecting in {} ms: {}", reconnectMs, e.getMessage());
+                try {
+                    Thread.sleep(reconnectMs);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(Connection connection) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(pollMs);
+            if (notifications == null || notifications.length == 0) {
+                // Brez prometa prekinjena povezava ne vrže napake, preveri jo
+                if (!connection.isValid(5)) {
+                    throw new SQLException("Listener connection is no longer valid");
+                }
+                continue;
+            }
+            for (PGNotification notification : notifications) {
+                deliver(notification.getParameter());
+            }
+        }
+    }
+
+    private void deliver(String payload) {
+        try {
+            availabilityStream.publish(objectMapper.readValue(payload, AvailabilityDelta.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed availability notification {}: {}", payload, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package si.fri.prpo.bookingservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import si.fri.prpo.bookingservice.dto.AvailabilityResponse;
+import si.fri.prpo.bookingservice.dto.FreeInterval;
+import si.fri.prpo.bookingservice.entity.Booking;
+import si.fri.prpo.bookingservice.repository.BookingInterval;
+import si.fri.prpo.bookingservice.repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prosti termini objekta: zasedenost po dnevih (združeni aktivni intervali) je v predpomnilniku
+ * po ključu (objekt, dan), prosti intervali pa nastanejo z enim prehodom čez urejene zasedene
+ * intervale.
+ *
+ * Vnosi se zavržejo po potrditvi transakcije, ki spremeni rezervacijo na tem objektu; TTL omeji
+ * zastarelost zaradi zapisov drugih replik. Odgovor je informativen - ustvarjanje rezervacije
+ * prekrivanja še vedno preveri samo.
+ */
+@Slf4j
+@Service
+public class AvailabilityService {
+
+    private final BookingRepository bookingRepository;
+    private final Cache<FacilityDay, List<Busy>> busyByDay;
+    private final int maxRangeDays;
+
+    public AvailabilityService(BookingRepository bookingRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${booking.availability.cache-ttl-seconds:60}") long cacheTtlSeconds,
+                               @Value("${booking.availability.cache-max-entries:10000}") long cacheMaxEntries,
+                               @Value("${booking.availability.max-range-days:31}") int maxRangeDays) {
+        this.bookingRepository = bookingRepository;
+        this.maxRangeDays = maxRangeDays;
+        this.busyByDay = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .maximumSize(cacheMaxEntries)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, busyByDay, "booking.availability");
+    }
+
+    public AvailabilityResponse getAvailability(Long facilityId, LocalDateTime from, LocalDateTime to,
+                                                Integer granularityMinutes) {
+        Query query = prepare(facilityId, from, to, granularityMinutes);
+        if (!query.missingDays().isEmpty()) {
+            store(query, bookingRepository.findActiveIntervalsInRange(
+                    facilityId, query.missingFrom(), query.missingTo()));
+        }
+        return complete(query);
+    }
+
+    /**
+     * Prvi korak izračuna: validacija parametrov in dnevi, ki jih ni v predpomnilniku. Reaktivna pot
+     * manjkajoče intervale naloži sama (R2DBC) in nadaljuje s {@link #store} in {@link #complete}.
+     */
+    public Query prepare(Long facilityId, LocalDateTime from, LocalDateTime to, Integer granularityMinutes) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Parameters from and to are required");
+        }
+        if (!to.isAfter(from)) {
+            throw new IllegalArgumentException("Parameter to must be after from");
+        }
+        int granularity = granularityMinutes != null ? granularityMinutes : 60;
+        if (granularity < 1 || granularity > 24 * 60) {
+            throw new IllegalArgumentException("Granularity must be between 1 and 1440 minutes");
+        }
+        if (Duration.between(from, to).compareTo(Duration.ofDays(maxRangeDays)) > 0) {
+            throw new IllegalArgumentException("Availability range cannot exceed " + maxRangeDays + " days");
+        }
+
+        List<LocalDate> days = new ArrayList<>();
+        List<LocalDate> missing = new ArrayList<>();
+        for (LocalDate day = from.toLocalDate(); day.atStartOfDay().isBefore(to); day = day.plusDays(1)) {
+            days.add(day);
+            if (busyByDay.getIfPresent(new FacilityDay(facilityId, day)) == null) {
+                missing.add(day);
+            }
+        }
+        return new Query(facilityId, from, to, granularity, days, missing);
+    }
+
+    /**
+     * Razdeli naložene intervale po manjkajočih dnevih, jih združi in shrani v predpomnilnik.
+     */
+    public void store(Query query, List<BookingInterval> intervals) {
+        Map<LocalDate, List<Busy>> byDay = new HashMap<>();
+        query.missingDays().forEach(day -> byDay.put(day, new ArrayList<>()));
+        for (BookingInterval interval : intervals) {
+            for (LocalDate day : query.missingDays()) {
+                LocalDateTime dayStart = day.atStartOfDay();
+                LocalDateTime dayEnd = dayStart.plusDays(1);
+                if (interval.getStartTime().isBefore(dayEnd) && interval.getEndTime().isAfter(dayStart)) {
+                    byDay.get(day).add(new Busy(
+                            max(interval.getStartTime(), dayStart), min(interval.getEndTime(), dayEnd)));
+                }
+            }
+        }
+        byDay.forEach((day, busy) -> busyByDay.put(new FacilityDay(query.facilityId(), day), merge(busy)));
+    }
+
+    public AvailabilityResponse complete(Query query) {
+        List<Busy> busy = new ArrayList<>();
+        for (LocalDate day : query.days()) {
+            List<Busy> cached = busyByDay.getIfPresent(new FacilityDay(query.facilityId(), day));
+            if (cached == null) {
+                // Izpodrinjen med nalaganjem (maximumSize): preberi še enkrat samo ta dan
+                cached = loadDay(query.facilityId(), day);
+            }
+            busy.addAll(cached);
+        }
+
+        // Preteklih terminov ni mogoče rezervirati (validateBookingTime)
+        LocalDateTime from = max(query.from(), LocalDateTime.now());
+        List<FreeInterval> free = freeIntervals(busy, from, query.to(), query.granularityMinutes());
+        return AvailabilityResponse.builder()
+                .facilityId(query.facilityId())
+                .from(query.from())
+                .to(query.to())
+                .granularityMinutes(query.granularityMinutes())
+                .freeIntervals(free)
+                .build();
+    }
+
+    /**
+     * Zavrže dneve, ki jih rezervacija pokriva, ko se transakcija potrdi (takoj, če je ni).
+     */
+    public void evictAfterCommit(Booking booking) {
+        Long facilityId = booking.getFacilityId();
+        LocalDate first = booking.getStartTime().toLocalDate();
+        LocalDate last = booking.getEndTime().minusNanos(1).toLocalDate();
+        Runnable evict = () -> {
+            for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+                busyByDay.invalidate(new FacilityDay(facilityId, day));
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        } else {
+            evict.run();
+        }
+    }
+
+    private List<Busy> loadDay(Long facilityId, LocalDate day) {
+        LocalDateTime dayStart = day.atStartOfDay();
+        List<Busy> busy = new ArrayList<>();
+        for (BookingInterval interval : bookingRepository.findActiveIntervalsInRange(
+                facilityId, dayStart, dayStart.plusDays(1))) {
+            busy.add(new Busy(max(interval.getStartTime(), dayStart), min(interval.getEndTime(), dayStart.plusDays(1))));
+        }
+        return merge(busy);
+    }
+
+    /**
+     * Prehod čez zasedene intervale, urejene po začetku: vsaka vrzel med koncem doslej zasedenega
+     * in začetkom naslednjega je prost interval. Konci se poravnajo navznoter na mrežo granularity
+     * (od polnoči), ostanejo pa le intervali, dolgi vsaj minimalno trajanje rezervacije.
+     */
+    static List<FreeInterval> freeIntervals(List<Busy> sortedBusy, LocalDateTime from, LocalDateTime to,
+                                            int granularityMinutes) {
+        List<FreeInterval> free = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (Busy busy : sortedBusy) {
+            if (!busy.end().isAfter(cursor)) {
+                continue;
+            }
+            if (busy.start().isAfter(cursor)) {
+                addAligned(free, cursor, min(busy.start(), to), granularityMinutes);
+            }
+            cursor = max(cursor, busy.end());
+            if (!cursor.isBefore(to)) {
+                return free;
+            }
+        }
+        addAligned(free, cursor, to, granularityMinutes);
+        return free;
+    }
+
+    private static void addAligned(List<FreeInterval> free, LocalDateTime start, LocalDateTime end,
+                                   int granularityMinutes) {
+        LocalDateTime alignedStart = ceil(start, granularityMinutes);
+        LocalDateTime alignedEnd = floor(end, granularityMinutes);
+        if (Duration.between(alignedStart, alignedEnd).compareTo(BookingRules.MIN_BOOKING_DURATION) >= 0) {
+            free.add(FreeInterval.builder().startTime(alignedStart).endTime(alignedEnd).build());
+        }
+    }
+
+    static List<Busy> merge(List<Busy> busy) {
+        List<Busy> sorted = new ArrayList<>(busy);
+        sorted.sort(Comparator.comparing(Busy::start));
+        List<Busy> merged = new ArrayList<>();
+        for (Busy next : sorted) {
+            Busy last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && !next.start().isAfter(last.end())) {
+                merged.set(merged.size() - 1, new Busy(last.start(), max(last.end(), next.end())));
+            } else {
+                merged.add(next);
+            }
+        }
+        return List.copyOf(merged);
+    }
+
+    private static LocalDateTime floor(LocalDateTime time, int granularityMinutes) {
+        LocalDateTime dayStart = time.toLocalDate().atStartOfDay();
+        long minutes = Duration.between(dayStart, time).toMinutes();
+        return dayStart.plusMinutes(minutes - minutes % granularityMinutes);
+    }
+
+    private static LocalDateTime ceil(LocalDateTime time, int granularityMinutes) {
+        LocalDateTime floored = floor(time, granularityMinutes);
+        return floored.equals(time) ? time : floored.plusMinutes(granularityMinutes);
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    record FacilityDay(Long facilityId, LocalDate day) {
+    }
+
+    record Busy(LocalDateTime start, LocalDateTime end) {
+    }
+
+    /**
+     * Parametri poizvedbe in dnevi, ki jih je treba naložiti iz baze (missingFrom..missingTo).
+     */
+    public record Query(Long facilityId, LocalDateTime from, LocalDateTime to, int granularityMinutes,
+                        List<LocalDate> days, List<LocalDate> missingDays) {
+
+        public LocalDateTime missingFrom() {
+            return missingDays.get(0).atStartOfDay();
+        }
+
+        public LocalDateTime missingTo() {
+            return missingDays.get(missingDays.size() - 1).plusDays(1).atStartOfDay();
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package si.fri.prpo.bookingservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Schedulers;
+import si.fri.prpo.bookingservice.dto.AvailabilityDelta;
+import si.fri.prpo.bookingservice.entity.Booking;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-sent events of availability changes per facility, so booking UIs can follow the grid
+ * instead of polling it. Every committed create, cancel or status change of a booking that has not
+ * ended yet becomes one compact event: booked (the interval is taken, PENDING or CONFIRMED) or
+ * released (the interval is free again), with the booking id, interval and status. Event ids are a
+ * pod-wide sequence.
+ *
+ * Each subscriber has a bounded buffer. When a slow client lets it fill up, the buffered deltas are
+ * dropped and replaced by a single resync event; the client reloads availability and continues with
+ * the deltas that follow. Every stream starts with resync (reason subscribed), so subscribing first
+ * and loading second never misses a change. Comment heartbeats keep proxies from closing idle
+ * streams and detect clients that went away.
+ *
+ * With source=database (the default) changes come from the database: a trigger on bookings sends
+ * them on commit to every replica (AvailabilityNotifications), so a stream sees the writes of all
+ * pods, and publishAfterCommit does nothing. When the listener loses its connection, every stream
+ * gets a resync (reason reconnected). With source=local the stream follows only this pod's writes,
+ * which is enough for a single replica and for tests without PostgreSQL.
+ */
+@Slf4j
+@Component
+public class AvailabilityStream {
+
+    public static final String BOOKED = "booked";
+    public static final String RELEASED = "released";
+    public static final String RESYNC = "resync";
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger open = new AtomicInteger();
+    private final Counter overflows;
+    private final int bufferSize;
+    private final Duration heartbeat;
+    private final int maxFacilities;
+    private final boolean local;
+
+    public AvailabilityStream(MeterRegistry meterRegistry,
+                              @Value("${booking.availability-stream.buffer-size:256}") int bufferSize,
+                              @Value("${booking.availability-stream.heartbeat-seconds:15}") long heartbeatSeconds,
+                              @Value("${booking.availability-stream.max-facilities:50}") int maxFacilities,
+                              @Value("${booking.availability-stream.source:database}") String source) {
+        this.bufferSize = bufferSize;
+        this.heartbeat = Duration.ofSeconds(heartbeatSeconds);
+        this.maxFacilities = maxFacilities;
+        this.local = "local".equals(source);
+        this.overflows = Counter.builder("booking.availability.stream.overflows")
+                .description("Subscriber buffers that overflowed and were replaced by a resync event")
+                .register(meterRegistry);
+        Gauge.builder("booking.availability.stream.subscribers", open, AtomicInteger::get)
+                .description("Open availability streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stream of availability changes of the given facilities. Writes to the client happen on a
+     * bounded-elastic worker, never on the thread that committed the booking.
+     */
+    public Flux<ServerSentEvent<AvailabilityDelta>> subscribe(Collection<Long> facilityIds) {
+        if (facilityIds == null || facilityIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one facility is required");
+        }
+        Set<Long> facilities = Set.copyOf(facilityIds);
+        if (facilities.size() > maxFacilities) {
+            throw new IllegalArgumentException("At most " + maxFacilities + " facilities per stream");
+        }
+
+        Flux<ServerSentEvent<AvailabilityDelta>> deltas = Flux.<ServerSentEvent<AvailabilityDelta>>create(sink -> {
+                    Subscriber subscriber = new Subscriber(facilities, sink);
+                    sink.onRequest(requested -> subscriber.drain());
+                    sink.onDispose(() -> unregister(subscriber));
+                    register(subscriber);
+                    subscriber.start(resync("subscribed"));
+                })
+                .publishOn(Schedulers.boundedElastic(), 1);
+        Flux<ServerSentEvent<AvailabilityDelta>> heartbeats = Flux.interval(heartbeat)
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.<AvailabilityDelta>builder().comment("heartbeat").build());
+        // Prefetch 1: med medpomnilnikom naročnika in odjemalcem čaka največ po en dogodek
+        return Flux.merge(1, deltas, heartbeats);
+    }
+
+    /**
+     * With source=local, publishes the booking's current state once the surrounding transaction
+     * commits (immediately when there is no transaction). Bookings that have already ended are not
+     * published. With source=database the trigger publishes it instead.
+     */
+    public void publishAfterCommit(Booking booking) {
+        if (!local || booking.getEndTime().isBefore(LocalDateTime.now())) {
+            return;
+        }
+        AvailabilityDelta delta = AvailabilityDelta.builder()
+                .facilityId(booking.getFacilityId())
+                .bookingId(booking.getId())
+                .startTime(booking.getStartTime())
+                .endTime(booking.getEndTime())
+                .status(booking.getStatus())
+                .build();
+        Runnable publish = () -> publish(delta);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish.run();
+                }
+            });
+        } else {
+            publish.run();
+        }
+    }
+
+    /**
+     * Sends a committed change to the streams of its facility: booked while the booking is active,
+     * released otherwise.
+     */
+    void publish(AvailabilityDelta delta) {
+        String event = FacilityIntervalIndex.isActive(delta.getStatus()) ? BOOKED : RELEASED;
+        Set<Subscriber> facilitySubscribers = subscribers.get(delta.getFacilityId());
+        if (facilitySubscribers == null || facilitySubscribers.isEmpty()) {
+            return;
+        }
+        ServerSentEvent<AvailabilityDelta> sse = ServerSentEvent.<AvailabilityDelta>builder(delta)
+                .id(String.valueOf(sequence.incrementAndGet()))
+                .event(event)
+                .build();
+        for (Subscriber subscriber : facilitySubscribers) {
+            subscriber.offer(sse);
+        }
+    }
+
+    /**
+     * Replaces the buffered deltas of every open stream with a resync event, for changes that may
+     * have been lost (e.g. while the database listener reconnected).
+     */
+    void resyncAll(String reason) {
+        Set<Subscriber> all = new HashSet<>();
+        subscribers.values().forEach(all::addAll);
+        for (Subscriber subscriber : all) {
+            subscriber.reset(resync(reason));
+        }
+    }
+
+    private ServerSentEvent<AvailabilityDelta> resync(String reason) {
+        return ServerSentEvent.builder(AvailabilityDelta.builder().reason(reason).build())
+                .id(String.valueOf(sequence.incrementAndGet()))
+                .event(RESYNC)
+                .build();
+    }
+
+    private void register(Subscriber subscriber) {
+        for (Long facilityId : subscriber.facilityIds) {
+            subscribers.computeIfAbsent(facilityId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        open.incrementAndGet();
+    }
+
+    private void unregister(Subscriber subscriber) {
+        for (Long facilityId : subscriber.facilityIds) {
+            subscribers.computeIfPresent(facilityId, (id, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+        open.decrementAndGet();
+    }
+
+    /**
+     * One open stream: events wait in the buffer until the client asks for them. Emitting only hands
+     * the event to the publishOn queue, so holding the monitor never waits for the network.
+     */
+    private final class Subscriber {
+
+        private final Set<Long> facilityIds;
+        private final FluxSink<ServerSentEvent<AvailabilityDelta>> sink;
+        private final ArrayDeque<ServerSentEvent<AvailabilityDelta>> buffer = new ArrayDeque<>();
+
+        private Subscriber(Set<Long> facilityIds, FluxSink<ServerSentEvent<AvailabilityDelta>> sink) {
+            this.facilityIds = facilityIds;
+            this.sink = sink;
+        }
+
+        // Resync gre pred spremembe, ki so prišle med registracijo
+        private synchronized void start(ServerSentEvent<AvailabilityDelta> resync) {
+            buffer.addFirst(resync);
+            drain();
+        }
+
+        private synchronized void offer(ServerSentEvent<AvailabilityDelta> event) {
+            if (buffer.size() >= bufferSize) {
+                // Odjemalec ne sledi: namesto zaostalih sprememb dobi ukaz za ponovno nalaganje
+                reset(resync("overflow"));
+                overflows.increment();
+                log.debug("Availability stream for facilities {} overflowed, sending resync", facilityIds);
+            }
+            buffer.add(event);
+            drain();
+        }
+
+        private synchronized void reset(ServerSentEvent<AvailabilityDelta> resync) {
+            buffer.clear();
+            buffer.add(resync);
+            drain();
+        }
+
+        private synchronized void drain() {
+            while (sink.requestedFromDownstream() > 0 && !buffer.isEmpty() && !sink.isCancelled()) {
+                sink.next(buffer.poll());
+            }
+        }
+    }
+}
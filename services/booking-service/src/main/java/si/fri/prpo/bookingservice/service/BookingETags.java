@@ -0,0 +1,37 @@
+package si.fri.prpo.bookingservice.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * ETag-i za branje rezervacij, izračunani iz lahkih poizvedb (updated_at in število vrstic) pred
+ * nalaganjem podatkov. Vse spremembe rezervacij (tudi množične v BookingLifecycleSweeper) nastavijo
+ * updated_at, zato se oznaka spremeni ob vsaki spremembi odgovora.
+ *
+ * Oznaka se izračuna pred telesom: če se podatki vmes spremenijo, ima odjemalec starejšo oznako
+ * in ob naslednjem branju dobi 200, nikoli zastarelega 304.
+ */
+@Component
+public class BookingETags {
+
+    public String forBooking(Long bookingId, LocalDateTime updatedAt) {
+        return "\"b" + bookingId + "-" + micros(updatedAt) + "\"";
+    }
+
+    /**
+     * Seznam je določen z uporabnikom, kazalcem in velikostjo strani (URL), oznaka pa s številom
+     * vrstic in najnovejšo spremembo: nova, spremenjena ali začeta rezervacija spremeni vsaj eno.
+     */
+    public String forList(long count, LocalDateTime lastUpdated) {
+        return "\"l" + count + "-" + micros(lastUpdated) + "\"";
+    }
+
+    private static long micros(LocalDateTime time) {
+        if (time == null) {
+            return 0;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+}
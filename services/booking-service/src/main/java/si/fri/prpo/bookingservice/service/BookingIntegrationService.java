@@ -0,0 +1,267 @@
+package si.fri.prpo.bookingservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import si.fri.prpo.bookingservice.client.CalendarClient;
+import si.fri.prpo.bookingservice.config.RequestDeadline;
+import si.fri.prpo.bookingservice.client.NotificationClient;
+import si.fri.prpo.bookingservice.client.PaymentClient;
+import si.fri.prpo.bookingservice.dto.BookingEventPayload;
+import si.fri.prpo.bookingservice.dto.external.CalendarEventRequest;
+import si.fri.prpo.bookingservice.dto.external.CalendarEventResponse;
+import si.fri.prpo.bookingservice.dto.external.NotificationResponse;
+import si.fri.prpo.bookingservice.dto.external.PaymentCheckoutRequest;
+import si.fri.prpo.bookingservice.dto.external.PaymentCheckoutResponse;
+import si.fri.prpo.bookingservice.entity.Booking;
+import si.fri.prpo.bookingservice.entity.OutboxEvent.EventType;
+import si.fri.prpo.bookingservice.repository.BookingRepository;
+import si.fri.prpo.bookingservice.service.NotificationEnrichment.FacilityInfo;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stranski učinki rezervacij (plačilo, Google Calendar, obvestila). Kliče jih OutboxRelay izven
+ * transakcij rezervacije; napaka sproži ponovni poskus, uspeli koraki pa so zabeleženi v payloadu.
+ */
+@Service
+@Slf4j
+public class BookingIntegrationService {
+
+    private final PaymentClient paymentClient;
+    private final CalendarClient calendarClient;
+    private final NotificationClient notificationClient;
+    private final MeterRegistry meterRegistry;
+    private final BookingRepository bookingRepository;
+    private final NotificationEnrichment notificationEnrichment;
+    private final Timer confirmationTimer;
+
+    public BookingIntegrationService(PaymentClient paymentClient,
+                                     CalendarClient calendarClient,
+                                     NotificationClient notificationClient,
+                                     MeterRegistry meterRegistry,
+                                     BookingRepository bookingRepository,
+                                     NotificationEnrichment notificationEnrichment) {
+        this.paymentClient = paymentClient;
+        this.calendarClient = calendarClient;
+        this.notificationClient = notificationClient;
+        this.meterRegistry = meterRegistry;
+        this.bookingRepository = bookingRepository;
+        this.notificationEnrichment = notificationEnrichment;
+        this.confirmationTimer = Timer.builder("booking.integration.confirmed")
+                .description("Total latency of all integrations for a confirmed booking")
+                .register(meterRegistry);
+    }
+
+    public void deliver(EventType eventType, BookingEventPayload payload) {
+        switch (eventType) {
+            case BOOKING_CREATED -> handleBookingCreated(payload);
+            case BOOKING_CONFIRMED -> handleBookingConfirmed(payload);
+            case BOOKING_CANCELLED -> handleBookingCancelled(payload);
+            case BOOKING_SERIES_CREATED -> handleSeriesCreated(payload);
+            case BOOKINGS_COMPLETED -> handleBookingsCompleted(payload);
+            case BOOKINGS_EXPIRED -> handleBookingsExpired(payload);
+        }
+    }
+
+    private void handleBookingCreated(BookingEventPayload booking) {
+        log.info("Sending booking confirmation notification for booking {}", booking.getBookingId());
+        requireSent(notificationClient.sendBookingConfirmation(
+                booking.getUserId(),
+                booking.getBookingId(),
+                notificationEnrichment.email(booking.getUserId()),
+                notificationEnrichment.facility(booking.getFacilityId()).name(),
+                booking.getStartTime().toString()));
+    }
+
+    // Ena povzetna notifikacija za vse ustvarjene termine serije
+    private void handleSeriesCreated(BookingEventPayload series) {
+        log.info("Sending series confirmation notification for {} bookings starting with {}",
+                series.getOccurrences().size(), series.getBookingId());
+        requireSent(notificationClient.sendBookingSeriesConfirmation(
+                series.getUserId(),
+                series.getBookingId(),
+                notificationEnrichment.email(series.getUserId()),
+                notificationEnrichment.facility(series.getFacilityId()).name(),
+                series.getOccurrences().stream()
+                        .map(occurrence -> occurrence.getStartTime() + " - " + occurrence.getEndTime())
+                        .toList()));
+    }
+
+    // Zaključene rezervacije: zahvala po obisku vsakemu uporabniku (ena poizvedba za kos)
+    private void handleBookingsCompleted(BookingEventPayload batch) {
+        log.info("Sending completion notifications for {} bookings", batch.getBookingIds().size());
+        notifyEach(batch, notificationClient::sendBookingCompleted);
+    }
+
+    // Potekle nepotrjene rezervacije: obvestilo o preklicu vsakemu uporabniku (ena poizvedba za kos)
+    private void handleBookingsExpired(BookingEventPayload batch) {
+        log.info("Sending expiry notifications for {} bookings", batch.getBookingIds().size());
+        notifyEach(batch, notificationClient::sendBookingCancellation);
+    }
+
+    // Poslane rezervacije se odstranijo iz payloada, da jih ponovni poskus kosa preskoči
+    private void notifyEach(BookingEventPayload batch, BatchNotification notification) {
+        List<Booking> bookings = bookingRepository.findAllById(List.copyOf(batch.getBookingIds()));
+        // Prejemniki vseh rezervacij kosa z enim klicem na auth-service
+        Map<Long, String> emails = notificationEnrichment.emails(
+                bookings.stream().map(Booking::getUserId).distinct().toList());
+        for (Booking booking : bookings) {
+            requireSent(notification.send(
+                    booking.getUserId(),
+                    booking.getId(),
+                    emails.get(booking.getUserId()),
+                    notificationEnrichment.facility(booking.getFacilityId()).name()));
+            batch.getBookingIds().remove(booking.getId());
+        }
+    }
+
+    @FunctionalInterface
+    private interface BatchNotification {
+        NotificationResponse send(Long userId, Long bookingId, String recipient, String facilityName);
+    }
+
+    /**
+     * Plačilo in koledarski dogodek sta neodvisna, zato tečeta vzporedno; vsako obvestilo čaka
+     * le na svoj korak (potrebuje paymentId oziroma eventId). Napaka v eni veji ne prekine druge,
+     * uspeli koraki pa se zabeležijo v payload, da jih ponovni poskus preskoči.
+     */
+    private void handleBookingConfirmed(BookingEventPayload booking) {
+        log.info("Handling booking confirmation for booking {}", booking.getBookingId());
+        long start = System.nanoTime();
+        String email = notificationEnrichment.email(booking.getUserId());
+        FacilityInfo facility = notificationEnrichment.facility(booking.getFacilityId());
+
+        Mono<Void> paymentBranch = payment(booking)
+                .flatMap(paymentId -> paymentNotification(booking, paymentId, email));
+        Mono<Void> calendarBranch = calendarEvent(booking, facility)
+                .flatMap(eventId -> calendarNotification(booking, eventId, email, facility));
+
+        try {
+            // Veji tečeta na nitih Netty; rok dostave jima preda kontekst
+            Mono.whenDelayError(paymentBranch, calendarBranch)
+                    .contextWrite(RequestDeadline::capture)
+                    .block();
+            log.info("All integrations completed successfully for booking {}", booking.getBookingId());
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            confirmationTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            log.info("Booking {} confirmation integrations took {} ms",
+                    booking.getBookingId(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+    }
+
+    // 1. Create payment checkout session
+    private Mono<Long> payment(BookingEventPayload booking) {
+        if (booking.getPaymentId() != null) {
+            return Mono.just(booking.getPaymentId());
+        }
+        PaymentCheckoutRequest paymentRequest = PaymentCheckoutRequest.builder()
+                .bookingId(booking.getBookingId())
+                .userId(booking.getUserId())
+                .amount(booking.getTotalPrice())
+                .currency("EUR")
+                .build();
+
+        return timed("payment", paymentClient.createCheckoutSessionAsync(paymentRequest))
+                .doOnNext(paymentResponse -> {
+                    booking.setPaymentId(paymentResponse.getId());
+                    booking.setPaymentSessionId(paymentResponse.getSessionId());
+                    log.info("Payment checkout session created: {}", paymentResponse.getSessionId());
+                })
+                .map(PaymentCheckoutResponse::getId);
+    }
+
+    // 2. Create Google Calendar event
+    private Mono<Long> calendarEvent(BookingEventPayload booking, FacilityInfo facility) {
+        if (booking.getCalendarEventId() != null) {
+            return Mono.just(booking.getCalendarEventId());
+        }
+        CalendarEventRequest calendarRequest = CalendarEventRequest.builder()
+                .bookingId(booking.getBookingId())
+                .userId(booking.getUserId())
+                .facilityId(booking.getFacilityId())
+                .title("Booking #" + booking.getBookingId() + " - " + facility.name())
+                .location(facility.location())
+                .description("Reservation for facility. Total: " + booking.getTotalPrice() + " EUR")
+                .startTime(booking.getStartTime())
+                .endTime(booking.getEndTime())
+                .build();
+
+        return timed("calendar", calendarClient.createCalendarEventAsync(calendarRequest))
+                .doOnNext(calendarResponse -> {
+                    booking.setCalendarEventId(calendarResponse.getId());
+                    log.info("Calendar event created: {}", calendarResponse.getId());
+                })
+                .map(CalendarEventResponse::getId);
+    }
+
+    // 3. Send payment confirmation notification
+    private Mono<Void> paymentNotification(BookingEventPayload booking, Long paymentId, String email) {
+        if (booking.isPaymentNotified()) {
+            return Mono.empty();
+        }
+        return timed("payment_notification", notificationClient.sendPaymentConfirmationAsync(
+                        booking.getUserId(),
+                        booking.getBookingId(),
+                        paymentId,
+                        email,
+                        booking.getTotalPrice().toString()))
+                .doOnNext(response -> booking.setPaymentNotified(true))
+                .then();
+    }
+
+    // 4. Send calendar event created notification
+    private Mono<Void> calendarNotification(BookingEventPayload booking, Long eventId, String email,
+                                            FacilityInfo facility) {
+        if (booking.isCalendarNotified()) {
+            return Mono.empty();
+        }
+        return timed("calendar_notification", notificationClient.sendCalendarEventCreatedAsync(
+                        booking.getUserId(),
+                        booking.getBookingId(),
+                        eventId,
+                        email,
+                        facility.name()))
+                .doOnNext(response -> booking.setCalendarNotified(true))
+                .then();
+    }
+
+    private <T> Mono<T> timed(String step, Mono<T> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.doOnEach(signal -> {
+                if (signal.isOnNext() || signal.isOnError()) {
+                    long elapsed = System.nanoTime() - start;
+                    Timer.builder("booking.integration.step")
+                            .description("Latency of a single downstream call in booking integrations")
+                            .tag("step", step)
+                            .tag("outcome", signal.isOnError() ? "error" : "success")
+                            .register(meterRegistry)
+                            .record(elapsed, TimeUnit.NANOSECONDS);
+                    log.debug("Integration step {} took {} ms", step, TimeUnit.NANOSECONDS.toMillis(elapsed));
+                }
+            });
+        });
+    }
+
+    private void handleBookingCancelled(BookingEventPayload booking) {
+        log.info("Sending booking cancellation notification for booking {}", booking.getBookingId());
+        requireSent(notificationClient.sendBookingCancellation(
+                booking.getUserId(),
+                booking.getBookingId(),
+                notificationEnrichment.email(booking.getUserId()),
+                notificationEnrichment.facility(booking.getFacilityId()).name()));
+    }
+
+    // NotificationClient napake pogoltne in vrne null; za outbox je to neuspel poskus
+    private static void requireSent(NotificationResponse response) {
+        if (response == null) {
+            throw new IllegalStateException("Notification service did not accept the notification");
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package si.fri.prpo.bookingservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import si.fri.prpo.bookingservice.entity.Booking;
+import si.fri.prpo.bookingservice.entity.Booking.BookingStatus;
+import si.fri.prpo.bookingservice.entity.OutboxEvent.EventType;
+import si.fri.prpo.bookingservice.repository.BookingInterval;
+import si.fri.prpo.bookingservice.repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Periodično premakne potrjene rezervacije po koncu v COMPLETED in nepotrjene, ki so se že začele
+ * ali predolgo čakajo, v CANCELLED. Dela z množičnimi UPDATE po omejenih kosih (vsak v svoji
+ * transakciji) nad lahkimi projekcijami, brez nalaganja entitet. Id-ji spremenjenih rezervacij
+ * gredo kot en outbox zapis na kos naprej v obvestila.
+ */
+@Slf4j
+@Component
+public class BookingLifecycleSweeper {
+
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxService outboxService;
+    private final FacilityIntervalIndex facilityIntervalIndex;
+    private final AvailabilityService availabilityService;
+    private final FacilitySlotBitmaps facilitySlotBitmaps;
+    private final AvailabilityStream availabilityStream;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${booking.lifecycle.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${booking.lifecycle.max-chunks-per-run:100}")
+    private int maxChunksPerRun;
+
+    @Value("${booking.lifecycle.pending-ttl-hours:24}")
+    private long pendingTtlHours;
+
+    public BookingLifecycleSweeper(BookingRepository bookingRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   OutboxService outboxService,
+                                   FacilityIntervalIndex facilityIntervalIndex,
+                                   AvailabilityService availabilityService,
+                                   FacilitySlotBitmaps facilitySlotBitmaps,
+                                   AvailabilityStream availabilityStream,
+                                   MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.outboxService = outboxService;
+        this.facilityIntervalIndex = facilityIntervalIndex;
+        this.availabilityService = availabilityService;
+        this.facilitySlotBitmaps = facilitySlotBitmaps;
+        this.availabilityStream = availabilityStream;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(initialDelayString = "${booking.lifecycle.sweep-interval-ms:60000}",
+            fixedDelayString = "${booking.lifecycle.sweep-interval-ms:60000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime createdBefore = now.minus(Duration.ofHours(pendingTtlHours));
+
+        int completed = sweep(BookingStatus.CONFIRMED, BookingStatus.COMPLETED, EventType.BOOKINGS_COMPLETED, now,
+                limit -> bookingRepository.findEndedConfirmed(now, limit));
+        int expired = sweep(BookingStatus.PENDING, BookingStatus.CANCELLED, EventType.BOOKINGS_EXPIRED, now,
+                limit -> bookingRepository.findStartedPending(now, limit));
+        expired += sweep(BookingStatus.PENDING, BookingStatus.CANCELLED, EventType.BOOKINGS_EXPIRED, now,
+                limit -> bookingRepository.findStalePending(createdBefore, limit));
+
+        if (completed > 0 || expired > 0) {
+            log.info("Lifecycle sweep: {} bookings completed, {} pending bookings expired", completed, expired);
+        }
+    }
+
+    private int sweep(BookingStatus from, BookingStatus to, EventType eventType, LocalDateTime now,
+                      Function<Limit, List<BookingInterval>> candidates) {
+        Counter transitions = Counter.builder("booking.lifecycle.transitions")
+                .description("Bookings moved by the lifecycle sweeper")
+                .tag("to", to.name())
+                .register(meterRegistry);
+        int total = 0;
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            Integer affected = transactionTemplate.execute(status ->
+                    transitionChunk(from, to, eventType, now, candidates.apply(Limit.of(chunkSize))));
+            total += affected;
+            transitions.increment(affected);
+            // Zadnji kos je bil nepoln: kandidatov ni več
+            if (affected < chunkSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private int transitionChunk(BookingStatus from, BookingStatus to, EventType eventType, LocalDateTime now,
+                                List<BookingInterval> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        // Nekatere vrstice je morda vmes spremenil uporabnik ali druga instanca; prehod zajame
+        // natanko tiste, ki jih zaklenemo še v statusu from
+        List<Long> ids = bookingRepository.lockInStatus(rows.stream().map(BookingInterval::getId).toList(), from.name());
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        if (ids.size() < rows.size()) {
+            Set<Long> locked = new HashSet<>(ids);
+            rows = rows.stream().filter(row -> locked.contains(row.getId())).toList();
+        }
+        bookingRepository.transitionStatus(ids, from, to, now);
+
+        outboxService.enqueueBatch(eventType, ids);
+        for (BookingInterval row : rows) {
+            Booking booking = Booking.builder()
+                    .id(row.getId())
+                    .facilityId(row.getFacilityId())
+                    .startTime(row.getStartTime())
+                    .endTime(row.getEndTime())
+                    .status(to)
+                    .build();
+            facilityIntervalIndex.updateAfterCommit(booking);
+            availabilityService.evictAfterCommit(booking);
+            facilitySlotBitmaps.updateAfterCommit(booking);
+            availabilityStream.publishAfterCommit(booking);
+        }
+        return ids.size();
+    }
+}
@@ -0,0 +1,117 @@
+package si.fri.prpo.bookingservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import si.fri.prpo.bookingservice.exception.FacilityBusyException;
+import si.fri.prpo.bookingservice.exception.GlobalExceptionHandler;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Latency breakdown of booking writes. Each operation (create, update-status, cancel) records its
+ * total time in booking.operation, tagged with the outcome, and every phase in booking.phase, so a
+ * p99 spike can be traced to validation, pricing, the facility lane, the conflict check, the insert
+ * or the commit. Both timers publish percentile histograms (histogram_quantile in Prometheus).
+ *
+ * Conflicts are counted in booking.conflicts by the check that caught them.
+ */
+@Component
+public class BookingMetrics {
+
+    private static final Duration MIN_EXPECTED = Duration.ofMillis(1);
+    private static final Duration MAX_EXPECTED = Duration.ofSeconds(10);
+
+    private final MeterRegistry meterRegistry;
+
+    public BookingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs one booking operation; work marks its phases on the given {@link Phases}.
+     */
+    public <T> T record(String operation, Function<Phases, T> work) {
+        Phases phases = new Phases(operation);
+        String outcome = "error";
+        try {
+            T result = work.apply(phases);
+            outcome = "success";
+            return result;
+        } catch (RuntimeException e) {
+            outcome = outcome(e);
+            throw e;
+        } finally {
+            Timer.builder("booking.operation")
+                    .description("Total latency of a booking write")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(MIN_EXPECTED)
+                    .maximumExpectedValue(MAX_EXPECTED)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - phases.started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * source: hold (active slot hold), index (interval index or its database fallback) or
+     * constraint (the exclusion constraint caught an overlap the index did not know about).
+     */
+    public void conflict(String source) {
+        Counter.builder("booking.conflicts")
+                .description("Bookings rejected because the facility was already taken")
+                .tag("source", source)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String outcome(RuntimeException e) {
+        if (e instanceof IllegalArgumentException) {
+            return "invalid";
+        }
+        if (e instanceof IllegalStateException) {
+            return "rejected";
+        }
+        if (e instanceof DataIntegrityViolationException && GlobalExceptionHandler.isBookingOverlap(e)) {
+            return "conflict";
+        }
+        if (e instanceof FacilityBusyException) {
+            return "busy";
+        }
+        return "error";
+    }
+
+    /**
+     * Lap timer of one operation: {@link #lap(String)} records the time since the previous lap under
+     * the given phase. Used by a single thread.
+     */
+    public final class Phases {
+
+        private final String operation;
+        private final long started = System.nanoTime();
+        private long lapStart = started;
+
+        private Phases(String operation) {
+            this.operation = operation;
+        }
+
+        public void lap(String phase) {
+            long now = System.nanoTime();
+            Timer.builder("booking.phase")
+                    .description("Latency of a single phase of a booking write")
+                    .tag("operation", operation)
+                    .tag("phase", phase)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(MIN_EXPECTED)
+                    .maximumExpectedValue(MAX_EXPECTED)
+                    .register(meterRegistry)
+                    .record(now - lapStart, TimeUnit.NANOSECONDS);
+            lapStart = now;
+        }
+    }
+}
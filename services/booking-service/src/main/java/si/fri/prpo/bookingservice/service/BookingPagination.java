@@ -0,0 +1,86 @@
+package si.fri.prpo.bookingservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import si.fri.prpo.bookingservice.dto.BookingPage;
+import si.fri.prpo.bookingservice.dto.BookingResponse;
+import si.fri.prpo.bookingservice.entity.Booking;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset (start_time, id) paginacija seznamov rezervacij.
+ *
+ * Kurzor je neprozoren Base64 zapis zadnjega vrnjenega para (start_time, id); naslednja stran se
+ * nadaljuje strogo za njim, zato je cena strani neodvisna od tega, kako globoko v zgodovini smo.
+ * Poizvedbe preberejo pageSize + 1 vrstic, da brez COUNT vedo, ali obstaja naslednja stran.
+ */
+@Component
+public class BookingPagination {
+
+    public enum Direction { ASC, DESC }
+
+    public record Cursor(LocalDateTime startTime, long id) {
+    }
+
+    // Meji, ki ju ima Postgres TIMESTAMP (in H2); prva stran začne pred/za vsemi vrsticami
+    private static final Cursor FIRST_ASC = new Cursor(LocalDateTime.of(1, 1, 1, 0, 0), 0L);
+    private static final Cursor FIRST_DESC = new Cursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public BookingPagination(@Value("${booking.pagination.default-page-size:20}") int defaultPageSize,
+                             @Value("${booking.pagination.max-page-size:100}") int maxPageSize) {
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Velikost strani: privzeta, če ni podana, sicer omejena na max-page-size.
+     */
+    public int pageSize(Integer requested) {
+        if (requested == null) {
+            return defaultPageSize;
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return Math.min(requested, maxPageSize);
+    }
+
+    public Cursor decode(String cursor, Direction direction) {
+        if (cursor == null || cursor.isBlank()) {
+            return direction == Direction.ASC ? FIRST_ASC : FIRST_DESC;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            return new Cursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    static String encode(Booking last) {
+        String raw = last.getStartTime() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sestavi stran iz največ pageSize + 1 prebranih vrstic.
+     */
+    public BookingPage toPage(List<Booking> rows, int pageSize, Function<Booking, BookingResponse> mapper) {
+        boolean hasNext = rows.size() > pageSize;
+        List<Booking> page = hasNext ? rows.subList(0, pageSize) : rows;
+        return BookingPage.builder()
+                .items(page.stream().map(mapper).toList())
+                .nextCursor(hasNext ? encode(page.get(page.size() - 1)) : null)
+                .build();
+    }
+}
@@ -0,0 +1,76 @@
+package si.fri.prpo.bookingservice.service;
+
+import org.springframework.stereotype.Component;
+import si.fri.prpo.bookingservice.dto.BookingResponse;
+import si.fri.prpo.bookingservice.entity.Booking;
+import si.fri.prpo.bookingservice.entity.Booking.BookingStatus;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Poslovna pravila rezervacij (validacija časa, cena, prehodi statusov, preslikava v DTO),
+ * skupna servletnemu in reaktivnemu BookingService.
+ */
+@Component
+public class BookingRules {
+
+    // Minimalna rezervacija: 1 ura (upošteva tudi AvailabilityService pri prostih terminih)
+    public static final Duration MIN_BOOKING_DURATION = Duration.ofHours(1);
+
+    public void validateBookingTime(LocalDateTime startTime, LocalDateTime endTime) {
+        if (startTime.isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Start time must be in the future");
+        }
+        if (endTime.isBefore(startTime)) {
+            throw new IllegalArgumentException("End time must be after start time");
+        }
+        if (startTime.equals(endTime)) {
+            throw new IllegalArgumentException("Start time and end time cannot be the same");
+        }
+
+        // Minimalna rezervacija: 1 ura
+        if (Duration.between(startTime, endTime).compareTo(MIN_BOOKING_DURATION) < 0) {
+            throw new IllegalArgumentException("Minimum booking duration is 1 hour");
+        }
+    }
+
+    public BigDecimal calculatePrice(LocalDateTime startTime, LocalDateTime endTime, BigDecimal pricePerHour) {
+        // Izračunaj ure
+        long hours = Duration.between(startTime, endTime).toHours();
+
+        // Urna cena objekta (FacilityPricing)
+        return pricePerHour.multiply(BigDecimal.valueOf(hours));
+    }
+
+    public void validateStatusTransition(BookingStatus currentStatus, BookingStatus newStatus) {
+        // PENDING -> CONFIRMED, CANCELLED
+        // CONFIRMED -> CANCELLED, COMPLETED
+        // CANCELLED -> ni več sprememb
+        // COMPLETED -> ni več sprememb
+
+        if (currentStatus == BookingStatus.CANCELLED || currentStatus == BookingStatus.COMPLETED) {
+            throw new IllegalStateException("Cannot change status of cancelled or completed booking");
+        }
+
+        if (currentStatus == BookingStatus.PENDING && newStatus == BookingStatus.COMPLETED) {
+            throw new IllegalStateException("Cannot complete pending booking (must confirm first)");
+        }
+    }
+
+    public BookingResponse mapToResponse(Booking booking) {
+        return BookingResponse.builder()
+                .id(booking.getId())
+                .userId(booking.getUserId())
+                .facilityId(booking.getFacilityId())
+                .startTime(booking.getStartTime())
+                .endTime(booking.getEndTime())
+                .status(booking.getStatus())
+                .totalPrice(booking.getTotalPrice())
+                .notes(booking.getNotes())
+                .createdAt(booking.getCreatedAt())
+                .updatedAt(booking.getUpdatedAt())
+                .build();
+    }
+}
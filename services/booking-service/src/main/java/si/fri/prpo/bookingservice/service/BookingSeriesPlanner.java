@@ -0,0 +1,118 @@
+package si.fri.prpo.bookingservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import si.fri.prpo.bookingservice.dto.BookingSeriesRequest;
+import si.fri.prpo.bookingservice.dto.RejectedOccurrence;
+import si.fri.prpo.bookingservice.repository.BookingInterval;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Razvije ponavljajočo se rezervacijo v posamezne termine in jih v enem prehodu primerja z
+ * aktivnimi intervali objekta, pridobljenimi z eno poizvedbo po celotnem obdobju serije.
+ * Skupno ga uporabljata servletni in reaktivni BookingService.
+ */
+@Component
+public class BookingSeriesPlanner {
+
+    static final String UNAVAILABLE = "Facility is not available at the selected time";
+
+    private final BookingRules bookingRules;
+    private final int maxOccurrences;
+
+    public BookingSeriesPlanner(BookingRules bookingRules,
+                                @Value("${booking.series.max-occurrences:52}") int maxOccurrences) {
+        this.bookingRules = bookingRules;
+        this.maxOccurrences = maxOccurrences;
+    }
+
+    public record Occurrence(LocalDateTime startTime, LocalDateTime endTime) {
+    }
+
+    public record Plan(List<Occurrence> accepted, List<RejectedOccurrence> rejected) {
+    }
+
+    /**
+     * Termini serije v časovnem zaporedju. Vsi trajajo enako kot prvi in so kasnejši od njega,
+     * zato zadošča validacija prvega termina.
+     */
+    public List<Occurrence> expand(BookingSeriesRequest request) {
+        bookingRules.validateBookingTime(request.getStartTime(), request.getEndTime());
+        if (request.getCount() == null && request.getUntil() == null) {
+            throw new IllegalArgumentException("Either count or until is required");
+        }
+        if (request.getCount() != null && request.getCount() > maxOccurrences) {
+            throw new IllegalArgumentException("A series cannot have more than " + maxOccurrences + " occurrences");
+        }
+
+        int interval = request.getInterval() != null ? request.getInterval() : 1;
+        Duration period = switch (request.getFrequency()) {
+            case DAILY -> Duration.ofDays(interval);
+            case WEEKLY -> Duration.ofDays(7L * interval);
+        };
+        Duration duration = Duration.between(request.getStartTime(), request.getEndTime());
+        // Termini iste serije se ne smejo prekrivati med seboj
+        if (duration.compareTo(period) > 0) {
+            throw new IllegalArgumentException("Booking duration cannot exceed the recurrence period");
+        }
+
+        int limit = request.getCount() != null ? request.getCount() : maxOccurrences;
+        List<Occurrence> occurrences = new ArrayList<>();
+        LocalDateTime start = request.getStartTime();
+        while (occurrences.size() < limit && (request.getUntil() == null || !start.isAfter(request.getUntil()))) {
+            occurrences.add(new Occurrence(start, start.plus(duration)));
+            start = start.plus(period);
+        }
+        if (occurrences.isEmpty()) {
+            throw new IllegalArgumentException("Until must not be before the first occurrence");
+        }
+        if (request.getCount() == null && request.getUntil() != null && !start.isAfter(request.getUntil())) {
+            throw new IllegalArgumentException("A series cannot have more than " + maxOccurrences + " occurrences");
+        }
+        return occurrences;
+    }
+
+    /**
+     * Aktivni intervali iz baze in zadržitve v enem seznamu, urejenem po začetku (za {@link #plan}).
+     */
+    public List<BookingInterval> withHolds(List<? extends BookingInterval> intervals,
+                                           List<? extends BookingInterval> holds) {
+        List<BookingInterval> busy = new ArrayList<>(intervals);
+        if (!holds.isEmpty()) {
+            busy.addAll(holds);
+            busy.sort(Comparator.comparing(BookingInterval::getStartTime));
+        }
+        return busy;
+    }
+
+    /**
+     * Razdeli termine na proste in zasedene. Intervali morajo biti urejeni po začetku (kot jih vrne
+     * findActiveIntervalsInRange); ker so tudi termini urejeni, kazalec po intervalih le napreduje.
+     */
+    public Plan plan(List<Occurrence> occurrences, List<? extends BookingInterval> busy) {
+        List<Occurrence> accepted = new ArrayList<>();
+        List<RejectedOccurrence> rejected = new ArrayList<>();
+        int next = 0;
+        for (Occurrence occurrence : occurrences) {
+            // Intervali, ki se končajo pred tem terminom, se končajo tudi pred vsemi naslednjimi
+            while (next < busy.size() && !busy.get(next).getEndTime().isAfter(occurrence.startTime())) {
+                next++;
+            }
+            if (next < busy.size() && busy.get(next).getStartTime().isBefore(occurrence.endTime())) {
+                rejected.add(RejectedOccurrence.builder()
+                        .startTime(occurrence.startTime())
+                        .endTime(occurrence.endTime())
+                        .reason(UNAVAILABLE)
+                        .build());
+            } else {
+                accepted.add(occurrence);
+            }
+        }
+        return new Plan(accepted, rejected);
+    }
+}
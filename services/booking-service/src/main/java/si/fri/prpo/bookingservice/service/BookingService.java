@@ -2,27 +2,38 @@ package si.fri.prpo.bookingservice.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import si.fri.prpo.bookingservice.client.CalendarClient;
-import si.fri.prpo.bookingservice.client.NotificationClient;
-import si.fri.prpo.bookingservice.client.PaymentClient;
+import org.springframework.transaction.support.TransactionTemplate;
+import si.fri.prpo.bookingservice.dto.AvailabilityResponse;
+import si.fri.prpo.bookingservice.dto.BookingPage;
 import si.fri.prpo.bookingservice.dto.BookingRequest;
+import si.fri.prpo.bookingservice.dto.BookingSeriesRequest;
+import si.fri.prpo.bookingservice.dto.BookingSeriesResponse;
+import si.fri.prpo.bookingservice.dto.FacilitySearchRequest;
+import si.fri.prpo.bookingservice.dto.FacilitySearchResponse;
 import si.fri.prpo.bookingservice.dto.BookingResponse;
+import si.fri.prpo.bookingservice.dto.RejectedOccurrence;
 import si.fri.prpo.bookingservice.dto.UpdateBookingStatusRequest;
-import si.fri.prpo.bookingservice.dto.external.CalendarEventRequest;
-import si.fri.prpo.bookingservice.dto.external.CalendarEventResponse;
-import si.fri.prpo.bookingservice.dto.external.PaymentCheckoutRequest;
-import si.fri.prpo.bookingservice.dto.external.PaymentCheckoutResponse;
 import si.fri.prpo.bookingservice.entity.Booking;
 import si.fri.prpo.bookingservice.entity.Booking.BookingStatus;
+import si.fri.prpo.bookingservice.entity.OutboxEvent.EventType;
+import si.fri.prpo.bookingservice.entity.SlotHold;
+import si.fri.prpo.bookingservice.exception.GlobalExceptionHandler;
+import si.fri.prpo.bookingservice.repository.BookingListVersion;
 import si.fri.prpo.bookingservice.repository.BookingRepository;
+import si.fri.prpo.bookingservice.service.BookingPagination.Cursor;
+import si.fri.prpo.bookingservice.service.BookingPagination.Direction;
+import si.fri.prpo.bookingservice.service.BookingSeriesPlanner.Occurrence;
+import si.fri.prpo.bookingservice.service.BookingSeriesPlanner.Plan;
 
 import java.math.BigDecimal;
-import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.function.BiFunction;
 
 @Service
 @RequiredArgsConstructor
@@ -30,29 +41,103 @@ import java.util.stream.Collectors;
 public class BookingService {
 
     private final BookingRepository bookingRepository;
-    private final PaymentClient paymentClient;
-    private final CalendarClient calendarClient;
-    private final NotificationClient notificationClient;
+    private final FacilityIntervalIndex facilityIntervalIndex;
+    private final FacilityLockStripes facilityLockStripes;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxService outboxService;
+    private final BookingRules bookingRules;
+    private final BookingPagination bookingPagination;
+    private final AvailabilityService availabilityService;
+    private final FacilitySlotBitmaps facilitySlotBitmaps;
+    private final AvailabilityStream availabilityStream;
+    private final BookingSeriesPlanner bookingSeriesPlanner;
+    private final IdempotencyService idempotencyService;
+    private final SlotHoldService slotHoldService;
+    private final FacilityPricing facilityPricing;
+    private final BookingETags bookingETags;
+    private final BookingMetrics bookingMetrics;
 
-    @Transactional
     public BookingResponse createBooking(Long userId, BookingRequest request) {
         log.info("Creating booking for user {} and facility {}", userId, request.getFacilityId());
+        return create(request, (pricePerHour, phases) ->
+                bookingRules.mapToResponse(insertBooking(userId, request, pricePerHour, phases)));
+    }
+
+    /**
+     * Ustvarjanje z Idempotency-Key: ponovni poskus z istim ključem vrne shranjen odgovor prvega
+     * zahtevka, ne da bi znova preverjal prekrivanja ali ustvaril novo rezervacijo.
+     */
+    public BookingResponse createBooking(Long userId, BookingRequest request, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return createBooking(userId, request);
+        }
+        Optional<BookingResponse> replay = idempotencyService.lookup(userId, idempotencyKey, request);
+        if (replay.isPresent()) {
+            return replay.get();
+        }
 
-        // 1. Validacija časa
-        validateBookingTime(request.getStartTime(), request.getEndTime());
+        log.info("Creating booking for user {} and facility {} (Idempotency-Key {})",
+                userId, request.getFacilityId(), idempotencyKey);
+        // Sočasen ponovni poskus čaka na isto ključavnico objekta in nato najde shranjen odgovor
+        return create(request, (pricePerHour, phases) -> idempotencyService
+                .recheck(userId, idempotencyKey, request)
+                .orElseGet(() -> {
+                    BookingResponse response = bookingRules.mapToResponse(
+                            insertBooking(userId, request, pricePerHour, phases));
+                    idempotencyService.remember(userId, idempotencyKey, request, response);
+                    return response;
+                }));
+    }
 
-        // 2. Preveri, ali je objekt na voljo v tem času
-        List<Booking> conflicts = bookingRepository.findConflictingBookings(
+    /**
+     * Skupni potek ustvarjanja; write je korak v transakciji (zapis ali ponovno preverjanje ključa,
+     * zapis in shranjen odgovor) in dobi urno ceno objekta.
+     */
+    private BookingResponse create(BookingRequest request,
+                                   BiFunction<BigDecimal, BookingMetrics.Phases, BookingResponse> write) {
+        return bookingMetrics.record("create", phases -> {
+            // 1. Validacija časa
+            bookingRules.validateBookingTime(request.getStartTime(), request.getEndTime());
+            phases.lap("validate");
+            // Cena pred ključavnico, da morebitno čakanje na facility-service ne zadrži drugih
+            BigDecimal pricePerHour = facilityPricing.pricePerHour(request.getFacilityId());
+            phases.lap("price");
+
+            // 2.-4. Preverjanje in zapis tečeta pod ključavnico objekta; transakcija se potrdi,
+            // preden se ključavnica sprosti, zato naslednji v vrsti že vidi novo rezervacijo
+            return facilityLockStripes.withFacilityLock(request.getFacilityId(), () -> {
+                phases.lap("lock-wait");
+                BookingResponse created = transactionTemplate.execute(status -> write.apply(pricePerHour, phases));
+                phases.lap("commit");
+                return created;
+            });
+        });
+    }
+
+    private Booking insertBooking(Long userId, BookingRequest request, BigDecimal pricePerHour,
+                                  BookingMetrics.Phases phases) {
+        // 2. Preveri, ali je objekt na voljo v tem času (zadržitve, indeks intervalov, po potrebi baza)
+        String conflict = null;
+        if (slotHoldService.hasConflictingHold(
+                request.getFacilityId(),
+                request.getStartTime(),
+                request.getEndTime())) {
+            conflict = "hold";
+        } else if (facilityIntervalIndex.hasConflict(
                 request.getFacilityId(),
                 request.getStartTime(),
-                request.getEndTime());
+                request.getEndTime())) {
+            conflict = "index";
+        }
+        phases.lap("conflict-check");
 
-        if (!conflicts.isEmpty()) {
+        if (conflict != null) {
+            bookingMetrics.conflict(conflict);
             throw new IllegalStateException("Facility is not available at the selected time");
         }
 
-        // 3. Izračunaj ceno (za zdaj fiksna 15€/uro - kasneje bo iz facility-service)
-        BigDecimal totalPrice = calculatePrice(request.getStartTime(), request.getEndTime());
+        // 3. Izračunaj ceno po urni ceni objekta
+        BigDecimal totalPrice = bookingRules.calculatePrice(request.getStartTime(), request.getEndTime(), pricePerHour);
 
         // 4. Ustvari rezervacijo
         Booking booking = Booking.builder()
@@ -65,57 +150,179 @@ public class BookingService {
                 .notes(request.getNotes())
                 .build();
 
-        Booking savedBooking = bookingRepository.save(booking);
+        Booking savedBooking;
+        try {
+            savedBooking = bookingRepository.save(booking);
+        } catch (DataIntegrityViolationException e) {
+            // Exclusion constraint je zavrnil prekrivanje, ki ga indeks ni poznal
+            if (GlobalExceptionHandler.isBookingOverlap(e)) {
+                bookingMetrics.conflict("constraint");
+            }
+            facilityIntervalIndex.markStale(request.getFacilityId());
+            throw e;
+        }
+        phases.lap("save");
+        afterCommit(savedBooking);
+
+        // 5. Booking confirmation notification gre prek outboxa (ista transakcija)
+        outboxService.enqueue(EventType.BOOKING_CREATED, savedBooking);
+        phases.lap("outbox");
         log.info("Booking created successfully with ID: {}", savedBooking.getId());
+        return savedBooking;
+    }
+
+    /**
+     * Ustvari ponavljajočo se rezervacijo: vse termine preveri ena poizvedba po obdobju serije,
+     * proste zapiše v eni transakciji, zasedene pa vrne v odgovoru namesto napake.
+     */
+    public BookingSeriesResponse createSeries(Long userId, BookingSeriesRequest request) {
+        log.info("Creating booking series for user {} and facility {}", userId, request.getFacilityId());
+        List<Occurrence> occurrences = bookingSeriesPlanner.expand(request);
+        BigDecimal pricePerHour = facilityPricing.pricePerHour(request.getFacilityId());
+
+        SeriesResult result = facilityLockStripes.withFacilityLock(request.getFacilityId(),
+                () -> transactionTemplate.execute(status -> insertSeries(userId, request, occurrences, pricePerHour)));
+
+        log.info("Booking series for facility {}: {} created, {} rejected",
+                request.getFacilityId(), result.saved().size(), result.rejected().size());
+        return BookingSeriesResponse.builder()
+                .facilityId(request.getFacilityId())
+                .created(result.saved().stream().map(bookingRules::mapToResponse).toList())
+                .rejected(result.rejected())
+                .build();
+    }
 
-        // 5. Pošlji booking confirmation notification
+    private record SeriesResult(List<Booking> saved, List<RejectedOccurrence> rejected) {
+    }
+
+    private SeriesResult insertSeries(Long userId, BookingSeriesRequest request, List<Occurrence> occurrences,
+                                      BigDecimal pricePerHour) {
+        // Ena poizvedba za celotno obdobje serije namesto preverjanja vsakega termina posebej
+        LocalDateTime from = occurrences.get(0).startTime();
+        LocalDateTime to = occurrences.get(occurrences.size() - 1).endTime();
+        Plan plan = bookingSeriesPlanner.plan(occurrences, bookingSeriesPlanner.withHolds(
+                bookingRepository.findActiveIntervalsInRange(request.getFacilityId(), from, to),
+                slotHoldService.activeHolds(request.getFacilityId(), from, to)));
+        if (plan.accepted().isEmpty()) {
+            return new SeriesResult(List.of(), plan.rejected());
+        }
+
+        List<Booking> bookings = plan.accepted().stream()
+                .map(occurrence -> Booking.builder()
+                        .userId(userId)
+                        .facilityId(request.getFacilityId())
+                        .startTime(occurrence.startTime())
+                        .endTime(occurrence.endTime())
+                        .status(BookingStatus.PENDING)
+                        .totalPrice(bookingRules.calculatePrice(occurrence.startTime(), occurrence.endTime(), pricePerHour))
+                        .notes(request.getNotes())
+                        .build())
+                .toList();
+
+        List<Booking> saved;
         try {
-            log.info("Attempting to send booking confirmation notification for booking {}", savedBooking.getId());
-            notificationClient.sendBookingConfirmation(
-                    userId,
-                    savedBooking.getId(),
-                    "user" + userId + "@example.com", // Mock email - kasneje iz Auth Service
-                    "Facility #" + request.getFacilityId(), // Mock name - kasneje iz Facility Service
-                    savedBooking.getStartTime().toString());
-            log.info("Booking confirmation notification sent successfully");
-        } catch (Exception e) {
-            log.error("Failed to send booking confirmation notification", e);
-            // Don't fail the booking if notification fails
+            saved = bookingRepository.saveAll(bookings);
+        } catch (DataIntegrityViolationException e) {
+            facilityIntervalIndex.markStale(request.getFacilityId());
+            throw e;
         }
+        saved.forEach(this::afterCommit);
+
+        // Eno povzetno obvestilo za vso serijo
+        outboxService.enqueueSeries(saved);
+        return new SeriesResult(saved, plan.rejected());
+    }
+
+    /**
+     * Potrdi zadržitev termina: zadržitev se porabi in v isti transakciji nastane rezervacija.
+     */
+    public BookingResponse confirmHold(Long holdId, Long userId) {
+        log.info("Confirming hold {} by user {}", holdId, userId);
+        return bookingMetrics.record("confirm-hold", phases -> {
+            SlotHold hold = slotHoldService.getHold(holdId, userId);
+            bookingRules.validateBookingTime(hold.getStartTime(), hold.getEndTime());
+            phases.lap("validate");
+            BigDecimal pricePerHour = facilityPricing.pricePerHour(hold.getFacilityId());
+            phases.lap("price");
+
+            Booking savedBooking = facilityLockStripes.withFacilityLock(hold.getFacilityId(), () -> {
+                phases.lap("lock-wait");
+                Booking inserted = transactionTemplate.execute(status -> {
+                    slotHoldService.consume(hold);
+                    return insertBooking(userId, BookingRequest.builder()
+                            .facilityId(hold.getFacilityId())
+                            .startTime(hold.getStartTime())
+                            .endTime(hold.getEndTime())
+                            .build(), pricePerHour, phases);
+                });
+                phases.lap("commit");
+                return inserted;
+            });
+
+            return bookingRules.mapToResponse(savedBooking);
+        });
+    }
 
-        return mapToResponse(savedBooking);
+    @Transactional(readOnly = true)
+    public BookingPage getMyBookings(Long userId, String cursor, Integer size) {
+        log.info("Fetching bookings for user {} (cursor {})", userId, cursor);
+        int pageSize = bookingPagination.pageSize(size);
+        Cursor after = bookingPagination.decode(cursor, Direction.DESC);
+        return bookingPagination.toPage(
+                bookingRepository.findPageByUserId(userId, after.startTime(), after.id(), Limit.of(pageSize + 1)),
+                pageSize, bookingRules::mapToResponse);
     }
 
     @Transactional(readOnly = true)
-    public List<BookingResponse> getMyBookings(Long userId) {
-        log.info("Fetching all bookings for user {}", userId);
-        return bookingRepository.findByUserId(userId).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    public BookingPage getUpcomingBookings(Long userId, String cursor, Integer size) {
+        log.info("Fetching upcoming bookings for user {} (cursor {})", userId, cursor);
+        int pageSize = bookingPagination.pageSize(size);
+        Cursor after = bookingPagination.decode(cursor, Direction.ASC);
+        return bookingPagination.toPage(
+                bookingRepository.findUpcomingPageByUserId(userId, LocalDateTime.now(),
+                        after.startTime(), after.id(), Limit.of(pageSize + 1)),
+                pageSize, bookingRules::mapToResponse);
     }
 
+    /**
+     * ETag prihodnjih rezervacij iz ene agregatne poizvedbe, brez nalaganja rezervacij.
+     */
     @Transactional(readOnly = true)
-    public List<BookingResponse> getUpcomingBookings(Long userId) {
-        log.info("Fetching upcoming bookings for user {}", userId);
-        return bookingRepository.findUpcomingBookingsByUserId(userId, LocalDateTime.now()).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    public String getUpcomingBookingsETag(Long userId) {
+        BookingListVersion version = bookingRepository.findUpcomingVersionByUserId(userId, LocalDateTime.now());
+        return bookingETags.forList(version.getBookingCount(), version.getLastUpdated());
     }
 
     @Transactional(readOnly = true)
-    public List<BookingResponse> getPastBookings(Long userId) {
-        log.info("Fetching past bookings for user {}", userId);
-        return bookingRepository.findPastBookingsByUserId(userId, LocalDateTime.now()).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    public BookingPage getPastBookings(Long userId, String cursor, Integer size) {
+        log.info("Fetching past bookings for user {} (cursor {})", userId, cursor);
+        int pageSize = bookingPagination.pageSize(size);
+        Cursor after = bookingPagination.decode(cursor, Direction.DESC);
+        return bookingPagination.toPage(
+                bookingRepository.findPastPageByUserId(userId, LocalDateTime.now(),
+                        after.startTime(), after.id(), Limit.of(pageSize + 1)),
+                pageSize, bookingRules::mapToResponse);
     }
 
     @Transactional(readOnly = true)
-    public List<BookingResponse> getBookingsByFacility(Long facilityId) {
-        log.info("Fetching all bookings for facility {}", facilityId);
-        return bookingRepository.findByFacilityId(facilityId).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    public BookingPage getBookingsByFacility(Long facilityId, String cursor, Integer size) {
+        log.info("Fetching bookings for facility {} (cursor {})", facilityId, cursor);
+        int pageSize = bookingPagination.pageSize(size);
+        Cursor after = bookingPagination.decode(cursor, Direction.ASC);
+        return bookingPagination.toPage(
+                bookingRepository.findPageByFacilityId(facilityId, after.startTime(), after.id(), Limit.of(pageSize + 1)),
+                pageSize, bookingRules::mapToResponse);
+    }
+
+    /**
+     * ETag rezervacije iz projekcije (lastnik, updated_at). Prazen, če rezervacija ne obstaja ali
+     * ni uporabnikova; napako takrat vrne običajno branje.
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> getBookingETag(Long bookingId, Long userId) {
+        return bookingRepository.findVersionById(bookingId)
+                .filter(version -> version.getUserId().equals(userId))
+                .map(version -> bookingETags.forBooking(bookingId, version.getUpdatedAt()));
     }
 
     @Transactional(readOnly = true)
@@ -129,207 +336,115 @@ public class BookingService {
             throw new IllegalStateException("You are not authorized to view this booking");
         }
 
-        return mapToResponse(booking);
+        return bookingRules.mapToResponse(booking);
     }
 
-    @Transactional
     public BookingResponse updateBookingStatus(Long bookingId, Long userId, UpdateBookingStatusRequest request) {
         log.info("Updating booking {} status to {} by user {}", bookingId, request.getStatus(), userId);
 
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new IllegalArgumentException("Booking not found"));
-
-        // Preveri lastništvo
-        if (!booking.getUserId().equals(userId)) {
-            throw new IllegalStateException("You are not authorized to update this booking");
-        }
-
-        // Validacija prehodov statusa
-        validateStatusTransition(booking.getStatus(), request.getStatus());
-
-        BookingStatus oldStatus = booking.getStatus();
-        booking.setStatus(request.getStatus());
-        Booking updatedBooking = bookingRepository.save(booking);
-
-        log.info("Booking {} status updated from {} to {}", bookingId, oldStatus, request.getStatus());
-
-        // Handle status transitions with integrations
-        if (request.getStatus() == BookingStatus.CONFIRMED && oldStatus == BookingStatus.PENDING) {
-            handleBookingConfirmed(updatedBooking);
-        }
-
-        return mapToResponse(updatedBooking);
+        // Transakcija znotraj merjenja, da faza commit zajame tudi potrditev
+        return bookingMetrics.record("update-status", phases -> {
+            BookingResponse response = transactionTemplate.execute(status -> {
+                Booking booking = bookingRepository.findById(bookingId)
+                        .orElseThrow(() -> new IllegalArgumentException("Booking not found"));
+                phases.lap("load");
+
+                // Preveri lastništvo
+                if (!booking.getUserId().equals(userId)) {
+                    throw new IllegalStateException("You are not authorized to update this booking");
+                }
+
+                // Validacija prehodov statusa
+                bookingRules.validateStatusTransition(booking.getStatus(), request.getStatus());
+                phases.lap("validate");
+
+                BookingStatus oldStatus = booking.getStatus();
+                booking.setStatus(request.getStatus());
+                Booking updatedBooking = bookingRepository.save(booking);
+                afterCommit(updatedBooking);
+                phases.lap("save");
+
+                log.info("Booking {} status updated from {} to {}", bookingId, oldStatus, request.getStatus());
+
+                // Plačilo, koledar in obvestila dostavi OutboxRelay po potrditvi transakcije
+                if (request.getStatus() == BookingStatus.CONFIRMED && oldStatus == BookingStatus.PENDING) {
+                    outboxService.enqueue(EventType.BOOKING_CONFIRMED, updatedBooking);
+                    phases.lap("outbox");
+                }
+
+                return bookingRules.mapToResponse(updatedBooking);
+            });
+            phases.lap("commit");
+            return response;
+        });
     }
 
-    private void handleBookingConfirmed(Booking booking) {
-        log.info("Handling booking confirmation for booking {}", booking.getId());
-
-        // 1. Create payment checkout session
-        try {
-            PaymentCheckoutRequest paymentRequest = PaymentCheckoutRequest.builder()
-                    .bookingId(booking.getId())
-                    .userId(booking.getUserId())
-                    .amount(booking.getTotalPrice())
-                    .currency("EUR")
-                    .build();
-
-            PaymentCheckoutResponse paymentResponse = paymentClient.createCheckoutSession(paymentRequest);
-            log.info("Payment checkout session created: {}", paymentResponse.getSessionId());
-
-            // 2. Create Google Calendar event (don't wait for payment)
-            handleCalendarCreation(booking, paymentResponse.getId());
-
-        } catch (Exception e) {
-            log.error("Failed to create payment session for booking {}", booking.getId(), e);
-            // Don't fail the booking if payment creation fails
-        }
-    }
-
-    private void handleCalendarCreation(Booking booking, Long paymentId) {
-        log.info("Creating calendar event for booking {}", booking.getId());
-
-        try {
-            // 1. Create Google Calendar event
-            CalendarEventRequest calendarRequest = CalendarEventRequest.builder()
-                    .bookingId(booking.getId())
-                    .userId(booking.getUserId())
-                    .facilityId(booking.getFacilityId())
-                    .title("Booking #" + booking.getId() + " - Facility #" + booking.getFacilityId())
-                    .location("Facility #" + booking.getFacilityId()) // Mock - later from Facility Service
-                    .description("Reservation for facility. Total: " + booking.getTotalPrice() + " EUR")
-                    .startTime(booking.getStartTime())
-                    .endTime(booking.getEndTime())
-                    .build();
-
-            CalendarEventResponse calendarResponse = calendarClient.createCalendarEvent(calendarRequest);
-            log.info("Calendar event created: {}", calendarResponse.getId());
-
-            // 2. Send payment confirmation notification
-            log.info("Attempting to send payment confirmation notification");
-            notificationClient.sendPaymentConfirmation(
-                    booking.getUserId(),
-                    booking.getId(),
-                    paymentId,
-                    "user" + booking.getUserId() + "@example.com",
-                    booking.getTotalPrice().toString());
-            log.info("Payment confirmation notification sent");
-
-            // 3. Send calendar event created notification
-            log.info("Attempting to send calendar event notification");
-            notificationClient.sendCalendarEventCreated(
-                    booking.getUserId(),
-                    booking.getId(),
-                    calendarResponse.getId(),
-                    "user" + booking.getUserId() + "@example.com",
-                    "Facility #" + booking.getFacilityId());
-            log.info("Calendar event notification sent");
-
-            log.info("All integrations completed successfully for booking {}", booking.getId());
-
-        } catch (Exception e) {
-            log.error("Failed to create calendar event or send notifications for booking {}", booking.getId(), e);
-            // Don't fail the booking if calendar/notification fails
-        }
-    }
-
-    @Transactional
     public void cancelBooking(Long bookingId, Long userId) {
         log.info("Cancelling booking {} by user {}", bookingId, userId);
 
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new IllegalArgumentException("Booking not found"));
-
-        // Preveri lastništvo
-        if (!booking.getUserId().equals(userId)) {
-            throw new IllegalStateException("You are not authorized to cancel this booking");
-        }
-
-        // Ne dovoli preklica že preklicanih ali zaključenih rezervacij
-        if (booking.getStatus() == BookingStatus.CANCELLED) {
-            throw new IllegalStateException("Booking is already cancelled");
-        }
-        if (booking.getStatus() == BookingStatus.COMPLETED) {
-            throw new IllegalStateException("Cannot cancel completed booking");
-        }
-
-        // Preveri, ali je rezervacija v prihodnosti (lahko prekličeš samo prihodnje)
-        if (booking.getStartTime().isBefore(LocalDateTime.now())) {
-            throw new IllegalStateException("Cannot cancel past bookings");
-        }
-
-        booking.setStatus(BookingStatus.CANCELLED);
-        bookingRepository.save(booking);
+        bookingMetrics.record("cancel", phases -> {
+            transactionTemplate.executeWithoutResult(status -> {
+                Booking booking = bookingRepository.findById(bookingId)
+                        .orElseThrow(() -> new IllegalArgumentException("Booking not found"));
+                phases.lap("load");
+
+                // Preveri lastništvo
+                if (!booking.getUserId().equals(userId)) {
+                    throw new IllegalStateException("You are not authorized to cancel this booking");
+                }
+
+                // Ne dovoli preklica že preklicanih ali zaključenih rezervacij
+                if (booking.getStatus() == BookingStatus.CANCELLED) {
+                    throw new IllegalStateException("Booking is already cancelled");
+                }
+                if (booking.getStatus() == BookingStatus.COMPLETED) {
+                    throw new IllegalStateException("Cannot cancel completed booking");
+                }
+
+                // Preveri, ali je rezervacija v prihodnosti (lahko prekličeš samo prihodnje)
+                if (booking.getStartTime().isBefore(LocalDateTime.now())) {
+                    throw new IllegalStateException("Cannot cancel past bookings");
+                }
+                phases.lap("validate");
+
+                booking.setStatus(BookingStatus.CANCELLED);
+                bookingRepository.save(booking);
+                afterCommit(booking);
+                phases.lap("save");
+
+                outboxService.enqueue(EventType.BOOKING_CANCELLED, booking);
+                phases.lap("outbox");
+            });
+            phases.lap("commit");
+            return null;
+        });
 
         log.info("Booking {} cancelled successfully", bookingId);
-
-        // Send cancellation notification
-        try {
-            notificationClient.sendBookingCancellation(
-                    userId,
-                    bookingId,
-                    "user" + userId + "@example.com",
-                    "Facility #" + booking.getFacilityId());
-        } catch (Exception e) {
-            log.error("Failed to send booking cancellation notification", e);
-        }
-    }
-
-    // Pomožne metode
-
-    private void validateBookingTime(LocalDateTime startTime, LocalDateTime endTime) {
-        if (startTime.isBefore(LocalDateTime.now())) {
-            throw new IllegalArgumentException("Start time must be in the future");
-        }
-        if (endTime.isBefore(startTime)) {
-            throw new IllegalArgumentException("End time must be after start time");
-        }
-        if (startTime.equals(endTime)) {
-            throw new IllegalArgumentException("Start time and end time cannot be the same");
-        }
-
-        // Minimalna rezervacija: 1 ura
-        if (Duration.between(startTime, endTime).toHours() < 1) {
-            throw new IllegalArgumentException("Minimum booking duration is 1 hour");
-        }
     }
 
-    private BigDecimal calculatePrice(LocalDateTime startTime, LocalDateTime endTime) {
-        // Izračunaj ure
-        long hours = Duration.between(startTime, endTime).toHours();
-
-        // Fiksna cena 15€/uro (kasneje bo iz facility-service)
-        BigDecimal pricePerHour = new BigDecimal("15.00");
-
-        return pricePerHour.multiply(BigDecimal.valueOf(hours));
+    // Indeks intervalov, predpomnilnik prostih terminov in tok razpoložljivosti se posodobijo po potrditvi transakcije
+    private void afterCommit(Booking booking) {
+        facilityIntervalIndex.updateAfterCommit(booking);
+        availabilityService.evictAfterCommit(booking);
+        facilitySlotBitmaps.updateAfterCommit(booking);
+        availabilityStream.publishAfterCommit(booking);
     }
 
-    private void validateStatusTransition(BookingStatus currentStatus, BookingStatus newStatus) {
-        // PENDING -> CONFIRMED, CANCELLED
-        // CONFIRMED -> CANCELLED, COMPLETED
-        // CANCELLED -> ni več sprememb
-        // COMPLETED -> ni več sprememb
-
-        if (currentStatus == BookingStatus.CANCELLED || currentStatus == BookingStatus.COMPLETED) {
-            throw new IllegalStateException("Cannot change status of cancelled or completed booking");
-        }
-
-        if (currentStatus == BookingStatus.PENDING && newStatus == BookingStatus.COMPLETED) {
-            throw new IllegalStateException("Cannot complete pending booking (must confirm first)");
-        }
+    @Transactional(readOnly = true)
+    public AvailabilityResponse getAvailability(Long facilityId, LocalDateTime from, LocalDateTime to,
+                                                Integer granularityMinutes) {
+        log.info("Fetching availability of facility {} between {} and {}", facilityId, from, to);
+        return availabilityService.getAvailability(facilityId, from, to, granularityMinutes);
     }
 
-    private BookingResponse mapToResponse(Booking booking) {
-        return BookingResponse.builder()
-                .id(booking.getId())
-                .userId(booking.getUserId())
-                .facilityId(booking.getFacilityId())
-                .startTime(booking.getStartTime())
-                .endTime(booking.getEndTime())
-                .status(booking.getStatus())
-                .totalPrice(booking.getTotalPrice())
-                .notes(booking.getNotes())
-                .createdAt(booking.getCreatedAt())
-                .updatedAt(booking.getUpdatedAt())
+    public FacilitySearchResponse searchFreeFacilities(FacilitySearchRequest request) {
+        log.info("Searching {} facilities free between {} and {}",
+                request.getFacilityIds().size(), request.getStartTime(), request.getEndTime());
+        return FacilitySearchResponse.builder()
+                .startTime(request.getStartTime())
+                .endTime(request.getEndTime())
+                .freeFacilityIds(facilitySlotBitmaps.findFree(
+                        request.getFacilityIds(), request.getStartTime(), request.getEndTime()))
                 .build();
     }
 }
@@ -0,0 +1,353 @@
+package si.fri.prpo.bookingservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import si.fri.prpo.bookingservice.entity.Booking;
+import si.fri.prpo.bookingservice.entity.Booking.BookingStatus;
+import si.fri.prpo.bookingservice.repository.BookingInterval;
+import si.fri.prpo.bookingservice.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of active (PENDING/CONFIRMED) booking intervals per facility.
+ *
+ * Each facility holds an immutable snapshot of intervals sorted by start time together with a
+ * running maximum of end times, so an overlap check is a single binary search. Snapshots are
+ * replaced copy-on-write after the owning transaction commits.
+ *
+ * The index only sees this pod's writes: another replica's cancellation or sweep leaves a stale
+ * interval behind. A reported conflict is therefore always confirmed with the database (and the
+ * facility reloaded when they disagree); a free answer is final unless verification is enabled,
+ * since the bookings_no_overlap constraint rejects what the index missed. Intervals that have
+ * ended are pruned periodically, as no new booking can overlap them.
+ */
+@Slf4j
+@Component
+public class FacilityIntervalIndex {
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, FacilitySlots> slots = new ConcurrentHashMap<>();
+    private final Set<Long> staleFacilities = ConcurrentHashMap.newKeySet();
+    private final Counter hits;
+    private final Counter misses;
+
+    private final boolean enabled;
+    private final boolean verifyWithDatabase;
+    private volatile boolean loaded;
+
+    public FacilityIntervalIndex(BookingRepository bookingRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${booking.conflict-index.enabled:true}") boolean enabled,
+                                 @Value("${booking.conflict-index.verify-with-database:true}") boolean verifyWithDatabase) {
+        this.bookingRepository = bookingRepository;
+        this.enabled = enabled;
+        this.verifyWithDatabase = verifyWithDatabase;
+        this.hits = Counter.builder("booking.conflict.index")
+                .description("Conflict checks answered by the in-memory interval index")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("booking.conflict.index")
+                .description("Conflict checks the in-memory interval index could not answer correctly")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("booking.conflict.index.intervals", slots,
+                        s -> s.values().stream().mapToInt(FacilitySlots::size).sum())
+                .description("Active booking intervals held in the index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            log.info("Facility interval index is disabled");
+            return;
+        }
+        List<BookingInterval> active = bookingRepository.findActiveIntervals(LocalDateTime.now());
+        Map<Long, List<BookingInterval>> byFacility = active.stream()
+                .collect(Collectors.groupingBy(BookingInterval::getFacilityId));
+        slots.clear();
+        byFacility.forEach((facilityId, intervals) -> slots.put(facilityId, FacilitySlots.of(intervals)));
+        loaded = true;
+        log.info("Facility interval index loaded: {} intervals across {} facilities",
+                active.size(), byFacility.size());
+    }
+
+    /**
+     * Returns true if an active booking of the facility overlaps [startTime, endTime).
+     * A conflict reported by the index is confirmed with a lightweight exists query (another replica
+     * may have cancelled or completed the booking). When verification is enabled, a free slot is
+     * confirmed too (other replicas may have written bookings this pod has not seen).
+     */
+    public boolean hasConflict(Long facilityId, LocalDateTime startTime, LocalDateTime endTime) {
+        if (!enabled || !loaded) {
+            misses.increment();
+            return bookingRepository.existsConflictingBooking(facilityId, startTime, endTime);
+        }
+
+        if (staleFacilities.remove(facilityId)) {
+            misses.increment();
+            reload(facilityId);
+        }
+
+        FacilitySlots facilitySlots = slots.getOrDefault(facilityId, FacilitySlots.EMPTY);
+        boolean indexed = facilitySlots.overlaps(toNanos(startTime), toNanos(endTime));
+        if (!indexed && !verifyWithDatabase) {
+            hits.increment();
+            return false;
+        }
+
+        boolean conflict = bookingRepository.existsConflictingBooking(facilityId, startTime, endTime);
+        if (conflict != indexed) {
+            log.debug("Interval index for facility {} was stale, reloading", facilityId);
+            misses.increment();
+            reload(facilityId);
+        } else {
+            hits.increment();
+        }
+        return conflict;
+    }
+
+    /**
+     * Replaces the facility's snapshot with intervals the caller loaded itself, after the database
+     * reported a conflict the index did not know about. Counts as an index miss.
+     */
+    public void refresh(Long facilityId, List<BookingInterval> intervals) {
+        if (!enabled) {
+            return;
+        }
+        misses.increment();
+        replace(facilityId, intervals);
+    }
+
+    /**
+     * Applies the booking's current state to the index once the surrounding transaction commits
+     * (immediately when there is no transaction). Active bookings are (re)inserted, others removed.
+     */
+    public void updateAfterCommit(Booking booking) {
+        if (!enabled) {
+            return;
+        }
+        Long id = booking.getId();
+        Long facilityId = booking.getFacilityId();
+        long start = toNanos(booking.getStartTime());
+        long end = toNanos(booking.getEndTime());
+        boolean active = isActive(booking.getStatus());
+
+        Runnable update = () -> slots.compute(facilityId, (key, current) -> {
+            FacilitySlots base = current != null ? current : FacilitySlots.EMPTY;
+            FacilitySlots next = active ? base.with(id, start, end) : base.without(id);
+            return next.size() == 0 ? null : next;
+        });
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    /**
+     * Marks the facility for reload on its next lookup, e.g. after the database rejected an insert
+     * the index believed was free. The reload cannot run inside the failed transaction.
+     */
+    public void markStale(Long facilityId) {
+        if (enabled) {
+            staleFacilities.add(facilityId);
+        }
+    }
+
+    /**
+     * Drops intervals that have already ended. Bookings must start in the future, so these can never
+     * conflict; without pruning they stay until this pod's lifecycle sweeper completes them, and
+     * forever when another replica does.
+     */
+    @Scheduled(fixedDelayString = "${booking.conflict-index.prune-interval-ms:60000}")
+    public void pruneEnded() {
+        if (!enabled) {
+            return;
+        }
+        long now = toNanos(LocalDateTime.now());
+        for (Long facilityId : slots.keySet()) {
+            slots.computeIfPresent(facilityId, (key, current) -> {
+                FacilitySlots next = current.withoutEndedBefore(now);
+                return next.size() == 0 ? null : next;
+            });
+        }
+    }
+
+    private void reload(Long facilityId) {
+        replace(facilityId, bookingRepository.findActiveIntervalsByFacilityId(facilityId, LocalDateTime.now()));
+    }
+
+    private void replace(Long facilityId, List<BookingInterval> intervals) {
+        staleFacilities.remove(facilityId);
+        if (intervals.isEmpty()) {
+            slots.remove(facilityId);
+        } else {
+            slots.put(facilityId, FacilitySlots.of(intervals));
+        }
+    }
+
+    static boolean isActive(BookingStatus status) {
+        return status == BookingStatus.PENDING || status == BookingStatus.CONFIRMED;
+    }
+
+    static long toNanos(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    /**
+     * Immutable, start-sorted interval arrays. maxEnds[i] is the largest end among intervals 0..i,
+     * which keeps lookups correct even if overlapping intervals slipped into the database.
+     */
+    static final class FacilitySlots {
+
+        static final FacilitySlots EMPTY = new FacilitySlots(new long[0], new long[0], new long[0]);
+
+        private final long[] ids;
+        private final long[] starts;
+        private final long[] ends;
+        private final long[] maxEnds;
+
+        private FacilitySlots(long[] ids, long[] starts, long[] ends) {
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            this.maxEnds = new long[ends.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+        }
+
+        static FacilitySlots of(List<BookingInterval> intervals) {
+            List<BookingInterval> sorted = intervals.stream()
+                    .sorted(Comparator.comparing(BookingInterval::getStartTime))
+                    .toList();
+            long[] ids = new long[sorted.size()];
+            long[] starts = new long[sorted.size()];
+            long[] ends = new long[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                BookingInterval interval = sorted.get(i);
+                ids[i] = interval.getId();
+                starts[i] = toNanos(interval.getStartTime());
+                ends[i] = toNanos(interval.getEndTime());
+            }
+            return new FacilitySlots(ids, starts, ends);
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        boolean overlaps(long start, long end) {
+            // zadnji interval, ki se začne pred koncem iskanega
+            int lo = 0;
+            int hi = starts.length - 1;
+            int last = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (starts[mid] < end) {
+                    last = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return last >= 0 && maxEnds[last] > start;
+        }
+
+        FacilitySlots with(long id, long start, long end) {
+            FacilitySlots base = without(id);
+            int n = base.ids.length;
+            int pos = Arrays.binarySearch(base.starts, start);
+            if (pos < 0) {
+                pos = -pos - 1;
+            }
+            long[] newIds = new long[n + 1];
+            long[] newStarts = new long[n + 1];
+            long[] newEnds = new long[n + 1];
+            insert(base.ids, newIds, pos, id);
+            insert(base.starts, newStarts, pos, start);
+            insert(base.ends, newEnds, pos, end);
+            return new FacilitySlots(newIds, newStarts, newEnds);
+        }
+
+        FacilitySlots withoutEndedBefore(long time) {
+            int ended = 0;
+            for (long end : ends) {
+                if (end <= time) {
+                    ended++;
+                }
+            }
+            if (ended == 0) {
+                return this;
+            }
+            int n = ids.length - ended;
+            long[] newIds = new long[n];
+            long[] newStarts = new long[n];
+            long[] newEnds = new long[n];
+            int j = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (ends[i] > time) {
+                    newIds[j] = ids[i];
+                    newStarts[j] = starts[i];
+                    newEnds[j] = ends[i];
+                    j++;
+                }
+            }
+            return new FacilitySlots(newIds, newStarts, newEnds);
+        }
+
+        FacilitySlots without(long id) {
+            int pos = -1;
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    pos = i;
+                    break;
+                }
+            }
+            if (pos < 0) {
+                return this;
+            }
+            return new FacilitySlots(remove(ids, pos), remove(starts, pos), remove(ends, pos));
+        }
+
+        private static void insert(long[] source, long[] target, int pos, long value) {
+            System.arraycopy(source, 0, target, 0, pos);
+            target[pos] = value;
+            System.arraycopy(source, pos, target, pos + 1, source.length - pos);
+        }
+
+        private static long[] remove(long[] source, int pos) {
+            long[] target = new long[source.length - 1];
+            System.arraycopy(source, 0, target, 0, pos);
+            System.arraycopy(source, pos + 1, target, pos, source.length - pos - 1);
+            return target;
+        }
+    }
+}
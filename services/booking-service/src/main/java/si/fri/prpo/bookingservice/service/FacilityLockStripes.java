@@ -0,0 +1,90 @@
+package si.fri.prpo.bookingservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import si.fri.prpo.bookingservice.exception.FacilityBusyException;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Booking admission: hashes facilityId onto a fixed set of fair locks, so writes for one facility
+ * run one at a time in this pod while unrelated facilities proceed in parallel.
+ */
+@Slf4j
+@Component
+public class FacilityLockStripes {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final ReentrantLock[] stripes;
+    private final long lockTimeoutMs;
+    private final Timer waitTimer;
+    private final Counter timeouts;
+
+    public FacilityLockStripes(MeterRegistry meterRegistry,
+                               @Value("${booking.admission.stripes:64}") int stripeCount,
+                               @Value("${booking.admission.lock-timeout-ms:5000}") long lockTimeoutMs) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("booking.admission.stripes must be positive");
+        }
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock(true);
+        }
+        this.lockTimeoutMs = lockTimeoutMs;
+        this.waitTimer = Timer.builder("booking.admission.wait")
+                .description("Time spent waiting for the facility lane")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.timeouts = Counter.builder("booking.admission.timeouts")
+                .description("Requests rejected because the facility lane stayed busy")
+                .register(meterRegistry);
+        Gauge.builder("booking.admission.queue.depth", stripes,
+                        s -> Arrays.stream(s).mapToInt(ReentrantLock::getQueueLength).sum())
+                .description("Threads waiting for a facility lane")
+                .register(meterRegistry);
+        Gauge.builder("booking.admission.lanes.busy", stripes,
+                        s -> Arrays.stream(s).filter(ReentrantLock::isLocked).count())
+                .description("Facility lanes currently held")
+                .register(meterRegistry);
+    }
+
+    public <T> T withFacilityLock(Long facilityId, Supplier<T> action) {
+        ReentrantLock lock = stripes[stripeIndex(facilityId)];
+        long waitStart = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = lock.tryLock(lockTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for facility " + facilityId, e);
+        }
+        waitTimer.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+
+        if (!acquired) {
+            timeouts.increment();
+            log.warn("Facility {} lane busy for more than {} ms", facilityId, lockTimeoutMs);
+            throw new FacilityBusyException("Facility is busy, please try again", RETRY_AFTER);
+        }
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int stripeIndex(Long facilityId) {
+        // razprši zaporedne ID-je, da sosednji objekti ne padejo v isti pas
+        int h = Long.hashCode(facilityId) * 0x9E3779B9;
+        return Math.floorMod(h ^ (h >>> 16), stripes.length);
+    }
+}
@@ -0,0 +1,167 @@
+package si.fri.prpo.bookingservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import si.fri.prpo.bookingservice.client.FacilityClient;
+import si.fri.prpo.bookingservice.dto.external.FacilityResponse;
+import si.fri.prpo.bookingservice.exception.DownstreamUnavailableException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Cene objektov iz facility-service v lokalnem predpomnilniku. Vse cene se naložijo ob zagonu in
+ * periodično z enim klicem, vnos, ki je starejši od intervala osvežitve, pa se ob branju osveži v
+ * ozadju (bralec dobi staro ceno, ne čaka). Na omrežje čaka le zgrešen vnos, in to največ
+ * lookup-timeout-ms; nato rezervacija dobi 503, nalaganje pa se v ozadju nadaljuje. Neznan objekt
+ * ali objekt brez cene je napaka zahtevka (400); privzete cene ni, da se ne shrani napačen znesek.
+ *
+ * Ko facility-service objekt spremeni ali izbriše, pokliče interno končno točko na vsakem podu
+ * (headless storitev booking-service-pods), ki vnos zavrže.
+ */
+@Slf4j
+@Service
+public class FacilityPricing {
+
+    private final FacilityClient facilityClient;
+    private final AsyncLoadingCache<Long, BigDecimal> prices;
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final Duration lookupTimeout;
+    private final MeterRegistry meterRegistry;
+
+    public FacilityPricing(FacilityClient facilityClient,
+                           MeterRegistry meterRegistry,
+                           @Value("${booking.pricing.refresh-after-seconds:300}") long refreshAfterSeconds,
+                           @Value("${booking.pricing.expire-after-seconds:3600}") long expireAfterSeconds,
+                           @Value("${booking.pricing.cache-max-entries:10000}") long cacheMaxEntries,
+                           @Value("${booking.pricing.lookup-timeout-ms:200}") long lookupTimeoutMs) {
+        this.facilityClient = facilityClient;
+        this.lookupTimeout = Duration.ofMillis(lookupTimeoutMs);
+        this.meterRegistry = meterRegistry;
+        this.prices = Caffeine.newBuilder()
+                .refreshAfterWrite(Duration.ofSeconds(refreshAfterSeconds))
+                .expireAfterWrite(Duration.ofSeconds(expireAfterSeconds))
+                .maximumSize(cacheMaxEntries)
+                .recordStats()
+                .buildAsync(new PriceLoader());
+        CaffeineCacheMetrics.monitor(meterRegistry, prices, "booking.pricing");
+    }
+
+    /**
+     * Urna cena objekta za servletno pot. Klicati pred zaklepanjem objekta, ker lahko ob zgrešenem
+     * vnosu čaka do lookup-timeout-ms.
+     *
+     * @throws IllegalArgumentException objekt ne obstaja ali nima cene
+     * @throws DownstreamUnavailableException cene ni bilo mogoče pridobiti pravočasno
+     */
+    public BigDecimal pricePerHour(Long facilityId) {
+        CompletableFuture<BigDecimal> price = prices.get(facilityId);
+        try {
+            return price.get(lookupTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw lookupFailure(facilityId, e.getCause());
+        } catch (TimeoutException e) {
+            throw lookupFailure(facilityId, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw lookupFailure(facilityId, e);
+        }
+    }
+
+    /**
+     * Urna cena objekta za reaktivno pot; ob preteku časa se nalaganje ne prekliče. Napake so
+     * enake kot pri {@link #pricePerHour}.
+     */
+    public Mono<BigDecimal> pricePerHourAsync(Long facilityId) {
+        return Mono.defer(() -> Mono.fromFuture(prices.get(facilityId), true))
+                .timeout(lookupTimeout)
+                .onErrorMap(e -> lookupFailure(facilityId, e));
+    }
+
+    /**
+     * Zavrže ceno objekta in jo začne nalagati znova, da naslednja rezervacija ne čaka.
+     */
+    public void invalidate(Long facilityId) {
+        log.info("Facility {} changed, reloading its price", facilityId);
+        prices.synchronous().invalidate(facilityId);
+        prices.get(facilityId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        refreshAll();
+    }
+
+    @Scheduled(initialDelayString = "${booking.pricing.preload-interval-ms:300000}",
+            fixedDelayString = "${booking.pricing.preload-interval-ms:300000}")
+    public void refreshAll() {
+        facilityClient.getAllFacilitiesAsync()
+                .filter(facility -> facility.getId() != null && facility.getPricePerHour() != null)
+                .collectMap(FacilityResponse::getId, FacilityResponse::getPricePerHour)
+                .subscribe(loaded -> {
+                    prices.synchronous().putAll(loaded);
+                    log.debug("Loaded prices of {} facilities", loaded.size());
+                }, e -> log.warn("Could not preload facility prices: {}", e.getMessage()));
+    }
+
+    private RuntimeException lookupFailure(Long facilityId, Throwable e) {
+        if (e instanceof IllegalArgumentException unknown) {
+            failures("unknown").increment();
+            return unknown;
+        }
+        failures("unavailable").increment();
+        log.warn("Price of facility {} not available: {}", facilityId, e.toString());
+        return new DownstreamUnavailableException("facility",
+                "Price of facility " + facilityId + " is not available, please try again", RETRY_AFTER, e);
+    }
+
+    private Counter failures(String reason) {
+        return Counter.builder("booking.pricing.failures")
+                .description("Price lookups that rejected the booking (unknown facility or facility-service unavailable)")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private class PriceLoader implements AsyncCacheLoader<Long, BigDecimal> {
+
+        @Override
+        public CompletableFuture<BigDecimal> asyncLoad(Long facilityId, Executor executor) {
+            // Neuspelo nalaganje se ne shrani, naslednje branje poskusi znova
+            return facilityClient.getFacilityAsync(facilityId)
+                    .onErrorMap(WebClientResponseException.NotFound.class,
+                            e -> new IllegalArgumentException("Facility " + facilityId + " does not exist"))
+                    .mapNotNull(FacilityResponse::getPricePerHour)
+                    .switchIfEmpty(Mono.error(() -> new IllegalArgumentException(
+                            "Facility " + facilityId + " has no hourly price")))
+                    .toFuture();
+        }
+
+        @Override
+        public CompletableFuture<BigDecimal> asyncReload(Long facilityId, BigDecimal oldPrice, Executor executor) {
+            // Nedosegljiv facility-service ne sme zavreči znane cene
+            return facilityClient.getFacilityAsync(facilityId)
+                    .mapNotNull(FacilityResponse::getPricePerHour)
+                    .onErrorResume(e -> Mono.empty())
+                    .defaultIfEmpty(oldPrice)
+                    .toFuture();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package si.fri.prpo.bookingservice.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import si.fri.prpo.bookingservice.entity.Booking;
+import si.fri.prpo.bookingservice.repository.BookingInterval;
+import si.fri.prpo.bookingservice.repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Occupancy bitmaps for the multi-facility search: one bit per quarter-hour of a day (96 slots in
+ * two longs) for every facility-day that has an active booking. "Free for the whole window" is then
+ * a word-level AND against a precomputed window mask, with no database access.
+ *
+ * Bookings are rounded outward to whole slots, so a booking that ends mid-slot makes the whole slot
+ * busy. Bitmaps follow this pod's writes after commit and are rebuilt from the database periodically
+ * to pick up writes from other replicas (or a local write that raced a rebuild) and to drop past
+ * days. Results are advisory; creating a booking still checks for overlaps.
+ */
+@Slf4j
+@Component
+public class FacilitySlotBitmaps {
+
+    static final int SLOT_MINUTES = 15;
+    static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    private final BookingRepository bookingRepository;
+    private final Timer searchTimer;
+    private final int maxWindowDays;
+
+    private volatile Map<FacilityDay, DayBitmap> days = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public FacilitySlotBitmaps(BookingRepository bookingRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${booking.slot-search.max-window-days:7}") int maxWindowDays) {
+        this.bookingRepository = bookingRepository;
+        this.maxWindowDays = maxWindowDays;
+        this.searchTimer = Timer.builder("booking.slot.search")
+                .description("Multi-facility free-window searches over the slot bitmaps")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("booking.slot.bitmaps", this, bitmaps -> bitmaps.days.size())
+                .description("Facility-days with at least one busy slot")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${booking.slot-search.rebuild-interval-ms:60000}",
+            fixedDelayString = "${booking.slot-search.rebuild-interval-ms:60000}")
+    public synchronized void rebuild() {
+        List<BookingInterval> active = bookingRepository.findActiveIntervals(LocalDateTime.now());
+        Map<FacilityDay, DayBitmap> next = new ConcurrentHashMap<>();
+        for (BookingInterval interval : active) {
+            apply(next, interval.getId(), interval.getFacilityId(), interval.getStartTime(), interval.getEndTime(), true);
+        }
+        days = next;
+        loaded = true;
+        log.debug("Slot bitmaps rebuilt: {} facility-days from {} bookings", next.size(), active.size());
+    }
+
+    /**
+     * Returns the facilities (in request order) with no active booking anywhere in [start, end).
+     * The window must lie on quarter-hour boundaries.
+     */
+    public List<Long> findFree(List<Long> facilityIds, LocalDateTime start, LocalDateTime end) {
+        validateWindow(start, end);
+        if (!loaded) {
+            rebuild();
+        }
+        return searchTimer.record(() -> {
+            List<WindowMask> masks = windowMasks(start, end);
+            Map<FacilityDay, DayBitmap> snapshot = days;
+            List<Long> free = new ArrayList<>();
+            for (Long facilityId : new LinkedHashSet<>(facilityIds)) {
+                if (isFree(snapshot, facilityId, masks)) {
+                    free.add(facilityId);
+                }
+            }
+            return free;
+        });
+    }
+
+    /**
+     * Applies the booking's current state once the surrounding transaction commits (immediately when
+     * there is no transaction): active bookings set their slots, others release them.
+     */
+    public void updateAfterCommit(Booking booking) {
+        Long id = booking.getId();
+        Long facilityId = booking.getFacilityId();
+        LocalDateTime start = booking.getStartTime();
+        LocalDateTime end = booking.getEndTime();
+        boolean active = FacilityIntervalIndex.isActive(booking.getStatus());
+        Runnable update = () -> apply(days, id, facilityId, start, end, active);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    private void validateWindow(LocalDateTime start, LocalDateTime end) {
+        if (!end.isAfter(start)) {
+            throw new IllegalArgumentException("End time must be after start time");
+        }
+        if (!isSlotBoundary(start) || !isSlotBoundary(end)) {
+            throw new IllegalArgumentException("Search window must start and end on quarter-hour boundaries");
+        }
+        if (Duration.between(start, end).compareTo(Duration.ofDays(maxWindowDays)) > 0) {
+            throw new IllegalArgumentException("Search window cannot exceed " + maxWindowDays + " days");
+        }
+    }
+
+    private static boolean isFree(Map<FacilityDay, DayBitmap> snapshot, Long facilityId, List<WindowMask> masks) {
+        for (WindowMask mask : masks) {
+            DayBitmap bitmap = snapshot.get(new FacilityDay(facilityId, mask.day()));
+            if (bitmap != null && ((bitmap.low() & mask.low()) | (bitmap.high() & mask.high())) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static List<WindowMask> windowMasks(LocalDateTime start, LocalDateTime end) {
+        List<WindowMask> masks = new ArrayList<>();
+        for (LocalDate day = start.toLocalDate(); day.atStartOfDay().isBefore(end); day = day.plusDays(1)) {
+            int from = slotFloor(day, start);
+            int to = slotCeil(day, end);
+            masks.add(new WindowMask(day, lowBits(from, to), highBits(from, to)));
+        }
+        return masks;
+    }
+
+    private static void apply(Map<FacilityDay, DayBitmap> target, Long id, Long facilityId,
+                              LocalDateTime start, LocalDateTime end, boolean active) {
+        for (LocalDate day = start.toLocalDate(); day.atStartOfDay().isBefore(end); day = day.plusDays(1)) {
+            int from = slotFloor(day, start);
+            int to = slotCeil(day, end);
+            target.compute(new FacilityDay(facilityId, day), (key, current) -> {
+                Map<Long, Integer> bookings = current != null ? new HashMap<>(current.bookings()) : new HashMap<>();
+                if (active) {
+                    bookings.put(id, from << 8 | to);
+                } else {
+                    bookings.remove(id);
+                }
+                return bookings.isEmpty() ? null : DayBitmap.of(bookings);
+            });
+        }
+    }
+
+    // First slot of the day covered from time on (0 when time is before the day)
+    private static int slotFloor(LocalDate day, LocalDateTime time) {
+        long minutes = Duration.between(day.atStartOfDay(), time).toMinutes();
+        return (int) Math.max(0, Math.min(SLOTS_PER_DAY, Math.floorDiv(minutes, SLOT_MINUTES)));
+    }
+
+    // Slot after the last one covered up to time (SLOTS_PER_DAY when time is after the day)
+    private static int slotCeil(LocalDate day, LocalDateTime time) {
+        Duration sinceMidnight = Duration.between(day.atStartOfDay(), time);
+        long slots = Math.floorDiv(sinceMidnight.toMinutes(), SLOT_MINUTES);
+        if (sinceMidnight.compareTo(Duration.ofMinutes(slots * SLOT_MINUTES)) > 0) {
+            slots++;
+        }
+        return (int) Math.max(0, Math.min(SLOTS_PER_DAY, slots));
+    }
+
+    private static boolean isSlotBoundary(LocalDateTime time) {
+        return time.getMinute() % SLOT_MINUTES == 0 && time.getSecond() == 0 && time.getNano() == 0;
+    }
+
+    // Bits of slots [from, to) in the low word (slots 0-63) and the high word (slots 64-95)
+    static long lowBits(int from, int to) {
+        return from < 64 && to > from ? bits(from, Math.min(to, 64)) : 0L;
+    }
+
+    static long highBits(int from, int to) {
+        return to > 64 && to > from ? bits(Math.max(from, 64) - 64, to - 64) : 0L;
+    }
+
+    private static long bits(int from, int to) {
+        long upTo = to == 64 ? -1L : (1L << to) - 1;
+        return upTo & (-1L << from);
+    }
+
+    record FacilityDay(Long facilityId, LocalDate day) {
+    }
+
+    record WindowMask(LocalDate day, long low, long high) {
+    }
+
+    /**
+     * Immutable bitmap of one facility-day together with the slot range of each booking on it, so
+     * releasing a booking recomputes the bits without clearing slots another booking still shares.
+     */
+    record DayBitmap(long low, long high, Map<Long, Integer> bookings) {
+
+        static DayBitmap of(Map<Long, Integer> bookings) {
+            long low = 0;
+            long high = 0;
+            for (int range : bookings.values()) {
+                int from = range >>> 8;
+                int to = range & 0xFF;
+                low |= lowBits(from, to);
+                high |= highBits(from, to);
+            }
+            return new DayBitmap(low, high, Map.copyOf(bookings));
+        }
+    }
+}
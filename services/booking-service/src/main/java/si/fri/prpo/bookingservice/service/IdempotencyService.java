@@ -0,0 +1,214 @@
+package si.fri.prpo.bookingservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import si.fri.prpo.bookingservice.dto.BookingRequest;
+import si.fri.prpo.bookingservice.dto.BookingResponse;
+import si.fri.prpo.bookingservice.entity.IdempotencyRecord;
+import si.fri.prpo.bookingservice.repository.IdempotencyRecordRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Idempotency-Key za ustvarjanje rezervacij: odgovor prvega uspešnega zahtevka je shranjen v
+ * tabeli (v isti transakciji kot rezervacija) in v omejenem predpomnilniku s TTL pred njo, tako da
+ * ponovni poskus odjemalca vrne isti odgovor brez preverjanja prekrivanj in brez nove rezervacije.
+ *
+ * Ključ velja za posameznega uporabnika; isti ključ z drugačnim telesom zahtevka je napaka.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Cache<Key, Stored> cache;
+    private final Duration ttl;
+    private final Counter hits;
+    private final Counter misses;
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${booking.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${booking.idempotency.cache-max-entries:10000}") long cacheMaxEntries) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.cache = Caffeine.newBuilder()
+                // Vnos poteče hkrati z zapisom v tabeli, ne glede na to, kdaj je bil naložen
+                .expireAfter(new Expiry<Key, Stored>() {
+                    @Override
+                    public long expireAfterCreate(Key key, Stored stored, long currentTime) {
+                        return Math.max(0, Duration.between(LocalDateTime.now(), stored.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, Stored stored, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, stored, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, Stored stored, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .maximumSize(cacheMaxEntries)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "booking.idempotency");
+        this.hits = Counter.builder("booking.idempotency.lookups")
+                .description("Idempotency-Key lookups on booking creation")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("booking.idempotency.lookups")
+                .description("Idempotency-Key lookups on booking creation")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    private record Key(Long userId, String idempotencyKey) {
+    }
+
+    private record Stored(String requestHash, BookingResponse response, LocalDateTime expiresAt) {
+    }
+
+    /**
+     * Shranjen odgovor za ključ (najprej predpomnilnik, nato tabela) ali prazno, če ga ni.
+     */
+    public Optional<BookingResponse> lookup(Long userId, String idempotencyKey, BookingRequest request) {
+        validateKey(idempotencyKey);
+        Key key = new Key(userId, idempotencyKey);
+        Stored stored = cache.getIfPresent(key);
+        if (stored == null) {
+            stored = load(key);
+        }
+        if (stored == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        return Optional.of(replay(idempotencyKey, stored, request));
+    }
+
+    /**
+     * Ponovno preverjanje pod ključavnico objekta, ko je lookup zgrešil: sočasen ponovni poskus
+     * z istim ključem je lahko medtem ustvaril rezervacijo.
+     */
+    public Optional<BookingResponse> recheck(Long userId, String idempotencyKey, BookingRequest request) {
+        Stored stored = load(new Key(userId, idempotencyKey));
+        return stored == null ? Optional.empty() : Optional.of(replay(idempotencyKey, stored, request));
+    }
+
+    /**
+     * Zapiše odgovor pod ključ; mora teči v transakciji, ki je ustvarila rezervacijo.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remember(Long userId, String idempotencyKey, BookingRequest request, BookingResponse response) {
+        LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+        String requestHash = hash(request);
+        // Potekel zapis z istim ključem (še ni počiščen) se prepiše
+        IdempotencyRecord record = repository.findByUserIdAndIdempotencyKey(userId, idempotencyKey)
+                .orElseGet(() -> IdempotencyRecord.builder()
+                        .userId(userId)
+                        .idempotencyKey(idempotencyKey)
+                        .build());
+        record.setRequestHash(requestHash);
+        record.setBookingId(response.getId());
+        record.setResponse(write(response));
+        record.setExpiresAt(expiresAt);
+        repository.save(record);
+
+        Key key = new Key(userId, idempotencyKey);
+        Stored stored = new Stored(requestHash, response, expiresAt);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.put(key, stored);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${booking.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        int deleted = repository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private Stored load(Key key) {
+        return repository.findByUserIdAndIdempotencyKey(key.userId(), key.idempotencyKey())
+                .filter(record -> record.getExpiresAt().isAfter(LocalDateTime.now()))
+                .map(record -> {
+                    Stored stored = new Stored(record.getRequestHash(), read(record.getResponse()),
+                            record.getExpiresAt());
+                    cache.put(key, stored);
+                    return stored;
+                })
+                .orElse(null);
+    }
+
+    private BookingResponse replay(String idempotencyKey, Stored stored, BookingRequest request) {
+        if (!stored.requestHash().equals(hash(request))) {
+            throw new IllegalArgumentException("Idempotency-Key was already used for a different request");
+        }
+        hits.increment();
+        log.info("Replaying booking {} for Idempotency-Key {}", stored.response().getId(), idempotencyKey);
+        return stored.response();
+    }
+
+    private static void validateKey(String idempotencyKey) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+    }
+
+    private String hash(BookingRequest request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(write(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize idempotent response", e);
+        }
+    }
+
+    private BookingResponse read(String json) {
+        try {
+            return objectMapper.readValue(json, BookingResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt idempotent response", e);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package si.fri.prpo.bookingservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import si.fri.prpo.bookingservice.client.AuthClient;
+import si.fri.prpo.bookingservice.client.FacilityClient;
+import si.fri.prpo.bookingservice.dto.BookingEventPayload;
+import si.fri.prpo.bookingservice.dto.external.FacilityResponse;
+import si.fri.prpo.bookingservice.dto.external.UserResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * E-pošta uporabnikov (auth-service) ter ime in naslov objektov (facility-service) za obvestila
+ * in koledarske dogodke. Oba vira sta v lokalnem predpomnilniku:
+ *
+ * - manjkajoči id-ji se naložijo skupaj, z enim klicem na kos največ max-batch-size id-jev
+ *   (OutboxRelay pred dostavo naloži vse prejemnike zapadlih zapisov naenkrat);
+ * - sočasna branja istega id-ja čakajo na isto nalaganje, ne sprožijo novega klica;
+ * - tudi neznani id-ji so shranjeni (krajši TTL), da izbrisan uporabnik ne sproži klica ob
+ *   vsakem obvestilu.
+ *
+ * E-pošte ni mogoče nadomestiti: če auth-service ne odgovori v lookup-timeout-ms ali uporabnika ne
+ * pozna, email()/emails() vržeta IllegalStateException, OutboxRelay pa dostavo ponovi z odmikom.
+ * Ime objekta ima nadomestno vrednost ("Facility #id"). Napaka se ne shrani, zato naslednji
+ * poskus vir vpraša znova.
+ */
+@Slf4j
+@Service
+public class NotificationEnrichment {
+
+    public record FacilityInfo(String name, String address) {
+
+        public String location() {
+            return address != null ? name + ", " + address : name;
+        }
+    }
+
+    private final AsyncLoadingCache<Long, Optional<String>> emails;
+    private final AsyncLoadingCache<Long, Optional<FacilityInfo>> facilities;
+    private final Duration lookupTimeout;
+    private final int maxBatchSize;
+    private final Counter facilityFallbacks;
+
+    public NotificationEnrichment(AuthClient authClient,
+                                  FacilityClient facilityClient,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${booking.enrichment.ttl-seconds:600}") long ttlSeconds,
+                                  @Value("${booking.enrichment.negative-ttl-seconds:60}") long negativeTtlSeconds,
+                                  @Value("${booking.enrichment.cache-max-entries:10000}") long cacheMaxEntries,
+                                  @Value("${booking.enrichment.max-batch-size:100}") int maxBatchSize,
+                                  @Value("${booking.enrichment.lookup-timeout-ms:500}") long lookupTimeoutMs) {
+        this.lookupTimeout = Duration.ofMillis(lookupTimeoutMs);
+        this.maxBatchSize = maxBatchSize;
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        Duration negativeTtl = Duration.ofSeconds(negativeTtlSeconds);
+
+        this.emails = Caffeine.newBuilder()
+                .maximumSize(cacheMaxEntries)
+                .expireAfter(new PresenceExpiry<Long, String>(ttl, negativeTtl))
+                .recordStats()
+                .buildAsync(new BatchLoader<>(ids -> authClient.getUsersAsync(ids)
+                        .filter(user -> user.getId() != null && user.getEmail() != null)
+                        .collectMap(UserResponse::getId, UserResponse::getEmail)));
+        this.facilities = Caffeine.newBuilder()
+                .maximumSize(cacheMaxEntries)
+                .expireAfter(new PresenceExpiry<Long, FacilityInfo>(ttl, negativeTtl))
+                .recordStats()
+                .buildAsync(new BatchLoader<>(ids -> facilityClient.getFacilitiesAsync(ids)
+                        .filter(facility -> facility.getId() != null && facility.getName() != null)
+                        .collectMap(FacilityResponse::getId,
+                                facility -> new FacilityInfo(facility.getName(), facility.getAddress()))));
+
+        CaffeineCacheMetrics.monitor(meterRegistry, emails, "booking.enrichment.users");
+        CaffeineCacheMetrics.monitor(meterRegistry, facilities, "booking.enrichment.facilities");
+        this.facilityFallbacks = Counter.builder("booking.enrichment.fallbacks")
+                .description("Notifications sent with a placeholder facility name because the lookup failed or found nothing")
+                .tag("kind", "facility")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Naloži prejemnike in objekte vseh danih dogodkov z največ enim klicem na vir (na kos).
+     */
+    public void prefetch(Collection<BookingEventPayload> payloads) {
+        Set<Long> userIds = new LinkedHashSet<>();
+        Set<Long> facilityIds = new LinkedHashSet<>();
+        for (BookingEventPayload payload : payloads) {
+            if (payload.getUserId() != null) {
+                userIds.add(payload.getUserId());
+            }
+            if (payload.getFacilityId() != null) {
+                facilityIds.add(payload.getFacilityId());
+            }
+        }
+        // Oba vira vzporedno; rezultat ostane v predpomnilniku
+        CompletableFuture<?> users = userIds.isEmpty() ? CompletableFuture.completedFuture(null) : emails.getAll(userIds);
+        CompletableFuture<?> places = facilityIds.isEmpty()
+                ? CompletableFuture.completedFuture(null) : facilities.getAll(facilityIds);
+        await(CompletableFuture.allOf(users, places));
+    }
+
+    public String email(Long userId) {
+        return emails(List.of(userId)).get(userId);
+    }
+
+    /**
+     * E-pošta več uporabnikov z enim nalaganjem manjkajočih. Brez odgovora auth-service ali za
+     * neznanega uporabnika vrže IllegalStateException: obvestila ne pošljemo na izmišljen naslov.
+     */
+    public Map<Long, String> emails(Collection<Long> userIds) {
+        Map<Long, Optional<String>> found = await(emails.getAll(userIds));
+        if (found == null) {
+            throw new IllegalStateException("User lookup failed for " + userIds);
+        }
+        Map<Long, String> result = new HashMap<>();
+        for (Long userId : userIds) {
+            String email = found.getOrDefault(userId, Optional.empty())
+                    .orElseThrow(() -> new IllegalStateException("No e-mail for user " + userId));
+            result.put(userId, email);
+        }
+        return result;
+    }
+
+    public FacilityInfo facility(Long facilityId) {
+        Optional<FacilityInfo> info = Optional.ofNullable(await(facilities.get(facilityId))).flatMap(Function.identity());
+        return info.orElseGet(() -> {
+            facilityFallbacks.increment();
+            return new FacilityInfo("Facility #" + facilityId, null);
+        });
+    }
+
+    // Ob spremembi objekta v facility-service (skupaj s FacilityPricing)
+    public void invalidateFacility(Long facilityId) {
+        facilities.synchronous().invalidate(facilityId);
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(lookupTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            log.warn("Notification enrichment lookup failed: {}", e.toString());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Nalaga v kosih do maxBatchSize id-jev; id, ki ga vir ne vrne, se shrani kot prazen.
+     */
+    private class BatchLoader<V> implements AsyncCacheLoader<Long, Optional<V>> {
+
+        private final Function<List<Long>, Mono<Map<Long, V>>> fetch;
+
+        BatchLoader(Function<List<Long>, Mono<Map<Long, V>>> fetch) {
+            this.fetch = fetch;
+        }
+
+        @Override
+        public CompletableFuture<Optional<V>> asyncLoad(Long id, Executor executor) {
+            return asyncLoadAll(Set.of(id), executor).thenApply(loaded -> loaded.get(id));
+        }
+
+        @Override
+        public CompletableFuture<Map<Long, Optional<V>>> asyncLoadAll(Set<? extends Long> ids, Executor executor) {
+            List<List<Long>> chunks = new ArrayList<>();
+            List<Long> chunk = new ArrayList<>();
+            for (Long id : ids) {
+                chunk.add(id);
+                if (chunk.size() == maxBatchSize) {
+                    chunks.add(chunk);
+                    chunk = new ArrayList<>();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunks.add(chunk);
+            }
+            return Flux.fromIterable(chunks)
+                    .flatMap(fetch)
+                    .collectList()
+                    .map(maps -> {
+                        Map<Long, V> found = maps.stream()
+                                .flatMap(map -> map.entrySet().stream())
+                                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a));
+                        Map<Long, Optional<V>> loaded = new HashMap<>();
+                        ids.forEach(id -> loaded.put(id, Optional.ofNullable(found.get(id))));
+                        return loaded;
+                    })
+                    .toFuture();
+        }
+    }
+
+    // Znane vrednosti živijo ttl, neznani id-ji le negativeTtl
+    private record PresenceExpiry<K, V>(Duration ttl, Duration negativeTtl) implements Expiry<K, Optional<V>> {
+
+        @Override
+        public long expireAfterCreate(K key, Optional<V> value, long currentTime) {
+            return (value.isPresent() ? ttl : negativeTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, Optional<V> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(K key, Optional<V> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package si.fri.prpo.bookingservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.transport.Kind;
+import io.micrometer.observation.transport.ReceiverContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import si.fri.prpo.bookingservice.config.RequestDeadline;
+import si.fri.prpo.bookingservice.dto.BookingEventPayload;
+import si.fri.prpo.bookingservice.entity.OutboxEvent;
+import si.fri.prpo.bookingservice.entity.OutboxEvent.OutboxStatus;
+import si.fri.prpo.bookingservice.repository.OutboxEventRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Periodično prebere zapadle outbox zapise in jih dostavi payment-, calendar- in
+ * notification-service. Vsak zapis najprej prevzame (zakup), zato ga sočasne instance ne
+ * dostavijo dvakrat; zakup, ki poteče (npr. ob padcu poda), se ponovno prevzame.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxService outboxService;
+    private final BookingIntegrationService bookingIntegrationService;
+    private final NotificationEnrichment notificationEnrichment;
+    private final ObservationRegistry observationRegistry;
+    private final Counter delivered;
+    private final Counter retried;
+    private final Counter failed;
+
+    @Value("${booking.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${booking.outbox.lease-ms:60000}")
+    private long leaseMs;
+
+    // Rok ene dostave; klici drugih storitev ga dobijo v X-Deadline-Remaining-Ms
+    @Value("${booking.deadline.outbox-delivery-ms:10000}")
+    private long deliveryDeadlineMs;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxService outboxService,
+                       BookingIntegrationService bookingIntegrationService,
+                       NotificationEnrichment notificationEnrichment,
+                       MeterRegistry meterRegistry,
+                       ObservationRegistry observationRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxService = outboxService;
+        this.bookingIntegrationService = bookingIntegrationService;
+        this.notificationEnrichment = notificationEnrichment;
+        this.observationRegistry = observationRegistry;
+        this.delivered = Counter.builder("booking.outbox.deliveries").tag("result", "delivered").register(meterRegistry);
+        this.retried = Counter.builder("booking.outbox.deliveries").tag("result", "retry").register(meterRegistry);
+        this.failed = Counter.builder("booking.outbox.deliveries").tag("result", "failed").register(meterRegistry);
+        Gauge.builder("booking.outbox.pending", outboxEventRepository,
+                        repository -> repository.countByStatus(OutboxStatus.PENDING))
+                .description("Outbox entries waiting for delivery")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${booking.outbox.poll-interval-ms:500}")
+    public void relay() {
+        List<OutboxEvent> due = outboxEventRepository.findDue(LocalDateTime.now(), PageRequest.of(0, batchSize));
+        prefetchRecipients(due);
+        for (OutboxEvent event : due) {
+            LocalDateTime now = LocalDateTime.now();
+            if (outboxEventRepository.claim(event.getId(), now, now.plusNanos(leaseMs * 1_000_000)) == 1) {
+                process(event);
+            }
+        }
+    }
+
+    // E-pošta in objekti vseh zapadlih zapisov z enim klicem na vir, namesto klica na obvestilo
+    private void prefetchRecipients(List<OutboxEvent> due) {
+        if (due.isEmpty()) {
+            return;
+        }
+        List<BookingEventPayload> payloads = new ArrayList<>();
+        for (OutboxEvent event : due) {
+            try {
+                payloads.add(outboxService.readPayload(event));
+            } catch (IllegalStateException e) {
+                // Pokvarjen payload obravnava process()
+            }
+        }
+        notificationEnrichment.prefetch(payloads);
+    }
+
+    private void process(OutboxEvent event) {
+        // Dostava je nadaljevanje sledi zahtevka, ki je zapis ustvaril (traceparent iz outboxa)
+        ReceiverContext<OutboxEvent> context = new ReceiverContext<>(
+                (carrier, key) -> "traceparent".equals(key) ? carrier.getTraceParent() : null, Kind.CONSUMER);
+        context.setCarrier(event);
+        Observation observation = Observation.createNotStarted("booking.outbox.delivery", () -> context, observationRegistry)
+                .contextualName("outbox " + event.getEventType())
+                .lowCardinalityKeyValue("event.type", event.getEventType().name())
+                .highCardinalityKeyValue("booking.id", String.valueOf(event.getBookingId()))
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            deliver(event, observation);
+        } finally {
+            observation.stop();
+        }
+    }
+
+    private void deliver(OutboxEvent event, Observation observation) {
+        BookingEventPayload payload = null;
+        try {
+            BookingEventPayload delivery = outboxService.readPayload(event);
+            payload = delivery;
+            RequestDeadline.runWithin(deliveryDeadlineMs,
+                    () -> bookingIntegrationService.deliver(event.getEventType(), delivery));
+            outboxService.markSent(event.getId(), payload);
+            delivered.increment();
+        } catch (Exception e) {
+            observation.error(e);
+            boolean gaveUp = outboxService.markFailed(event.getId(), payload, e);
+            if (gaveUp) {
+                failed.increment();
+                log.error("Outbox event {} ({}) for booking {} failed permanently",
+                        event.getId(), event.getEventType(), event.getBookingId(), e);
+            } else {
+                retried.increment();
+                log.warn("Outbox event {} ({}) for booking {} failed, will retry: {}",
+                        event.getId(), event.getEventType(), event.getBookingId(), e.getMessage());
+            }
+        }
+    }
+}
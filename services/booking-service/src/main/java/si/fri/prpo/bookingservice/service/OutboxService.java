@@ -0,0 +1,209 @@
+package si.fri.prpo.bookingservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.transport.Kind;
+import io.micrometer.observation.transport.SenderContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import si.fri.prpo.bookingservice.dto.BookingEventPayload;
+import si.fri.prpo.bookingservice.entity.Booking;
+import si.fri.prpo.bookingservice.entity.OutboxEvent;
+import si.fri.prpo.bookingservice.entity.OutboxEvent.EventType;
+import si.fri.prpo.bookingservice.entity.OutboxEvent.OutboxStatus;
+import si.fri.prpo.bookingservice.repository.OutboxEventRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final ObservationRegistry observationRegistry;
+
+    @Value("${booking.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${booking.outbox.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    @Value("${booking.outbox.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    /**
+     * Zapiše dogodek v outbox; mora teči v transakciji, ki spreminja rezervacijo.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(EventType eventType, Booking booking) {
+        OutboxEvent event = OutboxEvent.builder()
+                .bookingId(booking.getId())
+                .eventType(eventType)
+                .payload(snapshot(booking))
+                .status(OutboxStatus.PENDING)
+                .traceParent(traceParent())
+                .build();
+        outboxEventRepository.save(event);
+        log.debug("Enqueued {} for booking {}", eventType, booking.getId());
+    }
+
+    /**
+     * En outbox zapis za celotno serijo, da uporabnik prejme eno povzetno obvestilo.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueSeries(List<Booking> bookings) {
+        Booking first = bookings.get(0);
+        OutboxEvent event = OutboxEvent.builder()
+                .bookingId(first.getId())
+                .eventType(EventType.BOOKING_SERIES_CREATED)
+                .payload(seriesSnapshot(bookings))
+                .status(OutboxStatus.PENDING)
+                .traceParent(traceParent())
+                .build();
+        outboxEventRepository.save(event);
+        log.debug("Enqueued {} for {} bookings starting with {}",
+                EventType.BOOKING_SERIES_CREATED, bookings.size(), first.getId());
+    }
+
+    /**
+     * En outbox zapis za kos rezervacij, ki jim je sweeper spremenil status (samo id-ji).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueBatch(EventType eventType, List<Long> bookingIds) {
+        OutboxEvent event = OutboxEvent.builder()
+                .bookingId(bookingIds.get(0))
+                .eventType(eventType)
+                .payload(writePayload(BookingEventPayload.builder()
+                        .bookingId(bookingIds.get(0))
+                        .bookingIds(new ArrayList<>(bookingIds))
+                        .build()))
+                .status(OutboxStatus.PENDING)
+                .traceParent(traceParent())
+                .build();
+        outboxEventRepository.save(event);
+        log.debug("Enqueued {} for {} bookings", eventType, bookingIds.size());
+    }
+
+    @Transactional
+    public void markSent(Long eventId, BookingEventPayload payload) {
+        outboxEventRepository.findById(eventId).ifPresent(event -> {
+            event.setStatus(OutboxStatus.SENT);
+            event.setPayload(writePayload(payload));
+            event.setAttempts(event.getAttempts() + 1);
+            event.setProcessedAt(LocalDateTime.now());
+            event.setLastError(null);
+        });
+    }
+
+    /**
+     * Zabeleži neuspel poskus: shrani napredek in načrtuje ponovni poskus z eksponentnim
+     * zamikom, po maxAttempts pa zapis označi kot FAILED.
+     *
+     * @return true, če je zapis dokončno neuspešen
+     */
+    @Transactional
+    public boolean markFailed(Long eventId, BookingEventPayload payload, Exception error) {
+        OutboxEvent event = outboxEventRepository.findById(eventId).orElse(null);
+        if (event == null) {
+            return false;
+        }
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        if (payload != null) {
+            event.setPayload(writePayload(payload));
+        }
+        event.setLastError(truncate(String.valueOf(error.getMessage())));
+
+        if (attempts >= maxAttempts) {
+            event.setStatus(OutboxStatus.FAILED);
+            event.setProcessedAt(LocalDateTime.now());
+            return true;
+        }
+        event.setStatus(OutboxStatus.PENDING);
+        event.setNextAttemptAt(LocalDateTime.now().plus(backoff(attempts)));
+        return false;
+    }
+
+    /**
+     * traceparent za nov outbox zapis: kratek span "outbox enqueue" v trenutni sledi, ki ga dostava
+     * v OutboxRelay nadaljuje. Brez aktivne sledi (sweeper, testi) vrne null.
+     */
+    String traceParent() {
+        Map<String, String> carrier = new HashMap<>();
+        SenderContext<Map<String, String>> context = new SenderContext<>(Map::put, Kind.PRODUCER);
+        context.setCarrier(carrier);
+        Observation.createNotStarted("booking.outbox.enqueue", () -> context, observationRegistry)
+                .contextualName("outbox enqueue")
+                .observe(() -> { });
+        return carrier.get("traceparent");
+    }
+
+    /**
+     * Serializiran posnetek rezervacije za polje payload (uporablja tudi reaktivni zapis v outbox).
+     */
+    String snapshot(Booking booking) {
+        return writePayload(BookingEventPayload.builder()
+                .bookingId(booking.getId())
+                .userId(booking.getUserId())
+                .facilityId(booking.getFacilityId())
+                .startTime(booking.getStartTime())
+                .endTime(booking.getEndTime())
+                .totalPrice(booking.getTotalPrice())
+                .build());
+    }
+
+    String seriesSnapshot(List<Booking> bookings) {
+        Booking first = bookings.get(0);
+        return writePayload(BookingEventPayload.builder()
+                .bookingId(first.getId())
+                .userId(first.getUserId())
+                .facilityId(first.getFacilityId())
+                .startTime(first.getStartTime())
+                .endTime(bookings.get(bookings.size() - 1).getEndTime())
+                .totalPrice(bookings.stream().map(Booking::getTotalPrice).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .occurrences(bookings.stream()
+                        .map(booking -> new BookingEventPayload.Occurrence(
+                                booking.getId(), booking.getStartTime(), booking.getEndTime()))
+                        .toList())
+                .build());
+    }
+
+    public BookingEventPayload readPayload(OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), BookingEventPayload.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt outbox payload for event " + event.getId(), e);
+        }
+    }
+
+    private String writePayload(BookingEventPayload payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox payload", e);
+        }
+    }
+
+    Duration backoff(int attempts) {
+        long delay = initialBackoffMs << Math.min(attempts - 1, 20);
+        return Duration.ofMillis(Math.min(delay, maxBackoffMs));
+    }
+
+    private static String truncate(String message) {
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
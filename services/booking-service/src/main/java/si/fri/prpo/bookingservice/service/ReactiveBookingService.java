@@ -0,0 +1,385 @@
+package si.fri.prpo.bookingservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import si.fri.prpo.bookingservice.dto.AvailabilityResponse;
+import si.fri.prpo.bookingservice.dto.BookingPage;
+import si.fri.prpo.bookingservice.dto.BookingRequest;
+import si.fri.prpo.bookingservice.dto.BookingSeriesRequest;
+import si.fri.prpo.bookingservice.dto.BookingSeriesResponse;
+import si.fri.prpo.bookingservice.dto.FacilitySearchRequest;
+import si.fri.prpo.bookingservice.dto.FacilitySearchResponse;
+import si.fri.prpo.bookingservice.dto.BookingResponse;
+import si.fri.prpo.bookingservice.dto.RejectedOccurrence;
+import si.fri.prpo.bookingservice.dto.UpdateBookingStatusRequest;
+import si.fri.prpo.bookingservice.entity.Booking;
+import si.fri.prpo.bookingservice.entity.Booking.BookingStatus;
+import si.fri.prpo.bookingservice.entity.OutboxEvent.EventType;
+import si.fri.prpo.bookingservice.entity.OutboxEvent.OutboxStatus;
+import si.fri.prpo.bookingservice.repository.ReactiveBookingRepository;
+import si.fri.prpo.bookingservice.service.BookingPagination.Cursor;
+import si.fri.prpo.bookingservice.service.BookingPagination.Direction;
+import si.fri.prpo.bookingservice.service.BookingSeriesPlanner.Occurrence;
+import si.fri.prpo.bookingservice.service.BookingSeriesPlanner.Plan;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reaktivna različica {@link BookingService} (profil reactive): enaka pravila in outbox, vendar
+ * prek R2DBC, tako da nit zahtevka nikoli ne čaka na bazo.
+ *
+ * Namesto zaklepanja po objektih (ki bi blokiralo event loop) je končni razsodnik prekrivanj
+ * exclusion constraint bookings_no_overlap; indeks intervalov zavrne očitne konflikte brez baze.
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveBookingService {
+
+    private final ReactiveBookingRepository bookingRepository;
+    private final FacilityIntervalIndex facilityIntervalIndex;
+    private final TransactionalOperator transactionalOperator;
+    private final DatabaseClient databaseClient;
+    private final OutboxService outboxService;
+    private final BookingRules bookingRules;
+    private final BookingPagination bookingPagination;
+    private final AvailabilityService availabilityService;
+    private final FacilitySlotBitmaps facilitySlotBitmaps;
+    private final AvailabilityStream availabilityStream;
+    private final BookingSeriesPlanner bookingSeriesPlanner;
+    private final FacilityPricing facilityPricing;
+    private final BookingETags bookingETags;
+
+    public Mono<BookingResponse> createBooking(Long userId, BookingRequest request) {
+        return Mono.defer(() -> {
+            log.info("Creating booking for user {} and facility {}", userId, request.getFacilityId());
+
+            // 1. Validacija časa
+            bookingRules.validateBookingTime(request.getStartTime(), request.getEndTime());
+
+            // 2. Zadržitve in rezervacije preveri baza (znotraj transakcije); indeks intervalov vidi le
+            // zapise tega poda, zato reaktivna pot nanj ne zavrača
+
+            // Cena pred transakcijo, da povezava ne čaka na facility-service
+            return facilityPricing.pricePerHourAsync(request.getFacilityId())
+                    .flatMap(pricePerHour -> insertIfFree(userId, request, pricePerHour)
+                            .as(transactionalOperator::transactional))
+                    .doOnError(DataIntegrityViolationException.class,
+                            e -> facilityIntervalIndex.markStale(request.getFacilityId()));
+        })
+                // transactional(Mono) odda vrednost šele po potrditvi transakcije
+                .doOnNext(this::afterCommit)
+                .doOnNext(saved -> log.info("Booking created successfully with ID: {}", saved.getId()))
+                .map(bookingRules::mapToResponse);
+    }
+
+    // Zadržitve (vseh instanc) in rezervacije v bazi; ko baza pozna prekrivanje, ki ga indeks ni, ga osveži
+    private Mono<Booking> insertIfFree(Long userId, BookingRequest request, BigDecimal pricePerHour) {
+        Long facilityId = request.getFacilityId();
+        return bookingRepository.existsConflictingHold(
+                        facilityId, request.getStartTime(), request.getEndTime(), LocalDateTime.now())
+                .flatMap(held -> held
+                        ? Mono.<Booking>error(unavailable())
+                        : bookingRepository.existsConflictingBooking(
+                                        facilityId, request.getStartTime(), request.getEndTime())
+                                .flatMap(conflict -> conflict
+                                        ? refreshIndex(facilityId).then(Mono.<Booking>error(unavailable()))
+                                        : insertBooking(userId, request, pricePerHour)));
+    }
+
+    private static IllegalStateException unavailable() {
+        return new IllegalStateException("Facility is not available at the selected time");
+    }
+
+    private Mono<Booking> insertBooking(Long userId, BookingRequest request, BigDecimal pricePerHour) {
+        // 3.-4. Izračunaj ceno in ustvari rezervacijo (R2DBC ne kliče @PrePersist, časa nastavimo sami)
+        LocalDateTime now = LocalDateTime.now();
+        Booking booking = Booking.builder()
+                .userId(userId)
+                .facilityId(request.getFacilityId())
+                .startTime(request.getStartTime())
+                .endTime(request.getEndTime())
+                .status(BookingStatus.PENDING)
+                .totalPrice(bookingRules.calculatePrice(request.getStartTime(), request.getEndTime(), pricePerHour))
+                .notes(request.getNotes())
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+
+        // 5. Rezervacija in outbox zapis v isti transakciji
+        return bookingRepository.save(booking)
+                .flatMap(saved -> enqueue(EventType.BOOKING_CREATED, saved).thenReturn(saved));
+    }
+
+    /**
+     * Reaktivna različica BookingService.createSeries: ena poizvedba po obdobju serije in saveAll
+     * v eni transakciji; exclusion constraint ostaja končni razsodnik.
+     */
+    public Mono<BookingSeriesResponse> createSeries(Long userId, BookingSeriesRequest request) {
+        return Mono.defer(() -> {
+            log.info("Creating booking series for user {} and facility {}", userId, request.getFacilityId());
+            List<Occurrence> occurrences = bookingSeriesPlanner.expand(request);
+
+            return facilityPricing.pricePerHourAsync(request.getFacilityId())
+                    .flatMap(pricePerHour -> bookingRepository.findActiveIntervalsInRange(request.getFacilityId(),
+                                    occurrences.get(0).startTime(), occurrences.get(occurrences.size() - 1).endTime())
+                            .collectList()
+                            .zipWith(bookingRepository.findActiveHoldsInRange(request.getFacilityId(),
+                                    occurrences.get(0).startTime(), occurrences.get(occurrences.size() - 1).endTime(),
+                                    LocalDateTime.now()).collectList(), bookingSeriesPlanner::withHolds)
+                            .flatMap(busy -> insertSeries(userId, request,
+                                    bookingSeriesPlanner.plan(occurrences, busy), pricePerHour))
+                            .as(transactionalOperator::transactional))
+                    .doOnError(DataIntegrityViolationException.class,
+                            e -> facilityIntervalIndex.markStale(request.getFacilityId()));
+        })
+                // transactional(Mono) odda vrednost šele po potrditvi transakcije
+                .doOnNext(result -> result.saved().forEach(this::afterCommit))
+                .map(result -> BookingSeriesResponse.builder()
+                        .facilityId(request.getFacilityId())
+                        .created(result.saved().stream().map(bookingRules::mapToResponse).toList())
+                        .rejected(result.rejected())
+                        .build());
+    }
+
+    private Mono<SeriesResult> insertSeries(Long userId, BookingSeriesRequest request, Plan plan,
+                                            BigDecimal pricePerHour) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> bookings = plan.accepted().stream()
+                .map(occurrence -> Booking.builder()
+                        .userId(userId)
+                        .facilityId(request.getFacilityId())
+                        .startTime(occurrence.startTime())
+                        .endTime(occurrence.endTime())
+                        .status(BookingStatus.PENDING)
+                        .totalPrice(bookingRules.calculatePrice(occurrence.startTime(), occurrence.endTime(), pricePerHour))
+                        .notes(request.getNotes())
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build())
+                .toList();
+
+        Mono<List<Booking>> saved = bookings.isEmpty()
+                ? Mono.just(List.of())
+                : bookingRepository.saveAll(bookings).collectList()
+                        .flatMap(list -> insertOutbox(EventType.BOOKING_SERIES_CREATED, list.get(0).getId(),
+                                outboxService.seriesSnapshot(list)).thenReturn(list));
+        return saved.map(list -> new SeriesResult(list, plan.rejected()));
+    }
+
+    private record SeriesResult(List<Booking> saved, List<RejectedOccurrence> rejected) {
+    }
+
+    public Mono<BookingPage> getMyBookings(Long userId, String cursor, Integer size) {
+        return Mono.defer(() -> {
+            log.info("Fetching bookings for user {} (cursor {})", userId, cursor);
+            int pageSize = bookingPagination.pageSize(size);
+            Cursor after = bookingPagination.decode(cursor, Direction.DESC);
+            return toPage(bookingRepository.findPageByUserId(userId, after.startTime(), after.id(), pageSize + 1),
+                    pageSize);
+        });
+    }
+
+    public Mono<BookingPage> getUpcomingBookings(Long userId, String cursor, Integer size) {
+        return Mono.defer(() -> {
+            log.info("Fetching upcoming bookings for user {} (cursor {})", userId, cursor);
+            int pageSize = bookingPagination.pageSize(size);
+            Cursor after = bookingPagination.decode(cursor, Direction.ASC);
+            return toPage(bookingRepository.findUpcomingPageByUserId(userId, LocalDateTime.now(),
+                    after.startTime(), after.id(), pageSize + 1), pageSize);
+        });
+    }
+
+    public Mono<BookingPage> getPastBookings(Long userId, String cursor, Integer size) {
+        return Mono.defer(() -> {
+            log.info("Fetching past bookings for user {} (cursor {})", userId, cursor);
+            int pageSize = bookingPagination.pageSize(size);
+            Cursor after = bookingPagination.decode(cursor, Direction.DESC);
+            return toPage(bookingRepository.findPastPageByUserId(userId, LocalDateTime.now(),
+                    after.startTime(), after.id(), pageSize + 1), pageSize);
+        });
+    }
+
+    public Mono<BookingPage> getBookingsByFacility(Long facilityId, String cursor, Integer size) {
+        return Mono.defer(() -> {
+            log.info("Fetching bookings for facility {} (cursor {})", facilityId, cursor);
+            int pageSize = bookingPagination.pageSize(size);
+            Cursor after = bookingPagination.decode(cursor, Direction.ASC);
+            return toPage(bookingRepository.findPageByFacilityId(facilityId, after.startTime(), after.id(), pageSize + 1),
+                    pageSize);
+        });
+    }
+
+    public Mono<AvailabilityResponse> getAvailability(Long facilityId, LocalDateTime from, LocalDateTime to,
+                                                      Integer granularityMinutes) {
+        return Mono.defer(() -> {
+            log.info("Fetching availability of facility {} between {} and {}", facilityId, from, to);
+            AvailabilityService.Query query = availabilityService.prepare(facilityId, from, to, granularityMinutes);
+            if (query.missingDays().isEmpty()) {
+                return Mono.just(availabilityService.complete(query));
+            }
+            return bookingRepository.findActiveIntervalsInRange(facilityId, query.missingFrom(), query.missingTo())
+                    .collectList()
+                    .map(intervals -> {
+                        availabilityService.store(query, intervals);
+                        return availabilityService.complete(query);
+                    });
+        });
+    }
+
+    // Iskanje teče nad bitnimi slikami v pomnilniku, brez klicev v bazo
+    public Mono<FacilitySearchResponse> searchFreeFacilities(FacilitySearchRequest request) {
+        return Mono.fromSupplier(() -> FacilitySearchResponse.builder()
+                .startTime(request.getStartTime())
+                .endTime(request.getEndTime())
+                .freeFacilityIds(facilitySlotBitmaps.findFree(
+                        request.getFacilityIds(), request.getStartTime(), request.getEndTime()))
+                .build());
+    }
+
+    private Mono<BookingPage> toPage(Flux<Booking> rows, int pageSize) {
+        return rows.collectList()
+                .map(list -> bookingPagination.toPage(list, pageSize, bookingRules::mapToResponse));
+    }
+
+    /**
+     * ETag rezervacije (lastnik, updated_at) brez branja celotne vrstice; prazen za tujo ali
+     * neobstoječo rezervacijo.
+     */
+    public Mono<String> getBookingETag(Long bookingId, Long userId) {
+        return databaseClient.sql("SELECT user_id, updated_at FROM bookings WHERE id = :id")
+                .bind("id", bookingId)
+                .map(row -> new Object[]{row.get("user_id", Long.class), row.get("updated_at", LocalDateTime.class)})
+                .one()
+                .filter(version -> userId.equals(version[0]))
+                .map(version -> bookingETags.forBooking(bookingId, (LocalDateTime) version[1]));
+    }
+
+    // ETag prihodnjih rezervacij iz ene agregatne poizvedbe
+    public Mono<String> getUpcomingBookingsETag(Long userId) {
+        return databaseClient.sql("SELECT COUNT(*) AS booking_count, MAX(updated_at) AS last_updated " +
+                        "FROM bookings WHERE user_id = :userId AND start_time > :now")
+                .bind("userId", userId)
+                .bind("now", LocalDateTime.now())
+                .map(row -> bookingETags.forList(row.get("booking_count", Long.class),
+                        row.get("last_updated", LocalDateTime.class)))
+                .one();
+    }
+
+    public Mono<BookingResponse> getBookingById(Long bookingId, Long userId) {
+        log.info("Fetching booking {} for user {}", bookingId, userId);
+        return findOwned(bookingId, userId, "You are not authorized to view this booking")
+                .map(bookingRules::mapToResponse);
+    }
+
+    public Mono<BookingResponse> updateBookingStatus(Long bookingId, Long userId, UpdateBookingStatusRequest request) {
+        log.info("Updating booking {} status to {} by user {}", bookingId, request.getStatus(), userId);
+
+        return findOwned(bookingId, userId, "You are not authorized to update this booking")
+                .flatMap(booking -> {
+                    // Validacija prehodov statusa
+                    bookingRules.validateStatusTransition(booking.getStatus(), request.getStatus());
+
+                    BookingStatus oldStatus = booking.getStatus();
+                    booking.setStatus(request.getStatus());
+                    booking.setUpdatedAt(LocalDateTime.now());
+
+                    Mono<Booking> updated = bookingRepository.save(booking)
+                            .doOnNext(saved -> log.info("Booking {} status updated from {} to {}",
+                                    bookingId, oldStatus, request.getStatus()));
+                    if (request.getStatus() == BookingStatus.CONFIRMED && oldStatus == BookingStatus.PENDING) {
+                        updated = updated.flatMap(saved ->
+                                enqueue(EventType.BOOKING_CONFIRMED, saved).thenReturn(saved));
+                    }
+                    return updated;
+                })
+                .as(transactionalOperator::transactional)
+                .doOnNext(this::afterCommit)
+                .map(bookingRules::mapToResponse);
+    }
+
+    public Mono<Void> cancelBooking(Long bookingId, Long userId) {
+        log.info("Cancelling booking {} by user {}", bookingId, userId);
+
+        return findOwned(bookingId, userId, "You are not authorized to cancel this booking")
+                .flatMap(booking -> {
+                    // Ne dovoli preklica že preklicanih ali zaključenih rezervacij
+                    if (booking.getStatus() == BookingStatus.CANCELLED) {
+                        return Mono.<Booking>error(new IllegalStateException("Booking is already cancelled"));
+                    }
+                    if (booking.getStatus() == BookingStatus.COMPLETED) {
+                        return Mono.<Booking>error(new IllegalStateException("Cannot cancel completed booking"));
+                    }
+                    // Preveri, ali je rezervacija v prihodnosti (lahko prekličeš samo prihodnje)
+                    if (booking.getStartTime().isBefore(LocalDateTime.now())) {
+                        return Mono.<Booking>error(new IllegalStateException("Cannot cancel past bookings"));
+                    }
+
+                    booking.setStatus(BookingStatus.CANCELLED);
+                    booking.setUpdatedAt(LocalDateTime.now());
+                    return bookingRepository.save(booking)
+                            .flatMap(saved -> enqueue(EventType.BOOKING_CANCELLED, saved).thenReturn(saved));
+                })
+                .as(transactionalOperator::transactional)
+                .doOnNext(this::afterCommit)
+                .doOnNext(cancelled -> log.info("Booking {} cancelled successfully", bookingId))
+                .then();
+    }
+
+    private Mono<Booking> findOwned(Long bookingId, Long userId, String notOwnerMessage) {
+        return bookingRepository.findById(bookingId)
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Booking not found")))
+                .flatMap(booking -> booking.getUserId().equals(userId)
+                        ? Mono.just(booking)
+                        : Mono.error(new IllegalStateException(notOwnerMessage)));
+    }
+
+    // Indeks intervalov, predpomnilnik prostih terminov in tok razpoložljivosti (klicano po potrditvi transakcije)
+    private void afterCommit(Booking booking) {
+        facilityIntervalIndex.updateAfterCommit(booking);
+        availabilityService.evictAfterCommit(booking);
+        facilitySlotBitmaps.updateAfterCommit(booking);
+        availabilityStream.publishAfterCommit(booking);
+    }
+
+    // Baza je zavrnila termin, ki ga indeks ni poznal: osveži posnetek objekta
+    private Mono<Void> refreshIndex(Long facilityId) {
+        return bookingRepository.findActiveIntervalsByFacilityId(facilityId, LocalDateTime.now())
+                .collectList()
+                .doOnNext(intervals -> facilityIntervalIndex.refresh(facilityId, intervals))
+                .then();
+    }
+
+    // Reaktivni ekvivalent OutboxService.enqueue; OutboxRelay ga obdela enako
+    private Mono<Void> enqueue(EventType eventType, Booking booking) {
+        return insertOutbox(eventType, booking.getId(), outboxService.snapshot(booking));
+    }
+
+    private Mono<Void> insertOutbox(EventType eventType, Long bookingId, String payload) {
+        LocalDateTime now = LocalDateTime.now();
+        String traceParent = outboxService.traceParent();
+        DatabaseClient.GenericExecuteSpec insert = databaseClient.sql("INSERT INTO booking_outbox " +
+                        "(booking_id, event_type, payload, status, attempts, next_attempt_at, created_at, trace_parent) " +
+                        "VALUES (:bookingId, :eventType, :payload, :status, 0, :nextAttemptAt, :createdAt, :traceParent)")
+                .bind("bookingId", bookingId)
+                .bind("eventType", eventType.name())
+                .bind("payload", payload)
+                .bind("status", OutboxStatus.PENDING.name())
+                .bind("nextAttemptAt", now)
+                .bind("createdAt", now);
+        insert = traceParent != null ? insert.bind("traceParent", traceParent) : insert.bindNull("traceParent", String.class);
+        return insert
+                .then()
+                .doOnSuccess(done -> log.debug("Enqueued {} for booking {}", eventType, bookingId));
+    }
+}
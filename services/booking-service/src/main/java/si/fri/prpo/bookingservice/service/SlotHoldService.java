@@ -0,0 +1,190 @@
+package si.fri.prpo.bookingservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import si.fri.prpo.bookingservice.dto.SlotHoldRequest;
+import si.fri.prpo.bookingservice.dto.SlotHoldResponse;
+import si.fri.prpo.bookingservice.entity.SlotHold;
+import si.fri.prpo.bookingservice.repository.SlotHoldRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Kratkotrajne zadržitve terminov: uporabnik termin zadrži za nekaj minut, namesto da bi ustvaril
+ * PENDING rezervacijo, ki ostane, če nakupa ne dokonča. Zadržitve so v tabeli booking_holds, ki jo
+ * berejo vse instance: preverjanje prekrivanj in potrditev gresta v bazo, zadržitev z ene instance
+ * pa blokira tudi rezervacije na drugi. Prekrivanje dveh zadržitev prepreči booking_holds_no_overlap.
+ *
+ * Veljavnost določa expires_at; časovno kolo (TimingWheel) potekle vrstice le pospravi: vsak tik
+ * obdela zadržitve, ki potečejo v tem tiku, in jih izbriše z enim DELETE po id-jih.
+ */
+@Slf4j
+@Service
+public class SlotHoldService {
+
+    static final String UNAVAILABLE = "Facility is not available at the selected time";
+
+    private final SlotHoldRepository slotHoldRepository;
+    private final FacilityIntervalIndex facilityIntervalIndex;
+    private final FacilityLockStripes facilityLockStripes;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingRules bookingRules;
+    private final Duration ttl;
+    private final TimingWheel<Long> wheel;
+    private final Counter expiredCounter;
+
+    public SlotHoldService(SlotHoldRepository slotHoldRepository,
+                           FacilityIntervalIndex facilityIntervalIndex,
+                           FacilityLockStripes facilityLockStripes,
+                           TransactionTemplate transactionTemplate,
+                           BookingRules bookingRules,
+                           MeterRegistry meterRegistry,
+                           @Value("${booking.holds.ttl-seconds:300}") long ttlSeconds,
+                           @Value("${booking.holds.tick-ms:1000}") long tickMs,
+                           @Value("${booking.holds.wheel-size:512}") int wheelSize) {
+        this.slotHoldRepository = slotHoldRepository;
+        this.facilityIntervalIndex = facilityIntervalIndex;
+        this.facilityLockStripes = facilityLockStripes;
+        this.transactionTemplate = transactionTemplate;
+        this.bookingRules = bookingRules;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.wheel = new TimingWheel<>(tickMs, wheelSize, System.currentTimeMillis());
+        Gauge.builder("booking.holds.active", slotHoldRepository,
+                        repository -> repository.countByExpiresAtAfter(LocalDateTime.now()))
+                .description("Slot holds currently reserving a facility interval (all replicas)")
+                .register(meterRegistry);
+        this.expiredCounter = Counter.builder("booking.holds.expired")
+                .description("Slot holds released because they were not confirmed in time")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDateTime now = LocalDateTime.now();
+        int expired = slotHoldRepository.deleteExpired(now);
+        List<SlotHold> active = slotHoldRepository.findByExpiresAtAfter(now);
+        active.forEach(this::schedule);
+        log.info("Scheduled expiry of {} slot holds ({} expired while offline)", active.size(), expired);
+    }
+
+    public SlotHoldResponse createHold(Long userId, SlotHoldRequest request) {
+        log.info("Holding facility {} for user {} between {} and {}",
+                request.getFacilityId(), userId, request.getStartTime(), request.getEndTime());
+        bookingRules.validateBookingTime(request.getStartTime(), request.getEndTime());
+
+        // Pod isto ključavnico kot ustvarjanje rezervacij, zato zadržitev in rezervacija ne moreta
+        // hkrati zasesti istega termina
+        SlotHold hold = facilityLockStripes.withFacilityLock(request.getFacilityId(),
+                () -> transactionTemplate.execute(status -> {
+                    slotHoldRepository.deleteExpiredOverlapping(request.getFacilityId(),
+                            request.getStartTime(), request.getEndTime(), LocalDateTime.now());
+                    if (hasConflictingHold(request.getFacilityId(), request.getStartTime(), request.getEndTime())
+                            || facilityIntervalIndex.hasConflict(
+                                    request.getFacilityId(), request.getStartTime(), request.getEndTime())) {
+                        throw new IllegalStateException(UNAVAILABLE);
+                    }
+                    SlotHold saved = slotHoldRepository.save(SlotHold.builder()
+                            .userId(userId)
+                            .facilityId(request.getFacilityId())
+                            .startTime(request.getStartTime())
+                            .endTime(request.getEndTime())
+                            .expiresAt(LocalDateTime.now().plus(ttl))
+                            .build());
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            schedule(saved);
+                        }
+                    });
+                    return saved;
+                }));
+
+        log.info("Hold {} created, expires at {}", hold.getId(), hold.getExpiresAt());
+        return toResponse(hold);
+    }
+
+    // Potekla zadržitev, ki je kolo še ni pobralo, ne blokira več
+    public boolean hasConflictingHold(Long facilityId, LocalDateTime startTime, LocalDateTime endTime) {
+        return slotHoldRepository.existsActiveOverlapping(facilityId, startTime, endTime, LocalDateTime.now());
+    }
+
+    /**
+     * Veljavne zadržitve objekta, ki sekajo [from, to), urejene po začetku.
+     */
+    public List<SlotHold> activeHolds(Long facilityId, LocalDateTime from, LocalDateTime to) {
+        return slotHoldRepository.findActiveOverlapping(facilityId, from, to, LocalDateTime.now());
+    }
+
+    /**
+     * Veljavna zadržitev uporabnika.
+     */
+    public SlotHold getHold(Long holdId, Long userId) {
+        SlotHold hold = slotHoldRepository.findByIdAndExpiresAtAfter(holdId, LocalDateTime.now())
+                .orElseThrow(() -> new IllegalArgumentException("Hold not found or expired"));
+        if (!hold.getUserId().equals(userId)) {
+            throw new IllegalStateException("You are not authorized to use this hold");
+        }
+        return hold;
+    }
+
+    /**
+     * Porabi zadržitev ob potrditvi v rezervacijo; mora teči v transakciji pod ključavnico objekta.
+     * Vrstica se izbriše takoj (da ne blokira lastne rezervacije), ob rollbacku pa jo vrne baza.
+     * Če jo je medtem porabila druga instanca ali je potekla, DELETE ne zadene ničesar.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void consume(SlotHold hold) {
+        if (slotHoldRepository.deleteActive(hold.getId(), LocalDateTime.now()) == 0) {
+            throw new IllegalStateException("Hold has expired");
+        }
+    }
+
+    public void releaseHold(Long holdId, Long userId) {
+        log.info("Releasing hold {} by user {}", holdId, userId);
+        SlotHold hold = getHold(holdId, userId);
+        slotHoldRepository.deleteById(hold.getId());
+    }
+
+    @Scheduled(fixedRateString = "${booking.holds.tick-ms:1000}")
+    public void expire() {
+        List<Long> due = wheel.advance(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return;
+        }
+        // Potrjene in sproščene zadržitve so že izbrisane (kolo ne pozna preklica)
+        int expired = slotHoldRepository.deleteExpiredByIds(due, LocalDateTime.now());
+        if (expired > 0) {
+            expiredCounter.increment(expired);
+            log.info("Expired {} slot holds", expired);
+        }
+    }
+
+    private void schedule(SlotHold hold) {
+        wheel.schedule(hold.getId(), hold.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    private static SlotHoldResponse toResponse(SlotHold hold) {
+        return SlotHoldResponse.builder()
+                .id(hold.getId())
+                .facilityId(hold.getFacilityId())
+                .startTime(hold.getStartTime())
+                .endTime(hold.getEndTime())
+                .expiresAt(hold.getExpiresAt())
+                .build();
+    }
+}
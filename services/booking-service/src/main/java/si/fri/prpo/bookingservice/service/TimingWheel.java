@@ -0,0 +1,73 @@
+package si.fri.prpo.bookingservice.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timing wheel: a deadline lands in bucket (deadlineTick % wheelSize), and each tick only
+ * looks at the one bucket whose turn it is. Scheduling is O(1) and a tick costs the size of its
+ * bucket, never a scan of everything scheduled. Deadlines more than one revolution away simply
+ * stay in their bucket until the revolution in which they fall due.
+ *
+ * There is no cancel: callers check on expiry whether the item is still live, which keeps
+ * cancellation O(1) as well.
+ */
+class TimingWheel<T> {
+
+    private record Entry<T>(T item, long deadlineMillis) {
+    }
+
+    private final long tickMillis;
+    private final List<ArrayDeque<Entry<T>>> buckets;
+    private long lastTick;
+    private int size;
+
+    TimingWheel(long tickMillis, int wheelSize, long nowMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new ArrayDeque<>());
+        }
+        this.lastTick = nowMillis / tickMillis;
+    }
+
+    synchronized void schedule(T item, long deadlineMillis) {
+        // Rounded up so an item never fires before its deadline; overdue items go into the next tick
+        long tick = Math.max(Math.ceilDiv(deadlineMillis, tickMillis), lastTick + 1);
+        buckets.get((int) (tick % buckets.size())).add(new Entry<>(item, deadlineMillis));
+        size++;
+    }
+
+    /**
+     * Processes every tick up to nowMillis (several if the caller ran late) and returns the items
+     * whose deadline has passed.
+     */
+    synchronized List<T> advance(long nowMillis) {
+        long nowTick = nowMillis / tickMillis;
+        List<T> expired = new ArrayList<>();
+        // After a full revolution every bucket has been visited; later ticks would repeat them
+        long from = Math.max(lastTick + 1, nowTick - buckets.size() + 1);
+        for (long tick = from; tick <= nowTick; tick++) {
+            Iterator<Entry<T>> it = buckets.get((int) (tick % buckets.size())).iterator();
+            while (it.hasNext()) {
+                Entry<T> entry = it.next();
+                if (entry.deadlineMillis() <= nowMillis) {
+                    expired.add(entry.item());
+                    it.remove();
+                    size--;
+                }
+            }
+        }
+        lastTick = Math.max(lastTick, nowTick);
+        return expired;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,2 @@
+-- Sled zahtevka, ki je ustvaril outbox zapis (W3C traceparent), da dostava ostane v isti sledi
+ALTER TABLE booking_outbox ADD COLUMN trace_parent VARCHAR(55);
@@ -0,0 +1,19 @@
+-- Zadržitve so skupne vsem instancam (SlotHoldService jih bere iz tabele), zato prekrivanje
+-- zadržitev istega objekta prepreči baza, kot pri bookings_no_overlap. Potekle zadržitve
+-- SlotHoldService izbriše pred vstavljanjem nove, zato omejitev velja za vse vrstice.
+DELETE FROM booking_holds WHERE expires_at <= CURRENT_TIMESTAMP;
+
+-- Prekrivajoče se veljavne zadržitve (pred to različico možne med instancami): ostane starejša
+DELETE FROM booking_holds h
+WHERE EXISTS (SELECT 1 FROM booking_holds o
+              WHERE o.facility_id = h.facility_id
+                AND o.id < h.id
+                AND tsrange(o.start_time, o.end_time) && tsrange(h.start_time, h.end_time));
+
+-- Gist indeks omejitve služi tudi poizvedbam po zadržitvah objekta v časovnem oknu
+ALTER TABLE booking_holds
+    ADD CONSTRAINT booking_holds_no_overlap
+    EXCLUDE USING gist (
+        facility_id WITH =,
+        tsrange(start_time, end_time) WITH &&
+    );
@@ -0,0 +1,22 @@
+-- Tok razpoložljivosti (AvailabilityStream) mora videti pisanja vseh instanc: vsaka nova
+-- rezervacija ali sprememba statusa rezervacije, ki se še ni končala, pošlje NOTIFY na kanal
+-- booking_availability. Obvestila dobijo poslušalci šele ob potrditvi transakcije, v vrstnem redu
+-- potrditev; razveljavljene spremembe se ne pošljejo.
+CREATE OR REPLACE FUNCTION notify_booking_availability() RETURNS trigger AS $$
+BEGIN
+    IF NEW.end_time > LOCALTIMESTAMP
+       AND (TG_OP = 'INSERT' OR NEW.status IS DISTINCT FROM OLD.status) THEN
+        PERFORM pg_notify('booking_availability', json_build_object(
+                'facilityId', NEW.facility_id,
+                'bookingId', NEW.id,
+                'startTime', NEW.start_time,
+                'endTime', NEW.end_time,
+                'status', NEW.status)::text);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER bookings_availability_notify
+    AFTER INSERT OR UPDATE OF status ON bookings
+    FOR EACH ROW EXECUTE FUNCTION notify_booking_availability();
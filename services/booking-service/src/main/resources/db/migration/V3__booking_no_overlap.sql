@@ -0,0 +1,42 @@
+-- Prepreči dvojne rezervacije na nivoju baze: aktivni (PENDING/CONFIRMED) intervali
+-- istega objekta se ne smejo prekrivati. Konflikt sproži napako 23P01 (exclusion_violation).
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Obstoječa prekrivanja razreši pred omejitvijo, sicer ALTER TABLE spodaj ne uspe. Po objektih
+-- obdrži najprej CONFIRMED, nato starejše (created_at, id); vsako aktivno rezervacijo, ki se
+-- prekriva z že obdržano, prekliče. ID-ji preklicanih so v opozorilu migracije za ročni pregled.
+DO $$
+DECLARE
+    b RECORD;
+    cancelled BIGINT[] := '{}';
+BEGIN
+    CREATE TEMP TABLE kept_bookings (facility_id BIGINT, start_time TIMESTAMP, end_time TIMESTAMP) ON COMMIT DROP;
+
+    FOR b IN
+        SELECT id, facility_id, start_time, end_time
+        FROM bookings
+        WHERE status IN ('PENDING', 'CONFIRMED')
+        ORDER BY facility_id, (status = 'CONFIRMED') DESC, created_at, id
+    LOOP
+        IF EXISTS (SELECT 1 FROM kept_bookings k
+                   WHERE k.facility_id = b.facility_id
+                     AND tsrange(k.start_time, k.end_time) && tsrange(b.start_time, b.end_time)) THEN
+            UPDATE bookings SET status = 'CANCELLED', updated_at = CURRENT_TIMESTAMP WHERE id = b.id;
+            cancelled := cancelled || b.id;
+        ELSE
+            INSERT INTO kept_bookings VALUES (b.facility_id, b.start_time, b.end_time);
+        END IF;
+    END LOOP;
+
+    IF array_length(cancelled, 1) > 0 THEN
+        RAISE WARNING 'bookings_no_overlap: cancelled % overlapping bookings: %', array_length(cancelled, 1), cancelled;
+    END IF;
+END $$;
+
+ALTER TABLE bookings
+    ADD CONSTRAINT bookings_no_overlap
+    EXCLUDE USING gist (
+        facility_id WITH =,
+        tsrange(start_time, end_time) WITH &&
+    )
+    WHERE (status IN ('PENDING', 'CONFIRMED'));
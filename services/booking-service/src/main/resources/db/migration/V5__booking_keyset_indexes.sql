@@ -0,0 +1,6 @@
+-- Keyset paginacija seznamov rezervacij po (start_time, id); indeksa pokrivata tudi obratni vrstni red
+CREATE INDEX IF NOT EXISTS idx_bookings_user_start_id
+    ON bookings (user_id, start_time, id);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_facility_start_id
+    ON bookings (facility_id, start_time, id);
@@ -0,0 +1,16 @@
+-- Idempotency-Key za POST /api/bookings: shranjen odgovor prvega zahtevka, ki ga ponovni poskusi
+-- vrnejo brez ponovnega ustvarjanja rezervacije
+CREATE TABLE IF NOT EXISTS booking_idempotency_keys (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    booking_id BIGINT NOT NULL,
+    response TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    CONSTRAINT uq_booking_idempotency_user_key UNIQUE (user_id, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_booking_idempotency_expires
+    ON booking_idempotency_keys (expires_at);
@@ -0,0 +1,11 @@
+-- Kratkotrajne zadržitve termina (med izbiro in potrditvijo); v pomnilniku jih vodi SlotHoldService,
+-- tabela jih ohrani ob ponovnem zagonu
+CREATE TABLE IF NOT EXISTS booking_holds (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    facility_id BIGINT NOT NULL,
+    start_time TIMESTAMP NOT NULL,
+    end_time TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
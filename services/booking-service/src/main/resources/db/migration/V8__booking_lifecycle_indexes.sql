@@ -0,0 +1,13 @@
+-- Sweeper življenjskega cikla (BookingLifecycleSweeper): delni indeksi vsebujejo le vrstice, ki še
+-- čakajo na prehod, zato po posodobitvi izpadejo iz indeksa in se naslednji kos ne prebija čeznje
+CREATE INDEX IF NOT EXISTS idx_bookings_confirmed_end
+    ON bookings (end_time, id)
+    WHERE status = 'CONFIRMED';
+
+CREATE INDEX IF NOT EXISTS idx_bookings_pending_start
+    ON bookings (start_time, id)
+    WHERE status = 'PENDING';
+
+CREATE INDEX IF NOT EXISTS idx_bookings_pending_created
+    ON bookings (created_at, id)
+    WHERE status = 'PENDING';
@@ -0,0 +1,6 @@
+-- ETag seznama prihodnjih rezervacij (COUNT, MAX(updated_at) po user_id in start_time): z
+-- updated_at v indeksu se poizvedba odgovori le iz indeksa, brez branja vrstic tabele
+DROP INDEX IF EXISTS idx_bookings_user_start_id;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_user_start_id
+    ON bookings (user_id, start_time, id) INCLUDE (updated_at);
@@ -0,0 +1,65 @@
+package si.fri.prpo.bookingservice;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import si.fri.prpo.bookingservice.dto.BookingRequest;
+import si.fri.prpo.bookingservice.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Same race as BookingConcurrencyTest, but through the facility lock: requests queue on the
+ * facility lane and each sees the committed booking of the one before it, so the conflict check
+ * rejects them before the exclusion constraint is reached. The lock timeout is raised so that
+ * queueing never turns into 503. Skipped when Docker is not available.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "booking.admission.lock-timeout-ms=60000")
+@Testcontainers(disabledWithoutDocker = true)
+class BookingAdmissionTest {
+
+    private static final int REQUESTS = 200;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void queuedRequestsAreRejectedBeforeTheConstraint() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(30).truncatedTo(ChronoUnit.HOURS);
+        BookingRequest request = BookingRequest.builder()
+                .facilityId(43L)
+                .startTime(start)
+                .endTime(start.plusHours(2))
+                .build();
+
+        Map<HttpStatusCode, Long> counts = BookingConcurrencyTest.race(restTemplate, request, REQUESTS);
+
+        assertThat(counts.get(HttpStatus.CREATED)).isEqualTo(1L);
+        assertThat(counts.get(HttpStatus.CONFLICT)).isEqualTo(REQUESTS - 1L);
+        assertThat(meterRegistry.find("booking.conflicts").tag("source", "constraint").counter()).isNull();
+        assertThat(bookingRepository.findByFacilityId(43L)).hasSize(1);
+    }
+}
@@ -0,0 +1,113 @@
+package si.fri.prpo.bookingservice;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import si.fri.prpo.bookingservice.dto.BookingRequest;
+import si.fri.prpo.bookingservice.repository.BookingRepository;
+import si.fri.prpo.bookingservice.service.FacilityLockStripes;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fires many parallel requests for the same slot against a real Postgres; the exclusion
+ * constraint must let exactly one through. The facility lock is bypassed and the interval index
+ * disabled, so nothing but the constraint serializes the inserts (the lock path is covered by
+ * BookingAdmissionTest). Skipped when Docker is not available.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "booking.conflict-index.enabled=false")
+@Testcontainers(disabledWithoutDocker = true)
+class BookingConcurrencyTest {
+
+    private static final int REQUESTS = 200;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @MockitoBean
+    private FacilityLockStripes facilityLockStripes;
+
+    @Test
+    void parallelRequestsForSameSlotCreateExactlyOneBooking() throws Exception {
+        when(facilityLockStripes.withFacilityLock(any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        LocalDateTime start = LocalDateTime.now().plusDays(30).truncatedTo(ChronoUnit.HOURS);
+        BookingRequest request = BookingRequest.builder()
+                .facilityId(42L)
+                .startTime(start)
+                .endTime(start.plusHours(2))
+                .build();
+
+        Map<HttpStatusCode, Long> counts = race(restTemplate, request, REQUESTS);
+
+        assertThat(counts.get(HttpStatus.CREATED)).isEqualTo(1L);
+        assertThat(counts.get(HttpStatus.CONFLICT)).isEqualTo(REQUESTS - 1L);
+        assertThat(bookingRepository.existsConflictingBooking(42L, start, start.plusHours(2))).isTrue();
+        assertThat(bookingRepository.findByFacilityId(42L)).hasSize(1);
+    }
+
+    /**
+     * Sends the same request from many users at once and counts the response statuses.
+     */
+    static Map<HttpStatusCode, Long> race(TestRestTemplate restTemplate, BookingRequest request, int requests)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<HttpStatusCode>> results = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            long userId = i + 1;
+            results.add(executor.submit(() -> {
+                HttpHeaders headers = new HttpHeaders();
+                headers.setContentType(MediaType.APPLICATION_JSON);
+                headers.set("X-User-Id", Long.toString(userId));
+                ready.await();
+                return restTemplate.postForEntity("/api/bookings", new HttpEntity<>(request, headers), String.class)
+                        .getStatusCode();
+            }));
+        }
+        ready.countDown();
+
+        List<HttpStatusCode> statuses = new ArrayList<>();
+        for (Future<HttpStatusCode> result : results) {
+            statuses.add(result.get());
+        }
+        executor.shutdown();
+
+        return statuses.stream()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    }
+}
@@ -0,0 +1,36 @@
+package si.fri.prpo.bookingservice;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import si.fri.prpo.bookingservice.client.FacilityClient;
+import si.fri.prpo.bookingservice.dto.external.FacilityResponse;
+
+import java.math.BigDecimal;
+
+/**
+ * Testi nimajo facility-service, rezervacija pa brez cene objekta ne uspe (FacilityPricing):
+ * vsak objekt obstaja in stane PRICE_PER_HOUR. Velja za vse teste s celotnim kontekstom.
+ */
+@Configuration
+public class FacilityServiceStub {
+
+    public static final BigDecimal PRICE_PER_HOUR = new BigDecimal("15.00");
+
+    @Bean
+    @Primary
+    public FacilityClient stubFacilityClient() {
+        return new FacilityClient(WebClient.create()) {
+            @Override
+            public Mono<FacilityResponse> getFacilityAsync(Long facilityId) {
+                return Mono.just(FacilityResponse.builder()
+                        .id(facilityId)
+                        .name("Facility " + facilityId)
+                        .pricePerHour(PRICE_PER_HOUR)
+                        .build());
+            }
+        };
+    }
+}
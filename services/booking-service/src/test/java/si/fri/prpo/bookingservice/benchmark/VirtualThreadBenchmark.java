@@ -0,0 +1,181 @@
+package si.fri.prpo.bookingservice.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import si.fri.prpo.bookingservice.BookingServiceApplication;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Primerja platform in virtual threads v booking-service pri ustvarjanju rezervacij
+ * (POST /api/bookings). Vse druge storitve nadomesti stub; facility-service odgovori s ceno objekta
+ * po fiksni zakasnitvi. Vsak zahtevek rezervira drug objekt, zato cena ni v predpomnilniku in
+ * request nit čaka na facility-service, rezervacije pa si ne delijo pasu objekta.
+ * Izpiše največje število sočasnih rezervacij v downstreamu, prepustnost ter p50/p99 latenco.
+ *
+ * Bazen povezav do facility-service (privzeto 50 povezav in 100 čakajočih) je povečan na število
+ * zahtevkov, da meritev omejujejo niti, ne bazen.
+ *
+ * Zagon:
+ * mvn -pl services/booking-service test -Dtest=VirtualThreadBenchmark -Dbenchmark=true \
+ *     -Dsurefire.failIfNoSpecifiedTests=false [-Dbenchmark.requests=1000 -Dbenchmark.delay-ms=200]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VirtualThreadBenchmark {
+
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 1000);
+    private static final long DELAY_MS = Long.getLong("benchmark.delay-ms", 200);
+    private static final int WARMUP = Math.min(REQUESTS, 100);
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        Result platform = run(false, 1);
+        Result virtual = run(true, 1 + WARMUP + REQUESTS);
+
+        System.out.printf("%nDownstream latency %d ms, %d concurrent bookings%n", DELAY_MS, REQUESTS);
+        System.out.printf("%-10s %14s %12s %10s %10s%n", "mode", "max in-flight", "req/s", "p50 ms", "p99 ms");
+        platform.print("platform");
+        virtual.print("virtual");
+    }
+
+    private Result run(boolean virtualThreads, long firstFacilityId) throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        HttpServer downstream = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        // Stub in odjemalec na platform nitih: ne tekmujeta z merjenim strežnikom za nosilne niti
+        downstream.setExecutor(Executors.newCachedThreadPool());
+        downstream.createContext("/api/facilities", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/api/facilities")) {
+                // Prednalaganje cen ob zagonu: prazen seznam, da vsaka rezervacija zgreši predpomnilnik
+                respond(exchange, "[]");
+                return;
+            }
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(DELAY_MS);
+                String id = path.substring(path.lastIndexOf('/') + 1);
+                respond(exchange, "{\"id\":" + id + ",\"name\":\"Court " + id + "\",\"pricePerHour\":20.00}");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+        downstream.createContext("/", exchange -> respond(exchange, "{}"));
+        downstream.start();
+
+        String stub = "http://localhost:" + downstream.getAddress().getPort();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BookingServiceApplication.class)
+                .profiles("test")
+                .run(
+                        "--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--services.facility.url=" + stub + "/api/facilities",
+                        "--services.payment.url=" + stub + "/api/payments",
+                        "--services.calendar.url=" + stub + "/api/calendar",
+                        "--services.notification.url=" + stub + "/api/notifications",
+                        "--services.auth.url=" + stub,
+                        // Meri niti, ne zaščit: cena se vedno počaka, bazen in rok ne zavrneta zahtevka
+                        "--booking.pricing.lookup-timeout-ms=60000",
+                        "--booking.http.facility.max-connections=" + REQUESTS,
+                        "--booking.http.facility.pending-acquire-max-count=" + REQUESTS,
+                        "--booking.http.facility.pending-acquire-timeout-ms=60000",
+                        "--booking.http.facility.connect-timeout-ms=10000",
+                        "--booking.http.facility.response-timeout-ms=60000",
+                        "--booking.deadline.default-ms=60000",
+                        "--booking.admission.lock-timeout-ms=60000",
+                        "--logging.level.si.fri.prpo.bookingservice=ERROR",
+                        "--spring.jpa.show-sql=false");
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/api/bookings");
+            fire(uri, firstFacilityId, WARMUP); // ogrevanje
+            maxInFlight.set(0);
+
+            long start = System.nanoTime();
+            long[] latencies = fire(uri, firstFacilityId + WARMUP, REQUESTS);
+            long elapsed = System.nanoTime() - start;
+            return new Result(maxInFlight.get(), REQUESTS / (elapsed / 1e9), latencies);
+        } finally {
+            context.close();
+            downstream.stop(0);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static long[] fire(URI uri, long firstFacilityId, int count) throws Exception {
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(10, 0);
+        try (ExecutorService executor = Executors.newCachedThreadPool()) {
+            HttpClient client = HttpClient.newBuilder().executor(executor).build();
+            List<CompletableFuture<Long>> futures = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String body = "{\"facilityId\":" + (firstFacilityId + i) + ",\"startTime\":\"" + start
+                        + "\",\"endTime\":\"" + start.plusHours(1) + "\"}";
+                HttpRequest request = HttpRequest.newBuilder(uri)
+                        .timeout(Duration.ofSeconds(60))
+                        .header("Content-Type", "application/json")
+                        .header("X-User-Id", String.valueOf(1 + i % 50))
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+                long sent = System.nanoTime();
+                futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .thenApply(response -> {
+                            if (response.statusCode() != 201) {
+                                throw new IllegalStateException("Unexpected status " + response.statusCode());
+                            }
+                            return System.nanoTime() - sent;
+                        }));
+            }
+            long[] latencies = new long[count];
+            for (int i = 0; i < count; i++) {
+                latencies[i] = futures.get(i).get();
+            }
+            Arrays.sort(latencies);
+            return latencies;
+        }
+    }
+
+    private record Result(int maxInFlight, double throughput, long[] latencies) {
+
+        long percentileMs(double p) {
+            int index = (int) Math.ceil(p * latencies.length) - 1;
+            return latencies[Math.max(index, 0)] / 1_000_000;
+        }
+
+        void print(String mode) {
+            System.out.printf("%-10s %14d %12.0f %10d %10d%n",
+                    mode, maxInFlight, throughput, percentileMs(0.50), percentileMs(0.99));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package si.fri.prpo.bookingservice.client;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import si.fri.prpo.bookingservice.exception.DownstreamUnavailableException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DownstreamGuardsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DownstreamGuards.Guard guard;
+
+    @BeforeEach
+    void setUp() {
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMillis(200))
+                .permittedNumberOfCallsInHalfOpenState(1)
+                .recordException(new DownstreamGuards.DownstreamFailurePredicate())
+                .build();
+        BulkheadConfig bulkheadConfig = BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+        guard = new DownstreamGuards(CircuitBreakerRegistry.of(circuitBreakerConfig), BulkheadRegistry.of(bulkheadConfig),
+                meterRegistry).forService("test");
+    }
+
+    @Test
+    void openBreakerRejectsWithoutCallingAndProbesAfterWait() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> failing = Mono.defer(() -> {
+            calls.incrementAndGet();
+            return Mono.error(new IOException("connection refused"));
+        });
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> guard.protect(failing).block()).hasCauseInstanceOf(IOException.class);
+        }
+        assertThat(guard.circuitBreaker().getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        assertThatThrownBy(() -> guard.protect(failing).block())
+                .isInstanceOf(DownstreamUnavailableException.class)
+                .hasCauseInstanceOf(CallNotPermittedException.class)
+                .extracting(e -> ((DownstreamUnavailableException) e).getRetryAfter())
+                .isEqualTo(Duration.ofMillis(200));
+        assertThat(calls).hasValue(4);
+        assertThat(failures("io")).isEqualTo(4);
+        assertThat(failures("circuit-open")).isEqualTo(1);
+
+        // Po čakanju half-open spusti poskusni klic; uspeh breaker zapre
+        Thread.sleep(250);
+        assertThat(guard.protect(Mono.just("ok")).block()).isEqualTo("ok");
+        assertThat(guard.circuitBreaker().getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void clientErrorsDoNotOpenTheBreaker() {
+        Mono<String> badRequest = Mono.error(WebClientResponseException.create(
+                HttpStatus.BAD_REQUEST.value(), "Bad Request", null, null, null));
+        for (int i = 0; i < 6; i++) {
+            assertThatThrownBy(() -> guard.protect(badRequest).block()).isInstanceOf(WebClientResponseException.class);
+        }
+
+        assertThat(guard.circuitBreaker().getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void fullBulkheadRejectsImmediately() {
+        Sinks.One<String> pending = Sinks.one();
+        guard.protect(pending.asMono()).subscribe();
+
+        assertThatThrownBy(() -> guard.protect(Mono.just("second")).block())
+                .isInstanceOf(DownstreamUnavailableException.class)
+                .hasCauseInstanceOf(BulkheadFullException.class);
+        assertThat(guard.circuitBreaker().getMetrics().getNumberOfFailedCalls()).isZero();
+        assertThat(failures("bulkhead-full")).isEqualTo(1);
+
+        pending.tryEmitValue("done");
+        assertThat(guard.protect(Mono.just("third")).block()).isEqualTo("third");
+    }
+
+    private double failures(String reason) {
+        return meterRegistry.get("booking.downstream.failures")
+                .tag("service", "test").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,66 @@
+package si.fri.prpo.bookingservice.client;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import si.fri.prpo.bookingservice.dto.external.PaymentCheckoutRequest;
+import si.fri.prpo.bookingservice.exception.DeadlineExceededException;
+import si.fri.prpo.bookingservice.exception.DownstreamUnavailableException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaymentClientTest {
+
+    private final DownstreamGuards guards = new DownstreamGuards(
+            CircuitBreakerRegistry.of(CircuitBreakerConfig.ofDefaults()),
+            BulkheadRegistry.of(BulkheadConfig.ofDefaults()),
+            new SimpleMeterRegistry());
+
+    @Test
+    void deadlineAndRejectionsPassUnwrapped() {
+        PaymentClient client = client(new DeadlineExceededException("Request deadline exceeded before calling payment"));
+
+        assertThatThrownBy(() -> client.createCheckoutSessionAsync(request()).block())
+                .isInstanceOf(DeadlineExceededException.class);
+
+        PaymentClient rejecting = client(new DownstreamUnavailableException(
+                "payment", "Circuit breaker open", Duration.ofSeconds(5), null));
+        assertThatThrownBy(() -> rejecting.createCheckoutSessionAsync(request()).block())
+                .isInstanceOf(DownstreamUnavailableException.class);
+    }
+
+    @Test
+    void otherFailuresAreWrapped() {
+        PaymentClient client = client(new IOException("connection reset"));
+
+        assertThatThrownBy(() -> client.createCheckoutSessionAsync(request()).block())
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Failed to create payment session")
+                .hasRootCauseInstanceOf(IOException.class);
+    }
+
+    private PaymentClient client(Throwable failure) {
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://payment")
+                .exchangeFunction(request -> Mono.error(failure))
+                .build();
+        return new PaymentClient(webClient, guards);
+    }
+
+    private static PaymentCheckoutRequest request() {
+        return PaymentCheckoutRequest.builder()
+                .bookingId(1L)
+                .userId(2L)
+                .amount(new BigDecimal("20.00"))
+                .build();
+    }
+}
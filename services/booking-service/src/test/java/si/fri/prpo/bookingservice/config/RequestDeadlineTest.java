@@ -0,0 +1,90 @@
+package si.fri.prpo.bookingservice.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import si.fri.prpo.bookingservice.exception.DeadlineExceededException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestDeadlineTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private DisposableServer server;
+    private WebClient client;
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes
+                        .get("/echo", (request, response) -> {
+                            calls.incrementAndGet();
+                            String header = request.requestHeaders().get(RequestDeadline.HEADER);
+                            return response.sendString(Mono.just(String.valueOf(header)));
+                        })
+                        .get("/slow", (request, response) -> response.sendString(
+                                Mono.delay(Duration.ofMillis(3000)).thenReturn("late"))))
+                .bindNow();
+        client = WebClient.builder()
+                .baseUrl("http://localhost:" + server.port())
+                .filter(RequestDeadline.propagation())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.disposeNow();
+    }
+
+    @Test
+    void remainingBudgetIsForwarded() {
+        String[] forwarded = new String[1];
+        RequestDeadline.runWithin(2000, () -> forwarded[0] = get("/echo").block());
+
+        assertThat(Long.parseLong(forwarded[0])).isBetween(1L, 2000L);
+        // Brez roka glave ni
+        assertThat(get("/echo").block()).isEqualTo("null");
+    }
+
+    @Test
+    void expiredDeadlineFailsWithoutCalling() {
+        RequestDeadline.runWithin(0, () ->
+                assertThatThrownBy(() -> get("/echo").block()).isInstanceOf(DeadlineExceededException.class));
+
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    void callIsCutOffAtDeadlineAlsoOnOtherThreads() {
+        long started = System.nanoTime();
+        RequestDeadline.runWithin(300, () -> assertThatThrownBy(() -> Mono.just("start")
+                .flatMap(ignored -> get("/echo"))
+                .flatMap(ignored -> get("/slow"))
+                .contextWrite(RequestDeadline::capture)
+                .block()).isInstanceOf(DeadlineExceededException.class));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofMillis(2000));
+        assertThat(RequestDeadline.remainingMillis()).isEmpty();
+    }
+
+    @Test
+    void callerBudgetIsCapped() {
+        assertThat(RequestDeadline.budgetMillis(null, 5000, 30000)).isEqualTo(5000);
+        assertThat(RequestDeadline.budgetMillis("60000", 5000, 30000)).isEqualTo(30000);
+        assertThat(RequestDeadline.budgetMillis("abc", 5000, 30000)).isEqualTo(5000);
+        assertThat(RequestDeadline.budgetMillis("-5", 5000, 30000)).isNegative();
+    }
+
+    private Mono<String> get(String uri) {
+        return client.get().uri(uri).retrieve().bodyToMono(String.class);
+    }
+}
@@ -0,0 +1,120 @@
+package si.fri.prpo.bookingservice.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.Tracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import si.fri.prpo.bookingservice.repository.BookingRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class TracingTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Path TRACES;
+    private static final DisposableServer DOWNSTREAM = HttpServer.create()
+            .port(0)
+            .route(routes -> routes.get("/echo", (request, response) -> response.sendString(
+                    Mono.just(String.valueOf(request.requestHeaders().get("traceparent"))))))
+            .bindNow();
+
+    static {
+        try {
+            TRACES = Files.createTempDirectory("traces").resolve("booking-service.jsonl");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("services.calendar.url", () -> "http://localhost:" + DOWNSTREAM.port());
+        registry.add("tracing.export.file", TRACES::toString);
+    }
+
+    @AfterAll
+    static void stopDownstream() {
+        DOWNSTREAM.disposeNow();
+    }
+
+    @Autowired
+    private ObservationRegistry observationRegistry;
+
+    @Autowired
+    private Tracer tracer;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Autowired
+    @Qualifier("calendarWebClient")
+    private WebClient calendarWebClient;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void downstreamAndRepositoryCallsJoinTheCurrentTrace() throws IOException {
+        String traceId;
+        String traceParent;
+        Observation request = Observation.start("test.request", observationRegistry);
+        try (Observation.Scope scope = request.openScope()) {
+            traceId = tracer.currentSpan().context().traceId();
+            bookingRepository.count();
+            traceParent = calendarWebClient.get().uri("/echo").retrieve().bodyToMono(String.class).block();
+        } finally {
+            request.stop();
+        }
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+
+        // W3C: 00-<traceId>-<spanId>-<flags>
+        assertThat(traceParent).startsWith("00-" + traceId + "-");
+
+        List<JsonNode> spans = Files.readAllLines(TRACES).stream().map(TracingTest::parse)
+                .filter(span -> span.get("traceId").asText().equals(traceId))
+                .toList();
+        JsonNode root = spans.stream().filter(span -> span.get("name").asText().equals("test.request")).findFirst().orElseThrow();
+        assertThat(spans)
+                .anySatisfy(span -> {
+                    assertThat(span.get("name").asText()).isEqualTo("booking-repository.count");
+                    assertThat(span.get("parentSpanId").asText()).isEqualTo(root.get("spanId").asText());
+                })
+                .anySatisfy(span -> {
+                    assertThat(span.get("kind").asText()).isEqualTo("CLIENT");
+                    assertThat(traceParent).contains(span.get("spanId").asText());
+                    assertThat(span.get("service").asText()).isEqualTo("booking-service");
+                });
+    }
+
+    private static JsonNode parse(String line) {
+        try {
+            return MAPPER.readTree(line);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package si.fri.prpo.bookingservice.config;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.internal.shaded.reactor.pool.PoolAcquirePendingLimitException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WebClientConfigTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DisposableServer server;
+    private WebClientConfig config;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        Metrics.addRegistry(meterRegistry);
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes
+                        .get("/fast/{id}", (request, response) -> response.sendString(Mono.just("ok")))
+                        .get("/slow", (request, response) -> response.sendString(
+                                Mono.delay(Duration.ofMillis(3000)).thenReturn("late"))))
+                .bindNow();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("booking.http.response-timeout-ms", "5000")
+                .withProperty("booking.http.test.response-timeout-ms", "200")
+                .withProperty("booking.http.test.max-connections", "1")
+                .withProperty("booking.http.test.pending-acquire-max-count", "1");
+        config = new WebClientConfig(environment, ObservationRegistry.NOOP);
+    }
+
+    @AfterEach
+    void tearDown() {
+        config.disposeConnectionProviders();
+        server.disposeNow();
+        Metrics.removeRegistry(meterRegistry);
+    }
+
+    @Test
+    void slowDownstreamFailsAfterResponseTimeout() {
+        WebClient client = config.downstream("test", "http://localhost:" + server.port());
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> client.get().uri("/slow").retrieve().bodyToMono(String.class).block())
+                .hasRootCauseInstanceOf(ReadTimeoutException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofMillis(2000));
+    }
+
+    @Test
+    void poolRejectsCallsBeyondConnectionsAndPendingLimit() {
+        WebClient client = config.downstream("test", "http://localhost:" + server.port());
+
+        // Ena povezava, en čakajoči: tretji sočasni klic se zavrne takoj
+        List<Throwable> errors = Flux.range(0, 3)
+                .flatMap(i -> client.get().uri("/slow").retrieve().bodyToMono(String.class)
+                        .then(Mono.<Throwable>empty())
+                        .onErrorResume(Mono::just))
+                .collectList()
+                .block();
+
+        assertThat(errors).anySatisfy(error ->
+                assertThat(error).hasRootCauseInstanceOf(PoolAcquirePendingLimitException.class));
+        assertThat(meterRegistry.get("reactor.netty.connection.provider.max.connections")
+                .tag("name", "booking-test").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void latencyIsRecordedPerHostWithIdsCollapsed() {
+        WebClient client = config.downstream("test", "http://localhost:" + server.port());
+
+        client.get().uri("/fast/42").retrieve().bodyToMono(String.class).block();
+        client.get().uri("/fast/43?x=1").retrieve().bodyToMono(String.class).block();
+
+        assertThat(meterRegistry.get("reactor.netty.http.client.response.time")
+                .tag("uri", "/fast/{id}").timer().count()).isEqualTo(2);
+        assertThat(WebClientConfig.uriTag("/api/bookings/7/calendar?x=1")).isEqualTo("/api/bookings/{id}/calendar");
+    }
+}
@@ -0,0 +1,135 @@
+package si.fri.prpo.bookingservice.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import si.fri.prpo.bookingservice.dto.BookingRequest;
+import si.fri.prpo.bookingservice.dto.BookingResponse;
+import si.fri.prpo.bookingservice.dto.UpdateBookingStatusRequest;
+import si.fri.prpo.bookingservice.entity.Booking.BookingStatus;
+import si.fri.prpo.bookingservice.repository.BookingRepository;
+import si.fri.prpo.bookingservice.repository.OutboxEventRepository;
+import si.fri.prpo.bookingservice.service.BookingService;
+import si.fri.prpo.commons.internal.InternalApiGuard;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @BeforeEach
+    void cleanUp() {
+        outboxEventRepository.deleteAll();
+        bookingRepository.deleteAll();
+    }
+
+    @Test
+    void bookingIsNotResentUntilItChanges() throws Exception {
+        BookingResponse booking = bookingService.createBooking(31L, request(6));
+
+        String eTag = eTagOf("/api/bookings/" + booking.getId(), 31L);
+        mockMvc.perform(get("/api/bookings/{id}", booking.getId())
+                        .header("X-User-Id", "31")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        bookingService.updateBookingStatus(booking.getId(), 31L,
+                UpdateBookingStatusRequest.builder().status(BookingStatus.CONFIRMED).build());
+
+        mockMvc.perform(get("/api/bookings/{id}", booking.getId())
+                        .header("X-User-Id", "31")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CONFIRMED"));
+        assertThat(eTagOf("/api/bookings/" + booking.getId(), 31L)).isNotEqualTo(eTag);
+    }
+
+    @Test
+    void upcomingListTagChangesWithNewBookingsOnly() throws Exception {
+        bookingService.createBooking(32L, request(7));
+        String eTag = eTagOf("/api/bookings/my/upcoming", 32L);
+
+        // Rezervacija drugega uporabnika ne spremeni oznake
+        bookingService.createBooking(33L, request(8));
+        mockMvc.perform(get("/api/bookings/my/upcoming")
+                        .header("X-User-Id", "32")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        bookingService.createBooking(32L, request(9));
+        mockMvc.perform(get("/api/bookings/my/upcoming")
+                        .header("X-User-Id", "32")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2));
+    }
+
+    @Test
+    void foreignBookingIsRejectedWithoutTag() throws Exception {
+        BookingResponse booking = bookingService.createBooking(34L, request(10));
+
+        mockMvc.perform(get("/api/bookings/{id}", booking.getId())
+                        .header("X-User-Id", "35")
+                        .header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().is4xxClientError())
+                .andExpect(result -> assertThat(result.getResponse().getHeader(HttpHeaders.ETAG)).isNull());
+    }
+
+    @Test
+    void facilityChangedRequiresInternalToken() throws Exception {
+        mockMvc.perform(post("/api/bookings/internal/facilities/{id}/changed", 22L))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/bookings/internal/facilities/{id}/changed", 22L)
+                        .header(InternalApiGuard.HEADER, "wrong"))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(post("/api/bookings/internal/facilities/{id}/changed", 22L)
+                        .header(InternalApiGuard.HEADER, "test-internal-token"))
+                .andExpect(status().isNoContent());
+    }
+
+    private String eTagOf(String uri, Long userId) throws Exception {
+        String eTag = mockMvc.perform(get(uri).header("X-User-Id", String.valueOf(userId)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotNull();
+        return eTag;
+    }
+
+    private static BookingRequest request(int daysAhead) {
+        LocalDateTime start = LocalDateTime.now().plusDays(daysAhead).truncatedTo(ChronoUnit.HOURS);
+        return BookingRequest.builder()
+                .facilityId(22L)
+                .startTime(start)
+                .endTime(start.plusHours(1))
+                .build();
+    }
+}
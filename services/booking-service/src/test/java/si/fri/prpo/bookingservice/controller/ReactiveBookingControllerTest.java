@@ -0,0 +1,196 @@
+package si.fri.prpo.bookingservice.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import si.fri.prpo.bookingservice.dto.AvailabilityDelta;
+import si.fri.prpo.bookingservice.dto.BookingRequest;
+import si.fri.prpo.bookingservice.dto.BookingResponse;
+import si.fri.prpo.bookingservice.entity.Booking.BookingStatus;
+import si.fri.prpo.bookingservice.entity.OutboxEvent;
+import si.fri.prpo.bookingservice.entity.OutboxEvent.EventType;
+import si.fri.prpo.bookingservice.repository.BookingRepository;
+import si.fri.prpo.bookingservice.repository.OutboxEventRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:reactivedb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "spring.r2dbc.url=r2dbc:h2:mem:///reactivedb?options=MODE=PostgreSQL;DB_CLOSE_DELAY=-1"
+        })
+@AutoConfigureWebTestClient
+@ActiveProfiles({"reactive", "test"})
+class ReactiveBookingControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @BeforeEach
+    void cleanUp() {
+        outboxEventRepository.deleteAll();
+        bookingRepository.deleteAll();
+    }
+
+    @Test
+    void createsBookingWithOutboxEventAndRejectsOverlap() {
+        BookingResponse created = create(7L, request(3))
+                .expectStatus().isCreated()
+                .expectBody(BookingResponse.class)
+                .returnResult().getResponseBody();
+
+        assertThat(created).isNotNull();
+        assertThat(created.getStatus()).isEqualTo(BookingStatus.PENDING);
+        assertThat(outboxEventRepository.findAll())
+                .extracting(OutboxEvent::getEventType)
+                .containsExactly(EventType.BOOKING_CREATED);
+
+        create(8L, request(3)).expectStatus().isEqualTo(HttpStatus.CONFLICT);
+
+        webTestClient.get().uri("/api/bookings/my")
+                .header("X-User-Id", "7")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(1)
+                .jsonPath("$.nextCursor").doesNotExist();
+    }
+
+    @Test
+    void cancelledSlotCanBeBookedAgain() {
+        BookingResponse created = create(7L, request(4))
+                .expectStatus().isCreated()
+                .expectBody(BookingResponse.class)
+                .returnResult().getResponseBody();
+
+        webTestClient.delete().uri("/api/bookings/{id}", created.getId())
+                .header("X-User-Id", "8")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+
+        webTestClient.delete().uri("/api/bookings/{id}", created.getId())
+                .header("X-User-Id", "7")
+                .exchange()
+                .expectStatus().isNoContent();
+
+        assertThat(bookingRepository.findById(created.getId()))
+                .get().extracting("status").isEqualTo(BookingStatus.CANCELLED);
+        create(8L, request(4)).expectStatus().isCreated();
+    }
+
+    @Test
+    void conditionalReadsAnswerNotModifiedUntilBookingChanges() {
+        BookingResponse created = create(7L, request(5))
+                .expectStatus().isCreated()
+                .expectBody(BookingResponse.class)
+                .returnResult().getResponseBody();
+
+        String eTag = webTestClient.get().uri("/api/bookings/{id}", created.getId())
+                .header("X-User-Id", "7")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(BookingResponse.class).getResponseHeaders().getETag();
+        String listETag = webTestClient.get().uri("/api/bookings/my/upcoming")
+                .header("X-User-Id", "7")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+        assertThat(eTag).isNotNull();
+        assertThat(listETag).isNotNull();
+
+        webTestClient.get().uri("/api/bookings/{id}", created.getId())
+                .header("X-User-Id", "7")
+                .header("If-None-Match", eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+
+        webTestClient.delete().uri("/api/bookings/{id}", created.getId())
+                .header("X-User-Id", "7")
+                .exchange()
+                .expectStatus().isNoContent();
+
+        webTestClient.get().uri("/api/bookings/{id}", created.getId())
+                .header("X-User-Id", "7")
+                .header("If-None-Match", eTag)
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get().uri("/api/bookings/my/upcoming")
+                .header("X-User-Id", "7")
+                .header("If-None-Match", listETag)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void availabilityStreamPushesResyncThenNewBooking() {
+        // Glava odgovora (in s tem naročnina) je poslana skupaj s prvim dogodkom resync
+        Flux<ServerSentEvent<AvailabilityDelta>> events = webTestClient.get()
+                .uri("/api/bookings/availability/stream?facilityIds=21,22")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Accel-Buffering", "no")
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<AvailabilityDelta>>() {
+                })
+                .getResponseBody();
+
+        BookingResponse created = create(7L, request(6))
+                .expectStatus().isCreated()
+                .expectBody(BookingResponse.class)
+                .returnResult().getResponseBody();
+
+        List<ServerSentEvent<AvailabilityDelta>> received = events
+                .filter(event -> event.event() != null)
+                .take(2)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+        assertThat(received).extracting(ServerSentEvent::event).containsExactly("resync", "booked");
+        assertThat(received.get(1).data().getBookingId()).isEqualTo(created.getId());
+        assertThat(received.get(1).data().getFacilityId()).isEqualTo(21L);
+    }
+
+    @Test
+    void invalidRequestIsRejectedWithValidationErrors() {
+        create(7L, BookingRequest.builder().build())
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.validationErrors.facilityId").exists();
+    }
+
+    private WebTestClient.ResponseSpec create(Long userId, BookingRequest request) {
+        return webTestClient.post().uri("/api/bookings")
+                .header("X-User-Id", String.valueOf(userId))
+                .bodyValue(request)
+                .exchange();
+    }
+
+    private static BookingRequest request(int daysAhead) {
+        LocalDateTime start = LocalDateTime.now().plusDays(daysAhead).truncatedTo(ChronoUnit.HOURS);
+        return BookingRequest.builder()
+                .facilityId(21L)
+                .startTime(start)
+                .endTime(start.plusHours(1))
+                .build();
+    }
+}
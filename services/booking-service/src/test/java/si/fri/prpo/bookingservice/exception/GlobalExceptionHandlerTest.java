@@ -0,0 +1,36 @@
+package si.fri.prpo.bookingservice.exception;
+
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void exclusionViolationIsConflict() {
+        DataIntegrityViolationException jdbc = new DataIntegrityViolationException("could not execute statement",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01"));
+        DataIntegrityViolationException r2dbc = new DataIntegrityViolationException("insert failed",
+                new R2dbcDataIntegrityViolationException("violates exclusion constraint \"bookings_no_overlap\""));
+
+        assertThat(handler.handleDataIntegrityViolation(jdbc).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(handler.handleDataIntegrityViolation(r2dbc).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void otherConstraintViolationsAreServerErrors() {
+        DataIntegrityViolationException notNull = new DataIntegrityViolationException("could not execute statement",
+                new SQLException("null value in column \"user_id\" violates not-null constraint", "23502"));
+
+        assertThat(GlobalExceptionHandler.isBookingOverlap(notNull)).isFalse();
+        assertThat(handler.handleDataIntegrityViolation(notNull).getStatusCode())
+                .isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+}
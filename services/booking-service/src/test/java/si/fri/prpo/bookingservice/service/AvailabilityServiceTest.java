@@ -0,0 +1,125 @@
+package si.fri.prpo.bookingservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import si.fri.prpo.bookingservice.dto.AvailabilityResponse;
+import si.fri.prpo.bookingservice.dto.FreeInterval;
+import si.fri.prpo.bookingservice.entity.Booking;
+import si.fri.prpo.bookingservice.repository.BookingInterval;
+import si.fri.prpo.bookingservice.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AvailabilityServiceTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private BookingRepository bookingRepository;
+    private AvailabilityService availabilityService;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = Mockito.mock(BookingRepository.class);
+        availabilityService = new AvailabilityService(bookingRepository, new SimpleMeterRegistry(), 60, 1000, 31);
+    }
+
+    @Test
+    void mergesBusyIntervalsAndReturnsAlignedGapsOfAtLeastOneHour() {
+        when(bookingRepository.findActiveIntervalsInRange(eq(7L), any(), any())).thenReturn(List.of(
+                interval(DAY.plusHours(9), DAY.plusHours(10).plusMinutes(15)),
+                interval(DAY.plusHours(10), DAY.plusHours(11)),
+                // 11:00-11:45 je prosto, a krajše od ure
+                interval(DAY.plusHours(11).plusMinutes(45), DAY.plusHours(13)),
+                interval(DAY.plusHours(20), DAY.plusDays(1).plusHours(2))));
+
+        AvailabilityResponse response = availabilityService.getAvailability(
+                7L, DAY.plusHours(8), DAY.plusDays(1).plusHours(6), 30);
+
+        assertThat(response.getFreeIntervals()).containsExactly(
+                free(DAY.plusHours(8), DAY.plusHours(9)),
+                free(DAY.plusHours(13), DAY.plusHours(20)),
+                free(DAY.plusDays(1).plusHours(2), DAY.plusDays(1).plusHours(6)));
+    }
+
+    @Test
+    void snapsGapsInwardToGranularity() {
+        when(bookingRepository.findActiveIntervalsInRange(eq(7L), any(), any())).thenReturn(List.of(
+                interval(DAY.plusHours(9), DAY.plusHours(9).plusMinutes(10)),
+                interval(DAY.plusHours(11).plusMinutes(5), DAY.plusHours(12))));
+
+        AvailabilityResponse response = availabilityService.getAvailability(
+                7L, DAY.plusHours(9), DAY.plusHours(12), 60);
+
+        // 09:10-11:05 poravnano na 10:00-11:00
+        assertThat(response.getFreeIntervals()).containsExactly(free(DAY.plusHours(10), DAY.plusHours(11)));
+    }
+
+    @Test
+    void cachesPerFacilityDayUntilABookingOnThatDayChanges() {
+        when(bookingRepository.findActiveIntervalsInRange(eq(7L), any(), any())).thenReturn(List.of());
+
+        availabilityService.getAvailability(7L, DAY.plusHours(8), DAY.plusHours(18), null);
+        availabilityService.getAvailability(7L, DAY.plusHours(10), DAY.plusHours(12), null);
+        verify(bookingRepository, times(1)).findActiveIntervalsInRange(eq(7L), any(), any());
+
+        // Rezervacija na drugem dnevu ne zavrže tega dne
+        availabilityService.evictAfterCommit(Booking.builder()
+                .facilityId(7L).startTime(DAY.plusDays(3)).endTime(DAY.plusDays(3).plusHours(1)).build());
+        availabilityService.getAvailability(7L, DAY.plusHours(8), DAY.plusHours(18), null);
+        verify(bookingRepository, times(1)).findActiveIntervalsInRange(eq(7L), any(), any());
+
+        availabilityService.evictAfterCommit(Booking.builder()
+                .facilityId(7L).startTime(DAY.plusHours(9)).endTime(DAY.plusHours(10)).build());
+        availabilityService.getAvailability(7L, DAY.plusHours(8), DAY.plusHours(18), null);
+        verify(bookingRepository, times(2)).findActiveIntervalsInRange(eq(7L), any(), any());
+    }
+
+    @Test
+    void rejectsInvalidRanges() {
+        assertThatThrownBy(() -> availabilityService.getAvailability(7L, DAY.plusHours(2), DAY, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> availabilityService.getAvailability(7L, DAY, DAY.plusDays(40), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> availabilityService.getAvailability(7L, DAY, DAY.plusDays(1), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static FreeInterval free(LocalDateTime start, LocalDateTime end) {
+        return FreeInterval.builder().startTime(start).endTime(end).build();
+    }
+
+    private static BookingInterval interval(LocalDateTime start, LocalDateTime end) {
+        return new BookingInterval() {
+            @Override
+            public Long getId() {
+                return 1L;
+            }
+
+            @Override
+            public Long getFacilityId() {
+                return 7L;
+            }
+
+            @Override
+            public LocalDateTime getStartTime() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEndTime() {
+                return end;
+            }
+        };
+    }
+}
@@ -0,0 +1,150 @@
+package si.fri.prpo.bookingservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.BaseSubscriber;
+import si.fri.prpo.bookingservice.dto.AvailabilityDelta;
+import si.fri.prpo.bookingservice.entity.Booking;
+import si.fri.prpo.bookingservice.entity.Booking.BookingStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AvailabilityStreamTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AvailabilityStream stream = new AvailabilityStream(meterRegistry, 4, 3600, 3, "local");
+
+    @Test
+    void subscriberGetsResyncThenDeltasOfItsFacilitiesOnly() {
+        Collector collector = subscribe(List.of(1L, 2L), Long.MAX_VALUE);
+        awaitUntil(() -> collector.events.size() == 1);
+
+        stream.publishAfterCommit(booking(10L, 1L, BookingStatus.PENDING, 2));
+        stream.publishAfterCommit(booking(11L, 3L, BookingStatus.PENDING, 2));
+        stream.publishAfterCommit(booking(10L, 1L, BookingStatus.CANCELLED, 2));
+        stream.publishAfterCommit(booking(12L, 2L, BookingStatus.COMPLETED, -2));
+
+        awaitUntil(() -> collector.events.size() == 3);
+        assertThat(collector.events).extracting(ServerSentEvent::event)
+                .containsExactly(AvailabilityStream.RESYNC, AvailabilityStream.BOOKED, AvailabilityStream.RELEASED);
+        assertThat(collector.events.get(0).data().getReason()).isEqualTo("subscribed");
+        assertThat(collector.events.get(1).data().getBookingId()).isEqualTo(10L);
+        assertThat(collector.events.get(2).data().getStatus()).isEqualTo(BookingStatus.CANCELLED);
+
+        collector.dispose();
+        assertThat(meterRegistry.get("booking.availability.stream.subscribers").gauge().value()).isZero();
+    }
+
+    @Test
+    void slowSubscriberDropsBufferedDeltasForOneResync() {
+        Collector collector = subscribe(List.of(1L), 1);
+        awaitUntil(() -> collector.events.size() == 1);
+
+        // Odjemalec ne bere: medpomnilnik (4) se prepolni in zaostale spremembe nadomesti resync
+        for (long id = 1; id <= 20; id++) {
+            stream.publishAfterCommit(booking(id, 1L, BookingStatus.PENDING, (int) id));
+        }
+        collector.request(Long.MAX_VALUE);
+
+        awaitUntil(() -> collector.events.stream().anyMatch(event -> event.data().getBookingId() != null
+                && event.data().getBookingId() == 20L));
+        // resync ob odprtju, največ en dogodek v publishOn in merge, medpomnilnik
+        assertThat(collector.events.size()).isLessThanOrEqualTo(1 + 2 + 4);
+        assertThat(collector.events).anySatisfy(event -> {
+            assertThat(event.event()).isEqualTo(AvailabilityStream.RESYNC);
+            assertThat(event.data().getReason()).isEqualTo("overflow");
+        });
+        assertThat(meterRegistry.get("booking.availability.stream.overflows").counter().count()).isPositive();
+        collector.dispose();
+    }
+
+    @Test
+    void databaseSourceIgnoresLocalWritesAndResyncsOnReconnect() {
+        AvailabilityStream shared = new AvailabilityStream(meterRegistry, 4, 3600, 3, "database");
+        Collector collector = new Collector(Long.MAX_VALUE);
+        shared.subscribe(List.of(1L, 2L)).subscribe(collector);
+        awaitUntil(() -> collector.events.size() == 1);
+
+        // Lastno pisanje pride po sprožilcu kot vsako drugo, ne ob potrditvi
+        shared.publishAfterCommit(booking(10L, 1L, BookingStatus.PENDING, 2));
+        shared.publish(AvailabilityDelta.builder().facilityId(2L).bookingId(11L)
+                .startTime(LocalDateTime.now().plusHours(1)).endTime(LocalDateTime.now().plusHours(2))
+                .status(BookingStatus.CANCELLED).build());
+        shared.resyncAll("reconnected");
+
+        awaitUntil(() -> collector.events.size() == 3);
+        assertThat(collector.events).extracting(ServerSentEvent::event)
+                .containsExactly(AvailabilityStream.RESYNC, AvailabilityStream.RELEASED, AvailabilityStream.RESYNC);
+        assertThat(collector.events.get(1).data().getBookingId()).isEqualTo(11L);
+        assertThat(collector.events.get(2).data().getReason()).isEqualTo("reconnected");
+        collector.dispose();
+    }
+
+    @Test
+    void rejectsTooManyFacilities() {
+        assertThatThrownBy(() -> stream.subscribe(List.of(1L, 2L, 3L, 4L)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> stream.subscribe(List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private Collector subscribe(List<Long> facilityIds, long initialRequest) {
+        Collector collector = new Collector(initialRequest);
+        stream.subscribe(facilityIds).subscribe(collector);
+        return collector;
+    }
+
+    private static Booking booking(Long id, Long facilityId, BookingStatus status, int hoursAhead) {
+        LocalDateTime start = LocalDateTime.now().plusHours(hoursAhead).truncatedTo(ChronoUnit.HOURS);
+        return Booking.builder()
+                .id(id)
+                .facilityId(facilityId)
+                .startTime(start)
+                .endTime(start.plus(Duration.ofHours(1)))
+                .status(status)
+                .build();
+    }
+
+    private static final class Collector extends BaseSubscriber<ServerSentEvent<AvailabilityDelta>> {
+
+        private final List<ServerSentEvent<AvailabilityDelta>> events = new CopyOnWriteArrayList<>();
+        private final long initialRequest;
+
+        private Collector(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            request(initialRequest);
+        }
+
+        @Override
+        protected void hookOnNext(ServerSentEvent<AvailabilityDelta> event) {
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package si.fri.prpo.bookingservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+import si.fri.prpo.bookingservice.client.CalendarClient;
+import si.fri.prpo.bookingservice.client.NotificationClient;
+import si.fri.prpo.bookingservice.client.PaymentClient;
+import si.fri.prpo.bookingservice.dto.BookingEventPayload;
+import si.fri.prpo.bookingservice.dto.external.CalendarEventResponse;
+import si.fri.prpo.bookingservice.dto.external.NotificationResponse;
+import si.fri.prpo.bookingservice.dto.external.PaymentCheckoutResponse;
+import si.fri.prpo.bookingservice.entity.Booking;
+import si.fri.prpo.bookingservice.entity.OutboxEvent.EventType;
+import si.fri.prpo.bookingservice.repository.BookingRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingIntegrationServiceTest {
+
+    private static final Duration CALL_LATENCY = Duration.ofMillis(300);
+
+    private PaymentClient paymentClient;
+    private CalendarClient calendarClient;
+    private NotificationClient notificationClient;
+    private SimpleMeterRegistry meterRegistry;
+    private BookingRepository bookingRepository;
+    private BookingIntegrationService service;
+
+    @BeforeEach
+    void setUp() {
+        paymentClient = Mockito.mock(PaymentClient.class);
+        calendarClient = Mockito.mock(CalendarClient.class);
+        notificationClient = Mockito.mock(NotificationClient.class);
+        meterRegistry = new SimpleMeterRegistry();
+        NotificationEnrichment notificationEnrichment = Mockito.mock(NotificationEnrichment.class);
+        when(notificationEnrichment.email(anyLong())).thenReturn("user@example.com");
+        when(notificationEnrichment.emails(any())).thenReturn(Map.of(2L, "user@example.com"));
+        when(notificationEnrichment.facility(anyLong()))
+                .thenReturn(new NotificationEnrichment.FacilityInfo("Court", "Main street 1"));
+        bookingRepository = Mockito.mock(BookingRepository.class);
+        service = new BookingIntegrationService(paymentClient, calendarClient, notificationClient, meterRegistry,
+                bookingRepository, notificationEnrichment);
+
+        when(paymentClient.createCheckoutSessionAsync(any())).thenReturn(
+                Mono.delay(CALL_LATENCY).thenReturn(PaymentCheckoutResponse.builder().id(10L).sessionId("cs_1").build()));
+        when(calendarClient.createCalendarEventAsync(any())).thenReturn(
+                Mono.delay(CALL_LATENCY).thenReturn(CalendarEventResponse.builder().id(20L).build()));
+        when(notificationClient.sendPaymentConfirmationAsync(anyLong(), anyLong(), anyLong(), anyString(), anyString()))
+                .thenReturn(Mono.delay(CALL_LATENCY).thenReturn(new NotificationResponse()));
+        when(notificationClient.sendCalendarEventCreatedAsync(anyLong(), anyLong(), anyLong(), anyString(), anyString()))
+                .thenReturn(Mono.delay(CALL_LATENCY).thenReturn(new NotificationResponse()));
+    }
+
+    @Test
+    void confirmationRunsIndependentStepsConcurrently() {
+        BookingEventPayload payload = payload();
+
+        long start = System.nanoTime();
+        service.deliver(EventType.BOOKING_CONFIRMED, payload);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // dve zaporedni stopnji namesto štirih
+        assertThat(elapsed).isLessThan(CALL_LATENCY.multipliedBy(3));
+        assertThat(payload.getPaymentId()).isEqualTo(10L);
+        assertThat(payload.getCalendarEventId()).isEqualTo(20L);
+        assertThat(payload.isPaymentNotified()).isTrue();
+        assertThat(payload.isCalendarNotified()).isTrue();
+        assertThat(meterRegistry.get("booking.integration.step").tag("step", "payment").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("booking.integration.confirmed").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failedPaymentDoesNotStopCalendarBranchAndRetrySkipsCompletedSteps() {
+        when(paymentClient.createCheckoutSessionAsync(any()))
+                .thenReturn(Mono.error(new RuntimeException("Failed to create payment session")));
+        BookingEventPayload payload = payload();
+
+        assertThatThrownBy(() -> service.deliver(EventType.BOOKING_CONFIRMED, payload))
+                .hasMessageContaining("payment");
+        assertThat(payload.getPaymentId()).isNull();
+        assertThat(payload.getCalendarEventId()).isEqualTo(20L);
+        assertThat(payload.isCalendarNotified()).isTrue();
+
+        Mockito.clearInvocations(calendarClient, notificationClient);
+        when(paymentClient.createCheckoutSessionAsync(any())).thenReturn(
+                Mono.just(PaymentCheckoutResponse.builder().id(10L).build()));
+        service.deliver(EventType.BOOKING_CONFIRMED, payload);
+
+        verify(calendarClient, never()).createCalendarEventAsync(any());
+        verify(notificationClient, never()).sendCalendarEventCreatedAsync(anyLong(), anyLong(), anyLong(), anyString(), anyString());
+        assertThat(payload.isPaymentNotified()).isTrue();
+    }
+
+    @Test
+    void completedBatchNotifiesEachBookingOnceAcrossRetries() {
+        when(bookingRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> Booking.builder().id(id).userId(2L).facilityId(3L).build()).toList();
+        });
+        when(notificationClient.sendBookingCompleted(anyLong(), eq(5L), anyString(), anyString()))
+                .thenReturn(new NotificationResponse());
+        when(notificationClient.sendBookingCompleted(anyLong(), eq(6L), anyString(), anyString()))
+                .thenReturn(null)
+                .thenReturn(new NotificationResponse());
+        BookingEventPayload batch = BookingEventPayload.builder()
+                .bookingId(5L)
+                .bookingIds(new ArrayList<>(List.of(5L, 6L)))
+                .build();
+
+        assertThatThrownBy(() -> service.deliver(EventType.BOOKINGS_COMPLETED, batch))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(batch.getBookingIds()).containsExactly(6L);
+
+        service.deliver(EventType.BOOKINGS_COMPLETED, batch);
+
+        assertThat(batch.getBookingIds()).isEmpty();
+        verify(notificationClient, times(1)).sendBookingCompleted(2L, 5L, "user@example.com", "Court");
+        verify(notificationClient, never()).sendBookingCancellation(anyLong(), anyLong(), anyString(), anyString());
+    }
+
+    private static BookingEventPayload payload() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        return BookingEventPayload.builder()
+                .bookingId(1L)
+                .userId(2L)
+                .facilityId(3L)
+                .startTime(start)
+                .endTime(start.plusHours(2))
+                .totalPrice(new BigDecimal("30.00"))
+                .build();
+    }
+}
@@ -0,0 +1,104 @@
+package si.fri.prpo.bookingservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import si.fri.prpo.bookingservice.entity.Booking;
+import si.fri.prpo.bookingservice.entity.Booking.BookingStatus;
+import si.fri.prpo.bookingservice.entity.OutboxEvent;
+import si.fri.prpo.bookingservice.entity.OutboxEvent.EventType;
+import si.fri.prpo.bookingservice.repository.BookingRepository;
+import si.fri.prpo.bookingservice.repository.OutboxEventRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingLifecycleSweeperTest {
+
+    @Autowired
+    private BookingLifecycleSweeper sweeper;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        bookingRepository.deleteAll();
+        // Majhni kosi, da sweeper naredi več transakcij
+        ReflectionTestUtils.setField(sweeper, "chunkSize", 2);
+    }
+
+    @Test
+    void completesEndedAndExpiresStartedPendingBookingsInChunks() {
+        Booking ended1 = save(BookingStatus.CONFIRMED, now.minusDays(2));
+        Booking ended2 = save(BookingStatus.CONFIRMED, now.minusDays(1));
+        Booking ended3 = save(BookingStatus.CONFIRMED, now.minusHours(5));
+        Booking upcoming = save(BookingStatus.CONFIRMED, now.plusDays(1));
+        Booking startedPending = save(BookingStatus.PENDING, now.minusHours(3));
+        Booking futurePending = save(BookingStatus.PENDING, now.plusDays(2));
+        Booking cancelled = save(BookingStatus.CANCELLED, now.minusDays(3));
+
+        sweeper.sweep();
+
+        assertThat(status(ended1)).isEqualTo(BookingStatus.COMPLETED);
+        assertThat(status(ended2)).isEqualTo(BookingStatus.COMPLETED);
+        assertThat(status(ended3)).isEqualTo(BookingStatus.COMPLETED);
+        assertThat(status(upcoming)).isEqualTo(BookingStatus.CONFIRMED);
+        assertThat(status(startedPending)).isEqualTo(BookingStatus.CANCELLED);
+        assertThat(status(futurePending)).isEqualTo(BookingStatus.PENDING);
+        assertThat(status(cancelled)).isEqualTo(BookingStatus.CANCELLED);
+
+        List<OutboxEvent> events = outboxEventRepository.findAll();
+        assertThat(events).filteredOn(event -> event.getEventType() == EventType.BOOKINGS_COMPLETED)
+                .flatExtracting(event -> outboxService.readPayload(event).getBookingIds())
+                .containsExactlyInAnyOrder(ended1.getId(), ended2.getId(), ended3.getId());
+        assertThat(events).filteredOn(event -> event.getEventType() == EventType.BOOKINGS_COMPLETED).hasSize(2);
+        assertThat(events).filteredOn(event -> event.getEventType() == EventType.BOOKINGS_EXPIRED)
+                .flatExtracting(event -> outboxService.readPayload(event).getBookingIds())
+                .containsExactly(startedPending.getId());
+    }
+
+    @Test
+    void secondSweepFindsNothingToDo() {
+        save(BookingStatus.CONFIRMED, now.minusDays(1));
+        sweeper.sweep();
+        long events = outboxEventRepository.count();
+
+        sweeper.sweep();
+
+        assertThat(outboxEventRepository.count()).isEqualTo(events);
+    }
+
+    private BookingStatus status(Booking booking) {
+        return bookingRepository.findById(booking.getId()).orElseThrow().getStatus();
+    }
+
+    private Booking save(BookingStatus status, LocalDateTime start) {
+        return bookingRepository.save(Booking.builder()
+                .userId(41L)
+                .facilityId(71L)
+                .startTime(start)
+                .endTime(start.plusHours(1))
+                .status(status)
+                .totalPrice(new BigDecimal("15.00"))
+                .build());
+    }
+}
@@ -0,0 +1,76 @@
+package si.fri.prpo.bookingservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import si.fri.prpo.bookingservice.dto.BookingRequest;
+import si.fri.prpo.bookingservice.dto.BookingResponse;
+import si.fri.prpo.bookingservice.repository.BookingRepository;
+import si.fri.prpo.bookingservice.repository.OutboxEventRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class BookingMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @BeforeEach
+    void cleanUp() {
+        outboxEventRepository.deleteAll();
+        bookingRepository.deleteAll();
+    }
+
+    @Test
+    void bookingPhasesAndConflictsAreScraped() throws Exception {
+        BookingResponse booking = bookingService.createBooking(41L, request(12));
+        assertThatThrownBy(() -> bookingService.createBooking(42L, request(12)))
+                .isInstanceOf(IllegalStateException.class);
+        bookingService.cancelBooking(booking.getId(), 41L);
+
+        String scrape = mockMvc.perform(get("/booking/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .contains("booking_phase_seconds_bucket{")
+                .containsPattern("booking_phase_seconds_count\\{[^}]*operation=\"create\"[^}]*phase=\"conflict-check\"[^}]*} 2")
+                .containsPattern("booking_phase_seconds_count\\{[^}]*operation=\"create\"[^}]*phase=\"save\"[^}]*} 1")
+                .containsPattern("booking_phase_seconds_count\\{[^}]*operation=\"cancel\"[^}]*phase=\"commit\"[^}]*} 1")
+                .containsPattern("booking_operation_seconds_count\\{[^}]*operation=\"create\"[^}]*outcome=\"rejected\"[^}]*} 1")
+                .containsPattern("booking_conflicts_total\\{[^}]*source=\"index\"[^}]*} 1");
+    }
+
+    private static BookingRequest request(int daysAhead) {
+        LocalDateTime start = LocalDateTime.now().plusDays(daysAhead).truncatedTo(ChronoUnit.HOURS);
+        return BookingRequest.builder()
+                .facilityId(23L)
+                .startTime(start)
+                .endTime(start.plusHours(1))
+                .build();
+    }
+}
@@ -0,0 +1,105 @@
+package si.fri.prpo.bookingservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import si.fri.prpo.bookingservice.dto.BookingPage;
+import si.fri.prpo.bookingservice.dto.BookingResponse;
+import si.fri.prpo.bookingservice.entity.Booking;
+import si.fri.prpo.bookingservice.entity.Booking.BookingStatus;
+import si.fri.prpo.bookingservice.repository.BookingRepository;
+import si.fri.prpo.bookingservice.repository.OutboxEventRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingPaginationTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    private final LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        bookingRepository.deleteAll();
+        // Dve rezervaciji z istim start_time preverita, da id razreši izenačenje
+        for (int day : new int[]{-3, -2, 1, 2, 2, 3, 4}) {
+            LocalDateTime start = base.plusDays(day);
+            bookingRepository.save(Booking.builder()
+                    .userId(9L)
+                    .facilityId(31L)
+                    .startTime(start)
+                    .endTime(start.plusHours(1))
+                    .status(BookingStatus.CONFIRMED)
+                    .totalPrice(new BigDecimal("15.00"))
+                    .build());
+        }
+    }
+
+    @Test
+    void walksAllBookingsNewestFirstWithoutGapsOrDuplicates() {
+        List<BookingResponse> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            BookingPage page = bookingService.getMyBookings(9L, cursor, 3);
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(3);
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).extracting(BookingResponse::getId).doesNotHaveDuplicates().hasSize(7);
+        for (int i = 1; i < seen.size(); i++) {
+            BookingResponse previous = seen.get(i - 1);
+            BookingResponse current = seen.get(i);
+            assertThat(current.getStartTime().isBefore(previous.getStartTime())
+                    || (current.getStartTime().equals(previous.getStartTime()) && current.getId() < previous.getId()))
+                    .isTrue();
+        }
+    }
+
+    @Test
+    void upcomingAndPastAreSplitAtNow() {
+        BookingPage upcoming = bookingService.getUpcomingBookings(9L, null, 2);
+        assertThat(upcoming.getItems()).extracting(BookingResponse::getStartTime)
+                .containsExactly(base.plusDays(1), base.plusDays(2));
+        BookingPage rest = bookingService.getUpcomingBookings(9L, upcoming.getNextCursor(), 10);
+        assertThat(rest.getItems()).hasSize(3);
+        assertThat(rest.getNextCursor()).isNull();
+
+        BookingPage past = bookingService.getPastBookings(9L, null, 10);
+        assertThat(past.getItems()).extracting(BookingResponse::getStartTime)
+                .containsExactly(base.plusDays(-2), base.plusDays(-3));
+    }
+
+    @Test
+    void pageSizeIsCappedAndInvalidInputRejected() {
+        BookingPage facility = bookingService.getBookingsByFacility(31L, null, 10_000);
+        assertThat(facility.getItems()).hasSize(7);
+
+        assertThatThrownBy(() -> bookingService.getMyBookings(9L, "not-a-cursor", 5))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> bookingService.getMyBookings(9L, null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
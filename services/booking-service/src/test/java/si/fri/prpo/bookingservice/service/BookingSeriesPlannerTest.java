@@ -0,0 +1,118 @@
+package si.fri.prpo.bookingservice.service;
+
+import org.junit.jupiter.api.Test;
+import si.fri.prpo.bookingservice.dto.BookingSeriesRequest;
+import si.fri.prpo.bookingservice.dto.BookingSeriesRequest.Frequency;
+import si.fri.prpo.bookingservice.dto.RejectedOccurrence;
+import si.fri.prpo.bookingservice.repository.BookingInterval;
+import si.fri.prpo.bookingservice.service.BookingSeriesPlanner.Occurrence;
+import si.fri.prpo.bookingservice.service.BookingSeriesPlanner.Plan;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookingSeriesPlannerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 7, 18, 0);
+
+    private final BookingSeriesPlanner planner = new BookingSeriesPlanner(new BookingRules(), 52);
+
+    @Test
+    void expandsWeeklySeriesByCount() {
+        List<Occurrence> occurrences = planner.expand(request(Frequency.WEEKLY, 2, 3, null));
+
+        assertThat(occurrences).containsExactly(
+                new Occurrence(START, START.plusHours(2)),
+                new Occurrence(START.plusWeeks(2), START.plusWeeks(2).plusHours(2)),
+                new Occurrence(START.plusWeeks(4), START.plusWeeks(4).plusHours(2)));
+    }
+
+    @Test
+    void expandsDailySeriesUntilInclusive() {
+        List<Occurrence> occurrences = planner.expand(request(Frequency.DAILY, null, null, START.plusDays(3)));
+
+        assertThat(occurrences).hasSize(4);
+        assertThat(occurrences.get(3).startTime()).isEqualTo(START.plusDays(3));
+    }
+
+    @Test
+    void rejectsSeriesWithoutEndOrAboveLimit() {
+        assertThatThrownBy(() -> planner.expand(request(Frequency.DAILY, 1, null, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> planner.expand(request(Frequency.DAILY, 1, 53, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> planner.expand(request(Frequency.DAILY, 1, null, START.plusYears(1))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsOccurrencesLongerThanThePeriod() {
+        BookingSeriesRequest request = request(Frequency.DAILY, 1, 3, null);
+        request.setEndTime(START.plusHours(25));
+
+        assertThatThrownBy(() -> planner.expand(request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("recurrence period");
+    }
+
+    @Test
+    void rejectsOnlyOccurrencesThatOverlapExistingBookings() {
+        List<Occurrence> occurrences = planner.expand(request(Frequency.WEEKLY, 1, 5, null));
+
+        Plan plan = planner.plan(occurrences, List.of(
+                // Konča se ravno ob začetku prvega termina
+                interval(START.minusHours(1), START),
+                // Dolga rezervacija čez drugi termin
+                interval(START.plusWeeks(1).minusDays(1), START.plusWeeks(1).plusHours(1)),
+                // Med tretjim in četrtim terminom
+                interval(START.plusWeeks(2).plusDays(1), START.plusWeeks(2).plusDays(2)),
+                // Začne se zadnjo minuto četrtega termina
+                interval(START.plusWeeks(3).plusMinutes(119), START.plusWeeks(3).plusHours(4))));
+
+        assertThat(plan.accepted()).extracting(Occurrence::startTime)
+                .containsExactly(START, START.plusWeeks(2), START.plusWeeks(4));
+        assertThat(plan.rejected()).extracting(RejectedOccurrence::getStartTime)
+                .containsExactly(START.plusWeeks(1), START.plusWeeks(3));
+        assertThat(plan.rejected()).allMatch(rejected -> rejected.getReason().equals(BookingSeriesPlanner.UNAVAILABLE));
+    }
+
+    private static BookingSeriesRequest request(Frequency frequency, Integer interval, Integer count,
+                                                LocalDateTime until) {
+        return BookingSeriesRequest.builder()
+                .facilityId(7L)
+                .startTime(START)
+                .endTime(START.plusHours(2))
+                .frequency(frequency)
+                .interval(interval)
+                .count(count)
+                .until(until)
+                .build();
+    }
+
+    private static BookingInterval interval(LocalDateTime start, LocalDateTime end) {
+        return new BookingInterval() {
+            @Override
+            public Long getId() {
+                return 1L;
+            }
+
+            @Override
+            public Long getFacilityId() {
+                return 7L;
+            }
+
+            @Override
+            public LocalDateTime getStartTime() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEndTime() {
+                return end;
+            }
+        };
+    }
+}
@@ -0,0 +1,125 @@
+package si.fri.prpo.bookingservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import si.fri.prpo.bookingservice.entity.Booking;
+import si.fri.prpo.bookingservice.entity.Booking.BookingStatus;
+import si.fri.prpo.bookingservice.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FacilityIntervalIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+    private BookingRepository bookingRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private FacilityIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = Mockito.mock(BookingRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(bookingRepository.findActiveIntervals(any())).thenReturn(List.of());
+        index = new FacilityIntervalIndex(bookingRepository, meterRegistry, true, false);
+        index.load();
+    }
+
+    @Test
+    void detectsOverlapWithIndexedBooking() {
+        index.updateAfterCommit(booking(1L, 7L, BASE, BASE.plusHours(2), BookingStatus.PENDING));
+        when(bookingRepository.existsConflictingBooking(Mockito.eq(7L), any(), any())).thenReturn(true);
+
+        assertThat(index.hasConflict(7L, BASE.plusHours(1), BASE.plusHours(3))).isTrue();
+        assertThat(index.hasConflict(7L, BASE.minusHours(1), BASE.plusMinutes(1))).isTrue();
+        assertThat(index.hasConflict(7L, BASE.plusHours(2), BASE.plusHours(3))).isFalse();
+        assertThat(index.hasConflict(7L, BASE.minusHours(2), BASE)).isFalse();
+        assertThat(index.hasConflict(8L, BASE, BASE.plusHours(2))).isFalse();
+        // Le zasedena termina potrdi baza, prosti ostanejo brez poizvedbe
+        verify(bookingRepository, times(2)).existsConflictingBooking(anyLong(), any(), any());
+        assertThat(meterRegistry.get("booking.conflict.index").tag("result", "hit").counter().count())
+                .isEqualTo(5.0);
+    }
+
+    @Test
+    void bookingCancelledByAnotherReplicaIsNotAConflict() {
+        index.updateAfterCommit(booking(1L, 7L, BASE, BASE.plusHours(2), BookingStatus.PENDING));
+        // Druga replika je rezervacijo preklicala: baza je ne vidi več, indeks tega poda pa še
+        when(bookingRepository.existsConflictingBooking(7L, BASE, BASE.plusHours(1))).thenReturn(false);
+        when(bookingRepository.findActiveIntervalsByFacilityId(Mockito.eq(7L), any())).thenReturn(List.of());
+
+        assertThat(index.hasConflict(7L, BASE, BASE.plusHours(1))).isFalse();
+        assertThat(meterRegistry.get("booking.conflict.index").tag("result", "miss").counter().count())
+                .isEqualTo(1.0);
+
+        // Posnetek je osvežen, naslednje preverjanje ne gre v bazo
+        assertThat(index.hasConflict(7L, BASE, BASE.plusHours(1))).isFalse();
+        verify(bookingRepository, times(1)).existsConflictingBooking(anyLong(), any(), any());
+    }
+
+    @Test
+    void pruneDropsOnlyEndedIntervals() {
+        LocalDateTime now = LocalDateTime.now();
+        index.updateAfterCommit(booking(1L, 7L, now.minusHours(3), now.minusHours(1), BookingStatus.CONFIRMED));
+        index.updateAfterCommit(booking(2L, 7L, now.plusHours(1), now.plusHours(2), BookingStatus.CONFIRMED));
+        index.updateAfterCommit(booking(3L, 8L, now.minusHours(2), now.minusHours(1), BookingStatus.PENDING));
+
+        index.pruneEnded();
+
+        assertThat(meterRegistry.get("booking.conflict.index.intervals").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void findsLongIntervalHiddenBehindShorterOnes() {
+        index.updateAfterCommit(booking(1L, 7L, BASE, BASE.plusHours(10), BookingStatus.CONFIRMED));
+        index.updateAfterCommit(booking(2L, 7L, BASE.plusHours(1), BASE.plusHours(2), BookingStatus.CONFIRMED));
+        when(bookingRepository.existsConflictingBooking(7L, BASE.plusHours(5), BASE.plusHours(6))).thenReturn(true);
+
+        assertThat(index.hasConflict(7L, BASE.plusHours(5), BASE.plusHours(6))).isTrue();
+        verify(bookingRepository, never()).findActiveIntervalsByFacilityId(anyLong(), any());
+    }
+
+    @Test
+    void cancelledBookingFreesTheSlot() {
+        Booking booking = booking(1L, 7L, BASE, BASE.plusHours(2), BookingStatus.PENDING);
+        index.updateAfterCommit(booking);
+        booking.setStatus(BookingStatus.CANCELLED);
+        index.updateAfterCommit(booking);
+
+        assertThat(index.hasConflict(7L, BASE, BASE.plusHours(2))).isFalse();
+    }
+
+    @Test
+    void staleIndexIsCorrectedByDatabaseCheck() {
+        index = new FacilityIntervalIndex(bookingRepository, meterRegistry, true, true);
+        index.load();
+        when(bookingRepository.existsConflictingBooking(7L, BASE, BASE.plusHours(1))).thenReturn(true);
+
+        assertThat(index.hasConflict(7L, BASE, BASE.plusHours(1))).isTrue();
+        assertThat(meterRegistry.get("booking.conflict.index").tag("result", "miss").counter().count())
+                .isEqualTo(1.0);
+        verify(bookingRepository).findActiveIntervalsByFacilityId(Mockito.eq(7L), any());
+    }
+
+    private static Booking booking(Long id, Long facilityId, LocalDateTime start, LocalDateTime end,
+                                   BookingStatus status) {
+        return Booking.builder()
+                .id(id)
+                .facilityId(facilityId)
+                .startTime(start)
+                .endTime(end)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package si.fri.prpo.bookingservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import si.fri.prpo.bookingservice.exception.FacilityBusyException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FacilityLockStripesTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void serializesWritesForTheSameFacility() throws Exception {
+        FacilityLockStripes stripes = new FacilityLockStripes(meterRegistry, 16, 5000);
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int i = 0; i < 100; i++) {
+            executor.submit(() -> stripes.withFacilityLock(7L, () -> {
+                maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                inside.decrementAndGet();
+                return null;
+            }));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(maxInside.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("booking.admission.wait").timer().count()).isEqualTo(100);
+    }
+
+    @Test
+    void differentStripesDoNotBlockEachOther() throws Exception {
+        FacilityLockStripes stripes = new FacilityLockStripes(meterRegistry, 16, 100);
+        long other = 1L;
+        while (stripes.stripeIndex(other) == stripes.stripeIndex(7L)) {
+            other++;
+        }
+        long otherFacility = other;
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> holder = executor.submit(() -> stripes.withFacilityLock(7L, () -> {
+            held.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        held.await();
+
+        assertThat(stripes.withFacilityLock(otherFacility, () -> "ok")).isEqualTo("ok");
+        assertThatThrownBy(() -> stripes.withFacilityLock(7L, () -> "blocked"))
+                .isInstanceOf(FacilityBusyException.class);
+
+        release.countDown();
+        holder.get();
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,111 @@
+package si.fri.prpo.bookingservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import si.fri.prpo.bookingservice.client.FacilityClient;
+import si.fri.prpo.bookingservice.dto.external.FacilityResponse;
+import si.fri.prpo.bookingservice.exception.DownstreamUnavailableException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FacilityPricingTest {
+
+    private FacilityClient facilityClient;
+    private SimpleMeterRegistry meterRegistry;
+    private FacilityPricing pricing;
+
+    @BeforeEach
+    void setUp() {
+        facilityClient = Mockito.mock(FacilityClient.class);
+        meterRegistry = new SimpleMeterRegistry();
+        pricing = new FacilityPricing(facilityClient, meterRegistry, 300, 3600, 100, 100);
+    }
+
+    @Test
+    void preloadedPricesAreServedWithoutPerFacilityCalls() {
+        when(facilityClient.getAllFacilitiesAsync()).thenReturn(Flux.just(facility(1L, "20.00"), facility(2L, "32.50")));
+
+        pricing.refreshAll();
+
+        assertThat(pricing.pricePerHour(1L)).isEqualByComparingTo("20.00");
+        assertThat(pricing.pricePerHourAsync(2L).block()).isEqualByComparingTo("32.50");
+        verify(facilityClient, never()).getFacilityAsync(anyLong());
+    }
+
+    @Test
+    void slowLookupIsRejectedAndCompletesInBackground() throws InterruptedException {
+        when(facilityClient.getFacilityAsync(3L))
+                .thenReturn(Mono.delay(Duration.ofMillis(400)).thenReturn(facility(3L, "40.00")));
+
+        // Zgrešen vnos čaka največ lookup-timeout-ms, nato 503 namesto izmišljene cene
+        assertThatThrownBy(() -> pricing.pricePerHour(3L))
+                .isInstanceOf(DownstreamUnavailableException.class);
+        assertThat(meterRegistry.get("booking.pricing.failures").tag("reason", "unavailable").counter().count())
+                .isEqualTo(1);
+
+        // Nalaganje se ob preteku časa ne prekine in napolni predpomnilnik
+        Thread.sleep(600);
+        assertThat(pricing.pricePerHour(3L)).isEqualByComparingTo("40.00");
+        verify(facilityClient, times(1)).getFacilityAsync(3L);
+    }
+
+    @Test
+    void unavailableFacilityServiceIsNotCached() {
+        when(facilityClient.getFacilityAsync(4L))
+                .thenReturn(Mono.error(new IllegalStateException("connection refused")))
+                .thenReturn(Mono.just(facility(4L, "18.00")));
+
+        assertThatThrownBy(() -> pricing.pricePerHourAsync(4L).block())
+                .isInstanceOf(DownstreamUnavailableException.class);
+        assertThat(pricing.pricePerHour(4L)).isEqualByComparingTo("18.00");
+    }
+
+    @Test
+    void unknownOrUnpricedFacilityIsRejected() {
+        when(facilityClient.getFacilityAsync(6L)).thenReturn(Mono.error(WebClientResponseException.create(
+                404, "Not Found", HttpHeaders.EMPTY, new byte[0], null)));
+        when(facilityClient.getFacilityAsync(7L)).thenReturn(Mono.just(FacilityResponse.builder().id(7L).build()));
+
+        assertThatThrownBy(() -> pricing.pricePerHour(6L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("does not exist");
+        assertThatThrownBy(() -> pricing.pricePerHourAsync(7L).block())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("no hourly price");
+        assertThat(meterRegistry.get("booking.pricing.failures").tag("reason", "unknown").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void invalidateReloadsTheChangedFacility() {
+        when(facilityClient.getAllFacilitiesAsync()).thenReturn(Flux.just(facility(5L, "20.00")));
+        when(facilityClient.getFacilityAsync(5L)).thenReturn(Mono.just(facility(5L, "25.00")));
+        pricing.refreshAll();
+
+        pricing.invalidate(5L);
+
+        assertThat(pricing.pricePerHour(5L)).isEqualByComparingTo("25.00");
+    }
+
+    private FacilityResponse facility(Long id, String pricePerHour) {
+        return FacilityResponse.builder()
+                .id(id)
+                .pricePerHour(new BigDecimal(pricePerHour))
+                .build();
+    }
+}
@@ -0,0 +1,99 @@
+package si.fri.prpo.bookingservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import si.fri.prpo.bookingservice.entity.Booking;
+import si.fri.prpo.bookingservice.entity.Booking.BookingStatus;
+import si.fri.prpo.bookingservice.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class FacilitySlotBitmapsTest {
+
+    private static final LocalDateTime SATURDAY = LocalDateTime.of(2030, 1, 5, 0, 0);
+
+    private FacilitySlotBitmaps bitmaps;
+
+    @BeforeEach
+    void setUp() {
+        BookingRepository bookingRepository = Mockito.mock(BookingRepository.class);
+        when(bookingRepository.findActiveIntervals(any())).thenReturn(List.of());
+        bitmaps = new FacilitySlotBitmaps(bookingRepository, new SimpleMeterRegistry(), 7);
+        bitmaps.rebuild();
+    }
+
+    @Test
+    void returnsFacilitiesFreeForTheWholeWindow() {
+        bitmaps.updateAfterCommit(booking(1L, 1L, SATURDAY.plusHours(19), SATURDAY.plusHours(21), BookingStatus.CONFIRMED));
+        bitmaps.updateAfterCommit(booking(2L, 2L, SATURDAY.plusHours(16), SATURDAY.plusHours(18), BookingStatus.PENDING));
+        bitmaps.updateAfterCommit(booking(3L, 3L, SATURDAY.plusHours(18), SATURDAY.plusHours(19), BookingStatus.CANCELLED));
+
+        assertThat(bitmaps.findFree(List.of(1L, 2L, 3L, 4L), SATURDAY.plusHours(18), SATURDAY.plusHours(20)))
+                .containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    void releasingABookingKeepsSlotsSharedWithAnother() {
+        // Oba zasedeta režo 10:00-10:15 (zaokroženo navzven)
+        bitmaps.updateAfterCommit(booking(1L, 5L, SATURDAY.plusHours(9), SATURDAY.plusHours(10).plusMinutes(5), BookingStatus.CONFIRMED));
+        bitmaps.updateAfterCommit(booking(2L, 5L, SATURDAY.plusHours(10).plusMinutes(5), SATURDAY.plusHours(11), BookingStatus.CONFIRMED));
+
+        bitmaps.updateAfterCommit(booking(1L, 5L, SATURDAY.plusHours(9), SATURDAY.plusHours(10).plusMinutes(5), BookingStatus.CANCELLED));
+
+        assertThat(bitmaps.findFree(List.of(5L), SATURDAY.plusHours(9), SATURDAY.plusHours(10))).containsExactly(5L);
+        assertThat(bitmaps.findFree(List.of(5L), SATURDAY.plusHours(10), SATURDAY.plusHours(10).plusMinutes(15))).isEmpty();
+    }
+
+    @Test
+    void handlesBookingsAndWindowsAcrossMidnightAndTheWordBoundary() {
+        bitmaps.updateAfterCommit(booking(1L, 6L, SATURDAY.plusHours(23), SATURDAY.plusHours(25), BookingStatus.CONFIRMED));
+        // Reža 64 (16:00) je prva v drugi besedi
+        bitmaps.updateAfterCommit(booking(2L, 7L, SATURDAY.plusHours(15).plusMinutes(45), SATURDAY.plusHours(16).plusMinutes(15), BookingStatus.CONFIRMED));
+
+        assertThat(bitmaps.findFree(List.of(6L), SATURDAY.plusHours(24).plusMinutes(45), SATURDAY.plusHours(26))).isEmpty();
+        assertThat(bitmaps.findFree(List.of(6L), SATURDAY.plusHours(25), SATURDAY.plusHours(26))).containsExactly(6L);
+        assertThat(bitmaps.findFree(List.of(7L), SATURDAY.plusHours(16), SATURDAY.plusHours(17))).isEmpty();
+        assertThat(bitmaps.findFree(List.of(7L), SATURDAY.plusHours(15), SATURDAY.plusHours(15).plusMinutes(45))).containsExactly(7L);
+        assertThat(bitmaps.findFree(List.of(7L), SATURDAY.plusHours(16).plusMinutes(15), SATURDAY.plusHours(24))).containsExactly(7L);
+    }
+
+    @Test
+    void searchesThousandsOfFacilities() {
+        LongStream.rangeClosed(1, 5000).filter(id -> id % 2 == 0).forEach(id ->
+                bitmaps.updateAfterCommit(booking(id, id, SATURDAY.plusHours(18), SATURDAY.plusHours(19), BookingStatus.CONFIRMED)));
+        List<Long> facilities = LongStream.rangeClosed(1, 5000).boxed().toList();
+
+        List<Long> free = bitmaps.findFree(facilities, SATURDAY.plusHours(18), SATURDAY.plusHours(20));
+
+        assertThat(free).hasSize(2500).allMatch(id -> id % 2 == 1);
+    }
+
+    @Test
+    void rejectsUnalignedOrOversizedWindows() {
+        assertThatThrownBy(() -> bitmaps.findFree(List.of(1L), SATURDAY.plusMinutes(10), SATURDAY.plusHours(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> bitmaps.findFree(List.of(1L), SATURDAY.plusHours(2), SATURDAY.plusHours(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> bitmaps.findFree(List.of(1L), SATURDAY, SATURDAY.plusDays(8)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Booking booking(Long id, Long facilityId, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return Booking.builder()
+                .id(id)
+                .facilityId(facilityId)
+                .startTime(start)
+                .endTime(end)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,105 @@
+package si.fri.prpo.bookingservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import si.fri.prpo.bookingservice.dto.BookingRequest;
+import si.fri.prpo.bookingservice.dto.BookingResponse;
+import si.fri.prpo.bookingservice.entity.IdempotencyRecord;
+import si.fri.prpo.bookingservice.repository.BookingRepository;
+import si.fri.prpo.bookingservice.repository.IdempotencyRecordRepository;
+import si.fri.prpo.bookingservice.repository.OutboxEventRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class IdempotencyServiceTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(5).truncatedTo(ChronoUnit.HOURS);
+
+    @BeforeEach
+    void cleanUp() {
+        idempotencyRecordRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+        bookingRepository.deleteAll();
+    }
+
+    @Test
+    void retryWithSameKeyReturnsOriginalResponseWithoutNewBooking() {
+        double hitsBefore = hits();
+
+        BookingResponse first = bookingService.createBooking(21L, request(51, start), "retry-1");
+        BookingResponse retry = bookingService.createBooking(21L, request(51, start), "retry-1");
+
+        assertThat(retry.getId()).isEqualTo(first.getId());
+        assertThat(bookingRepository.count()).isEqualTo(1);
+        assertThat(outboxEventRepository.count()).isEqualTo(1);
+        assertThat(hits()).isEqualTo(hitsBefore + 1);
+    }
+
+    @Test
+    void keysAreScopedPerUserAndBoundToTheRequestBody() {
+        bookingService.createBooking(21L, request(52, start), "shared");
+
+        assertThatThrownBy(() -> bookingService.createBooking(21L, request(52, start.plusHours(3)), "shared"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("different request");
+        // Drug uporabnik z istim ključem je nov zahtevek (in naleti na zaseden termin)
+        assertThatThrownBy(() -> bookingService.createBooking(22L, request(52, start), "shared"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void expiredKeysAreIgnoredAndPurged() {
+        BookingResponse first = bookingService.createBooking(21L, request(53, start), "expired");
+        IdempotencyRecord record = idempotencyRecordRepository.findByUserIdAndIdempotencyKey(21L, "expired")
+                .orElseThrow();
+        record.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        idempotencyRecordRepository.save(record);
+
+        assertThat(idempotencyService.recheck(21L, "expired", request(53, start))).isEmpty();
+        idempotencyService.purgeExpired();
+
+        assertThat(idempotencyRecordRepository.count()).isZero();
+        assertThat(bookingRepository.findById(first.getId())).isPresent();
+    }
+
+    private double hits() {
+        return meterRegistry.get("booking.idempotency.lookups").tag("result", "hit").counter().count();
+    }
+
+    // Vsak test ima svoj objekt, ker indeks intervalov ne ve za deleteAll med testi
+    private BookingRequest request(long facilityId, LocalDateTime startTime) {
+        return BookingRequest.builder()
+                .facilityId(facilityId)
+                .startTime(startTime)
+                .endTime(startTime.plusHours(2))
+                .build();
+    }
+}
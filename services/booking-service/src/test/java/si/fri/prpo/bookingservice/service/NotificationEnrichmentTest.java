@@ -0,0 +1,119 @@
+package si.fri.prpo.bookingservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+import si.fri.prpo.bookingservice.client.AuthClient;
+import si.fri.prpo.bookingservice.client.FacilityClient;
+import si.fri.prpo.bookingservice.dto.BookingEventPayload;
+import si.fri.prpo.bookingservice.dto.external.FacilityResponse;
+import si.fri.prpo.bookingservice.dto.external.UserResponse;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationEnrichmentTest {
+
+    private AuthClient authClient;
+    private FacilityClient facilityClient;
+    private SimpleMeterRegistry meterRegistry;
+    private NotificationEnrichment enrichment;
+
+    @BeforeEach
+    void setUp() {
+        authClient = Mockito.mock(AuthClient.class);
+        facilityClient = Mockito.mock(FacilityClient.class);
+        meterRegistry = new SimpleMeterRegistry();
+        enrichment = new NotificationEnrichment(authClient, facilityClient, meterRegistry, 600, 60, 100, 2, 1000);
+
+        when(authClient.getUsersAsync(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            // Uporabnik 99 ne obstaja
+            return Flux.fromIterable(ids)
+                    .filter(id -> id != 99L)
+                    .map(id -> UserResponse.builder().id(id).email("u" + id + "@mail.si").build());
+        });
+        when(facilityClient.getFacilitiesAsync(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return Flux.fromIterable(ids)
+                    .map(id -> FacilityResponse.builder().id(id).name("Court " + id).address("Street " + id).build());
+        });
+    }
+
+    @Test
+    void prefetchLoadsAllRecipientsInBatchesAndServesThemFromCache() {
+        enrichment.prefetch(List.of(event(1L, 10L), event(2L, 10L), event(3L, 11L), event(1L, 11L)));
+
+        assertThat(enrichment.email(1L)).isEqualTo("u1@mail.si");
+        assertThat(enrichment.emails(List.of(2L, 3L))).containsEntry(2L, "u2@mail.si").containsEntry(3L, "u3@mail.si");
+        assertThat(enrichment.facility(11L).location()).isEqualTo("Court 11, Street 11");
+        // Trije uporabniki v kosih po dva, oba objekta v enem klicu
+        verify(authClient, times(2)).getUsersAsync(any());
+        verify(facilityClient, times(1)).getFacilitiesAsync(any());
+    }
+
+    @Test
+    void unknownUsersAreNegativelyCachedAndRejected() {
+        assertThatThrownBy(() -> enrichment.email(99L)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> enrichment.emails(List.of(1L, 99L))).isInstanceOf(IllegalStateException.class);
+
+        // 99 je v negativnem predpomnilniku, drugi klic naloži le uporabnika 1
+        verify(authClient, times(2)).getUsersAsync(any());
+    }
+
+    @Test
+    void unknownFacilityFallsBackToPlaceholderName() {
+        doReturn(Flux.empty()).when(facilityClient).getFacilitiesAsync(any());
+
+        assertThat(enrichment.facility(42L).name()).isEqualTo("Facility #42");
+        assertThat(meterRegistry.get("booking.enrichment.fallbacks").tag("kind", "facility").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void concurrentLookupsOfTheSameUserShareOneCall() {
+        doAnswer(invocation -> Flux.just(UserResponse.builder().id(5L).email("u5@mail.si").build())
+                .delayElements(Duration.ofMillis(200)))
+                .when(authClient).getUsersAsync(any());
+
+        List<CompletableFuture<String>> lookups = List.of(
+                CompletableFuture.supplyAsync(() -> enrichment.email(5L)),
+                CompletableFuture.supplyAsync(() -> enrichment.email(5L)),
+                CompletableFuture.supplyAsync(() -> enrichment.email(5L)));
+
+        assertThat(lookups).allSatisfy(lookup -> assertThat(lookup.join()).isEqualTo("u5@mail.si"));
+        verify(authClient, times(1)).getUsersAsync(any());
+    }
+
+    @Test
+    void failedLookupThrowsWithoutCachingTheFailure() {
+        doReturn(Flux.error(new IllegalStateException("connection refused")))
+                .doReturn(Flux.just(UserResponse.builder().id(7L).email("u7@mail.si").build()))
+                .when(authClient).getUsersAsync(any());
+
+        assertThatThrownBy(() -> enrichment.emails(List.of(7L)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("lookup failed");
+        assertThat(enrichment.email(7L)).isEqualTo("u7@mail.si");
+    }
+
+    private BookingEventPayload event(Long userId, Long facilityId) {
+        return BookingEventPayload.builder()
+                .userId(userId)
+                .facilityId(facilityId)
+                .build();
+    }
+}
@@ -0,0 +1,127 @@
+package si.fri.prpo.bookingservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import reactor.core.publisher.Flux;
+import si.fri.prpo.bookingservice.client.AuthClient;
+import si.fri.prpo.bookingservice.client.NotificationClient;
+import si.fri.prpo.bookingservice.dto.BookingRequest;
+import si.fri.prpo.bookingservice.dto.BookingResponse;
+import si.fri.prpo.bookingservice.dto.external.NotificationResponse;
+import si.fri.prpo.bookingservice.dto.external.UserResponse;
+import si.fri.prpo.bookingservice.entity.OutboxEvent;
+import si.fri.prpo.bookingservice.entity.OutboxEvent.EventType;
+import si.fri.prpo.bookingservice.entity.OutboxEvent.OutboxStatus;
+import si.fri.prpo.bookingservice.repository.BookingRepository;
+import si.fri.prpo.bookingservice.repository.OutboxEventRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OutboxRelayTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @MockitoBean
+    private NotificationClient notificationClient;
+
+    @MockitoBean
+    private AuthClient authClient;
+
+    @BeforeEach
+    void cleanUp() {
+        outboxEventRepository.deleteAll();
+        bookingRepository.deleteAll();
+        when(authClient.getUsersAsync(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            // Uporabnik 404 ne obstaja
+            return Flux.fromIterable(ids)
+                    .filter(id -> id != 404L)
+                    .map(id -> UserResponse.builder().id(id).email("u" + id + "@mail.si").build());
+        });
+    }
+
+    @Test
+    void bookingCommitsWithoutCallingDownstreamAndRelayDeliversLater() {
+        when(notificationClient.sendBookingConfirmation(anyLong(), anyLong(), anyString(), anyString(), anyString()))
+                .thenReturn(NotificationResponse.builder().id(1L).status("SENT").build());
+
+        BookingResponse booking = bookingService.createBooking(5L, request(3));
+
+        verifyNoInteractions(notificationClient);
+        List<OutboxEvent> events = outboxEventRepository.findAll();
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getEventType()).isEqualTo(EventType.BOOKING_CREATED);
+        assertThat(events.get(0).getStatus()).isEqualTo(OutboxStatus.PENDING);
+
+        outboxRelay.relay();
+
+        verify(notificationClient).sendBookingConfirmation(eq(5L), eq(booking.getId()), eq("u5@mail.si"), anyString(), anyString());
+        OutboxEvent sent = outboxEventRepository.findAll().get(0);
+        assertThat(sent.getStatus()).isEqualTo(OutboxStatus.SENT);
+        assertThat(sent.getProcessedAt()).isNotNull();
+    }
+
+    @Test
+    void failedDeliveryIsRescheduledWithBackoff() {
+        when(notificationClient.sendBookingConfirmation(anyLong(), anyLong(), anyString(), anyString(), anyString()))
+                .thenReturn(null);
+
+        bookingService.createBooking(5L, request(4));
+        outboxRelay.relay();
+
+        OutboxEvent event = outboxEventRepository.findAll().get(0);
+        assertThat(event.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(event.getAttempts()).isEqualTo(1);
+        assertThat(event.getNextAttemptAt()).isAfter(LocalDateTime.now());
+        assertThat(event.getLastError()).isNotBlank();
+    }
+
+    @Test
+    void unknownRecipientIsRetriedInsteadOfSentToPlaceholder() {
+        bookingService.createBooking(404L, request(5));
+        outboxRelay.relay();
+
+        verifyNoInteractions(notificationClient);
+        OutboxEvent event = outboxEventRepository.findAll().get(0);
+        assertThat(event.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(event.getAttempts()).isEqualTo(1);
+        assertThat(event.getLastError()).contains("No e-mail for user 404");
+    }
+
+    private static BookingRequest request(int daysAhead) {
+        LocalDateTime start = LocalDateTime.now().plusDays(daysAhead).truncatedTo(ChronoUnit.HOURS);
+        return BookingRequest.builder()
+                .facilityId(11L)
+                .startTime(start)
+                .endTime(start.plusHours(1))
+                .build();
+    }
+}
@@ -0,0 +1,125 @@
+package si.fri.prpo.bookingservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import si.fri.prpo.bookingservice.dto.BookingRequest;
+import si.fri.prpo.bookingservice.dto.BookingResponse;
+import si.fri.prpo.bookingservice.dto.SlotHoldRequest;
+import si.fri.prpo.bookingservice.dto.SlotHoldResponse;
+import si.fri.prpo.bookingservice.entity.Booking.BookingStatus;
+import si.fri.prpo.bookingservice.entity.SlotHold;
+import si.fri.prpo.bookingservice.repository.SlotHoldRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {"booking.holds.ttl-seconds=2", "booking.holds.tick-ms=100"})
+@ActiveProfiles("test")
+class SlotHoldServiceTest {
+
+    @Autowired
+    private SlotHoldService slotHoldService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private SlotHoldRepository slotHoldRepository;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(6).truncatedTo(ChronoUnit.HOURS);
+
+    @BeforeEach
+    void cleanUp() {
+        slotHoldRepository.deleteAll();
+    }
+
+    @Test
+    void holdBlocksOthersAndConvertsIntoBooking() {
+        SlotHoldResponse hold = slotHoldService.createHold(31L, hold(61L, start));
+
+        assertThatThrownBy(() -> slotHoldService.createHold(32L, hold(61L, start.plusHours(1))))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> bookingService.createBooking(32L, booking(61L, start)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> bookingService.confirmHold(hold.getId(), 32L))
+                .isInstanceOf(IllegalStateException.class);
+
+        BookingResponse booking = bookingService.confirmHold(hold.getId(), 31L);
+
+        assertThat(booking.getStatus()).isEqualTo(BookingStatus.PENDING);
+        assertThat(booking.getStartTime()).isEqualTo(start);
+        assertThat(slotHoldRepository.findById(hold.getId())).isEmpty();
+        assertThatThrownBy(() -> bookingService.confirmHold(hold.getId(), 31L))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void releasedHoldFreesTheSlot() {
+        SlotHoldResponse hold = slotHoldService.createHold(31L, hold(62L, start));
+        slotHoldService.releaseHold(hold.getId(), 31L);
+
+        assertThat(slotHoldService.hasConflictingHold(62L, start, start.plusHours(2))).isFalse();
+        assertThat(slotHoldRepository.findById(hold.getId())).isEmpty();
+    }
+
+    @Test
+    void expiredHoldIsRemovedByTheWheelAndFromTheTable() throws InterruptedException {
+        SlotHoldResponse hold = slotHoldService.createHold(31L, hold(63L, start));
+        assertThat(slotHoldService.hasConflictingHold(63L, start, start.plusHours(2))).isTrue();
+
+        // Kolo se vrti na 100 ms, zadržitev velja 2 s
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (slotHoldRepository.existsById(hold.getId()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+
+        assertThat(slotHoldRepository.existsById(hold.getId())).isFalse();
+        assertThat(slotHoldService.hasConflictingHold(63L, start, start.plusHours(2))).isFalse();
+        assertThatThrownBy(() -> bookingService.confirmHold(hold.getId(), 31L))
+                .isInstanceOf(IllegalArgumentException.class);
+        // Termin je spet prost za rezervacijo
+        assertThat(bookingService.createBooking(32L, booking(63L, start)).getFacilityId()).isEqualTo(63L);
+    }
+
+    @Test
+    void holdWrittenByAnotherInstanceBlocksAndCanBeConfirmedHere() {
+        // Zadržitev, ki jo je ustvarila druga instanca: ta instanca je ni videla, pozna jo le tabela
+        SlotHold foreign = slotHoldRepository.save(SlotHold.builder()
+                .userId(33L)
+                .facilityId(64L)
+                .startTime(start)
+                .endTime(start.plusHours(2))
+                .expiresAt(LocalDateTime.now().plusMinutes(5))
+                .build());
+
+        assertThatThrownBy(() -> bookingService.createBooking(34L, booking(64L, start.plusHours(1))))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> slotHoldService.createHold(34L, hold(64L, start)))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(bookingService.confirmHold(foreign.getId(), 33L).getStartTime()).isEqualTo(start);
+        assertThat(slotHoldRepository.findById(foreign.getId())).isEmpty();
+    }
+
+    private static SlotHoldRequest hold(Long facilityId, LocalDateTime startTime) {
+        return SlotHoldRequest.builder()
+                .facilityId(facilityId)
+                .startTime(startTime)
+                .endTime(startTime.plusHours(2))
+                .build();
+    }
+
+    private static BookingRequest booking(Long facilityId, LocalDateTime startTime) {
+        return BookingRequest.builder()
+                .facilityId(facilityId)
+                .startTime(startTime)
+                .endTime(startTime.plusHours(2))
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package si.fri.prpo.bookingservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    @Test
+    void firesItemsOnlyOnceTheirDeadlinePassed() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0);
+        wheel.schedule("a", 250);
+        wheel.schedule("b", 300);
+
+        assertThat(wheel.advance(249)).isEmpty();
+        // Rok se zaokroži navzgor na tik, zato "a" pride na vrsto šele ob 300 ms
+        assertThat(wheel.advance(299)).isEmpty();
+        assertThat(wheel.advance(300)).containsExactlyInAnyOrder("a", "b");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void keepsDeadlinesBeyondOneRevolutionUntilTheirTurn() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0);
+        // Isti predal kot tik 3, vendar dva obrata kasneje
+        wheel.schedule("late", 1_900);
+        wheel.schedule("soon", 300);
+
+        assertThat(wheel.advance(300)).containsExactly("soon");
+        assertThat(wheel.advance(1_100)).isEmpty();
+        assertThat(wheel.advance(1_900)).containsExactly("late");
+    }
+
+    @Test
+    void catchesUpOnMissedTicksAndOverdueItems() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 1_000);
+        wheel.schedule("overdue", 500);
+        wheel.schedule("x", 1_150);
+        wheel.schedule("y", 1_420);
+
+        // Klicatelj zamudi več kot en obrat kolesa
+        assertThat(wheel.advance(5_000)).containsExactlyInAnyOrder("overdue", "x", "y");
+    }
+}
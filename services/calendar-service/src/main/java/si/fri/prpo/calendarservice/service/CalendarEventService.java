@@ -12,6 +12,7 @@ import si.fri.prpo.calendarservice.entity.SyncStatus;
 import si.fri.prpo.calendarservice.exception.CalendarException;
 import si.fri.prpo.calendarservice.exception.EventNotFoundException;
 import si.fri.prpo.calendarservice.repository.CalendarEventRepository;
+import si.fri.prpo.commons.deadline.DeadlineExceededException;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -61,6 +62,8 @@ public class CalendarEventService {
             event.setLastSyncedAt(LocalDateTime.now());
             event.setGoogleEventLink("https://calendar.google.com/calendar/event?eid=" + googleEventId);
             log.info("Event synced with Google Calendar: {}", googleEventId);
+        } catch (DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             log.warn("Failed to sync with Google Calendar: {}", e.getMessage());
             event.setSyncStatus(SyncStatus.FAILED);
@@ -126,6 +129,8 @@ public class CalendarEventService {
                 googleCalendarService.updateEvent(event);
                 event.setSyncStatus(googleCalendarService.isMockMode() ? SyncStatus.MOCK : SyncStatus.SYNCED);
                 event.setLastSyncedAt(LocalDateTime.now());
+            } catch (DeadlineExceededException e) {
+                throw e;
             } catch (Exception e) {
                 log.warn("Failed to sync update with Google Calendar: {}", e.getMessage());
                 event.setSyncStatus(SyncStatus.FAILED);
@@ -146,6 +151,8 @@ public class CalendarEventService {
         if (event.getGoogleEventId() != null) {
             try {
                 googleCalendarService.deleteEvent(event.getGoogleEventId());
+            } catch (DeadlineExceededException e) {
+                throw e;
             } catch (Exception e) {
                 log.warn("Failed to delete from Google Calendar: {}", e.getMessage());
             }
@@ -168,6 +175,8 @@ public class CalendarEventService {
                 googleCalendarService.deleteEvent(event.getGoogleEventId());
                 event.setSyncStatus(SyncStatus.SYNCED);
                 event.setLastSyncedAt(LocalDateTime.now());
+            } catch (DeadlineExceededException e) {
+                throw e;
             } catch (Exception e) {
                 log.warn("Failed to delete from Google Calendar: {}", e.getMessage());
                 event.setSyncStatus(SyncStatus.FAILED);
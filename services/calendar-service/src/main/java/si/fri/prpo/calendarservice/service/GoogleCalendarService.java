@@ -4,12 +4,16 @@ import com.google.api.client.util.DateTime;
 import com.google.api.services.calendar.Calendar;
 import com.google.api.services.calendar.model.Event;
 import com.google.api.services.calendar.model.EventDateTime;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import si.fri.prpo.calendarservice.entity.CalendarEvent;
 import si.fri.prpo.calendarservice.exception.CalendarException;
+import si.fri.prpo.commons.deadline.RequestDeadline;
 
+import java.io.IOException;
 import java.time.ZoneId;
 import java.util.Date;
 
@@ -24,9 +28,12 @@ public class GoogleCalendarService {
     private String calendarId;
 
     private final Calendar calendarService;
+    private final ObservationRegistry observationRegistry;
 
-    public GoogleCalendarService(@Value("${google.calendar.mock-mode:true}") boolean mockMode) {
+    public GoogleCalendarService(@Value("${google.calendar.mock-mode:true}") boolean mockMode,
+                                 ObservationRegistry observationRegistry) {
         this.mockMode = mockMode;
+        this.observationRegistry = observationRegistry;
         this.calendarService = null; // Will be initialized in real mode
         if (mockMode) {
             log.info("Google Calendar Service initialized in MOCK mode");
@@ -37,15 +44,16 @@ public class GoogleCalendarService {
      * Create event in Google Calendar
      */
     public String createEvent(CalendarEvent calendarEvent) {
+        RequestDeadline.check("creating a Google Calendar event");
         if (mockMode) {
             return createMockEvent(calendarEvent);
         }
 
         try {
             Event event = buildGoogleEvent(calendarEvent);
-            Event createdEvent = calendarService.events()
+            Event createdEvent = googleCall("events.insert", () -> calendarService.events()
                     .insert(calendarId, event)
-                    .execute();
+                    .execute());
 
             log.info("Created Google Calendar event: {}", createdEvent.getId());
             return createdEvent.getId();
@@ -60,6 +68,7 @@ public class GoogleCalendarService {
      * Update event in Google Calendar
      */
     public void updateEvent(CalendarEvent calendarEvent) {
+        RequestDeadline.check("updating a Google Calendar event");
         if (mockMode) {
             updateMockEvent(calendarEvent);
             return;
@@ -67,9 +76,9 @@ public class GoogleCalendarService {
 
         try {
             Event event = buildGoogleEvent(calendarEvent);
-            calendarService.events()
+            googleCall("events.update", () -> calendarService.events()
                     .update(calendarId, calendarEvent.getGoogleEventId(), event)
-                    .execute();
+                    .execute());
 
             log.info("Updated Google Calendar event: {}", calendarEvent.getGoogleEventId());
 
@@ -83,15 +92,16 @@ public class GoogleCalendarService {
      * Delete event from Google Calendar
      */
     public void deleteEvent(String googleEventId) {
+        RequestDeadline.check("deleting a Google Calendar event");
         if (mockMode) {
             deleteMockEvent(googleEventId);
             return;
         }
 
         try {
-            calendarService.events()
+            googleCall("events.delete", () -> calendarService.events()
                     .delete(calendarId, googleEventId)
-                    .execute();
+                    .execute());
 
             log.info("Deleted Google Calendar event: {}", googleEventId);
 
@@ -101,6 +111,16 @@ public class GoogleCalendarService {
         }
     }
 
+    /**
+     * Google Calendar API call as a span in the request trace (calendar.google)
+     */
+    private <T> T googleCall(String operation, Observation.CheckedCallable<T, IOException> call) throws IOException {
+        return Observation.createNotStarted("calendar.google", observationRegistry)
+                .contextualName("google " + operation)
+                .lowCardinalityKeyValue("operation", operation)
+                .observeChecked(call);
+    }
+
     /**
      * Build Google Event from CalendarEvent
      */
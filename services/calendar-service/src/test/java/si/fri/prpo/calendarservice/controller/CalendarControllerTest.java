@@ -11,10 +11,13 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import si.fri.prpo.calendarservice.dto.EventResponse;
 import si.fri.prpo.calendarservice.service.CalendarEventService;
+import si.fri.prpo.commons.deadline.DeadlineExceededException;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -69,4 +72,22 @@ class CalendarControllerTest {
                 .andExpect(jsonPath("$[0].title").value("Team Offsite"))
                 .andExpect(jsonPath("$[1].title").value("Client Workshop"));
     }
+
+    @Test
+    void expiredDeadline_isRejectedWithoutWork() throws Exception {
+        mockMvc.perform(get("/api/calendar/events/{id}", 5L).header("X-Deadline-Remaining-Ms", "0"))
+                .andExpect(status().isGatewayTimeout());
+
+        verify(calendarEventService, never()).getEventById(5L);
+    }
+
+    @Test
+    void deadlinePassedDuringWork_returnsGatewayTimeout() throws Exception {
+        when(calendarEventService.getEventById(6L))
+                .thenThrow(new DeadlineExceededException("Request deadline exceeded before starting a transaction"));
+
+        mockMvc.perform(get("/api/calendar/events/{id}", 6L).header("X-Deadline-Remaining-Ms", "250"))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.error").value("Deadline Exceeded"));
+    }
 }
@@ -0,0 +1,83 @@
+package si.fri.prpo.facilityservice.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.util.UriComponentsBuilder;
+import si.fri.prpo.commons.internal.InternalApiGuard;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+@Slf4j
+@Component
+public class BookingServiceClient {
+
+    private final RestClient restClient;
+    private final URI bookingServiceUri;
+    private final boolean broadcast;
+
+    // Builder iz Spring Boot ima nastavljeno opazovanje, zato klic nosi traceparent
+    public BookingServiceClient(RestClient.Builder restClientBuilder,
+                                @Value("${services.booking.url}") String bookingServiceUrl,
+                                @Value("${services.booking.timeout-ms:1000}") long timeoutMs,
+                                @Value("${services.booking.broadcast:false}") boolean broadcast,
+                                @Value("${internal.api.token:}") String internalApiToken) {
+        this.bookingServiceUri = URI.create(bookingServiceUrl);
+        this.broadcast = broadcast;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(Duration.ofMillis(timeoutMs));
+        requestFactory.setReadTimeout(Duration.ofMillis(timeoutMs));
+        this.restClient = restClientBuilder
+                .requestFactory(requestFactory)
+                // Interne končne točke booking-service zahtevajo skupni žeton
+                .defaultHeader(InternalApiGuard.HEADER, internalApiToken)
+                .build();
+    }
+
+    // Booking-service zavrže predpomnjeno ceno objekta; ob napaki jo osveži sam po preteku intervala.
+    // Cena je v predpomnilniku vsakega poda, zato z broadcast obvestimo vse naslove storitve.
+    public void facilityChanged(Long facilityId) {
+        for (URI target : targets()) {
+            try {
+                restClient.post()
+                        .uri(UriComponentsBuilder.fromUri(target)
+                                .path("/internal/facilities/{id}/changed")
+                                .buildAndExpand(facilityId)
+                                .toUri())
+                        .retrieve()
+                        .toBodilessEntity();
+            } catch (RestClientException e) {
+                log.warn("Could not notify booking-service {} about facility {}: {}",
+                        target.getHost(), facilityId, e.getMessage());
+            }
+        }
+    }
+
+    private List<URI> targets() {
+        if (!broadcast) {
+            return List.of(bookingServiceUri);
+        }
+        try {
+            return Arrays.stream(InetAddress.getAllByName(bookingServiceUri.getHost()))
+                    .map(address -> UriComponentsBuilder.fromUri(bookingServiceUri)
+                            .host(address instanceof Inet6Address
+                                    ? "[" + address.getHostAddress() + "]"
+                                    : address.getHostAddress())
+                            .build(true)
+                            .toUri())
+                    .toList();
+        } catch (UnknownHostException e) {
+            log.warn("Could not resolve booking-service pods {}: {}", bookingServiceUri.getHost(), e.getMessage());
+            return List.of();
+        }
+    }
+}
@@ -16,6 +16,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class FacilityController {
 
+    private static final int MAX_BATCH_IDS = 500;
+
     private final FacilityService facilityService;
 
     // CREATE - Ustvari nov objekt
@@ -35,6 +37,16 @@ public class FacilityController {
         return ResponseEntity.ok(facilities);
     }
 
+    // READ - Pridobi več objektov po ID (GET /api/facilities/batch?ids=1,2,3); neznani id-ji manjkajo
+    @GetMapping("/batch")
+    public ResponseEntity<List<FacilityResponse>> getFacilitiesByIds(@RequestParam List<Long> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<FacilityResponse> facilities = facilityService.getFacilitiesByIds(ids);
+        return ResponseEntity.ok(facilities);
+    }
+
     // READ - Pridobi objekt po ID
     @GetMapping("/{id}")
     public ResponseEntity<FacilityResponse> getFacilityById(@PathVariable Long id) {
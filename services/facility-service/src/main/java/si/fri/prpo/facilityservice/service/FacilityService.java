@@ -1,5 +1,6 @@
 package si.fri.prpo.facilityservice.service;
 
+import si.fri.prpo.facilityservice.client.BookingServiceClient;
 import si.fri.prpo.facilityservice.dto.FacilityRequest;
 import si.fri.prpo.facilityservice.dto.FacilityResponse;
 import si.fri.prpo.facilityservice.entity.Facility;
@@ -7,6 +8,9 @@ import si.fri.prpo.facilityservice.repository.FacilityRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -15,6 +19,7 @@ import java.util.stream.Collectors;
 public class FacilityService {
 
     private final FacilityRepository facilityRepository;
+    private final BookingServiceClient bookingServiceClient;
 
     // Ustvari nov objekt (samo ADMIN ali FACILITY_MANAGER)
     @Transactional
@@ -48,6 +53,14 @@ public class FacilityService {
         return mapToResponse(facility);
     }
 
+    // Pridobi več objektov po ID z eno poizvedbo
+    public List<FacilityResponse> getFacilitiesByIds(Collection<Long> ids) {
+        return facilityRepository.findAllById(ids)
+                .stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
     // Pridobi objekte po tipu
     public List<FacilityResponse> getFacilitiesByType(String type) {
         return facilityRepository.findByType(type)
@@ -92,6 +105,7 @@ public class FacilityService {
         facility.setAvailable(request.getAvailable());
 
         Facility updated = facilityRepository.save(facility);
+        notifyBookingServiceAfterCommit(id);
         return mapToResponse(updated);
     }
 
@@ -107,6 +121,17 @@ public class FacilityService {
         }
 
         facilityRepository.delete(facility);
+        notifyBookingServiceAfterCommit(id);
+    }
+
+    // Booking-service hrani cene objektov v predpomnilniku; obvestilo šele po potrditvi spremembe
+    private void notifyBookingServiceAfterCommit(Long facilityId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bookingServiceClient.facilityChanged(facilityId);
+            }
+        });
     }
 
     // Mapper helper
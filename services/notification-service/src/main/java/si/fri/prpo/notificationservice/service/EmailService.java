@@ -1,11 +1,14 @@
 package si.fri.prpo.notificationservice.service;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import si.fri.prpo.commons.deadline.RequestDeadline;
 import si.fri.prpo.notificationservice.exception.NotificationException;
 
 import jakarta.mail.internet.MimeMessage;
@@ -18,9 +21,11 @@ public class EmailService {
     private final boolean mockMode;
     private final String fromEmail;
     private final String fromName;
+    private final ObservationRegistry observationRegistry;
 
     public EmailService(
             JavaMailSender mailSender,
+            ObservationRegistry observationRegistry,
             @Value("${notification.mock-mode:true}") boolean mockMode,
             @Value("${notification.email.from:noreply@bookingsystem.com}") String fromEmail,
             @Value("${notification.email.from-name:Booking System}") String fromName) {
@@ -28,6 +33,7 @@ public class EmailService {
         this.mockMode = mockMode;
         this.fromEmail = fromEmail;
         this.fromName = fromName;
+        this.observationRegistry = observationRegistry;
 
         if (mockMode) {
             log.info("Email Service initialized in MOCK mode");
@@ -37,6 +43,7 @@ public class EmailService {
     }
 
     public void sendSimpleEmail(String to, String subject, String content) {
+        RequestDeadline.check("sending an e-mail");
         if (mockMode) {
             sendMockEmail(to, subject, content);
             return;
@@ -49,7 +56,7 @@ public class EmailService {
             message.setSubject(subject);
             message.setText(content);
 
-            mailSender.send(message);
+            smtpSend("text", () -> mailSender.send(message));
             log.info("Email sent successfully to: {}", to);
         } catch (Exception e) {
             log.error("Failed to send email to: {}", to, e);
@@ -60,6 +67,7 @@ public class EmailService {
     }
 
     public void sendHtmlEmail(String to, String subject, String htmlContent) {
+        RequestDeadline.check("sending an e-mail");
         if (mockMode) {
             sendMockEmail(to, subject, htmlContent);
             return;
@@ -74,7 +82,7 @@ public class EmailService {
             helper.setSubject(subject);
             helper.setText(htmlContent, true);
 
-            mailSender.send(message);
+            smtpSend("html", () -> mailSender.send(message));
             log.info("HTML email sent successfully to: {}", to);
         } catch (Exception e) {
             log.error("Failed to send HTML email to: {}", to, e);
@@ -84,6 +92,14 @@ public class EmailService {
         }
     }
 
+    // Oddaja SMTP strežniku je span v sledi zahtevka (notification.smtp)
+    private void smtpSend(String format, Runnable send) {
+        Observation.createNotStarted("notification.smtp", observationRegistry)
+                .contextualName("smtp send")
+                .lowCardinalityKeyValue("format", format)
+                .observe(send);
+    }
+
     private void sendMockEmail(String to, String subject, String content) {
         log.info("MOCK: Sending email");
         log.info("  To: {}", to);
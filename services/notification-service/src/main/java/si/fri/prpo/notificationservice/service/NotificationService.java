@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import si.fri.prpo.commons.deadline.DeadlineExceededException;
 import si.fri.prpo.notificationservice.dto.NotificationRequest;
 import si.fri.prpo.notificationservice.dto.NotificationResponse;
 import si.fri.prpo.notificationservice.entity.NotificationChannel;
@@ -59,6 +60,12 @@ public class NotificationService {
             notificationLog.setStatus(emailService.isMockMode() ? NotificationStatus.MOCK : NotificationStatus.SENT);
             notificationLog.setSentAt(LocalDateTime.now());
 
+        } catch (DeadlineExceededException e) {
+            // Klicatelj ne čaka več: ne pošljemo in ne zavijemo v NotificationException (504, ne 500)
+            log.warn("Notification not sent: {}", e.getMessage());
+            notificationLog.setStatus(NotificationStatus.FAILED);
+            notificationLog.setErrorMessage(e.getMessage());
+            throw e;
         } catch (Exception e) {
             log.error("Failed to send notification", e);
             notificationLog.setStatus(NotificationStatus.FAILED);
@@ -5,10 +5,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import si.fri.prpo.commons.deadline.DeadlineExceededException;
 import si.fri.prpo.paymentservice.dto.PaymentRequest;
 import si.fri.prpo.paymentservice.dto.PaymentResponse;
-import si.fri.prpo.paymentservice.entity.Payment;
 import si.fri.prpo.paymentservice.entity.Payment.PaymentStatus;
+import si.fri.prpo.paymentservice.entity.Payment;
 import si.fri.prpo.paymentservice.exception.PaymentException;
 import si.fri.prpo.paymentservice.repository.PaymentRepository;
 
@@ -66,6 +67,8 @@ public class PaymentService {
             log.info("Payment created with ID: {} (Stripe mode)", savedPayment.getId());
             return mapToResponse(savedPayment);
 
+        } catch (DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             // Če Stripe ne deluje, uporabi mock mode
             log.warn("Stripe API failed, using MOCK mode: {}", e.getMessage());
@@ -2,10 +2,15 @@ package si.fri.prpo.paymentservice.service;
 
 import com.stripe.exception.StripeException;
 import com.stripe.model.checkout.Session;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.checkout.SessionCreateParams;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import si.fri.prpo.commons.deadline.DeadlineExceededException;
+import si.fri.prpo.commons.deadline.RequestDeadline;
 import si.fri.prpo.paymentservice.exception.PaymentException;
 
 import java.math.BigDecimal;
@@ -20,10 +25,17 @@ public class StripeService {
     @Value("${stripe.cancel.url}")
     private String cancelUrl;
 
+    private final ObservationRegistry observationRegistry;
+
+    public StripeService(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
     /**
      * Ustvari Stripe Checkout Session
      */
     public Session createCheckoutSession(Long bookingId, BigDecimal amount, String currency, String description) {
+        RequestDeadline.check("creating a Stripe checkout session");
         try {
             log.info("Creating Stripe Checkout Session for booking {} with amount {} {}",
                     bookingId, amount, currency);
@@ -53,11 +65,12 @@ public class StripeService {
                     .putMetadata("bookingId", bookingId.toString())
                     .build();
 
-            Session session = Session.create(params);
+            Session session = stripeCall("checkout.session.create", () -> Session.create(params, requestOptions()));
             log.info("Stripe Checkout Session created: {}", session.getId());
             return session;
 
         } catch (StripeException e) {
+            deadlineExceeded(e);
             log.error("Stripe API error: {}", e.getMessage(), e);
             throw new PaymentException("Failed to create Stripe checkout session: " + e.getMessage());
         }
@@ -67,11 +80,41 @@ public class StripeService {
      * Pridobi Checkout Session po ID-ju
      */
     public Session retrieveCheckoutSession(String sessionId) {
+        RequestDeadline.check("retrieving a Stripe checkout session");
         try {
-            return Session.retrieve(sessionId);
+            return stripeCall("checkout.session.retrieve", () -> Session.retrieve(sessionId, requestOptions()));
         } catch (StripeException e) {
+            deadlineExceeded(e);
             log.error("Failed to retrieve Stripe session {}: {}", sessionId, e.getMessage());
             throw new PaymentException("Failed to retrieve checkout session: " + e.getMessage());
         }
     }
+
+    // Vsak klic Stripe API je span v sledi zahtevka (payment.stripe)
+    private <T> T stripeCall(String operation, Observation.CheckedCallable<T, StripeException> call) throws StripeException {
+        return Observation.createNotStarted("payment.stripe", observationRegistry)
+                .contextualName("stripe " + operation)
+                .lowCardinalityKeyValue("operation", operation)
+                .observeChecked(call);
+    }
+
+    /**
+     * Klic Stripe ne sme trajati dlje od preostanka roka zahtevka (brez roka veljajo privzete
+     * časovne omejitve knjižnice).
+     */
+    private RequestOptions requestOptions() {
+        RequestOptions.RequestOptionsBuilder options = RequestOptions.builder();
+        RequestDeadline.remainingMillis().ifPresent(remaining -> {
+            int timeout = (int) Math.max(1, Math.min(remaining, Integer.MAX_VALUE));
+            options.setConnectTimeout(timeout).setReadTimeout(timeout);
+        });
+        return options.build();
+    }
+
+    // Časovna omejitev zaradi roka ni napaka Stripe: klicatelj dobi 504, ne mock plačila
+    private void deadlineExceeded(StripeException e) {
+        if (RequestDeadline.remainingMillis().orElse(1) <= 0) {
+            throw new DeadlineExceededException("Request deadline exceeded during Stripe call: " + e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,22 @@
+package si.fri.prpo.commons.deadline;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Rok zahtevka iz X-Deadline-Remaining-Ms (DeadlineFilter, RequestDeadline) za storitve, ki jih
+ * kliče booking-service; vklopi ga request.deadline.enabled=true (booking-service ima svoj rok).
+ * Filter velja tudi v @WebMvcTest (AutoConfigureWebMvc.imports).
+ */
+@AutoConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "request.deadline.enabled", havingValue = "true")
+public class DeadlineAutoConfiguration {
+
+    @Bean
+    public DeadlineFilter requestDeadlineFilter() {
+        return new DeadlineFilter();
+    }
+}
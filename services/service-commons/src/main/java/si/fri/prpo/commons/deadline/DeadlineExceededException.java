@@ -0,0 +1,11 @@
+package si.fri.prpo.commons.deadline;
+
+/**
+ * Rok zahtevka (X-Deadline-Remaining-Ms) je potekel; delo se prekine, klicatelj dobi 504.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,51 @@
+package si.fri.prpo.commons.deadline;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Prebere X-Deadline-Remaining-Ms. Zahtevek s poteklim rokom zavrne z 504 brez dela, sicer
+ * nastavi rok za čas obdelave (RequestDeadline).
+ */
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadlineFilter.class);
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(RequestDeadline.HEADER);
+        if (header == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long remainingMillis;
+        try {
+            remainingMillis = Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed {} header: {}", RequestDeadline.HEADER, header);
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (remainingMillis <= 0) {
+            log.warn("Rejecting {} {}: deadline already exceeded", request.getMethod(), request.getRequestURI());
+            response.sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT, "Request deadline exceeded");
+            return;
+        }
+
+        RequestDeadline.start(remainingMillis);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package si.fri.prpo.commons.deadline;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.OptionalLong;
+
+/**
+ * Transakcije zahtevka z rokom trajajo največ do roka: časovna omejitev transakcije se skrajša na
+ * preostanek, Hibernate pa jo uporabi kot query timeout vsakega stavka. Po poteku roka se
+ * transakcija ne začne več. Nadomesti JpaTransactionManager iz HibernateJpaAutoConfiguration.
+ */
+@AutoConfiguration(before = HibernateJpaAutoConfiguration.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnClass({JpaTransactionManager.class, EntityManagerFactory.class})
+@ConditionalOnProperty(name = "request.deadline.enabled", havingValue = "true")
+public class DeadlineTransactionAutoConfiguration {
+
+    @Bean
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                    ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JpaTransactionManager transactionManager = new DeadlineTransactionManager(entityManagerFactory);
+        customizers.ifAvailable(c -> c.customize(transactionManager));
+        return transactionManager;
+    }
+
+    static class DeadlineTransactionManager extends JpaTransactionManager {
+
+        DeadlineTransactionManager(EntityManagerFactory entityManagerFactory) {
+            super(entityManagerFactory);
+        }
+
+        @Override
+        protected int determineTimeout(TransactionDefinition definition) {
+            int configured = super.determineTimeout(definition);
+            OptionalLong remaining = RequestDeadline.remainingMillis();
+            if (remaining.isEmpty()) {
+                return configured;
+            }
+            RequestDeadline.check("starting a transaction");
+            // Sekunde navzgor, da 300 ms ne postane 0 (brez omejitve)
+            int seconds = (int) Math.ceil(remaining.getAsLong() / 1000.0);
+            return configured == TransactionDefinition.TIMEOUT_DEFAULT ? seconds : Math.min(configured, seconds);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package si.fri.prpo.commons.deadline;
+
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rok zahtevka, ki ga booking-service pošlje v glavi X-Deadline-Remaining-Ms. Glava nosi
+ * preostanek v milisekundah in ne absolutnega časa, zato razlike med urami strežnikov ne vplivajo.
+ * DeadlineFilter ga ob prihodu pretvori v lokalni rok trenutne niti.
+ *
+ * Zahtevek brez glave nima roka.
+ */
+public final class RequestDeadline {
+
+    public static final String HEADER = "X-Deadline-Remaining-Ms";
+
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    static void start(long remainingMillis) {
+        DEADLINE_NANOS.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(remainingMillis));
+    }
+
+    static void clear() {
+        DEADLINE_NANOS.remove();
+    }
+
+    public static OptionalLong remainingMillis() {
+        Long deadline = DEADLINE_NANOS.get();
+        if (deadline == null) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    /**
+     * Pred dragim delom (zunanji klic, transakcija): če je rok potekel, ga ne začnemo.
+     */
+    public static void check(String operation) {
+        OptionalLong remaining = remainingMillis();
+        if (remaining.isPresent() && remaining.getAsLong() <= 0) {
+            throw new DeadlineExceededException("Request deadline exceeded before " + operation);
+        }
+    }
+}
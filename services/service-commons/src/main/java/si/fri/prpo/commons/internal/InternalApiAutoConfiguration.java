@@ -0,0 +1,64 @@
+package si.fri.prpo.commons.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.WebFilter;
+
+import java.util.List;
+
+/**
+ * Zaščita internih poti z žetonom (internal.api.token, internal.api.paths). Filter teče pred
+ * Spring Security, zato ga permitAll v storitvi ne obide. Velja le v storitvah, ki interne poti
+ * navedejo v internal.api.paths; klicatelji (npr. facility-service) nastavijo samo žeton.
+ */
+@AutoConfiguration
+@ConditionalOnWebApplication
+@ConditionalOnProperty("internal.api.paths")
+public class InternalApiAutoConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(InternalApiAutoConfiguration.class);
+
+    static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 10;
+
+    @Bean
+    public InternalApiGuard internalApiGuard(@Value("${internal.api.token:}") String token,
+                                             @Value("${internal.api.paths}") List<String> paths) {
+        InternalApiGuard guard = new InternalApiGuard(token, paths);
+        if (!guard.isConfigured()) {
+            log.warn("internal.api.token is not set, internal endpoints {} reject every request", paths);
+        }
+        return guard;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class Servlet {
+
+        @Bean
+        public FilterRegistrationBean<InternalApiFilter> internalApiFilter(InternalApiGuard guard) {
+            FilterRegistrationBean<InternalApiFilter> registration = new FilterRegistrationBean<>(new InternalApiFilter(guard));
+            registration.setOrder(ORDER);
+            return registration;
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    @ConditionalOnClass(WebFilter.class)
+    static class Reactive {
+
+        @Bean
+        public ReactiveInternalApiFilter reactiveInternalApiFilter(InternalApiGuard guard) {
+            return new ReactiveInternalApiFilter(guard);
+        }
+    }
+}
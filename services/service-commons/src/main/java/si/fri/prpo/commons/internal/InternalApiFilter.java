@@ -0,0 +1,42 @@
+package si.fri.prpo.commons.internal;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Zavrne zahtevke na interne poti brez veljavnega žetona s 403, preden pridejo do kontrolerja.
+ */
+public class InternalApiFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(InternalApiFilter.class);
+
+    private final InternalApiGuard guard;
+
+    public InternalApiFilter(InternalApiGuard guard) {
+        this.guard = guard;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !guard.protects(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!guard.accepts(request.getHeader(InternalApiGuard.HEADER))) {
+            log.warn("Rejecting {} {}: missing or invalid internal token", request.getMethod(), request.getRequestURI());
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "Internal endpoint");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
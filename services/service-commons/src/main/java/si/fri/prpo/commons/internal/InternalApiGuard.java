@@ -0,0 +1,46 @@
+package si.fri.prpo.commons.internal;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Skupni žeton za klice med storitvami. Poti internih končnih točk (npr. /internal/**) sprejmejo le
+ * zahtevke, ki v glavi X-Internal-Token nosijo žeton iz internal.api.token. Brez nastavljenega
+ * žetona so interne poti zaprte.
+ */
+public final class InternalApiGuard {
+
+    public static final String HEADER = "X-Internal-Token";
+
+    private final byte[] token;
+    private final List<PathPattern> paths;
+
+    public InternalApiGuard(String token, List<String> paths) {
+        this.token = token == null ? new byte[0] : token.getBytes(StandardCharsets.UTF_8);
+        this.paths = paths.stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+    }
+
+    public boolean protects(String path) {
+        PathContainer container = PathContainer.parsePath(path);
+        return paths.stream().anyMatch(pattern -> pattern.matches(container));
+    }
+
+    // Primerjava v konstantnem času, da odziv ne razkrije ujemajoče predpone
+    public boolean accepts(String presented) {
+        if (token.length == 0 || presented == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(token, presented.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isConfigured() {
+        return token.length > 0;
+    }
+}
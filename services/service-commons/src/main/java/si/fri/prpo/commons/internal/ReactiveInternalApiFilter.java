@@ -0,0 +1,41 @@
+package si.fri.prpo.commons.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux različica {@link InternalApiFilter}.
+ */
+public class ReactiveInternalApiFilter implements WebFilter, Ordered {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveInternalApiFilter.class);
+
+    private final InternalApiGuard guard;
+
+    public ReactiveInternalApiFilter(InternalApiGuard guard) {
+        this.guard = guard;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        if (guard.protects(path)
+                && !guard.accepts(exchange.getRequest().getHeaders().getFirst(InternalApiGuard.HEADER))) {
+            log.warn("Rejecting {} {}: missing or invalid internal token", exchange.getRequest().getMethod(), path);
+            exchange.getResponse().setStatusCode(HttpStatus.FORBIDDEN);
+            return exchange.getResponse().setComplete();
+        }
+        return chain.filter(exchange);
+    }
+
+    @Override
+    public int getOrder() {
+        return InternalApiAutoConfiguration.ORDER;
+    }
+}
@@ -0,0 +1,81 @@
+package si.fri.prpo.commons.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.nio.file.Path;
+
+/**
+ * Sledenje (Micrometer Tracing + OpenTelemetry, W3C traceparent): dohodne zahtevke in klice
+ * drugih storitev opazuje Spring Boot, tu sta še izvoznik v lokalno datoteko (tracing.export.*) in
+ * span za vsak klic repozitorija (tracing.repository.observation-name, npr. booking.repository).
+ */
+@AutoConfiguration
+@ConditionalOnClass({SpanExporter.class, ObservationRegistry.class})
+public class TracingAutoConfiguration {
+
+    private static final boolean REACTIVE_STREAMS_PRESENT =
+            ClassUtils.isPresent("org.reactivestreams.Publisher", TracingAutoConfiguration.class.getClassLoader());
+
+    @Bean
+    public SpanExporter fileSpanExporter(@Value("${tracing.export.file:traces/${spring.application.name:service}.jsonl}") String file,
+                                         @Value("${tracing.export.max-size-mb:50}") long maxSizeMb) {
+        return new FileSpanExporter(Path.of(file), maxSizeMb * 1024 * 1024);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(RepositoryFactoryBeanSupport.class)
+    static class Repositories {
+
+        @Bean
+        public static BeanPostProcessor repositoryObservationPostProcessor(
+                ObjectProvider<ObservationRegistry> observationRegistryProvider,
+                @Value("${tracing.repository.observation-name:repository}") String observationName) {
+            // Registry se razreši ob prvem klicu; BeanPostProcessor nastane pred ostalimi beani
+            SingletonSupplier<ObservationRegistry> observationRegistry =
+                    SingletonSupplier.of(() -> observationRegistryProvider.getIfAvailable(() -> ObservationRegistry.NOOP));
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                    if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                        factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                                (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(observeRepository(
+                                        observationRegistry, observationName,
+                                        repositoryInformation.getRepositoryInterface().getSimpleName()))));
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        private static MethodInterceptor observeRepository(SingletonSupplier<ObservationRegistry> observationRegistry,
+                                                           String observationName, String repository) {
+            return invocation -> {
+                String method = invocation.getMethod().getName();
+                // Reaktivni repozitoriji vrnejo Publisher, ki teče kasneje; span bi meril le sestavljanje
+                if (REACTIVE_STREAMS_PRESENT
+                        && Publisher.class.isAssignableFrom(invocation.getMethod().getReturnType())) {
+                    return invocation.proceed();
+                }
+                return Observation.createNotStarted(observationName, observationRegistry.obtain())
+                        .contextualName(repository + "." + method)
+                        .lowCardinalityKeyValue("repository", repository)
+                        .lowCardinalityKeyValue("method", method)
+                        .observeChecked(invocation::proceed);
+            };
+        }
+    }
+}
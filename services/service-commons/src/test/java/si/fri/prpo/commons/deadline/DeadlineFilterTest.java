@@ -0,0 +1,80 @@
+package si.fri.prpo.commons.deadline;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeadlineFilterTest {
+
+    private final DeadlineFilter filter = new DeadlineFilter();
+
+    @Test
+    void expiredDeadlineIsRejectedWithoutWork() throws Exception {
+        AtomicReference<OptionalLong> seen = new AtomicReference<>();
+        MockHttpServletResponse response = filter("0", seen);
+
+        assertThat(response.getStatus()).isEqualTo(504);
+        assertThat(seen.get()).isNull();
+    }
+
+    @Test
+    void remainingTimeHoldsOnlyDuringTheRequest() throws Exception {
+        AtomicReference<OptionalLong> seen = new AtomicReference<>();
+        MockHttpServletResponse response = filter("5000", seen);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(seen.get().orElseThrow()).isBetween(1L, 5000L);
+        assertThat(RequestDeadline.remainingMillis()).isEmpty();
+    }
+
+    @Test
+    void missingOrMalformedHeaderMeansNoDeadline() throws Exception {
+        AtomicReference<OptionalLong> seen = new AtomicReference<>();
+
+        assertThat(filter(null, seen).getStatus()).isEqualTo(200);
+        assertThat(seen.get()).isEmpty();
+        assertThat(filter("soon", seen).getStatus()).isEqualTo(200);
+        assertThat(seen.get()).isEmpty();
+    }
+
+    @Test
+    void checkFailsOncePassed() {
+        RequestDeadline.start(-1);
+        try {
+            assertThatThrownBy(() -> RequestDeadline.check("starting a transaction"))
+                    .isInstanceOf(DeadlineExceededException.class)
+                    .hasMessageContaining("starting a transaction");
+        } finally {
+            RequestDeadline.clear();
+        }
+        RequestDeadline.check("no deadline");
+    }
+
+    @Test
+    void filterIsRegisteredOnlyWhenEnabled() {
+        WebApplicationContextRunner runner = new WebApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(DeadlineAutoConfiguration.class));
+
+        runner.run(context -> assertThat(context).doesNotHaveBean(DeadlineFilter.class));
+        runner.withPropertyValues("request.deadline.enabled=true")
+                .run(context -> assertThat(context).hasSingleBean(DeadlineFilter.class));
+    }
+
+    private MockHttpServletResponse filter(String header, AtomicReference<OptionalLong> seen) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/calendar/events/1");
+        if (header != null) {
+            request.addHeader(RequestDeadline.HEADER, header);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> seen.set(RequestDeadline.remainingMillis()));
+        return response;
+    }
+}
@@ -0,0 +1,82 @@
+package si.fri.prpo.commons.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InternalApiFilterTest {
+
+    private final InternalApiGuard guard = new InternalApiGuard("s3cret", List.of("/internal/**"));
+
+    @Test
+    void servletFilterRejectsInternalPathWithoutToken() throws Exception {
+        assertThat(servletStatus("/internal/users", null)).isEqualTo(403);
+        assertThat(servletStatus("/internal/users", "wrong")).isEqualTo(403);
+        assertThat(servletStatus("/internal/users", "s3cret")).isEqualTo(200);
+        assertThat(servletStatus("/api/auth/login", null)).isEqualTo(200);
+    }
+
+    @Test
+    void reactiveFilterRejectsInternalPathWithoutToken() {
+        assertThat(reactiveStatus("/internal/users", null)).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(reactiveStatus("/internal/users", "s3cret")).isNull();
+        assertThat(reactiveStatus("/api/auth/login", null)).isNull();
+    }
+
+    @Test
+    void unsetTokenClosesInternalPaths() {
+        InternalApiGuard unset = new InternalApiGuard("", List.of("/internal/**"));
+
+        assertThat(unset.accepts("")).isFalse();
+        assertThat(unset.accepts(null)).isFalse();
+        assertThat(unset.protects("/internal/users")).isTrue();
+    }
+
+    @Test
+    void filterIsInstalledOnlyWhereInternalPathsAreConfigured() {
+        WebApplicationContextRunner runner = new WebApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(InternalApiAutoConfiguration.class));
+
+        runner.withPropertyValues("internal.api.token=s3cret")
+                .run(context -> assertThat(context).doesNotHaveBean(InternalApiGuard.class));
+        runner.withPropertyValues("internal.api.token=s3cret", "internal.api.paths=/internal/**")
+                .run(context -> assertThat(context).hasSingleBean(InternalApiGuard.class)
+                        .hasBean("internalApiFilter"));
+    }
+
+    private int servletStatus(String path, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (token != null) {
+            request.addHeader(InternalApiGuard.HEADER, token);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new InternalApiFilter(guard).doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    private HttpStatus reactiveStatus(String path, String token) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path);
+        if (token != null) {
+            request.header(InternalApiGuard.HEADER, token);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        AtomicBoolean passed = new AtomicBoolean();
+        new ReactiveInternalApiFilter(guard)
+                .filter(exchange, ignored -> Mono.fromRunnable(() -> passed.set(true)))
+                .block();
+        assertThat(passed.get()).isEqualTo(exchange.getResponse().getStatusCode() == null);
+        return (HttpStatus) exchange.getResponse().getStatusCode();
+    }
+}
@@ -0,0 +1,73 @@
+package si.fri.prpo.commons.tracing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileSpanExporterTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writesOneJsonLinePerSpanWithParent() throws Exception {
+        Path file = dir.resolve("traces/test-service.jsonl");
+        try (SdkTracerProvider provider = provider(file, 1024 * 1024)) {
+            Tracer tracer = provider.get("test");
+            Span parent = tracer.spanBuilder("request").startSpan();
+            try (Scope scope = parent.makeCurrent()) {
+                tracer.spanBuilder("booking.repository").setAttribute("method", "count").startSpan().end();
+            } finally {
+                parent.end();
+            }
+        }
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(2);
+        JsonNode child = MAPPER.readTree(lines.get(0));
+        JsonNode root = MAPPER.readTree(lines.get(1));
+        assertThat(child.get("name").asText()).isEqualTo("booking.repository");
+        assertThat(child.get("parentSpanId").asText()).isEqualTo(root.get("spanId").asText());
+        assertThat(child.get("traceId").asText()).isEqualTo(root.get("traceId").asText());
+        assertThat(child.get("service").asText()).isEqualTo("test-service");
+        assertThat(child.get("attributes").get("method").asText()).isEqualTo("count");
+        assertThat(root.has("parentSpanId")).isFalse();
+    }
+
+    @Test
+    void rotatesFileOverMaxSize() throws Exception {
+        Path file = dir.resolve("test-service.jsonl");
+        try (SdkTracerProvider provider = provider(file, 1)) {
+            Tracer tracer = provider.get("test");
+            tracer.spanBuilder("first").startSpan().end();
+            tracer.spanBuilder("second").startSpan().end();
+        }
+
+        assertThat(file).doesNotExist();
+        assertThat(Files.readAllLines(dir.resolve("test-service.jsonl.1")))
+                .singleElement().satisfies(line -> assertThat(line).contains("\"second\""));
+    }
+
+    private static SdkTracerProvider provider(Path file, long maxBytes) {
+        return SdkTracerProvider.builder()
+                .setResource(Resource.create(Attributes.builder().put("service.name", "test-service").build()))
+                .addSpanProcessor(SimpleSpanProcessor.create(new FileSpanExporter(file, maxBytes)))
+                .build();
+    }
+}